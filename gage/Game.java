@@ -69,6 +69,41 @@ public abstract class Game extends Fragment {
             mLoop.targetStepPeriod = 1000000000 / targetFramesPerSecond;
     }
 
+    /**
+     * Number of fixed update steps per second, or zero if each update step
+     * covers the time elapsed since the last frame
+     */
+    private int mFixedUpdatesPerSecond = 0;
+
+    /**
+     * Get the number of fixed update steps per second
+     *
+     * @return Fixed updates per second, or zero if fixed updates are not used
+     */
+    public int getFixedUpdatesPerSecond() {
+        return mFixedUpdatesPerSecond;
+    }
+
+    /**
+     * Set the number of fixed update steps per second. If set, every update
+     * is given the same step time, with as many updates run each frame as
+     * are needed to keep up with real time (up to a maximum per frame).
+     * Draws are given an interpolation value through ElapsedTime to smooth
+     * movement between updates. Set to zero to update once per frame using
+     * the time elapsed since the last frame.
+     *
+     * @param fixedUpdatesPerSecond Fixed updates per second, or zero
+     */
+    public void setFixedUpdatesPerSecond(int fixedUpdatesPerSecond) {
+        mFixedUpdatesPerSecond = fixedUpdatesPerSecond;
+
+        // Update the fixed update period in the game thread (which is
+        // stored in ns)
+        if (mLoop != null)
+            mLoop.fixedStepPeriod = fixedUpdatesPerSecond > 0
+                    ? 1000000000 / fixedUpdatesPerSecond : 0;
+    }
+
     /**
      * Average number of frames per second that is being achieved
      */
@@ -83,6 +118,67 @@ public abstract class Game extends Fragment {
         return mAverageFramesPerSecond;
     }
 
+    /**
+     * Average time (in ms) taken by the update step (or steps, if more than
+     * one fixed update is run) each frame
+     */
+    private float mAverageUpdateTime;
+
+    /**
+     * Get the average time taken by the update step
+     *
+     * @return Average update time in ms
+     */
+    public float getAverageUpdateTime() {
+        return mAverageUpdateTime;
+    }
+
+    /**
+     * Average time (in ms) taken by the update and draw steps, excluding any
+     * time the game loop spends sleeping
+     */
+    private float mAverageFrameTime;
+
+    /**
+     * Get the average time taken by the update and draw steps
+     *
+     * @return Average frame time in ms
+     */
+    public float getAverageFrameTime() {
+        return mAverageFrameTime;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties: Pipelined Rendering
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Flag determining if update and draw are pipelined. If pipelined, the
+     * game loop records each frame as a snapshot after the update and
+     * continues without waiting for the GUI thread to draw it, so the update
+     * of the next frame overlaps the draw of the last. Screens are then drawn
+     * (recorded) on the game loop thread rather than the GUI thread.
+     */
+    private volatile boolean mPipelinedRendering = false;
+
+    /**
+     * Return if update and draw are pipelined
+     *
+     * @return True if update and draw are pipelined
+     */
+    public boolean isPipelinedRendering() {
+        return mPipelinedRendering;
+    }
+
+    /**
+     * Set if update and draw should be pipelined
+     *
+     * @param pipelinedRendering True if update and draw should be pipelined
+     */
+    public void setPipelinedRendering(boolean pipelinedRendering) {
+        mPipelinedRendering = pipelinedRendering;
+    }
+
     // /////////////////////////////////////////////////////////////////////////
     // Properties: Managers and Services
     // /////////////////////////////////////////////////////////////////////////
@@ -158,6 +254,15 @@ public abstract class Game extends Fragment {
      */
     protected IRenderSurface mRenderSurface;
 
+    /**
+     * Get the game's render surface
+     *
+     * @return Render surface
+     */
+    public IRenderSurface getRenderSurface() {
+        return mRenderSurface;
+    }
+
 
     // /////////////////////////////////////////////////////////////////////////
     // Properties: Game Loop
@@ -396,6 +501,18 @@ public abstract class Game extends Fragment {
             mRenderSurface.render(elapsedTime, gameScreen);
     }
 
+    /**
+     * Record the draw step as a snapshot, to be drawn by the render surface
+     * without the game loop waiting for the draw to complete
+     *
+     * @param elapsedTime Elapsed time information for the current frame
+     */
+    private void doDrawSnapshot(ElapsedTime elapsedTime) {
+        GameScreen gameScreen = mScreenManager.getCurrentScreen();
+        if (gameScreen != null)
+            mRenderSurface.renderSnapshot(elapsedTime, gameScreen);
+    }
+
     /**
      * Notify the game loop that the draw has completed. This method is in
      * invoked automatically by the render surface when the draw has completed.
@@ -464,6 +581,27 @@ public abstract class Game extends Fragment {
          */
         double maximumStepPeriodScale = 3.0f;
 
+        /**
+         * Duration (in ns) of each fixed update step, or zero if fixed
+         * updates are not used. Changes to the Game's mFixedUpdatesPerSecond
+         * will change this value.
+         */
+        volatile long fixedStepPeriod;
+
+        /**
+         * Maximum number of fixed updates run in one frame when catching up.
+         * Any further time owed is dropped, slowing the game down rather than
+         * leaving it unable to recover from a long frame.
+         */
+        int maximumUpdatesPerFrame = 5;
+
+        /**
+         * Time (in s) owed to fixed updates, and the game time reached by the
+         * fixed updates
+         */
+        double fixedStepAccumulator;
+        double fixedStepTotalTime;
+
         // ////////////////////////////////////////////////////////////////////
         // Constructor
         // ////////////////////////////////////////////////////////////////////
@@ -475,6 +613,8 @@ public abstract class Game extends Fragment {
         GameLoop() {
             // Setup the target step period
             targetStepPeriod = 1000000000 / mTargetFramesPerSecond;
+            fixedStepPeriod = mFixedUpdatesPerSecond > 0
+                    ? 1000000000 / mFixedUpdatesPerSecond : 0;
             // Create a new time structure
             elapsedTime = new ElapsedTime();
             // Create update and draw locks
@@ -536,6 +676,8 @@ public abstract class Game extends Fragment {
                 startRun = System.nanoTime() - targetStepPeriod;
                 startStep = startRun;
                 overSleepTime = 0L;
+                fixedStepAccumulator = 0.0;
+                fixedStepTotalTime = 0.0;
 
                 try {
                     while (running) {
@@ -551,34 +693,55 @@ public abstract class Game extends Fragment {
                         mAverageFramesPerSecond = 0.85f * mAverageFramesPerSecond
                                 + 0.15f * (1.0f / (float) elapsedTime.stepTime);
 
-                        // If needed ensure the reported step time is not abnormally large
-                        if (elapsedTime.stepTime > (targetStepPeriod / 1000000000.0) * maximumStepPeriodScale)
-                            elapsedTime.stepTime =
-                                    (targetStepPeriod / 1000000000.0) * maximumStepPeriodScale;
-
-                        // Trigger an update
-                        synchronized (update) {
-                            update.isLocked = true;
-                        }
-                        doUpdate(elapsedTime);
-                        // Wait for the update to complete before progressing
-                        synchronized (update) {
-                            if (update.isLocked) {
-                                update.wait();
+                        long fixedPeriod = fixedStepPeriod;
+                        if (fixedPeriod > 0) {
+                            // Run as many fixed updates as are owed, up to the
+                            // maximum, and interpolate draws by the remainder
+                            double fixedStep = fixedPeriod / 1000000000.0;
+                            fixedStepAccumulator += elapsedTime.stepTime;
+                            int numUpdates = 0;
+                            while (fixedStepAccumulator >= fixedStep
+                                    && numUpdates < maximumUpdatesPerFrame) {
+                                fixedStepTotalTime += fixedStep;
+                                elapsedTime.stepTime = fixedStep;
+                                elapsedTime.totalTime = fixedStepTotalTime;
+                                runUpdate();
+                                fixedStepAccumulator -= fixedStep;
+                                numUpdates++;
                             }
-                        }
+                            if (fixedStepAccumulator >= fixedStep)
+                                fixedStepAccumulator %= fixedStep;
+                            elapsedTime.stepTime = fixedStep;
+                            elapsedTime.interpolation = fixedStepAccumulator / fixedStep;
+                        } else {
+                            // If needed ensure the reported step time is not abnormally large
+                            if (elapsedTime.stepTime > (targetStepPeriod / 1000000000.0) * maximumStepPeriodScale)
+                                elapsedTime.stepTime =
+                                        (targetStepPeriod / 1000000000.0) * maximumStepPeriodScale;
 
-                        // Trigger a draw request
-                        synchronized (draw) {
-                            draw.isLocked = true;
+                            elapsedTime.interpolation = 1.0;
+                            runUpdate();
                         }
-                        doDraw(elapsedTime);
-                        // Wait for the draw to complete before progressing
-                        // If a plan-update-draw approach was employed the
-                        // wait for the draw would be tested post plan completion.
-                        synchronized (draw) {
-                            if (draw.isLocked) {
-                                draw.wait();
+                        mAverageUpdateTime = 0.85f * mAverageUpdateTime
+                                + 0.15f * (System.nanoTime() - currentTime) / 1000000.0f;
+
+                        if (mPipelinedRendering) {
+                            // Record the frame and move straight on to the
+                            // next update whilst the GUI thread draws it
+                            doDrawSnapshot(elapsedTime);
+                        } else {
+                            // Trigger a draw request
+                            synchronized (draw) {
+                                draw.isLocked = true;
+                            }
+                            doDraw(elapsedTime);
+                            // Wait for the draw to complete before progressing
+                            // If a plan-update-draw approach was employed the
+                            // wait for the draw would be tested post plan completion.
+                            synchronized (draw) {
+                                if (draw.isLocked) {
+                                    draw.wait();
+                                }
                             }
                         }
 
@@ -587,6 +750,8 @@ public abstract class Game extends Fragment {
                         // be a negative number (we've exceeded the 'available'
                         // time).
                         endStep = System.nanoTime();
+                        mAverageFrameTime = 0.85f * mAverageFrameTime
+                                + 0.15f * (endStep - currentTime) / 1000000.0f;
                         sleepTime = (targetStepPeriod - (endStep - startStep))
                                 - overSleepTime;
 
@@ -615,6 +780,25 @@ public abstract class Game extends Fragment {
             }
         }
 
+        /**
+         * Trigger an update and wait for it to complete
+         *
+         * @throws InterruptedException If interrupted whilst waiting
+         */
+        private void runUpdate() throws InterruptedException {
+            // Trigger an update
+            synchronized (update) {
+                update.isLocked = true;
+            }
+            doUpdate(elapsedTime);
+            // Wait for the update to complete before progressing
+            synchronized (update) {
+                if (update.isLocked) {
+                    update.wait();
+                }
+            }
+        }
+
         /**
          * Notify the game loop that the draw has completed. This method will be
          * called by the game when it is notified that the draw has completed.
@@ -0,0 +1,156 @@
+package uk.ac.qub.eeecs.gage.engine;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group of assets loaded in the background from one asset manifest.
+ * Tracks how many of the group's assets have finished loading so
+ * progress can be shown, and notifies a listener once all have.
+ *
+ * @version 1.0
+ */
+public class AssetGroup {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Listener notified when every asset in a group has finished loading
+     */
+    public interface Listener {
+        /**
+         * Called once all assets in the group have finished loading. Called
+         * on the thread which finished the last asset, which may be a
+         * loading thread.
+         *
+         * @param group Group which has finished loading
+         */
+        void onGroupLoaded(AssetGroup group);
+    }
+
+    /**
+     * Name of the group (the manifest it was loaded from)
+     */
+    private final String mName;
+
+    /**
+     * Number of assets in the group
+     */
+    private final int mTotal;
+
+    /**
+     * Number of assets which have finished loading, successfully or not
+     */
+    private final AtomicInteger mFinished = new AtomicInteger();
+
+    /**
+     * Number of assets which failed to load
+     */
+    private final AtomicInteger mFailed = new AtomicInteger();
+
+    /**
+     * Released once every asset has finished loading
+     */
+    private final CountDownLatch mLoaded;
+
+    /**
+     * Listener to notify on completion (or null)
+     */
+    private Listener mListener;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create a new asset group
+     *
+     * @param name  Name of the group
+     * @param total Number of assets in the group
+     */
+    public AssetGroup(String name, int total) {
+        mName = name;
+        mTotal = total;
+        mLoaded = new CountDownLatch(total);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Record that one of the group's assets has finished loading
+     *
+     * @param succeeded True if the asset was loaded, false if it failed
+     */
+    void assetFinished(boolean succeeded) {
+        if (!succeeded)
+            mFailed.incrementAndGet();
+        mLoaded.countDown();
+        if (mFinished.incrementAndGet() == mTotal)
+            notifyListener();
+    }
+
+    /**
+     * Set the listener to notify once the group has loaded. If the group
+     * has already loaded the listener is notified straight away.
+     *
+     * @param listener Listener to notify
+     */
+    public void setListener(Listener listener) {
+        synchronized (this) {
+            mListener = listener;
+        }
+        if (isDone())
+            notifyListener();
+    }
+
+    /**
+     * Block until every asset in the group has finished loading
+     *
+     * @throws InterruptedException if interrupted whilst waiting
+     */
+    public void await() throws InterruptedException {
+        mLoaded.await();
+    }
+
+    /**
+     * Get the fraction of the group's assets which have finished loading
+     *
+     * @return Progress from 0 (none loaded) to 1 (all loaded)
+     */
+    public float getProgress() {
+        return mTotal == 0 ? 1.0f : mFinished.get() / (float) mTotal;
+    }
+
+    public boolean isDone() {
+        return mFinished.get() >= mTotal;
+    }
+
+    public int getFailedCount() {
+        return mFailed.get();
+    }
+
+    public int getTotal() {
+        return mTotal;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Notify the listener (at most once)
+     */
+    private void notifyListener() {
+        Listener listener;
+        synchronized (this) {
+            listener = mListener;
+            mListener = null;
+        }
+        if (listener != null)
+            listener.onGroupLoaded(this);
+    }
+}
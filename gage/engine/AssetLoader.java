@@ -0,0 +1,124 @@
+package uk.ac.qub.eeecs.gage.engine;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Pool of worker threads which load assets in the background. At most
+ * QUEUE_CAPACITY loads are handed to the workers at a time, and at most
+ * BACKLOG_CAPACITY more wait in a backlog to be handed over as earlier
+ * loads finish. A load added whilst the backlog is full is run straight
+ * away on the calling thread, so the number of loads held is bounded and
+ * a caller adding loads faster than the workers finish them is slowed to
+ * their pace. Otherwise adding a load never blocks the caller.
+ *
+ * A waiting load can also be run straight away by any thread which needs
+ * it (see AssetManager), in which case the worker skips it.
+ *
+ * @version 1.0
+ */
+public final class AssetLoader {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Number of worker threads
+     */
+    public static final int WORKER_COUNT = 2;
+
+    /**
+     * Maximum number of loads handed to the workers at once
+     */
+    public static final int QUEUE_CAPACITY = 16;
+
+    /**
+     * Maximum number of loads waiting to be handed to the workers
+     */
+    public static final int BACKLOG_CAPACITY = 64;
+
+    /**
+     * Worker pool, shared by all asset managers
+     */
+    private static ExecutorService sWorkers;
+
+    /**
+     * Loads waiting to be handed to the workers
+     */
+    private static final ArrayBlockingQueue<Runnable> sBacklog = new ArrayBlockingQueue<>(BACKLOG_CAPACITY);
+
+    /**
+     * Free places in the workers' queue
+     */
+    private static final Semaphore sQueueSpace = new Semaphore(QUEUE_CAPACITY);
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    private AssetLoader() {
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Add a load to be run by the workers, or run it on the calling thread
+     * if the backlog is full
+     *
+     * @param load Load to run
+     */
+    public static void submit(Runnable load) {
+        if (!sBacklog.offer(load)) {
+            load.run();
+            return;
+        }
+        handOver();
+    }
+
+    /**
+     * Hand loads from the backlog to the workers whilst there is space
+     */
+    private static void handOver() {
+        while (sQueueSpace.tryAcquire()) {
+            final Runnable load = sBacklog.poll();
+            if (load == null) {
+                sQueueSpace.release();
+                // A load may have been added after the poll but before the release
+                if (sBacklog.isEmpty())
+                    return;
+                continue;
+            }
+            getWorkers().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        load.run();
+                    } finally {
+                        sQueueSpace.release();
+                        handOver();
+                    }
+                }
+            });
+        }
+    }
+
+    private static synchronized ExecutorService getWorkers() {
+        if (sWorkers == null) {
+            sWorkers = Executors.newFixedThreadPool(WORKER_COUNT, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "AssetLoader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sWorkers;
+    }
+}
@@ -1,6 +1,7 @@
 package uk.ac.qub.eeecs.gage.engine;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.graphics.Typeface;
 
 import org.json.JSONArray;
@@ -9,16 +10,36 @@ import org.json.JSONObject;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import uk.ac.qub.eeecs.gage.Game;
 import uk.ac.qub.eeecs.gage.engine.animation.AnimationSettings;
 import uk.ac.qub.eeecs.gage.engine.audio.Music;
 import uk.ac.qub.eeecs.gage.engine.audio.Sound;
+import uk.ac.qub.eeecs.gage.engine.graphics.AtlasRegion;
+import uk.ac.qub.eeecs.gage.engine.graphics.TextureAtlas;
 import uk.ac.qub.eeecs.gage.engine.io.FileIO;
 
 /**
  * Asset manager for holding loaded assets.
  *
+ * Bitmaps, fonts, animations and atlases can also be loaded in the background
+ * (see loadAssetsAsync). Requesting one of these assets before it has
+ * loaded waits for (or runs) the load of that asset alone.
+ *
+ * Bitmaps packed into a texture atlas (see AtlasPacker) are held as
+ * regions of the atlas sheets. getRegion returns the region of a bitmap
+ * so it can be drawn straight from its sheet.
+ *
+ * Bitmaps are held in a BitmapCache, which drops the least recently used
+ * bitmaps once they use more than its memory budget.
+ *
+ * Bitmaps with a declared draw size (see loadBitmapSizes) are subsampled
+ * when decoded, so they are held no larger than they are drawn.
+ *
  * @version 1.0
  */
 public class AssetManager {
@@ -31,13 +52,13 @@ public class AssetManager {
      * Asset types
      */
     public enum AssetType {
-        Bitmap, Music, Sound, Font, Animation
+        Bitmap, Music, Sound, Font, Animation, Atlas
     }
 
     /**
      * Bitmap asset store
      */
-    private HashMap<String, Bitmap> mBitmaps;
+    private BitmapCache mBitmaps;
 
     /**
      * Music asset store
@@ -52,12 +73,42 @@ public class AssetManager {
     /**
      * Font asset store
      */
-    private HashMap<String, Typeface> mFonts;
+    private ConcurrentHashMap<String, Typeface> mFonts;
 
     /**
      * Animated settings store
      */
-    private HashMap<String, AnimationSettings> mAnimations;
+    private ConcurrentHashMap<String, AnimationSettings> mAnimations;
+
+    /**
+     * Texture atlas store
+     */
+    private ConcurrentHashMap<String, TextureAtlas> mAtlases;
+
+    /**
+     * Regions of the images held in the texture atlases
+     */
+    private ConcurrentHashMap<String, AtlasRegion> mRegions;
+
+    /**
+     * Background loads which have not yet finished, for each asset type
+     * loaded in the background
+     */
+    private ConcurrentHashMap<String, FutureTask<Boolean>> mPendingBitmaps;
+    private ConcurrentHashMap<String, FutureTask<Boolean>> mPendingFonts;
+    private ConcurrentHashMap<String, FutureTask<Boolean>> mPendingAnimations;
+    private ConcurrentHashMap<String, FutureTask<Boolean>> mPendingAtlases;
+
+    /**
+     * Background atlas loads, by the name of each image in the atlas
+     */
+    private ConcurrentHashMap<String, FutureTask<Boolean>> mPendingRegions;
+
+    /**
+     * Size each bitmap is drawn at, by bitmap name (bitmaps without a size
+     * are decoded at full size)
+     */
+    private ConcurrentHashMap<String, int[]> mBitmapSizes;
 
     /**
      * File IO
@@ -84,11 +135,30 @@ public class AssetManager {
         mFileIO = mGame.getFileIO();
 
         // Build hash maps for each asset
-        mBitmaps = new HashMap<>();
+        mBitmaps = new BitmapCache(new BitmapCache.Loader() {
+            @Override
+            public Bitmap load(String name, String file) throws IOException {
+                return decodeBitmap(name, file);
+            }
+
+            @Override
+            public void reuse(Bitmap bitmap) {
+                mFileIO.addReusableBitmap(bitmap);
+            }
+        });
+        mBitmapSizes = new ConcurrentHashMap<>();
         mMusic = new HashMap<>();
         mSounds = new HashMap<>();
-        mFonts = new HashMap<>();
-        mAnimations = new HashMap<>();
+        mFonts = new ConcurrentHashMap<>();
+        mAnimations = new ConcurrentHashMap<>();
+        mAtlases = new ConcurrentHashMap<>();
+        mRegions = new ConcurrentHashMap<>();
+
+        mPendingBitmaps = new ConcurrentHashMap<>();
+        mPendingFonts = new ConcurrentHashMap<>();
+        mPendingAnimations = new ConcurrentHashMap<>();
+        mPendingAtlases = new ConcurrentHashMap<>();
+        mPendingRegions = new ConcurrentHashMap<>();
     }
 
     // /////////////////////////////////////////////////////////////////////////
@@ -104,11 +174,7 @@ public class AssetManager {
      * asset with the specified name already exists).
      */
     public boolean add(String assetName, Bitmap asset) {
-        if (mBitmaps.containsKey(assetName))
-            return false;
-
-        mBitmaps.put(assetName, asset);
-        return true;
+        return mBitmaps.put(assetName, asset, null);
     }
 
     /**
@@ -120,7 +186,7 @@ public class AssetManager {
      * asset with the specified name already exists).
      */
     public boolean add(String assetName, Music asset) {
-        if (mBitmaps.containsKey(assetName))
+        if (mBitmaps.contains(assetName))
             return false;
 
         mMusic.put(assetName, asset);
@@ -152,11 +218,7 @@ public class AssetManager {
      * asset with the specified name already exists).
      */
     public boolean add(String assetName, Typeface asset) {
-        if (mFonts.containsKey(assetName))
-            return false;
-
-        mFonts.put(assetName, asset);
-        return true;
+        return mFonts.putIfAbsent(assetName, asset) == null;
     }
 
     /**
@@ -168,10 +230,25 @@ public class AssetManager {
      * asset with the specified name already exists).
      */
     public boolean add(String assetName, AnimationSettings asset) {
-        if (mAnimations.containsKey(assetName))
+        return mAnimations.putIfAbsent(assetName, asset) == null;
+    }
+
+    /**
+     * Add the specified texture atlas to the manager. The atlas sheets must
+     * have been loaded. Images which share a name with a region already held
+     * are not added.
+     *
+     * @param assetName Name given to the asset
+     * @param asset     Texture atlas asset to add
+     * @return boolean true if the asset could be added, false it not (e.g. an
+     * asset with the specified name already exists).
+     */
+    public boolean add(String assetName, TextureAtlas asset) {
+        if (mAtlases.putIfAbsent(assetName, asset) != null)
             return false;
 
-        mAnimations.put(assetName, asset);
+        for (int idx = 0; idx < asset.regionNames.length; idx++)
+            mRegions.putIfAbsent(asset.regionNames[idx], asset.getRegion(idx));
         return true;
     }
 
@@ -184,18 +261,112 @@ public class AssetManager {
      *          asset with the specified name already exists).
      */
     public boolean loadAndAddBitmap(String assetName, String bitmapFile) {
-        if (mBitmaps.containsKey(assetName))
+        awaitPending(mPendingBitmaps, assetName);
+        awaitPending(mPendingRegions, assetName);
+        if (mBitmaps.contains(assetName) || mRegions.containsKey(assetName))
             return false;
 
+        return decodeAndAddBitmap(assetName, bitmapFile);
+    }
+
+    /**
+     * Load and add the specified bitmap asset, without checking for a
+     * background load of the asset
+     *
+     * @param assetName  Name given to the asset
+     * @param bitmapFile Location of the bitmap asset
+     * @return boolean true if the asset could be added
+     */
+    private boolean decodeAndAddBitmap(String assetName, String bitmapFile) {
         try {
-            Bitmap bitmap = mFileIO.loadBitmap(bitmapFile, null);
-            return add(assetName, bitmap);
+            Bitmap bitmap = decodeBitmap(assetName, bitmapFile);
+            return mBitmaps.put(assetName, bitmap, bitmapFile);
         } catch (IOException e) {
             throw new RuntimeException(
                 "AssetManager.loadAndAddBitmap: Cannot load [" + bitmapFile + "]");
         }
     }
 
+    /**
+     * Decode the specified bitmap, subsampled to its declared draw size
+     *
+     * @param assetName  Name of the bitmap asset
+     * @param bitmapFile Location of the bitmap asset
+     * @return Decoded bitmap
+     * @throws IOException if the bitmap cannot be loaded
+     */
+    private Bitmap decodeBitmap(String assetName, String bitmapFile) throws IOException {
+        int[] size = mBitmapSizes.get(assetName);
+        if (size == null)
+            return mFileIO.loadBitmap(bitmapFile, null);
+        return mFileIO.loadBitmap(bitmapFile, null, size[0], size[1]);
+    }
+
+    /**
+     * Declare the size the named bitmap is drawn at, so it can be
+     * subsampled when decoded. If declared more than once, the largest
+     * width and height are kept. Only affects bitmaps decoded afterwards.
+     *
+     * @param assetName Name of the bitmap asset
+     * @param width     Largest width the bitmap is drawn at, in pixels
+     * @param height    Largest height the bitmap is drawn at, in pixels
+     */
+    public void setBitmapSize(String assetName, int width, int height) {
+        int[] size = new int[]{width, height};
+        int[] previous;
+        do {
+            previous = mBitmapSizes.putIfAbsent(assetName, size);
+            if (previous == null)
+                return;
+            size = new int[]{Math.max(width, previous[0]), Math.max(height, previous[1])};
+        } while (!mBitmapSizes.replace(assetName, previous, size));
+    }
+
+    /**
+     * Declare the draw size of the bitmaps listed in the specified JSON
+     * file. Should be called before the bitmaps are loaded.
+     *
+     * The following JSON format is assumed:
+     *
+     {
+         "bitmaps": [
+             {
+                 "name": string,    // Asset name of the bitmap
+                 "width": int,      // Largest width the bitmap is drawn at
+                 "height": int      // Largest height the bitmap is drawn at
+             },
+             ...
+         ]
+     }     *
+     *
+     * @param bitmapSizesJSONFile JSON file to load
+     * @param scale               Pixels per unit of the sizes in the file
+     * @return boolean true if the sizes were loaded, false if the file
+     *          could not be loaded
+     */
+    public boolean loadBitmapSizes(String bitmapSizesJSONFile, float scale) {
+        String loadedJSON;
+        try {
+            loadedJSON = mFileIO.loadJSON(bitmapSizesJSONFile);
+        } catch (IOException e) {
+            return false;
+        }
+
+        try {
+            JSONArray bitmaps = new JSONObject(loadedJSON).getJSONArray("bitmaps");
+            for (int idx = 0; idx < bitmaps.length(); idx++) {
+                JSONObject bitmap = bitmaps.getJSONObject(idx);
+                setBitmapSize(bitmap.getString("name"),
+                        (int) Math.ceil(bitmap.getDouble("width") * scale),
+                        (int) Math.ceil(bitmap.getDouble("height") * scale));
+            }
+        } catch (JSONException e) {
+            throw new RuntimeException(
+                    "AssetManager.loadBitmapSizes: JSON parsing error [" + e.getMessage() + "]");
+        }
+        return true;
+    }
+
     /**
      * Load and add the specified music asset to the manager
      *
@@ -247,9 +418,21 @@ public class AssetManager {
      * @return boolean true if the asset could be loaded and added, false if not
      */
     public boolean loadAndAddFont(String assetName, String fontFile) {
-        if (mFonts.containsKey(assetName))
+        if (mFonts.containsKey(assetName) || awaitPending(mPendingFonts, assetName))
             return false;
 
+        return decodeAndAddFont(assetName, fontFile);
+    }
+
+    /**
+     * Load and add the specified font asset, without checking for a
+     * background load of the asset
+     *
+     * @param assetName Name given to the asset
+     * @param fontFile  Location of the font asset
+     * @return boolean true if the asset could be added
+     */
+    private boolean decodeAndAddFont(String assetName, String fontFile) {
         try {
             Typeface typeFace = mFileIO.loadFont(fontFile);
             return add(assetName, typeFace);
@@ -267,14 +450,42 @@ public class AssetManager {
      * @return boolean true if the asset could be loaded and added, false if not
      */
     public boolean loadAndAddAnimation(String assetName, String animationSettingsFile) {
-        if (mAnimations.containsKey(assetName))
+        if (mAnimations.containsKey(assetName) || awaitPending(mPendingAnimations, assetName))
             return false;
 
+        return decodeAndAddAnimation(assetName, animationSettingsFile);
+    }
+
+    /**
+     * Load and add the specified animation settings asset, without
+     * checking for a background load of the asset
+     *
+     * @param assetName Name given to the asset
+     * @param animationSettingsFile  Location of the animation settings asset
+     * @return boolean true if the asset could be added
+     */
+    private boolean decodeAndAddAnimation(String assetName, String animationSettingsFile) {
         AnimationSettings animationSettings =
                 new AnimationSettings(this, animationSettingsFile);
         return add(assetName, animationSettings);
     }
 
+    /**
+     * Load and add the specified texture atlas to the store
+     *
+     * @param assetName Name given to the asset
+     * @param atlasFile Location of the atlas index
+     * @return boolean true if the asset could be loaded and added, false if not
+     */
+    public boolean loadAndAddAtlas(String assetName, String atlasFile) {
+        if (mAtlases.containsKey(assetName) || awaitPending(mPendingAtlases, assetName))
+            return false;
+
+        TextureAtlas atlas = new TextureAtlas(mFileIO, atlasFile);
+        atlas.loadSheets(mFileIO);
+        return add(assetName, atlas);
+    }
+
     /**
      * Load in the list of assets from the specified JSON file.
      *
@@ -335,6 +546,9 @@ public class AssetManager {
                     case Animation:
                         loadAndAddAnimation(assetName, fileName);
                         break;
+                    case Atlas:
+                        loadAndAddAtlas(assetName, fileName);
+                        break;
                 }
             }
 
@@ -345,19 +559,246 @@ public class AssetManager {
     }
 
     /**
-     * Retrieve the specified bitmap asset from the manager
+     * Load in the list of assets from the specified JSON file (in the same
+     * format as loadAssets) in the background. Bitmaps, fonts, animations and
+     * atlases are loaded by AssetLoader's worker threads. Music and sounds are loaded
+     * straight away, as their loaders already prepare them in the background.
+     *
+     * Must be called from the game thread.
+     *
+     * @param assetsToLoadJSONFile JSON file to load and process
+     * @return AssetGroup tracking the loading of the file's assets
+     */
+    public AssetGroup loadAssetsAsync(String assetsToLoadJSONFile) {
+        // Attempt to load in the JSON asset details
+        String loadedJSON;
+        try {
+            loadedJSON = mFileIO.loadJSON(assetsToLoadJSONFile);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "AssetManager.loadAssetsAsync: Cannot load JSON [" + assetsToLoadJSONFile + "]");
+        }
+
+        // Attempt to extract the JSON information
+        try {
+            JSONObject settings = new JSONObject(loadedJSON);
+            JSONArray assets = settings.getJSONArray("assets");
+            AssetGroup group = new AssetGroup(assetsToLoadJSONFile, assets.length());
+
+            // Start loading each asset
+            for (int idx = 0; idx < assets.length(); idx++){
+                AssetType assetType =
+                        AssetType.valueOf(assets.getJSONObject(idx).getString("type"));
+                String assetName = assets.getJSONObject(idx).getString("name");
+                String fileName = assets.getJSONObject(idx).getString("file");
+
+                switch(assetType) {
+                    case Bitmap:
+                        loadInBackground(AssetType.Bitmap, assetName, fileName, group, mPendingBitmaps);
+                        break;
+                    case Font:
+                        loadInBackground(AssetType.Font, assetName, fileName, group, mPendingFonts);
+                        break;
+                    case Animation:
+                        loadInBackground(AssetType.Animation, assetName, fileName, group, mPendingAnimations);
+                        break;
+                    case Atlas:
+                        loadInBackground(AssetType.Atlas, assetName, fileName, group, mPendingAtlases);
+                        break;
+                    case Music:
+                        loadAndAddMusic(assetName, fileName);
+                        group.assetFinished(true);
+                        break;
+                    case Sound:
+                        loadAndAddSound(assetName, fileName);
+                        group.assetFinished(true);
+                        break;
+                }
+            }
+            return group;
+
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new RuntimeException(
+                    "AssetManager.loadAssetsAsync: JSON parsing error [" + e.getMessage() + "]");
+        }
+    }
+
+    /**
+     * Start a background load of the specified asset, unless it is
+     * already loaded or being loaded
+     *
+     * @param assetType Type of asset (Bitmap, Font, Animation or Atlas)
+     * @param assetName Name given to the asset
+     * @param fileName  Location of the asset
+     * @param group     Group to report the load to
+     * @param pending   Background loads of the asset type
+     */
+    private void loadInBackground(final AssetType assetType, final String assetName, final String fileName,
+                                  final AssetGroup group, final ConcurrentHashMap<String, FutureTask<Boolean>> pending) {
+        if (isLoaded(assetType, assetName)) {
+            group.assetFinished(true);
+            return;
+        }
+
+        // The atlas index is small, so is read straight away to find which images it holds
+        final TextureAtlas atlas = assetType == AssetType.Atlas ? new TextureAtlas(mFileIO, fileName) : null;
+
+        FutureTask<Boolean> load = new FutureTask<Boolean>(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                switch (assetType) {
+                    case Bitmap:
+                        return decodeAndAddBitmap(assetName, fileName);
+                    case Font:
+                        return decodeAndAddFont(assetName, fileName);
+                    case Animation:
+                        return decodeAndAddAnimation(assetName, fileName);
+                    default:
+                        atlas.loadSheets(mFileIO);
+                        return add(assetName, atlas);
+                }
+            }
+        }) {
+            @Override
+            protected void done() {
+                pending.remove(assetName, this);
+                if (atlas != null)
+                    for (String regionName : atlas.regionNames)
+                        mPendingRegions.remove(regionName, this);
+                boolean succeeded = true;
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    succeeded = false;
+                }
+                group.assetFinished(succeeded);
+            }
+        };
+
+        // A bitmap may already be being loaded as part of an atlas
+        FutureTask<Boolean> existing = assetType == AssetType.Bitmap ? mPendingRegions.get(assetName) : null;
+        if (existing == null)
+            existing = pending.putIfAbsent(assetName, load);
+        if (existing != null) {
+            // Already being loaded by another group, so report once it has
+            final FutureTask<Boolean> other = existing;
+            AssetLoader.submit(new Runnable() {
+                @Override
+                public void run() {
+                    boolean succeeded = true;
+                    try {
+                        other.run();
+                        other.get();
+                    } catch (InterruptedException | ExecutionException e) {
+                        succeeded = false;
+                    }
+                    group.assetFinished(succeeded);
+                }
+            });
+            return;
+        }
+        if (atlas != null)
+            for (String regionName : atlas.regionNames)
+                mPendingRegions.putIfAbsent(regionName, load);
+        AssetLoader.submit(load);
+    }
+
+    /**
+     * Check whether the specified asset has been loaded
+     *
+     * @param assetType Type of asset (Bitmap, Font, Animation or Atlas)
+     * @param assetName Name of the asset
+     * @return boolean true if loaded
+     */
+    private boolean isLoaded(AssetType assetType, String assetName) {
+        switch (assetType) {
+            case Bitmap:
+                return mBitmaps.contains(assetName) || mRegions.containsKey(assetName);
+            case Font:
+                return mFonts.containsKey(assetName);
+            case Animation:
+                return mAnimations.containsKey(assetName);
+            default:
+                return mAtlases.containsKey(assetName);
+        }
+    }
+
+    /**
+     * Wait for a background load of the specified asset, if there is one.
+     * A load which has not started yet is run on the calling thread rather
+     * than waiting for a worker.
+     *
+     * @param pending   Background loads of the asset type
+     * @param assetName Name of the asset
+     * @return boolean true if there was a background load (which has now finished)
+     */
+    private boolean awaitPending(ConcurrentHashMap<String, FutureTask<Boolean>> pending, String assetName) {
+        FutureTask<Boolean> load = pending.get(assetName);
+        if (load == null)
+            return false;
+
+        // Does nothing if the load has already started elsewhere
+        load.run();
+        try {
+            load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+        return true;
+    }
+
+    /**
+     * Retrieve the specified bitmap asset from the manager. A bitmap held in
+     * a texture atlas is copied out of its sheet the first time it is
+     * retrieved (use getRegion to draw it from the sheet instead). A bitmap
+     * dropped from the bitmap cache is loaded again.
      *
      * @param assetName Name of the asset to retrieve
      * @return Specified Bitmap asset
      */
     public Bitmap getBitmap(String assetName) {
-        if(!mBitmaps.containsKey(assetName))
-            throw new RuntimeException(
-                "AssetManager.getBitmap: Cannot find [" + assetName + "]");
+        Bitmap bitmap = mBitmaps.get(assetName);
+        if (bitmap != null)
+            return bitmap;
+
+        awaitPending(mPendingBitmaps, assetName);
+        awaitPending(mPendingRegions, assetName);
+        if (!mBitmaps.contains(assetName)) {
+            AtlasRegion region = mRegions.get(assetName);
+            if (region == null)
+                throw new RuntimeException(
+                    "AssetManager.getBitmap: Cannot find [" + assetName + "]");
+
+            Rect source = region.source;
+            add(assetName, Bitmap.createBitmap(region.bitmap,
+                    source.left, source.top, source.width(), source.height()));
+        }
 
         return mBitmaps.get(assetName);
     }
 
+    /**
+     * Retrieve the region holding the specified bitmap asset. Bitmaps which
+     * are not held in a texture atlas are returned as a region covering the
+     * whole bitmap.
+     *
+     * @param assetName Name of the asset to retrieve
+     * @return Region holding the specified bitmap asset
+     */
+    public AtlasRegion getRegion(String assetName) {
+        AtlasRegion region = mRegions.get(assetName);
+        if (region == null && awaitPending(mPendingRegions, assetName))
+            region = mRegions.get(assetName);
+        if (region == null)
+            region = new AtlasRegion(getBitmap(assetName), null);
+
+        return region;
+    }
+
     /**
      * Retrieve the specified music asset from the manager
      *
@@ -393,7 +834,8 @@ public class AssetManager {
      * @return Specified font asset
      */
     public Typeface getFont(String assetName) {
-        if(!mFonts.containsKey(assetName))
+        if(!mFonts.containsKey(assetName) && !awaitPending(mPendingFonts, assetName)
+                && !mFonts.containsKey(assetName))
             throw new RuntimeException(
                     "AssetManager.getFont: Cannot find [" + assetName + "]");
 
@@ -407,7 +849,8 @@ public class AssetManager {
      * @return Specified animation settings asset
      */
     public AnimationSettings getAnimation(String assetName) {
-        if(!mAnimations.containsKey(assetName))
+        if(!mAnimations.containsKey(assetName) && !awaitPending(mPendingAnimations, assetName)
+                && !mAnimations.containsKey(assetName))
             throw new RuntimeException(
                     "AssetManager.getAnimation: Cannot find [" + assetName + "]");
 
@@ -419,6 +862,16 @@ public class AssetManager {
     // Misc
     // /////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Return the bitmap cache, e.g. to set its budget, pin bitmaps or
+     * read its hit/miss/eviction counts
+     *
+     * @return BitmapCache instance
+     */
+    public BitmapCache getBitmapCache() {
+        return mBitmaps;
+    }
+
     /**
      * Return the FileIO for this AssetManager
      *
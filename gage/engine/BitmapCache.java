@@ -0,0 +1,357 @@
+package uk.ac.qub.eeecs.gage.engine;
+
+import android.graphics.Bitmap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bitmap store with a memory budget. Once the bitmaps held use more than
+ * the budget, the least recently used bitmaps are dropped until they fit.
+ * A dropped bitmap is loaded again from its file when next requested.
+ * <p>
+ * Bitmaps can be pinned (e.g. those used by the current screen) to keep
+ * them from being dropped. Bitmaps added without a file cannot be loaded
+ * again, so are never dropped.
+ * <p>
+ * Dropped bitmaps are not recycled, as game objects may still hold them.
+ * Their memory is reclaimed once nothing refers to them, unless they were
+ * released by their last user, in which case it is handed to the loader
+ * to decode other bitmaps into. As frames recorded before the release may
+ * still be waiting to be drawn, released bitmaps are only handed over once
+ * a frame recorded after they were dropped has been drawn (see
+ * notifyFrameRecorded and notifyFrameDrawn).
+ *
+ * @version 1.0
+ */
+public class BitmapCache {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Default budget, as a fraction of the maximum heap size
+     */
+    public static final float DEFAULT_BUDGET_FRACTION = 0.25f;
+
+    /**
+     * Loads dropped bitmaps again, and takes the memory of released ones
+     */
+    public interface Loader {
+        /**
+         * Load the named bitmap from its file
+         *
+         * @param name Name of the bitmap
+         * @param file Location of the bitmap
+         * @return Loaded bitmap
+         * @throws IOException if the bitmap cannot be loaded
+         */
+        Bitmap load(String name, String file) throws IOException;
+
+        /**
+         * Take a dropped bitmap which nothing will draw again, so its
+         * memory can be reused
+         *
+         * @param bitmap Dropped bitmap
+         */
+        void reuse(Bitmap bitmap);
+    }
+
+    /**
+     * Bitmap held by the cache
+     */
+    private static class Entry {
+        Bitmap bitmap;
+        String file;
+        int bytes;
+        int pins;
+        boolean released;
+    }
+
+    /**
+     * Loader used to load dropped bitmaps again
+     */
+    private Loader mLoader;
+
+    /**
+     * Cached bitmaps, least recently used first
+     */
+    private LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Budget and bytes used by the bitmaps held
+     */
+    private long mBudget;
+    private long mLoadedBytes;
+
+    /**
+     * Released bitmaps which have been dropped since the last frame was
+     * recorded, and those waiting for frame mPendingFrame to be drawn
+     * before they are handed to the loader
+     */
+    private ArrayList<Bitmap> mReleased = new ArrayList<>();
+    private ArrayList<Bitmap> mPending = new ArrayList<>();
+    private long mPendingFrame;
+
+    /**
+     * Requests for bitmaps which were held (hits) or had to be loaded again
+     * (misses), and the number of bitmaps dropped
+     */
+    private long mHits;
+    private long mMisses;
+    private long mEvictions;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create a new bitmap cache with the default budget
+     *
+     * @param loader Loader used to load dropped bitmaps again
+     */
+    public BitmapCache(Loader loader) {
+        this(loader, (long) (Runtime.getRuntime().maxMemory() * DEFAULT_BUDGET_FRACTION));
+    }
+
+    /**
+     * Create a new bitmap cache
+     *
+     * @param loader Loader used to load dropped bitmaps again
+     * @param budget Number of bytes the bitmaps may use
+     */
+    public BitmapCache(Loader loader, long budget) {
+        mLoader = loader;
+        mBudget = budget;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Add a bitmap to the cache
+     *
+     * @param name   Name of the bitmap
+     * @param bitmap Bitmap to add
+     * @param file   Location the bitmap was loaded from (null if it cannot be loaded again)
+     * @return boolean true if added, false if a bitmap with the name is already held
+     */
+    public synchronized boolean put(String name, Bitmap bitmap, String file) {
+        Entry entry = mEntries.get(name);
+        if (entry != null && entry.bitmap != null)
+            return false;
+
+        if (entry == null) {
+            entry = new Entry();
+            mEntries.put(name, entry);
+        }
+        entry.file = file;
+        setBitmap(entry, bitmap);
+        trim(entry);
+        return true;
+    }
+
+    /**
+     * Get the named bitmap, loading it again if it has been dropped
+     *
+     * @param name Name of the bitmap
+     * @return Bitmap, or null if no bitmap with the name has been added
+     */
+    public Bitmap get(String name) {
+        Entry entry;
+        synchronized (this) {
+            entry = mEntries.get(name);
+            if (entry == null)
+                return null;
+            if (entry.bitmap != null) {
+                // Handed out again, so may be drawn after all
+                entry.released = false;
+                mHits++;
+                return entry.bitmap;
+            }
+            mMisses++;
+        }
+
+        // Load outside the lock so other bitmaps can still be fetched
+        Bitmap bitmap;
+        try {
+            bitmap = mLoader.load(name, entry.file);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "BitmapCache.get: Cannot reload [" + entry.file + "]");
+        }
+
+        synchronized (this) {
+            if (entry.bitmap == null) {
+                setBitmap(entry, bitmap);
+                trim(entry);
+            }
+            return entry.bitmap;
+        }
+    }
+
+    /**
+     * Check whether a bitmap with the name has been added (it may have
+     * been dropped, in which case get will load it again)
+     *
+     * @param name Name of the bitmap
+     * @return boolean true if added
+     */
+    public synchronized boolean contains(String name) {
+        return mEntries.containsKey(name);
+    }
+
+    /**
+     * Keep the named bitmap from being dropped until it is unpinned. Pins
+     * are counted, so a bitmap pinned twice must be unpinned twice.
+     *
+     * @param name Name of the bitmap
+     */
+    public synchronized void pin(String name) {
+        Entry entry = mEntries.get(name);
+        if (entry != null) {
+            entry.pins++;
+            entry.released = false;
+        }
+    }
+
+    /**
+     * Release a pin of the named bitmap
+     *
+     * @param name Name of the bitmap
+     */
+    public synchronized void unpin(String name) {
+        Entry entry = mEntries.get(name);
+        if (entry != null && entry.pins > 0) {
+            entry.pins--;
+            if (entry.pins == 0)
+                trim(null);
+        }
+    }
+
+    /**
+     * Release a pin of the named bitmap held by a user which will no longer
+     * draw it. If the bitmap is dropped before being requested or pinned
+     * again, its memory is handed to the loader for reuse once the frames
+     * which may still draw it have been drawn, so it must not be held
+     * anywhere else. Should be called from the thread which records frames,
+     * between frames.
+     *
+     * @param name Name of the bitmap
+     */
+    public synchronized void release(String name) {
+        Entry entry = mEntries.get(name);
+        if (entry != null && entry.pins > 0) {
+            entry.pins--;
+            if (entry.pins == 0) {
+                entry.released = true;
+                trim(null);
+            }
+        }
+    }
+
+    /**
+     * Notify the cache that a frame has been recorded. Released bitmaps
+     * dropped before the frame was recorded can be reused once it has
+     * been drawn.
+     *
+     * @param frame Number of the recorded frame
+     */
+    public synchronized void notifyFrameRecorded(long frame) {
+        if (mReleased.isEmpty())
+            return;
+
+        mPending.addAll(mReleased);
+        mReleased.clear();
+        mPendingFrame = frame;
+    }
+
+    /**
+     * Notify the cache that a frame has been drawn, handing released
+     * bitmaps which no earlier frame can draw again to the loader
+     *
+     * @param frame Number of the drawn frame
+     */
+    public synchronized void notifyFrameDrawn(long frame) {
+        if (mPending.isEmpty() || frame < mPendingFrame)
+            return;
+
+        for (Bitmap bitmap : mPending)
+            mLoader.reuse(bitmap);
+        mPending.clear();
+    }
+
+    /**
+     * Set the number of bytes the bitmaps may use, dropping bitmaps if
+     * they no longer fit
+     *
+     * @param budget Budget in bytes
+     */
+    public synchronized void setBudget(long budget) {
+        mBudget = budget;
+        trim(null);
+    }
+
+    public synchronized long getBudget() {
+        return mBudget;
+    }
+
+    public synchronized long getLoadedBytes() {
+        return mLoadedBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return mHits;
+    }
+
+    public synchronized long getMissCount() {
+        return mMisses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Bitmaps " + mLoadedBytes / 1024 + "/" + mBudget / 1024 + " KB, "
+                + mHits + " hits, " + mMisses + " misses, " + mEvictions + " evictions";
+    }
+
+    /**
+     * Set the bitmap of an entry and count its bytes
+     */
+    private void setBitmap(Entry entry, Bitmap bitmap) {
+        entry.bitmap = bitmap;
+        entry.bytes = bitmap != null ? bitmap.getAllocationByteCount() : 0;
+        mLoadedBytes += entry.bytes;
+    }
+
+    /**
+     * Drop the least recently used bitmaps until the rest fit the budget
+     *
+     * @param keep Entry which is not to be dropped (or null)
+     */
+    private void trim(Entry keep) {
+        Iterator<Map.Entry<String, Entry>> entries = mEntries.entrySet().iterator();
+        while (mLoadedBytes > mBudget && entries.hasNext()) {
+            Entry entry = entries.next().getValue();
+            if (entry == keep || entry.bitmap == null || entry.pins > 0 || entry.file == null)
+                continue;
+
+            if (entry.released) {
+                mReleased.add(entry.bitmap);
+                entry.released = false;
+            }
+            entry.bitmap = null;
+            mLoadedBytes -= entry.bytes;
+            entry.bytes = 0;
+            mEvictions++;
+        }
+    }
+}
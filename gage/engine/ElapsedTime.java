@@ -16,4 +16,11 @@ public class ElapsedTime {
      * Amount of time that has elapsed since the game started (first frame)
      */
     public double totalTime;
+
+    /**
+     * Fraction of a fixed update step that has elapsed since the last update,
+     * used to interpolate draws between fixed updates. This is always one
+     * (i.e. draw the latest update) if the game is not using fixed updates.
+     */
+    public double interpolation = 1.0;
 }
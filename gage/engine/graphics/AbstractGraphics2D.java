@@ -0,0 +1,89 @@
+package uk.ac.qub.eeecs.gage.engine.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import uk.ac.qub.eeecs.gage.util.BoundingBox;
+import uk.ac.qub.eeecs.gage.util.GraphicsHelper;
+import uk.ac.qub.eeecs.gage.util.Vector2;
+import uk.ac.qub.eeecs.gage.util.ViewportHelper;
+import uk.ac.qub.eeecs.gage.world.LayerViewport;
+import uk.ac.qub.eeecs.gage.world.ScreenViewport;
+
+/**
+ * Base Graphics2D class that implements the viewport based draw operations
+ * by converting them into screen space and calling the screen space draw
+ * operations.
+ *
+ * As the viewports are resolved when the call is made, graphics instances
+ * that defer drawing (e.g. batching or recording draws) do not need to
+ * retain the viewports.
+ *
+ * @version 1.0
+ */
+public abstract class AbstractGraphics2D implements IGraphics2D {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Internal variables that are reused when converting viewport draws -
+     * defined externally to the method to reduce temporary object creation.
+     */
+    private Rect drawScreenRect = new Rect();
+    private Rect drawSourceRect = new Rect();
+    private BoundingBox drawBound = new BoundingBox();
+    private Vector2 screenLocation = new Vector2();
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Viewport draws
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, int x, int y, int width, int height,
+                           Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport) {
+        drawScreenRect.set(x - width / 2, y - height / 2, x + width / 2, y + height / 2);
+        drawBound.x = x;
+        drawBound.y = y;
+        drawBound.halfWidth = width / 2;
+        drawBound.halfHeight = height / 2;
+        if (GraphicsHelper.getClippedSourceAndScreenRect(drawBound, bitmap,
+                layerViewport, screenViewport, drawSourceRect, drawScreenRect)) {
+            drawBitmap(bitmap, null, drawScreenRect, paint);
+        }
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint,
+                         LayerViewport layerViewport, ScreenViewport screenViewport) {
+        ViewportHelper.convertLayerPosIntoScreen(layerViewport, x, y, screenViewport, screenLocation);
+        drawText(text, screenLocation.x, screenLocation.y, paint);
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint,
+                         LayerViewport layerViewport, ScreenViewport screenViewport) {
+        ViewportHelper.convertLayerPosIntoScreen(layerViewport, x, y, screenViewport, screenLocation);
+        drawText(text, index, count, screenLocation.x, screenLocation.y, paint);
+    }
+
+    @Override
+    public void drawRect(Rect rect, Paint paint,
+                         LayerViewport layerViewport, ScreenViewport screenViewport) {
+        float left = ViewportHelper.convertXDistanceFromLayerToScreen(rect.left, layerViewport, screenViewport);
+        float right = ViewportHelper.convertXDistanceFromLayerToScreen(rect.right, layerViewport, screenViewport);
+        float top = ViewportHelper.convertYDistanceFromLayerToScreen(rect.top, layerViewport, screenViewport);
+        float bottom = ViewportHelper.convertYDistanceFromLayerToScreen(rect.bottom, layerViewport, screenViewport);
+        drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void drawCentredText(String text, float x, float y, Paint paint, int fontSize,
+                                LayerViewport layerViewport, ScreenViewport screenViewport) {
+        int width = text.length() * fontSize / 2;
+        ViewportHelper.convertLayerPosIntoScreen(layerViewport, x, y, screenViewport, screenLocation);
+        drawText(text, screenLocation.x - width, screenLocation.y + fontSize / 2, paint);
+    }
+}
@@ -0,0 +1,65 @@
+package uk.ac.qub.eeecs.gage.engine.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+/**
+ * Region of a bitmap holding one image, e.g. one of the images packed
+ * into a texture atlas sheet.
+ *
+ * @version 1.0
+ */
+public class AtlasRegion {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties: Declared public for speed of access
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Bitmap holding the image
+     */
+    public final Bitmap bitmap;
+
+    /**
+     * Region of the bitmap holding the image, or null if the image is the
+     * whole bitmap. Should not be modified.
+     */
+    public final Rect source;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create a new region
+     *
+     * @param bitmap Bitmap holding the image
+     * @param source Region of the bitmap holding the image (null for the whole bitmap)
+     */
+    public AtlasRegion(Bitmap bitmap, Rect source) {
+        this.bitmap = bitmap;
+        this.source = source;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Return the width of the image
+     *
+     * @return Width of the image in pixels
+     */
+    public int getWidth() {
+        return source != null ? source.width() : bitmap.getWidth();
+    }
+
+    /**
+     * Return the height of the image
+     *
+     * @return Height of the image in pixels
+     */
+    public int getHeight() {
+        return source != null ? source.height() : bitmap.getHeight();
+    }
+}
@@ -0,0 +1,368 @@
+package uk.ac.qub.eeecs.gage.engine.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+
+/**
+ * Graphics2D decorator that batches bitmap draws.
+ *
+ * Bitmap draws are recorded rather than drawn immediately and grouped into
+ * batches that share a bitmap and paint state. Paints are compared by the
+ * state that affects a bitmap draw (alpha, flags, transfer mode, colour
+ * filter and shader) rather than by identity, so draws replayed from a
+ * DisplayList, which holds its own copy of each paint, are batched as
+ * well as draws sharing one paint object. When the batches are
+ * flushed each batch is submitted as one consecutive run of draws, so the
+ * underlying (hardware accelerated) canvas can draw the run without
+ * changing texture or blend state.
+ *
+ * A draw is only moved into an earlier batch if it does not overlap any of
+ * the batches recorded since, so the final image is the same as drawing in
+ * the original order. Any other operation (text, rectangles, clears and
+ * clipping) flushes the recorded draws before being passed on.
+ *
+ * @version 1.0
+ */
+public class BatchedGraphics2D extends AbstractGraphics2D {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Number of most recent batches that a draw may be merged into
+     */
+    private static final int MAX_BATCH_LOOKBACK = 16;
+
+    /**
+     * Graphics instance that batched draws are submitted to
+     */
+    private IGraphics2D mGraphics;
+
+    /**
+     * Recorded draw commands, reused between frames
+     */
+    private ArrayList<DrawCommand> mCommands = new ArrayList<>();
+    private int mNumCommands;
+
+    /**
+     * Batches of recorded draw commands, reused between frames
+     */
+    private ArrayList<Batch> mBatches = new ArrayList<>();
+    private int mNumBatches;
+
+    /**
+     * Draw counters for the frame being drawn
+     */
+    private int mNumRequestedDraws;
+    private int mNumSubmittedBatches;
+
+    /**
+     * Draw counters for the last completed frame
+     */
+    private int mLastRequestedDraws;
+    private int mLastSubmittedBatches;
+
+    /**
+     * A recorded bitmap draw
+     */
+    private static class DrawCommand {
+        Bitmap bitmap;
+        Paint paint;
+        int alpha;
+
+        // Either a source and destination rect or a matrix is used
+        boolean useMatrix;
+        boolean hasSrcRect;
+        Rect srcRect = new Rect();
+        Rect desRect = new Rect();
+        Matrix matrix = new Matrix();
+
+        // Screen region covered by the draw
+        RectF bounds = new RectF();
+
+        // Next command in the same batch (-1 if none)
+        int next;
+    }
+
+    /**
+     * A run of draw commands sharing the same bitmap and paint state. The
+     * paint is that of the first command in the batch.
+     */
+    private static class Batch {
+        Bitmap bitmap;
+        Paint paint;
+        int alpha;
+        RectF bounds = new RectF();
+        int first;
+        int last;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create a new batching graphics instance
+     *
+     * @param graphics Graphics instance batched draws are submitted to
+     */
+    public BatchedGraphics2D(IGraphics2D graphics) {
+        mGraphics = graphics;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Frame management and counters
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Flush all recorded draws and store the draw counters for the frame.
+     * Should be called once the frame has been drawn.
+     */
+    public void endFrame() {
+        flush();
+        mLastRequestedDraws = mNumRequestedDraws;
+        mLastSubmittedBatches = mNumSubmittedBatches;
+        mNumRequestedDraws = 0;
+        mNumSubmittedBatches = 0;
+    }
+
+    /**
+     * Return the number of bitmap draws requested in the last frame (i.e.
+     * the number of draw calls that would have been made without batching)
+     *
+     * @return Number of bitmap draws requested
+     */
+    public int getNumRequestedDraws() {
+        return mLastRequestedDraws;
+    }
+
+    /**
+     * Return the number of batches submitted in the last frame
+     *
+     * @return Number of batches submitted
+     */
+    public int getNumSubmittedBatches() {
+        return mLastSubmittedBatches;
+    }
+
+    /**
+     * Submit all recorded draws to the underlying graphics instance, in
+     * batch order
+     */
+    public void flush() {
+        for (int batchIdx = 0; batchIdx < mNumBatches; batchIdx++) {
+            Batch batch = mBatches.get(batchIdx);
+
+            // Apply the batch alpha once, restoring the paint afterwards
+            int paintAlpha = 0;
+            if (batch.paint != null) {
+                paintAlpha = batch.paint.getAlpha();
+                batch.paint.setAlpha(batch.alpha);
+            }
+
+            for (int commandIdx = batch.first; commandIdx != -1; ) {
+                DrawCommand command = mCommands.get(commandIdx);
+                // Draw with the batch paint, which holds the same state
+                Paint paint = command.paint != null ? batch.paint : null;
+                if (command.useMatrix)
+                    mGraphics.drawBitmap(command.bitmap, command.matrix, paint);
+                else
+                    mGraphics.drawBitmap(command.bitmap,
+                            command.hasSrcRect ? command.srcRect : null,
+                            command.desRect, paint);
+                command.bitmap = null;
+                command.paint = null;
+                commandIdx = command.next;
+            }
+
+            if (batch.paint != null)
+                batch.paint.setAlpha(paintAlpha);
+            batch.bitmap = null;
+            batch.paint = null;
+        }
+
+        mNumSubmittedBatches += mNumBatches;
+        mNumCommands = 0;
+        mNumBatches = 0;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Batched draws
+    // /////////////////////////////////////////////////////////////////////////
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D#drawBitmap(android.graphics
+     * .Bitmap, android.graphics.Rect, android.graphics.Rect,
+     * android.graphics.Paint)
+     */
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect srcRect, Rect desRect, Paint paint) {
+        DrawCommand command = nextCommand(bitmap, paint);
+        command.useMatrix = false;
+        command.hasSrcRect = srcRect != null;
+        if (srcRect != null)
+            command.srcRect.set(srcRect.left, srcRect.top, srcRect.right, srcRect.bottom);
+        command.desRect.set(desRect.left, desRect.top, desRect.right, desRect.bottom);
+        command.bounds.set(desRect.left, desRect.top, desRect.right, desRect.bottom);
+        record(command);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D#drawBitmap(android.graphics
+     * .Bitmap, android.graphics.Matrix, android.graphics.Paint)
+     */
+    @Override
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+        DrawCommand command = nextCommand(bitmap, paint);
+        command.useMatrix = true;
+        command.matrix.set(matrix);
+        command.bounds.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
+        command.matrix.mapRect(command.bounds);
+        record(command);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Unbatched operations
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getSurfaceWidth() {
+        return mGraphics.getSurfaceWidth();
+    }
+
+    @Override
+    public int getSurfaceHeight() {
+        return mGraphics.getSurfaceHeight();
+    }
+
+    @Override
+    public void clipRect(Rect clipRegion) {
+        flush();
+        mGraphics.clipRect(clipRegion);
+    }
+
+    @Override
+    public void clear(int colour) {
+        flush();
+        mGraphics.clear(colour);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        flush();
+        mGraphics.drawText(text, x, y, paint);
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        flush();
+        mGraphics.drawText(text, index, count, x, y, paint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        flush();
+        mGraphics.drawRect(left, top, right, bottom, paint);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Recording
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Return the next free draw command, set to the specified bitmap and paint
+     *
+     * @param bitmap Bitmap to be drawn
+     * @param paint  Paint to draw with (may be null)
+     * @return Draw command
+     */
+    private DrawCommand nextCommand(Bitmap bitmap, Paint paint) {
+        if (mNumCommands == mCommands.size())
+            mCommands.add(new DrawCommand());
+        DrawCommand command = mCommands.get(mNumCommands);
+        command.bitmap = bitmap;
+        command.paint = paint;
+        command.alpha = paint != null ? paint.getAlpha() : 255;
+        command.next = -1;
+        mNumRequestedDraws++;
+        return command;
+    }
+
+    /**
+     * Add the most recent draw command to a batch. The command joins the
+     * latest matching batch, providing it does not overlap any batch that
+     * was started after it, otherwise a new batch is started.
+     *
+     * @param command Draw command to record
+     */
+    private void record(DrawCommand command) {
+        int commandIdx = mNumCommands++;
+        int oldestBatch = Math.max(0, mNumBatches - MAX_BATCH_LOOKBACK);
+        for (int batchIdx = mNumBatches - 1; batchIdx >= oldestBatch; batchIdx--) {
+            Batch batch = mBatches.get(batchIdx);
+            if (batch.bitmap == command.bitmap && batch.alpha == command.alpha
+                    && samePaintState(batch.paint, command.paint)) {
+                mCommands.get(batch.last).next = commandIdx;
+                batch.last = commandIdx;
+                union(batch.bounds, command.bounds);
+                return;
+            }
+            if (overlaps(batch.bounds, command.bounds))
+                break;
+        }
+
+        if (mNumBatches == mBatches.size())
+            mBatches.add(new Batch());
+        Batch batch = mBatches.get(mNumBatches++);
+        batch.bitmap = command.bitmap;
+        batch.paint = command.paint;
+        batch.alpha = command.alpha;
+        batch.bounds.set(command.bounds.left, command.bounds.top,
+                command.bounds.right, command.bounds.bottom);
+        batch.first = commandIdx;
+        batch.last = commandIdx;
+    }
+
+    /**
+     * Determine if two paints would draw a bitmap in the same way, other
+     * than their alpha which is compared separately
+     *
+     * @param a First paint (may be null)
+     * @param b Second paint (may be null)
+     * @return True if the paints share the same bitmap draw state
+     */
+    private static boolean samePaintState(Paint a, Paint b) {
+        if (a == b)
+            return true;
+        if (a == null || b == null)
+            return false;
+        // Paint copies share the transfer mode, filter and shader objects
+        return a.getFlags() == b.getFlags()
+                && a.getXfermode() == b.getXfermode()
+                && a.getColorFilter() == b.getColorFilter()
+                && a.getShader() == b.getShader();
+    }
+
+    private static boolean overlaps(RectF a, RectF b) {
+        return a.left < b.right && b.left < a.right && a.top < b.bottom && b.top < a.bottom;
+    }
+
+    private static void union(RectF target, RectF other) {
+        target.left = Math.min(target.left, other.left);
+        target.top = Math.min(target.top, other.top);
+        target.right = Math.max(target.right, other.right);
+        target.bottom = Math.max(target.bottom, other.bottom);
+    }
+}
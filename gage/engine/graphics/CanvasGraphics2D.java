@@ -7,12 +7,6 @@ import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Rect;
 
-import uk.ac.qub.eeecs.gage.util.BoundingBox;
-import uk.ac.qub.eeecs.gage.util.GraphicsHelper;
-import uk.ac.qub.eeecs.gage.util.Vector2;
-import uk.ac.qub.eeecs.gage.util.ViewportHelper;
-import uk.ac.qub.eeecs.gage.world.LayerViewport;
-import uk.ac.qub.eeecs.gage.world.ScreenViewport;
 
 
 /**
@@ -20,7 +14,7 @@ import uk.ac.qub.eeecs.gage.world.ScreenViewport;
  *
  * @version 1.
  */
-public class CanvasGraphics2D implements IGraphics2D {
+public class CanvasGraphics2D extends AbstractGraphics2D {
 
     // /////////////////////////////////////////////////////////////////////////
     // Methods: Properties
@@ -103,6 +97,18 @@ public class CanvasGraphics2D implements IGraphics2D {
         mCanvas.drawText(text, x, y, paint);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D#drawText(char[], int,
+     * int, float, float, android.graphics.Paint)
+     */
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        mCanvas.drawText(text, index, count, x, y, paint);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -156,45 +162,4 @@ public class CanvasGraphics2D implements IGraphics2D {
     public int getSurfaceHeight() {
         return mHeight;
     }
-
-    @Override
-    public void drawBitmap(Bitmap bitmap, int x, int y, int width, int height,
-                           Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport) {
-//        Vector2 location = new Vector2();
-//        ViewportHelper.convertLayerPosIntoScreen(layerViewport,x,y, screenViewport,location);
-        Rect drawScreenRect = new Rect();
-        Rect drawSourceRect = new Rect();
-        drawScreenRect.set(x - width/2,
-                y - height/2,
-                x + width/2,
-                y + height/2);
-        BoundingBox bound = new BoundingBox(x,y,width/2,height/2);
-        if (GraphicsHelper.getClippedSourceAndScreenRect(bound, bitmap,layerViewport, screenViewport, drawSourceRect, drawScreenRect)) {
-            drawBitmap(bitmap, null, drawScreenRect,paint);
-        }
-
-    }
-
-    @Override
-    public void drawText(String text, float x, float y, Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport){
-        Vector2 location = new Vector2();
-        ViewportHelper.convertLayerPosIntoScreen(layerViewport,x,y, screenViewport,location);
-        drawText(text, location.x, location.y, paint);
-    }
-
-    public void drawRect(Rect rect, Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport){
-        float left = ViewportHelper.convertXDistanceFromLayerToScreen(rect.left, layerViewport, screenViewport);
-        float right = ViewportHelper.convertXDistanceFromLayerToScreen(rect.right, layerViewport, screenViewport);
-        float top = ViewportHelper.convertYDistanceFromLayerToScreen(rect.top, layerViewport, screenViewport);
-        float bottom = ViewportHelper.convertYDistanceFromLayerToScreen(rect.bottom, layerViewport, screenViewport);
-        mCanvas.drawRect(left, top, right, bottom, paint);
-    }
-
-    @Override
-    public void drawCentredText(String text, float x, float y, Paint paint, int fontSize, LayerViewport layerViewport, ScreenViewport screenViewport){
-        Vector2 location = new Vector2();
-        int width = text.length() * fontSize / 2;
-        ViewportHelper.convertLayerPosIntoScreen(layerViewport,x,y, screenViewport,location);
-        drawText(text, location.x - width, location.y + fontSize / 2, paint);
-    }
 }
@@ -32,6 +32,48 @@ public class CanvasRenderSurface extends View implements IRenderSurface {
      */
     private CanvasGraphics2D mCanvasGraphics2D;
 
+    /**
+     * Batching Graphics2D wrapped around the canvas graphics instance, used
+     * in place of it when draw batching is enabled
+     */
+    private BatchedGraphics2D mBatchedGraphics2D;
+
+    /**
+     * Flag determining if bitmap draws are batched
+     */
+    private boolean mBatchDraws = false;
+
+    /**
+     * Triple buffer of recorded frames drawn when rendering snapshots
+     */
+    private DisplayListBuffer mDisplayLists = new DisplayListBuffer();
+
+    /**
+     * Flag determining if the last render request was for a snapshot
+     */
+    private volatile boolean mDrawSnapshots = false;
+
+    /**
+     * Number of frames recorded, and the number of the frame drawn by the
+     * next non-snapshot render. Frames are numbered so the bitmap cache can
+     * tell once a frame recorded after a bitmap was released has been drawn.
+     */
+    private long mNumRecordedFrames;
+    private volatile long mRenderFrameNumber;
+
+    /**
+     * Size of the view, stored by the GUI thread whenever it changes so
+     * snapshots can be recorded on the game loop thread without reading
+     * the view's layout state from it
+     */
+    private volatile int mSurfaceWidth;
+    private volatile int mSurfaceHeight;
+
+    /**
+     * Average time (in ms) taken to draw a snapshot on the GUI thread
+     */
+    private volatile float mAverageSnapshotDrawTime;
+
     /**
      * Game instance to which this render surface belongs
      */
@@ -73,6 +115,62 @@ public class CanvasRenderSurface extends View implements IRenderSurface {
 
         // Create a new Graphics2D instance for drawing on this surface
         mCanvasGraphics2D = new CanvasGraphics2D(context.getAssets());
+        mBatchedGraphics2D = new BatchedGraphics2D(mCanvasGraphics2D);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Draw Batching
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Set if bitmap draws should be batched
+     *
+     * @param batchDraws True if bitmap draws should be batched
+     */
+    public void setBatchDraws(boolean batchDraws) {
+        mBatchDraws = batchDraws;
+    }
+
+    /**
+     * Return if bitmap draws are batched
+     *
+     * @return True if bitmap draws are batched
+     */
+    public boolean getBatchDraws() {
+        return mBatchDraws;
+    }
+
+    /**
+     * Get the batching graphics instance, providing access to the
+     * per frame draw counters
+     *
+     * @return Batching graphics instance
+     */
+    public BatchedGraphics2D getBatchedGraphics2D() {
+        return mBatchedGraphics2D;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Snapshot Metrics
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Get the triple buffer of recorded frames, providing access to the
+     * queue depth and frame counters
+     *
+     * @return Display list buffer
+     */
+    public DisplayListBuffer getDisplayListBuffer() {
+        return mDisplayLists;
+    }
+
+    /**
+     * Get the average time taken to draw a snapshot on the GUI thread
+     *
+     * @return Average snapshot draw time in ms
+     */
+    public float getAverageSnapshotDrawTime() {
+        return mAverageSnapshotDrawTime;
     }
 
     // /////////////////////////////////////////////////////////////////////////
@@ -102,12 +200,51 @@ public class CanvasRenderSurface extends View implements IRenderSurface {
         // Store render target + time info
         mElapsedTime = elapsedTime;
         mScreenToRender = screenToRender;
+        mDrawSnapshots = false;
+        mRenderFrameNumber = ++mNumRecordedFrames;
+        mGame.getAssetManager().getBitmapCache().notifyFrameRecorded(mRenderFrameNumber);
 
         // Post invalidate message to the UI thread - which will result in
         // the onDraw method being called by the UI thread
         postInvalidate();
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * uk.ac.qub.eeecs.gage.engine.graphics.IRenderSurface#renderSnapshot(uk.ac.qub.eeecs
+     * .gage.engine.ElapsedTime, uk.ac.qub.eeecs.gage.world.GameScreen)
+     */
+    @Override
+    public void renderSnapshot(ElapsedTime elapsedTime, GameScreen screenToRender) {
+
+        // Record the game screen into the next display list and publish it
+        DisplayList displayList = mDisplayLists.getWriteList();
+        displayList.reset(mSurfaceWidth, mSurfaceHeight);
+        displayList.setFrameNumber(++mNumRecordedFrames);
+        screenToRender.draw(elapsedTime, displayList);
+        mDisplayLists.publish();
+        mDrawSnapshots = true;
+        mGame.getAssetManager().getBitmapCache().notifyFrameRecorded(mNumRecordedFrames);
+
+        // Post invalidate message to the UI thread - which will result in
+        // the latest published display list being drawn
+        postInvalidate();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see android.view.View#onSizeChanged(int, int, int, int)
+     */
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        mSurfaceWidth = width;
+        mSurfaceHeight = height;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -115,10 +252,32 @@ public class CanvasRenderSurface extends View implements IRenderSurface {
      */
     @Override
     protected void onDraw(Canvas canvas) {
-        // Request that the game screen render itself to this surface
-        // using the available graphics 2D instance
         mCanvasGraphics2D.setCanvas(canvas);
-        mScreenToRender.draw(mElapsedTime, mCanvasGraphics2D);
+        IGraphics2D graphics2D = mBatchDraws ? mBatchedGraphics2D : mCanvasGraphics2D;
+        long frameNumber = 0;
+
+        if (mDrawSnapshots) {
+            // Draw the latest recorded snapshot
+            long startDraw = System.nanoTime();
+            DisplayList displayList = mDisplayLists.acquireLatest();
+            if (displayList != null) {
+                displayList.replay(graphics2D);
+                frameNumber = displayList.getFrameNumber();
+            }
+            mAverageSnapshotDrawTime = 0.85f * mAverageSnapshotDrawTime
+                    + 0.15f * (System.nanoTime() - startDraw) / 1000000.0f;
+        } else {
+            // Request that the game screen render itself to this surface
+            // using the available graphics 2D instance
+            mScreenToRender.draw(mElapsedTime, graphics2D);
+            frameNumber = mRenderFrameNumber;
+        }
+
+        if (mBatchDraws)
+            mBatchedGraphics2D.endFrame();
+
+        // Let the bitmap cache reuse bitmaps no longer drawn by any frame
+        mGame.getAssetManager().getBitmapCache().notifyFrameDrawn(frameNumber);
 
         // Notify the game that the render has been completed
         mGame.notifyDrawCompleted();
@@ -0,0 +1,261 @@
+package uk.ac.qub.eeecs.gage.engine.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+
+/**
+ * Graphics2D implementation that records draw operations so they can be
+ * replayed later, possibly on another thread.
+ *
+ * All values used by a draw (rects, matrices and paint state) are copied
+ * when the draw is recorded, so a recorded list is not affected by any
+ * later changes to game objects. Viewport draws are converted into screen
+ * space as they are recorded. Recorded commands are reused once the list
+ * is reset, so no objects are created once the list has grown to the size
+ * of a typical frame.
+ *
+ * @version 1.0
+ */
+public class DisplayList extends AbstractGraphics2D {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Types of recorded operation
+     */
+    private static final int DRAW_BITMAP_RECT = 0;
+    private static final int DRAW_BITMAP_MATRIX = 1;
+    private static final int DRAW_TEXT = 2;
+    private static final int DRAW_RECT = 3;
+    private static final int CLEAR = 4;
+    private static final int CLIP_RECT = 5;
+    private static final int DRAW_CHARS = 6;
+
+    /**
+     * Recorded commands, reused between recordings
+     */
+    private ArrayList<Command> mCommands = new ArrayList<>();
+    private int mNumCommands;
+
+    /**
+     * Size of the surface the list is recorded for
+     */
+    private int mSurfaceWidth;
+    private int mSurfaceHeight;
+
+    /**
+     * Number of the frame recorded into the list
+     */
+    private long mFrameNumber;
+
+    /**
+     * A recorded operation. Only the fields used by the operation type
+     * are set.
+     */
+    private static class Command {
+        int type;
+        Bitmap bitmap;
+        String text;
+        char[] chars = new char[0];
+        int count;
+        boolean hasPaint;
+        Paint paint = new Paint();
+        boolean hasSrcRect;
+        Rect srcRect = new Rect();
+        Rect rect = new Rect();
+        Matrix matrix = new Matrix();
+        float left, top, right, bottom;
+        int colour;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Recording and Replay
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Remove all recorded operations, ready to record a new frame
+     *
+     * @param surfaceWidth  Width of the surface the frame will be drawn to
+     * @param surfaceHeight Height of the surface the frame will be drawn to
+     */
+    public void reset(int surfaceWidth, int surfaceHeight) {
+        for (int commandIdx = 0; commandIdx < mNumCommands; commandIdx++) {
+            Command command = mCommands.get(commandIdx);
+            command.bitmap = null;
+            command.text = null;
+        }
+        mNumCommands = 0;
+        mSurfaceWidth = surfaceWidth;
+        mSurfaceHeight = surfaceHeight;
+    }
+
+    /**
+     * Set the number of the frame recorded into the list
+     *
+     * @param frameNumber Frame number
+     */
+    public void setFrameNumber(long frameNumber) {
+        mFrameNumber = frameNumber;
+    }
+
+    /**
+     * Return the number of the frame recorded into the list
+     *
+     * @return Frame number
+     */
+    public long getFrameNumber() {
+        return mFrameNumber;
+    }
+
+    /**
+     * Return the number of recorded operations
+     *
+     * @return Number of recorded operations
+     */
+    public int getNumCommands() {
+        return mNumCommands;
+    }
+
+    /**
+     * Draw all recorded operations, in order, to the specified graphics
+     * instance
+     *
+     * @param graphics2D Graphics instance to draw to
+     */
+    public void replay(IGraphics2D graphics2D) {
+        for (int commandIdx = 0; commandIdx < mNumCommands; commandIdx++) {
+            Command command = mCommands.get(commandIdx);
+            Paint paint = command.hasPaint ? command.paint : null;
+            switch (command.type) {
+                case DRAW_BITMAP_RECT:
+                    graphics2D.drawBitmap(command.bitmap,
+                            command.hasSrcRect ? command.srcRect : null, command.rect, paint);
+                    break;
+                case DRAW_BITMAP_MATRIX:
+                    graphics2D.drawBitmap(command.bitmap, command.matrix, paint);
+                    break;
+                case DRAW_TEXT:
+                    graphics2D.drawText(command.text, command.left, command.top, paint);
+                    break;
+                case DRAW_CHARS:
+                    graphics2D.drawText(command.chars, 0, command.count,
+                            command.left, command.top, paint);
+                    break;
+                case DRAW_RECT:
+                    graphics2D.drawRect(command.left, command.top,
+                            command.right, command.bottom, paint);
+                    break;
+                case CLEAR:
+                    graphics2D.clear(command.colour);
+                    break;
+                case CLIP_RECT:
+                    graphics2D.clipRect(command.rect);
+                    break;
+            }
+        }
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Graphics2D
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getSurfaceWidth() {
+        return mSurfaceWidth;
+    }
+
+    @Override
+    public int getSurfaceHeight() {
+        return mSurfaceHeight;
+    }
+
+    @Override
+    public void clipRect(Rect clipRegion) {
+        Command command = nextCommand(CLIP_RECT, null);
+        copyRect(clipRegion, command.rect);
+    }
+
+    @Override
+    public void clear(int colour) {
+        Command command = nextCommand(CLEAR, null);
+        command.colour = colour;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        Command command = nextCommand(DRAW_TEXT, paint);
+        command.text = text;
+        command.left = x;
+        command.top = y;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        Command command = nextCommand(DRAW_CHARS, paint);
+        if (command.chars.length < count)
+            command.chars = new char[count];
+        System.arraycopy(text, index, command.chars, 0, count);
+        command.count = count;
+        command.left = x;
+        command.top = y;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect srcRect, Rect desRect, Paint paint) {
+        Command command = nextCommand(DRAW_BITMAP_RECT, paint);
+        command.bitmap = bitmap;
+        command.hasSrcRect = srcRect != null;
+        if (srcRect != null)
+            copyRect(srcRect, command.srcRect);
+        copyRect(desRect, command.rect);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+        Command command = nextCommand(DRAW_BITMAP_MATRIX, paint);
+        command.bitmap = bitmap;
+        command.matrix.set(matrix);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        Command command = nextCommand(DRAW_RECT, paint);
+        command.left = left;
+        command.top = top;
+        command.right = right;
+        command.bottom = bottom;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Utility
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Return the next free command, set to the specified type with a copy
+     * of the specified paint
+     *
+     * @param type  Operation type
+     * @param paint Paint to copy (may be null)
+     * @return Command
+     */
+    private Command nextCommand(int type, Paint paint) {
+        if (mNumCommands == mCommands.size())
+            mCommands.add(new Command());
+        Command command = mCommands.get(mNumCommands++);
+        command.type = type;
+        command.hasPaint = paint != null;
+        if (paint != null)
+            command.paint.set(paint);
+        return command;
+    }
+
+    private static void copyRect(Rect from, Rect to) {
+        to.set(from.left, from.top, from.right, from.bottom);
+    }
+}
@@ -0,0 +1,132 @@
+package uk.ac.qub.eeecs.gage.engine.graphics;
+
+/**
+ * Triple buffer of display lists, allowing one thread to record frames
+ * whilst another thread draws the most recently completed frame.
+ *
+ * The recording thread records into the write list and publishes it once
+ * complete, swapping it with the ready list. The drawing thread swaps the
+ * ready list with its read list whenever a newer frame has been published.
+ * Recording and drawing therefore never use the same list and neither
+ * thread waits on the other. If frames are published faster than they are
+ * drawn, the older frames are dropped.
+ *
+ * @version 1.0
+ */
+public class DisplayListBuffer {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private DisplayList[] mLists = {new DisplayList(), new DisplayList(), new DisplayList()};
+
+    /**
+     * Indices of the lists used for recording, the latest complete frame
+     * and drawing
+     */
+    private int mWriteIdx = 0;
+    private int mReadyIdx = 1;
+    private int mReadIdx = 2;
+
+    /**
+     * Flag recording if the ready list holds a frame that has not been drawn
+     */
+    private boolean mReadyIsNew = false;
+
+    /**
+     * Flag recording if any frame has been acquired for drawing
+     */
+    private boolean mHasFrame = false;
+
+    /**
+     * Frame counters
+     */
+    private long mNumPublishedFrames;
+    private long mNumDrawnFrames;
+    private long mNumDroppedFrames;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Get the list to record the next frame into. Should only be called
+     * from the recording thread.
+     *
+     * @return Display list to record into
+     */
+    public synchronized DisplayList getWriteList() {
+        return mLists[mWriteIdx];
+    }
+
+    /**
+     * Publish the recorded write list as the latest complete frame
+     */
+    public synchronized void publish() {
+        if (mReadyIsNew)
+            mNumDroppedFrames++;
+
+        int readyIdx = mReadyIdx;
+        mReadyIdx = mWriteIdx;
+        mWriteIdx = readyIdx;
+        mReadyIsNew = true;
+        mNumPublishedFrames++;
+    }
+
+    /**
+     * Get the latest complete frame to draw. Should only be called from the
+     * drawing thread. The returned list remains valid until the next call.
+     *
+     * @return Display list to draw, or null if no frame has been published
+     */
+    public synchronized DisplayList acquireLatest() {
+        if (mReadyIsNew) {
+            int readIdx = mReadIdx;
+            mReadIdx = mReadyIdx;
+            mReadyIdx = readIdx;
+            mReadyIsNew = false;
+            mHasFrame = true;
+            mNumDrawnFrames++;
+        }
+        return mHasFrame ? mLists[mReadIdx] : null;
+    }
+
+    /**
+     * Return the number of published frames waiting to be drawn (either 0 or
+     * 1, as only the latest frame is kept)
+     *
+     * @return Number of frames waiting to be drawn
+     */
+    public synchronized int getQueueDepth() {
+        return mReadyIsNew ? 1 : 0;
+    }
+
+    /**
+     * Return the number of frames that have been published
+     *
+     * @return Number of published frames
+     */
+    public synchronized long getNumPublishedFrames() {
+        return mNumPublishedFrames;
+    }
+
+    /**
+     * Return the number of published frames that have been drawn
+     *
+     * @return Number of drawn frames
+     */
+    public synchronized long getNumDrawnFrames() {
+        return mNumDrawnFrames;
+    }
+
+    /**
+     * Return the number of published frames replaced by a newer frame
+     * before they could be drawn
+     *
+     * @return Number of dropped frames
+     */
+    public synchronized long getNumDroppedFrames() {
+        return mNumDroppedFrames;
+    }
+}
@@ -55,6 +55,19 @@ public interface IGraphics2D {
      */
     void drawText(String text, float x, float y, Paint paint);
 
+    /**
+     * Draw a run of characters from the specified array. Unlike drawing a
+     * String, drawing part of a text does not require a new String.
+     *
+     * @param text  Array holding the characters to be rendered
+     * @param index Index of the first character to be rendered
+     * @param count Number of characters to be rendered
+     * @param x     Location of text on x-axis
+     * @param y     Location of text on y-axis
+     * @param paint Paint parameters controlling text render format
+     */
+    void drawText(char[] text, int index, int count, float x, float y, Paint paint);
+
     /**
      * Draw the specified bitmap
      *
@@ -91,6 +104,8 @@ public interface IGraphics2D {
 
     void drawText(String text, float x, float y, Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport);
 
+    void drawText(char[] text, int index, int count, float x, float y, Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport);
+
     void drawRect(Rect rect, Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport);
 
     public void drawCentredText(String text, float x, float y, Paint paint, int fontSize, LayerViewport layerViewport, ScreenViewport screenViewport);
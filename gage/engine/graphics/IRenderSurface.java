@@ -31,6 +31,21 @@ public interface IRenderSurface {
      */
     void render(ElapsedTime elapsedTime, GameScreen screenToRender);
 
+    /**
+     * Record the specified GameScreen as a snapshot on the calling thread and
+     * request that the surface draws the latest recorded snapshot.
+     * <p>
+     * Unlike render, the calling thread does not need to wait for the draw
+     * to complete before updating the GameScreen again, as the draw only
+     * uses the recorded snapshot.
+     * The GameScreen's draw method is therefore invoked on the calling
+     * thread, not the GUI thread.
+     *
+     * @param elapsedTime    Render request timing information
+     * @param screenToRender GameScreen to be recorded
+     */
+    void renderSnapshot(ElapsedTime elapsedTime, GameScreen screenToRender);
+
     /**
      * Return the Android View associated with this render surface.
      *
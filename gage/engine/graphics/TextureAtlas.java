@@ -0,0 +1,164 @@
+package uk.ac.qub.eeecs.gage.engine.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+import uk.ac.qub.eeecs.gage.engine.io.FileIO;
+
+/**
+ * Texture atlas.
+ * <p>
+ * A set of sheets, each holding a number of small images packed together
+ * by AtlasPacker, so they can be drawn from one decoded bitmap.
+ *
+ * @version 1.0
+ */
+public class TextureAtlas {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties: Declared public for speed of access
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Location of each sheet image
+     */
+    public String[] sheetFiles;
+
+    /**
+     * Decoded sheets (null until loadSheets has been called)
+     */
+    public Bitmap[] sheets;
+
+    /**
+     * Names of the images in the atlas
+     */
+    public String[] regionNames;
+
+    /**
+     * Sheet holding each image
+     */
+    public int[] regionSheets;
+
+    /**
+     * Region of its sheet holding each image
+     */
+    public Rect[] regionSources;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructor
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Load the atlas index from the specified JSON file. The sheets are not
+     * decoded until loadSheets is called.
+     *
+     * The following JSON format is assumed:
+     *
+     {
+         "sheets": [                // Array of 1, or more sheets
+             {
+             "file": string,        // Sheet image
+             "regions": [           // Images packed into the sheet
+                 {
+                 "name": string,    // Asset name of the image
+                 "x": int,          // Left of the image in the sheet
+                 "y": int,          // Top of the image in the sheet
+                 "width": int,      // Width of the image
+                 "height": int      // Height of the image
+                 },
+                 ...
+             ]
+             },
+             ...
+         ]
+     }     *
+     *
+     * @param fileIO         File IO used to load the atlas
+     * @param atlasJSONFile  JSON file to load the atlas index from
+     */
+    public TextureAtlas(FileIO fileIO, String atlasJSONFile) {
+
+        // Attempt to load in the JSON atlas index
+        String loadedJSON;
+        try {
+            loadedJSON = fileIO.loadJSON(atlasJSONFile);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "TextureAtlas.constructor: Cannot load JSON [" + atlasJSONFile + "]");
+        }
+
+        // Attempt to extract the JSON information
+        try {
+            JSONArray sheetArray = new JSONObject(loadedJSON).getJSONArray("sheets");
+            sheetFiles = new String[sheetArray.length()];
+            sheets = new Bitmap[sheetArray.length()];
+
+            int numRegions = 0;
+            for (int idx = 0; idx < sheetArray.length(); idx++)
+                numRegions += sheetArray.getJSONObject(idx).getJSONArray("regions").length();
+
+            regionNames = new String[numRegions];
+            regionSheets = new int[numRegions];
+            regionSources = new Rect[numRegions];
+
+            // Load in details of each sheet and the images packed into it
+            int region = 0;
+            for (int idx = 0; idx < sheetArray.length(); idx++) {
+                sheetFiles[idx] = sheetArray.getJSONObject(idx).getString("file");
+
+                JSONArray regions = sheetArray.getJSONObject(idx).getJSONArray("regions");
+                for (int regionIdx = 0; regionIdx < regions.length(); regionIdx++, region++) {
+                    JSONObject details = regions.getJSONObject(regionIdx);
+                    int x = details.getInt("x");
+                    int y = details.getInt("y");
+
+                    regionNames[region] = details.getString("name");
+                    regionSheets[region] = idx;
+                    regionSources[region] = new Rect(x, y,
+                            x + details.getInt("width"), y + details.getInt("height"));
+                }
+            }
+
+        } catch (JSONException e) {
+            throw new RuntimeException(
+                    "TextureAtlas.constructor: JSON parsing error [" + e.getMessage() + "]");
+        }
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Decode each of the atlas sheets
+     *
+     * @param fileIO File IO used to load the sheets
+     */
+    public void loadSheets(FileIO fileIO) {
+        for (int idx = 0; idx < sheetFiles.length; idx++) {
+            try {
+                sheets[idx] = fileIO.loadBitmap(sheetFiles[idx], null);
+            } catch (IOException e) {
+                throw new RuntimeException(
+                        "TextureAtlas.loadSheets: Cannot load [" + sheetFiles[idx] + "]");
+            }
+        }
+    }
+
+    /**
+     * Return the specified image of the atlas. The sheets must have been
+     * loaded.
+     *
+     * @param region Index of the image
+     * @return Region of the sheet holding the image
+     */
+    public AtlasRegion getRegion(int region) {
+        return new AtlasRegion(sheets[regionSheets[region]], regionSources[region]);
+    }
+}
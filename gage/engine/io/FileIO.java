@@ -12,12 +12,22 @@ import android.media.SoundPool;
 import android.os.Environment;
 import android.preference.PreferenceManager;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import uk.ac.qub.eeecs.gage.R;
 import uk.ac.qub.eeecs.gage.engine.audio.Music;
@@ -49,6 +59,22 @@ public class FileIO {
      */
     private String mExternalStoragePath;
 
+    /**
+     * Largest number of bitmaps held for reuse
+     */
+    public static final int MAX_REUSABLE_BITMAPS = 8;
+
+    /**
+     * Released bitmaps whose memory can be decoded into, oldest first
+     */
+    private final ArrayList<Bitmap> mReusableBitmaps = new ArrayList<>();
+
+    /**
+     * Bytes saved by each loaded bitmap, and bytes of bitmap memory reused
+     */
+    private final ConcurrentHashMap<String, Long> mBytesSaved = new ConcurrentHashMap<>();
+    private final AtomicLong mBytesReused = new AtomicLong();
+
     // /////////////////////////////////////////////////////////////////////////
     // Constructors
     // /////////////////////////////////////////////////////////////////////////
@@ -89,15 +115,92 @@ public class FileIO {
      */
     public Bitmap loadBitmap(String fileName, Bitmap.Config format)
             throws IOException {
+        return loadBitmap(fileName, format, 0, 0);
+    }
 
+    /**
+     * Load the specified bitmap using the specified format from the APK file,
+     * subsampled by the largest power of two which keeps it at least the
+     * target size. Memory of a reusable bitmap (see addReusableBitmap) is
+     * used for the pixels if one is large enough.
+     *
+     * @param fileName     Name of the bitmap to be loaded
+     * @param format       Bitmap format to be used when loading the bitmap (null for ARGB_8888)
+     * @param targetWidth  Width the bitmap will be drawn at (0 for full size)
+     * @param targetHeight Height the bitmap will be drawn at (0 for full size)
+     * @throws IOException if the asset cannot be opened or read.
+     */
+    public Bitmap loadBitmap(String fileName, Bitmap.Config format,
+                             int targetWidth, int targetHeight) throws IOException {
         Options options = new Options();
         options.inPreferredConfig = format;
+        // Mutable, so its memory can be reused once the bitmap is released
+        options.inMutable = true;
+
+        // Read the size first if it is needed to pick a sample size or a
+        // reusable bitmap
+        int width = 0, height = 0;
+        boolean reusable;
+        synchronized (mReusableBitmaps) {
+            reusable = !mReusableBitmaps.isEmpty();
+        }
+        if (targetWidth > 0 || targetHeight > 0 || reusable) {
+            options.inJustDecodeBounds = true;
+            decodeBitmap(fileName, options);
+            options.inJustDecodeBounds = false;
+            width = options.outWidth;
+            height = options.outHeight;
+            options.inSampleSize = calculateSampleSize(width, height, targetWidth, targetHeight);
+        }
+
+        Bitmap bitmap = null;
+        if (reusable) {
+            options.inBitmap = takeReusableBitmap(format,
+                    (long) divideRoundingUp(width, options.inSampleSize)
+                            * divideRoundingUp(height, options.inSampleSize)
+                            * getBytesPerPixel(format));
+            if (options.inBitmap != null) {
+                try {
+                    bitmap = decodeBitmap(fileName, options);
+                    mBytesReused.addAndGet(bitmap.getAllocationByteCount());
+                } catch (IllegalArgumentException e) {
+                    // The decoder could not reuse the bitmap, so allocate a new one
+                }
+                options.inBitmap = null;
+            }
+        }
+        if (bitmap == null)
+            bitmap = decodeBitmap(fileName, options);
+
+        // Record the bytes saved against decoding at full size as ARGB_8888
+        if (width == 0) {
+            width = bitmap.getWidth();
+            height = bitmap.getHeight();
+        }
+        long saved = (long) width * height * getBytesPerPixel(Bitmap.Config.ARGB_8888)
+                - bitmap.getByteCount();
+        if (saved > 0)
+            mBytesSaved.put(fileName, saved);
+
+        return bitmap;
+    }
+
+    /**
+     * Decode the specified bitmap from the APK file
+     *
+     * @param fileName Name of the bitmap to be loaded
+     * @param options  Decoding options
+     * @return Decoded bitmap, or null if only the bounds were decoded
+     * @throws IOException if the asset cannot be opened or read.
+     */
+    private Bitmap decodeBitmap(String fileName, Options options)
+            throws IOException {
         InputStream in = null;
         Bitmap bitmap = null;
         try {
             in = mAndroidIO.open(fileName);
-            bitmap = BitmapFactory.decodeStream(in);
-            if (bitmap == null) {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+            if (bitmap == null && !options.inJustDecodeBounds) {
                 String message = mContext.getApplicationContext()
                         .getResources().getString(R.string.WARNING_TAG)
                         + "Could not load bitmap [" + fileName + "]";
@@ -120,6 +223,125 @@ public class FileIO {
         return bitmap;
     }
 
+    /**
+     * Return the largest power of two sample size which keeps a bitmap of
+     * the specified size at least as large as the target size
+     *
+     * @param width        Width of the bitmap
+     * @param height       Height of the bitmap
+     * @param targetWidth  Width to keep (0 if any width will do)
+     * @param targetHeight Height to keep (0 if any height will do)
+     * @return Sample size, 1 if the bitmap should not be subsampled
+     */
+    public static int calculateSampleSize(int width, int height,
+                                          int targetWidth, int targetHeight) {
+        if (targetWidth <= 0 && targetHeight <= 0)
+            return 1;
+
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth
+                && height / (sampleSize * 2) >= targetHeight)
+            sampleSize *= 2;
+        return sampleSize;
+    }
+
+    /**
+     * Offer the memory of a bitmap which is no longer drawn for decoding
+     * later bitmaps into. The bitmap must not be used again by the caller.
+     *
+     * @param bitmap Mutable bitmap which is no longer needed
+     */
+    public void addReusableBitmap(Bitmap bitmap) {
+        if (bitmap == null || !bitmap.isMutable() || bitmap.isRecycled())
+            return;
+
+        synchronized (mReusableBitmaps) {
+            mReusableBitmaps.add(bitmap);
+            if (mReusableBitmaps.size() > MAX_REUSABLE_BITMAPS)
+                mReusableBitmaps.remove(0);
+        }
+    }
+
+    /**
+     * Remove and return the smallest reusable bitmap of the format which
+     * can hold the specified number of bytes
+     *
+     * @param format Bitmap format (null for ARGB_8888)
+     * @param bytes  Number of bytes needed
+     * @return Reusable bitmap, or null if none is large enough
+     */
+    private Bitmap takeReusableBitmap(Bitmap.Config format, long bytes) {
+        Bitmap.Config config = format != null ? format : Bitmap.Config.ARGB_8888;
+        synchronized (mReusableBitmaps) {
+            Bitmap best = null;
+            for (Bitmap candidate : mReusableBitmaps)
+                if (candidate.getConfig() == config && candidate.getAllocationByteCount() >= bytes
+                        && (best == null || candidate.getAllocationByteCount() < best.getAllocationByteCount()))
+                    best = candidate;
+            if (best != null)
+                mReusableBitmaps.remove(best);
+            return best;
+        }
+    }
+
+    /**
+     * Return the number of bytes each pixel of the format uses
+     *
+     * @param format Bitmap format (null for ARGB_8888)
+     * @return Bytes per pixel
+     */
+    private static int getBytesPerPixel(Bitmap.Config format) {
+        if (format == null)
+            return 4;
+        switch (format) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            case RGBA_F16:
+                return 8;
+            default:
+                return 4;
+        }
+    }
+
+    private static int divideRoundingUp(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * Return the bytes saved by each loaded bitmap, against decoding it at
+     * full size as ARGB_8888
+     *
+     * @return Bytes saved, by bitmap file
+     */
+    public Map<String, Long> getBytesSaved() {
+        return Collections.unmodifiableMap(mBytesSaved);
+    }
+
+    /**
+     * Return the total bytes saved by the loaded bitmaps, against decoding
+     * them at full size as ARGB_8888
+     *
+     * @return Bytes saved
+     */
+    public long getTotalBytesSaved() {
+        long total = 0;
+        for (long saved : mBytesSaved.values())
+            total += saved;
+        return total;
+    }
+
+    /**
+     * Return the bytes of bitmap memory reused rather than allocated
+     *
+     * @return Bytes reused
+     */
+    public long getBytesReused() {
+        return mBytesReused.get();
+    }
+
     /**
      * Load in the specified music file.
      *
@@ -191,10 +413,14 @@ public class FileIO {
         InputStream in = null;
         try {
             in = mAndroidIO.open(fileName);
-            byte[] data = new byte[in.available()];
-            in.read(data);
+            // available() is only an estimate, so read until the end of the stream
+            ByteArrayOutputStream data = new ByteArrayOutputStream(Math.max(in.available(), 1024));
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                data.write(buffer, 0, read);
             in.close();
-            loadedJSON = new String(data, "UTF-8");
+            loadedJSON = data.toString("UTF-8");
 
         } catch (IOException e) {
             String message = "Gage Warning:"
@@ -212,6 +438,59 @@ public class FileIO {
         return loadedJSON;
     }
 
+    /**
+     * Load the specified asset into a read only buffer. Assets stored
+     * uncompressed in the APK are memory-mapped, otherwise the asset is
+     * read into a direct buffer.
+     *
+     * @param fileName Name of the asset to be loaded
+     * @return ByteBuffer holding the whole asset
+     * @throws IOException if the asset cannot be opened or read.
+     */
+    public ByteBuffer loadBuffer(String fileName) throws IOException {
+        try {
+            AssetFileDescriptor assetDescriptor = mAndroidIO.openFd(fileName);
+            FileChannel channel = new FileInputStream(assetDescriptor.getFileDescriptor()).getChannel();
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY,
+                        assetDescriptor.getStartOffset(), assetDescriptor.getLength());
+            } finally {
+                channel.close();
+                assetDescriptor.close();
+            }
+        } catch (IOException e) {
+            // Compressed assets have no file descriptor, so are read instead
+        }
+
+        InputStream in = null;
+        try {
+            in = mAndroidIO.open(fileName);
+            ReadableByteChannel channel = Channels.newChannel(in);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(in.available(), 4096));
+            while (channel.read(buffer) != -1) {
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        } catch (IOException e) {
+            String message = "Gage Warning:"
+                + "Could not load buffer [" + fileName + "]";
+            throw new IOException(message);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
     // /////////////////////////////////////////////////////////////////////////
     // Device Storage IO //
     // /////////////////////////////////////////////////////////////////////////
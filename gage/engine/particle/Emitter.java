@@ -17,6 +17,19 @@ import uk.ac.qub.eeecs.gage.util.Vector2;
  */
 public class Emitter {
 
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties: Storage modes
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Define how the emitter stores its particles. Objects holds each particle
+     * as a pooled Particle instance, Arrays holds all particles in the
+     * parallel float arrays of a ParticleArrays instance.
+     */
+    public enum StorageMode {
+        Objects, Arrays
+    }
+
     // /////////////////////////////////////////////////////////////////////////
     // Properties: Emitter settings and location
     // /////////////////////////////////////////////////////////////////////////
@@ -57,6 +70,18 @@ public class Emitter {
      */
     private float mParticleStorageCleanupThreshold = 0.75f;
 
+    /**
+     * Storage for particles if the emitter uses the Arrays storage mode
+     * (null otherwise).
+     */
+    private ParticleArrays mParticleArrays;
+
+    /**
+     * Particle initialised for each new particle before being copied into
+     * the particle arrays (only used in the Arrays storage mode).
+     */
+    private Particle mSpawnParticle;
+
     // /////////////////////////////////////////////////////////////////////////
     // Properties: Other properties
     // /////////////////////////////////////////////////////////////////////////
@@ -73,6 +98,18 @@ public class Emitter {
      */
     private RectF mEmitterVisibleRange = new RectF();
 
+    /**
+     * Flag set once a burst emitter's particles have all expired
+     */
+    private boolean mExpired = false;
+
+    /**
+     * Random instance used to configure this emitter's particles. Each
+     * emitter has its own instance so that emitters can be updated in
+     * parallel with repeatable results for a given seed.
+     */
+    private Random mRandom = new Random();
+
 
     // /////////////////////////////////////////////////////////////////////////
     // Constructors
@@ -92,6 +129,21 @@ public class Emitter {
                         emitterSettingsJSON), position);
     }
 
+    /**
+     * Create an emitter
+     *
+     * @param particleSystemManager Particle system manager
+     * @param emitterSettingsJSON   Emitter settings JSON file
+     * @param position              Emitter position in game space
+     * @param storageMode           Particle storage mode
+     */
+    public Emitter(ParticleSystemManager particleSystemManager,
+                   String emitterSettingsJSON, Vector2 position, StorageMode storageMode) {
+        this(particleSystemManager,
+            new EmitterSettings(particleSystemManager.getGame().getAssetManager(),
+                        emitterSettingsJSON), position, storageMode);
+    }
+
     /**
      * Create an emitter
      *
@@ -101,6 +153,20 @@ public class Emitter {
      */
     public Emitter(ParticleSystemManager particleSystemManager,
                    EmitterSettings emitterSettings, Vector2 position) {
+        this(particleSystemManager, emitterSettings, position, StorageMode.Objects);
+    }
+
+    /**
+     * Create an emitter
+     *
+     * @param particleSystemManager Particle system manager
+     * @param emitterSettings       Emitter settings
+     * @param position              Emitter position in game space
+     * @param storageMode           Particle storage mode
+     */
+    public Emitter(ParticleSystemManager particleSystemManager,
+                   EmitterSettings emitterSettings, Vector2 position,
+                   StorageMode storageMode) {
 
         // Store the passed values
         mParticleSystemManager = particleSystemManager;
@@ -119,7 +185,12 @@ public class Emitter {
         maxParticles = (int) Math.ceil((float) maxParticles / mParticleStorageCleanupThreshold);
 
         // Create storage for the particles
-        mParticleStorage = new Particle[maxParticles];
+        if (storageMode == StorageMode.Arrays) {
+            mParticleArrays = new ParticleArrays(maxParticles);
+            mSpawnParticle = new Particle();
+        } else {
+            mParticleStorage = new Particle[maxParticles];
+        }
         mNumParticles = 0;
     }
 
@@ -156,7 +227,7 @@ public class Emitter {
      * @return Number of managed particles
      */
     public int getNumParticles() {
-        return mNumParticles;
+        return mParticleArrays != null ? mParticleArrays.getNumParticles() : mNumParticles;
     }
 
     /**
@@ -164,7 +235,8 @@ public class Emitter {
      * and recently expired particles that have yet to be released).
      * <p>
      * Note: The getNumParticles() method should be used to determine the
-     * safe iteration size of this array.
+     * safe iteration size of this array. Emitters using the Arrays storage
+     * mode return null, use getParticleArrays() instead.
      *
      * @return Array of Particles
      */
@@ -172,6 +244,27 @@ public class Emitter {
         return mParticleStorage;
     }
 
+    /**
+     * Get access to the particle arrays (only alive particles are stored).
+     * <p>
+     * Note: Emitters using the Objects storage mode return null, use
+     * getParticleStorage() instead.
+     *
+     * @return Particle arrays
+     */
+    public ParticleArrays getParticleArrays() {
+        return mParticleArrays;
+    }
+
+    /**
+     * Return the particle storage mode used by this emitter
+     *
+     * @return Particle storage mode
+     */
+    public StorageMode getStorageMode() {
+        return mParticleArrays != null ? StorageMode.Arrays : StorageMode.Objects;
+    }
+
     /**
      * Return the emitter settings
      *
@@ -193,6 +286,27 @@ public class Emitter {
         return mEmitterVisibleRange;
     }
 
+    /**
+     * Return if this is a burst emitter whose particles have all expired.
+     * <p>
+     * Note: This method is used by the particle system manager to remove
+     * expired emitters once all emitters have been updated.
+     *
+     * @return True if the emitter has expired
+     */
+    public boolean isExpired() {
+        return mExpired;
+    }
+
+    /**
+     * Seed the random values used to configure this emitter's particles
+     *
+     * @param seed Random seed
+     */
+    public void setRandomSeed(long seed) {
+        mRandom.setSeed(seed);
+    }
+
 
     // /////////////////////////////////////////////////////////////////////////
     // Methods: Update Particles
@@ -207,9 +321,9 @@ public class Emitter {
      * Update the emitter, creating new particles if needed, updating
      * alive particles, removing expired particles.
      * <p>
-     * Note: If the emitter is set to burst mode, it will automatically
-     * remove itself from the particle manager when all the managed particles
-     * have expired.
+     * Note: If the emitter is set to burst mode, it will be flagged as
+     * expired when all the managed particles have expired, and removed by
+     * the particle manager once the update completes.
      *
      * @param elapsedTime Elapsed time information
      * @return Number of alive particles that were updated
@@ -219,6 +333,9 @@ public class Emitter {
         // Add particles if needed
         considerAddingParticles((float)elapsedTime.stepTime);
 
+        if (mParticleArrays != null)
+            return updateParticleArrays((float)elapsedTime.stepTime);
+
         // Apply gravity to the managed particles if needed
         if (mEmitterSettings.applyGravity) {
             Vector2 gravity = mParticleSystemManager.getGravity();
@@ -260,6 +377,35 @@ public class Emitter {
         return numUpdatedParticles;
     }
 
+    /**
+     * Update the particle arrays. Expired particles are removed as part of
+     * the update, so no separate release pass is needed.
+     *
+     * @param dt Elapsed time step since last update
+     * @return Number of alive particles that were updated
+     */
+    private int updateParticleArrays(float dt) {
+        float gravityX = 0.0f, gravityY = 0.0f;
+        if (mEmitterSettings.applyGravity) {
+            Vector2 gravity = mParticleSystemManager.getGravity();
+            gravityX = gravity.x;
+            gravityY = gravity.y;
+        }
+
+        mEmitterVisibleRange.set(mPosition.x, mPosition.y, mPosition.x, mPosition.y);
+        int numUpdatedParticles =
+                mParticleArrays.update(dt, gravityX, gravityY, mEmitterVisibleRange);
+
+        // If this is a burst emitter then remove it if all the particles are dead
+        if (mEmitterSettings.emitterMode == EmitterSettings.EmitterMode.Burst
+                && mParticleArrays.getNumParticles() == 0)
+            mExpired = true;
+
+        mLastPosition.set(mPosition);
+
+        return numUpdatedParticles;
+    }
+
     // /////////////////////////////////////////////////////////////////////////
     // Methods: Add, Create and Remove Particles
     // /////////////////////////////////////////////////////////////////////////
@@ -274,7 +420,7 @@ public class Emitter {
     private void considerAddingParticles(float dt) {
         // Add particles if needed
         if (mEmitterSettings.emitterMode == EmitterSettings.EmitterMode.Burst) {
-            if (mNumParticles == 0)
+            if (getNumParticles() == 0)
                 addParticles(dt,
                         (int) randomBetween(mEmitterSettings.minParticleDensity,
                                 mEmitterSettings.maxParticleDensity));
@@ -332,13 +478,20 @@ public class Emitter {
 
         // Initialise and add the particles
         for (int i = 0; i < numParticlesToAdd; i++) {
-            if (mNumParticles == mParticleStorage.length)
-                increaseParticleStorage();
-
-            Particle particle = mParticleSystemManager.getParticleFromPool();
-
-            initialiseParticle(particle, particlePosition, particleVelocityBias);
-            mParticleStorage[mNumParticles++] = particle;
+            if (mParticleArrays != null) {
+                // Particle arrays copy the particle state, so one spawn
+                // particle is reused rather than taking one from the pool
+                initialiseParticle(mSpawnParticle, particlePosition, particleVelocityBias);
+                mParticleArrays.add(mSpawnParticle);
+            } else {
+                if (mNumParticles == mParticleStorage.length)
+                    increaseParticleStorage();
+
+                Particle particle = mParticleSystemManager.getParticleFromPool();
+
+                initialiseParticle(particle, particlePosition, particleVelocityBias);
+                mParticleStorage[mNumParticles++] = particle;
+            }
 
             particlePosition.x += particleOffset.x;
             particlePosition.y += particleOffset.y;
@@ -475,7 +628,7 @@ public class Emitter {
         // If this is a burst emitter then remove it if all the particles are dead
         if (mEmitterSettings.emitterMode == EmitterSettings.EmitterMode.Burst
                 && mNumParticles == 0)
-            mParticleSystemManager.removeEmitter(this);
+            mExpired = true;
 
     }
 
@@ -498,6 +651,9 @@ public class Emitter {
      * Release all particles managed by this emitter
      */
     public void releaseAllParticles() {
+        if (mParticleArrays != null)
+            mParticleArrays.clear();
+
         for (int particleIdx = 0; particleIdx < mNumParticles; particleIdx++) {
             mParticleSystemManager.returnParticleToPool(mParticleStorage[particleIdx]);
             mParticleStorage[particleIdx] = null;
@@ -505,11 +661,6 @@ public class Emitter {
         mNumParticles = 0;
     }
 
-    /**
-     * Static random instance used by all emitters to configure their particles
-     */
-    private static Random random = new Random();
-
     /**
      * Return a random between between the specified min and max
      *
@@ -517,8 +668,8 @@ public class Emitter {
      * @param max Maximum value
      * @return Value in the specified range
      */
-    private static float randomBetween(float min, float max) {
-        return min + random.nextFloat() * (max - min);
+    private float randomBetween(float min, float max) {
+        return min + mRandom.nextFloat() * (max - min);
     }
 
     /**
@@ -528,7 +679,7 @@ public class Emitter {
      * @param max          Maximum value
      * @param outputVector Vector within which the direction will be stored
      */
-    private static void pickRandomDirection(float min, float max, Vector2 outputVector) {
+    private void pickRandomDirection(float min, float max, Vector2 outputVector) {
         float angle = randomBetween(min, max);
         // our settings angles are in degrees, so we must convert to radians
         angle = (float) Math.toRadians(angle);
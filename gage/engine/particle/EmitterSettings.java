@@ -112,6 +112,13 @@ public class EmitterSettings {
     // Constructor
     // /////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Create emitter settings with default values, to be set in code
+     * rather than loaded from JSON
+     */
+    EmitterSettings() {
+    }
+
     /**
      * Create emitter settings using the specified JSON file
      *
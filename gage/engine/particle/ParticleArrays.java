@@ -0,0 +1,257 @@
+package uk.ac.qub.eeecs.gage.engine.particle;
+
+import android.graphics.RectF;
+
+/**
+ * Structure-of-arrays particle storage.
+ *
+ * Holds the state of a set of particles in parallel float arrays (one array
+ * per particle property) rather than as an array of Particle objects. The
+ * update loop walks each array in order, avoiding the pointer chasing and
+ * scattered Vector2 instances of the object based storage.
+ *
+ * Particles are packed into indices [0, getNumParticles()) at all times.
+ * Expired particles are removed during update by moving the last particle
+ * into their slot, so the stored particles are always alive, although
+ * their order is not preserved.
+ *
+ * @version 1.0
+ */
+public class ParticleArrays {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties: Declared public for speed of access
+    // /////////////////////////////////////////////////////////////////////////
+
+    public float[] sizeX;
+    public float[] sizeY;
+
+    public float[] positionX;
+    public float[] positionY;
+
+    public float[] velocityX;
+    public float[] velocityY;
+
+    public float[] accelerationX;
+    public float[] accelerationY;
+
+    public float[] orientation;
+    public float[] angularVelocity;
+
+    public float[] scale;
+    public float[] scaleGrowth;
+
+    public float[] age;
+    public float[] lifeSpan;
+
+    public float[] fadeInBy;
+    public float[] fadeOutFrom;
+    public float[] fade;
+
+    /**
+     * Number of stored particles
+     */
+    private int mNumParticles;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create particle storage
+     *
+     * @param capacity Initial number of particles that can be stored
+     */
+    public ParticleArrays(int capacity) {
+        allocate(Math.max(capacity, 1));
+        mNumParticles = 0;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Get the number of stored particles
+     *
+     * @return Number of stored particles
+     */
+    public int getNumParticles() {
+        return mNumParticles;
+    }
+
+    /**
+     * Get the number of particles that can be stored before the arrays
+     * need to grow
+     *
+     * @return Storage capacity
+     */
+    public int getCapacity() {
+        return positionX.length;
+    }
+
+    /**
+     * Add a particle, copying its state from the specified particle.
+     *
+     * @param particle Initialised particle to copy
+     */
+    public void add(Particle particle) {
+        if (mNumParticles == positionX.length)
+            allocate((int) (positionX.length * 1.5f) + 1);
+
+        int idx = mNumParticles++;
+        sizeX[idx] = particle.size.x;
+        sizeY[idx] = particle.size.y;
+        positionX[idx] = particle.position.x;
+        positionY[idx] = particle.position.y;
+        velocityX[idx] = particle.velocity.x;
+        velocityY[idx] = particle.velocity.y;
+        accelerationX[idx] = particle.acceleration.x;
+        accelerationY[idx] = particle.acceleration.y;
+        orientation[idx] = particle.orientation;
+        angularVelocity[idx] = particle.angularVelocity;
+        scale[idx] = particle.scale;
+        scaleGrowth[idx] = particle.scaleGrowth;
+        age[idx] = particle.timeSinceBirth;
+        lifeSpan[idx] = particle.lifeSpan;
+        fadeInBy[idx] = particle.fadeInBy;
+        fadeOutFrom[idx] = particle.fadeOutFrom;
+        fade[idx] = particle.fade;
+    }
+
+    /**
+     * Update all stored particles, removing those that expire.
+     *
+     * The gravity values are added to each particle's acceleration before
+     * it is integrated, matching the object based emitter update. Pass zero
+     * to apply no gravity.
+     *
+     * @param dt           Elapsed time step since last update
+     * @param gravityX     Gravitational x acceleration to add
+     * @param gravityY     Gravitational y acceleration to add
+     * @param visibleRange Region to widen to include the updated particles
+     * @return Number of particles that were updated
+     */
+    public int update(float dt, float gravityX, float gravityY, RectF visibleRange) {
+        float left = visibleRange.left, right = visibleRange.right;
+        float bottom = visibleRange.bottom, top = visibleRange.top;
+
+        int numUpdatedParticles = 0;
+        int idx = 0;
+        while (idx < mNumParticles) {
+            // Integrate the particle
+            float ax = accelerationX[idx] += gravityX;
+            float ay = accelerationY[idx] += gravityY;
+            float vx = velocityX[idx] += ax * dt;
+            float vy = velocityY[idx] += ay * dt;
+            float x = positionX[idx] += vx * dt;
+            float y = positionY[idx] += vy * dt;
+            orientation[idx] += angularVelocity[idx] * dt;
+            scale[idx] += scaleGrowth[idx] * dt;
+            float particleAge = age[idx] += dt;
+
+            float percentageTimeSinceBirth = particleAge / lifeSpan[idx];
+            float particleFade = percentageTimeSinceBirth < fadeInBy[idx]
+                    ? percentageTimeSinceBirth / fadeInBy[idx] : 1.0f;
+            if (percentageTimeSinceBirth > fadeOutFrom[idx])
+                particleFade = 1.0f - (percentageTimeSinceBirth - fadeOutFrom[idx])
+                        / (1.0f - fadeOutFrom[idx]);
+            fade[idx] = particleFade;
+            numUpdatedParticles++;
+
+            // Check if the visible bound for particles needs to be widened
+            float halfWidth = sizeX[idx] / 2.0f, halfHeight = sizeY[idx] / 2.0f;
+            if (x + halfWidth < left)
+                left = x + halfWidth;
+            else if (x - halfWidth > right)
+                right = x - halfWidth;
+            if (y + halfHeight < bottom)
+                bottom = y + halfHeight;
+            else if (y - halfHeight > top)
+                top = y - halfHeight;
+
+            // Swap an expired particle with the last particle. The moved
+            // particle has not been updated yet so this index is revisited.
+            if (particleAge >= lifeSpan[idx])
+                moveParticle(--mNumParticles, idx);
+            else
+                idx++;
+        }
+
+        visibleRange.left = left;
+        visibleRange.right = right;
+        visibleRange.bottom = bottom;
+        visibleRange.top = top;
+        return numUpdatedParticles;
+    }
+
+    /**
+     * Remove all stored particles
+     */
+    public void clear() {
+        mNumParticles = 0;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Utility Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Copy the particle at one index over the particle at another
+     *
+     * @param from Index of the particle to copy
+     * @param to   Index of the particle to overwrite
+     */
+    private void moveParticle(int from, int to) {
+        sizeX[to] = sizeX[from];
+        sizeY[to] = sizeY[from];
+        positionX[to] = positionX[from];
+        positionY[to] = positionY[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        accelerationX[to] = accelerationX[from];
+        accelerationY[to] = accelerationY[from];
+        orientation[to] = orientation[from];
+        angularVelocity[to] = angularVelocity[from];
+        scale[to] = scale[from];
+        scaleGrowth[to] = scaleGrowth[from];
+        age[to] = age[from];
+        lifeSpan[to] = lifeSpan[from];
+        fadeInBy[to] = fadeInBy[from];
+        fadeOutFrom[to] = fadeOutFrom[from];
+        fade[to] = fade[from];
+    }
+
+    /**
+     * Allocate the property arrays with the specified capacity, retaining
+     * any stored particles
+     *
+     * @param capacity Number of particles to allocate storage for
+     */
+    private void allocate(int capacity) {
+        sizeX = resize(sizeX, capacity);
+        sizeY = resize(sizeY, capacity);
+        positionX = resize(positionX, capacity);
+        positionY = resize(positionY, capacity);
+        velocityX = resize(velocityX, capacity);
+        velocityY = resize(velocityY, capacity);
+        accelerationX = resize(accelerationX, capacity);
+        accelerationY = resize(accelerationY, capacity);
+        orientation = resize(orientation, capacity);
+        angularVelocity = resize(angularVelocity, capacity);
+        scale = resize(scale, capacity);
+        scaleGrowth = resize(scaleGrowth, capacity);
+        age = resize(age, capacity);
+        lifeSpan = resize(lifeSpan, capacity);
+        fadeInBy = resize(fadeInBy, capacity);
+        fadeOutFrom = resize(fadeOutFrom, capacity);
+        fade = resize(fade, capacity);
+    }
+
+    private float[] resize(float[] array, int capacity) {
+        float[] resized = new float[capacity];
+        if (array != null)
+            System.arraycopy(array, 0, resized, 0, mNumParticles);
+        return resized;
+    }
+}
@@ -100,6 +100,13 @@ public class ParticleSettings {
 	// Constructor
 	// /////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Create particle settings with default values, to be set in code
+     * rather than loaded from JSON
+     */
+    ParticleSettings() {
+    }
+
     /**
      * Create particle settings using the specified JSON file
      *
@@ -9,6 +9,9 @@ import android.graphics.RectF;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import uk.ac.qub.eeecs.gage.Game;
 import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
@@ -60,6 +63,18 @@ public class ParticleSystemManager {
      */
     private Vector2 mGravity = new Vector2();
 
+    /**
+     * Pool used to update emitters in parallel (null if emitters are
+     * updated sequentially on the calling thread)
+     */
+    private ForkJoinPool mUpdatePool;
+
+    /**
+     * Generator used to seed each added emitter (null if emitters are
+     * left with their own random seed)
+     */
+    private Random mEmitterSeedGenerator;
+
 
     // /////////////////////////////////////////////////////////////////////////
     // Constructors
@@ -135,6 +150,44 @@ public class ParticleSystemManager {
         return mGame;
     }
 
+    /**
+     * Set the number of threads used to update emitters. Using more than
+     * one thread splits the emitters across a fork/join pool, with each
+     * emitter updated by a single thread. Passing one (the default)
+     * updates all emitters on the calling thread.
+     *
+     * @param numThreads Number of update threads
+     */
+    public void setUpdateThreads(int numThreads) {
+        if (numThreads == getUpdateThreads())
+            return;
+
+        if (mUpdatePool != null)
+            mUpdatePool.shutdown();
+        mUpdatePool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+    }
+
+    /**
+     * Return the number of threads used to update emitters
+     *
+     * @return Number of update threads
+     */
+    public int getUpdateThreads() {
+        return mUpdatePool != null ? mUpdatePool.getParallelism() : 1;
+    }
+
+    /**
+     * Seed the random values used by emitters added after this call. Each
+     * emitter is given its own seed from the specified seed, so the
+     * particles created are the same whether emitters are updated
+     * sequentially or in parallel.
+     *
+     * @param seed Random seed
+     */
+    public void setRandomSeed(long seed) {
+        mEmitterSeedGenerator = new Random(seed);
+    }
+
 
     // /////////////////////////////////////////////////////////////////////////
     // Emitter Management
@@ -146,6 +199,8 @@ public class ParticleSystemManager {
      * @param emitter Emitter to add
      */
     public void addEmitter( Emitter emitter) {
+        if (mEmitterSeedGenerator != null)
+            emitter.setRandomSeed(mEmitterSeedGenerator.nextLong());
         mEmitters.add(emitter);
     }
 
@@ -174,18 +229,68 @@ public class ParticleSystemManager {
     // /////////////////////////////////////////////////////////////////////////
 
     /**
-     * Update all added emitters
+     * Update all added emitters, removing any burst emitters whose
+     * particles have all expired
      *
      * @param elapsedTime Elapsed time since the last update
      */
     public void update(ElapsedTime elapsedTime) {
         mNumUpdatedParticles = 0;
+        if (mUpdatePool != null && mEmitters.size() > 1) {
+            mNumUpdatedParticles = mUpdatePool.invoke(
+                    new EmitterUpdateTask(elapsedTime, 0, mEmitters.size()));
+        } else {
+            for (int emitterIdx = 0; emitterIdx < mEmitters.size(); emitterIdx++)
+                mNumUpdatedParticles += mEmitters.get(emitterIdx).update(elapsedTime);
+        }
+
+        // Remove expired emitters once all emitters have been updated
         Iterator<Emitter> iterator = mEmitters.iterator();
         while (iterator.hasNext()) {
             Emitter emitter = iterator.next();
-            mNumUpdatedParticles += emitter.update(elapsedTime);
+            if (emitter.isExpired()) {
+                emitter.releaseAllParticles();
+                iterator.remove();
+            }
         }
-   }
+    }
+
+    /**
+     * Fork/join task that updates a range of emitters, splitting the range
+     * in half until a single emitter remains. Returns the number of
+     * particles updated within the range.
+     */
+    private class EmitterUpdateTask extends RecursiveTask<Integer> {
+        private final ElapsedTime mElapsedTime;
+        private final int mStart;
+        private final int mEnd;
+
+        /**
+         * Create a task to update emitters in the range [start, end)
+         *
+         * @param elapsedTime Elapsed time since the last update
+         * @param start       Index of the first emitter to update
+         * @param end         Index after the last emitter to update
+         */
+        EmitterUpdateTask(ElapsedTime elapsedTime, int start, int end) {
+            mElapsedTime = elapsedTime;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (mEnd - mStart == 1)
+                return mEmitters.get(mStart).update(mElapsedTime);
+
+            int middle = (mStart + mEnd) >>> 1;
+            EmitterUpdateTask first = new EmitterUpdateTask(mElapsedTime, mStart, middle);
+            first.fork();
+            int numUpdatedParticles =
+                    new EmitterUpdateTask(mElapsedTime, middle, mEnd).compute();
+            return numUpdatedParticles + first.join();
+        }
+    }
 
 
     // /////////////////////////////////////////////////////////////////////////
@@ -200,6 +305,7 @@ public class ParticleSystemManager {
     private Paint additiveBlend;
     private Matrix drawMatrix = new Matrix();
     private Vector2 screenPosition = new Vector2();
+    private Vector2 layerPosition = new Vector2();
 
     /**
      * Setup the internal draw variables to be used during draw callls
@@ -253,32 +359,27 @@ public class ParticleSystemManager {
                             additiveBlend : alphaBlend;
 
             // Draw all active particles for this emitter
+            if (emitter.getStorageMode() == Emitter.StorageMode.Arrays) {
+                ParticleArrays particles = emitter.getParticleArrays();
+                for (int particleIdx = 0; particleIdx < particles.getNumParticles(); particleIdx++) {
+                    drawParticle(graphics2D, bitmap, paint, particles.fade[particleIdx],
+                            scaleX * particles.scale[particleIdx],
+                            scaleY * particles.scale[particleIdx],
+                            particles.orientation[particleIdx],
+                            particles.positionX[particleIdx], particles.positionY[particleIdx],
+                            bitmapHalfWidth, bitmapHalfHeight);
+                }
+                continue;
+            }
+
             Particle[] particles = emitter.getParticleStorage();
             for( int particleIdx = 0; particleIdx < emitter.getNumParticles(); particleIdx++) {
                 if (particles[particleIdx].isAlive()) {
                     Particle particle = particles[particleIdx];
-
-                    // Use the particle's alpha value
-                    paint.setAlpha((int) (particle.fade * 255.0f));
-
-                    // Build an appropriate transformation matrix
-                    drawMatrix.reset();
-
-                    // Define the scaling to apply
-                    drawMatrix.postScale(scaleX * particle.scale, scaleY * particle.scale);
-
-                    // Rotate about the (scaled) bitmap centre
-                    drawMatrix.postRotate(particle.orientation,
-                            scaleX * bitmapHalfWidth, scaleY * bitmapHalfHeight);
-
-                    // Translate to the correct on screen location
-                    drawMatrix.postTranslate(
-                            particle.position.x - scaleX * bitmapHalfWidth,
-                            particle.position.y - scaleY * bitmapHalfHeight);
-
-                    // Draw the image
-                    graphics2D.drawBitmap(bitmap, drawMatrix, paint);
-                    mNumDrawnParticles++;
+                    drawParticle(graphics2D, bitmap, paint, particle.fade,
+                            scaleX * particle.scale, scaleY * particle.scale,
+                            particle.orientation, particle.position.x, particle.position.y,
+                            bitmapHalfWidth, bitmapHalfHeight);
                 }
             }
         }
@@ -337,41 +438,79 @@ public class ParticleSystemManager {
                     ? additiveBlend : alphaBlend;
 
             // Draw all active particles for this emitter
+            if (emitter.getStorageMode() == Emitter.StorageMode.Arrays) {
+                ParticleArrays particles = emitter.getParticleArrays();
+                for (int particleIdx = 0; particleIdx < particles.getNumParticles(); particleIdx++) {
+                    layerPosition.set(
+                            particles.positionX[particleIdx], particles.positionY[particleIdx]);
+                    ViewportHelper.convertLayerPosIntoScreen(
+                            layerViewport, layerPosition, screenViewport, screenPosition);
+                    drawParticle(graphics2D, bitmap, paint, particles.fade[particleIdx],
+                            toScreenXScale * particles.scale[particleIdx],
+                            toScreenYScale * particles.scale[particleIdx],
+                            particles.orientation[particleIdx],
+                            screenPosition.x, screenPosition.y,
+                            bitmapHalfWidth, bitmapHalfHeight);
+                }
+                continue;
+            }
+
             Particle[] particles = emitter.getParticleStorage();
             for( int particleIdx = 0; particleIdx < emitter.getNumParticles(); particleIdx++) {
                 if (particles[particleIdx].isAlive()) {
                     Particle particle = particles[particleIdx];
-
-                    // Use the particle's alpha value
-                    paint.setAlpha((int) (particle.fade * 255.0f));
-
-                    // Build an appropriate transformation matrix
-                    drawMatrix.reset();
-
-                    // Define the scaling to apply
-                    float scaleX = toScreenXScale * particle.scale;
-                    float scaleY = toScreenYScale * particle.scale;
-                    drawMatrix.postScale(scaleX, scaleY);
-
-                    // Rotate about the (scaled) bitmap centre
-                    drawMatrix.postRotate(particle.orientation,
-                            scaleX * bitmapHalfWidth, scaleY * bitmapHalfHeight);
-
-                    // Translate to the correct on screen location
                     ViewportHelper.convertLayerPosIntoScreen(
                             layerViewport, particle.position, screenViewport, screenPosition);
-                    drawMatrix.postTranslate(
-                            screenPosition.x - scaleX * bitmapHalfWidth,
-                            screenPosition.y - scaleY * bitmapHalfHeight);
-
-                    // Draw the image
-                    graphics2D.drawBitmap(bitmap, drawMatrix, paint);
-                    mNumDrawnParticles++;
+                    drawParticle(graphics2D, bitmap, paint, particle.fade,
+                            toScreenXScale * particle.scale, toScreenYScale * particle.scale,
+                            particle.orientation, screenPosition.x, screenPosition.y,
+                            bitmapHalfWidth, bitmapHalfHeight);
                 }
             }
         }
     }
 
+    /**
+     * Draw a single particle centred on the specified screen position
+     *
+     * @param graphics2D       Graphics instance
+     * @param bitmap           Particle bitmap
+     * @param paint            Paint to draw with
+     * @param fade             Particle alpha value
+     * @param scaleX           Bitmap x scale factor
+     * @param scaleY           Bitmap y scale factor
+     * @param orientation      Particle orientation
+     * @param x                Screen x position
+     * @param y                Screen y position
+     * @param bitmapHalfWidth  Half the bitmap width
+     * @param bitmapHalfHeight Half the bitmap height
+     */
+    private void drawParticle(IGraphics2D graphics2D, Bitmap bitmap, Paint paint,
+                              float fade, float scaleX, float scaleY, float orientation,
+                              float x, float y, float bitmapHalfWidth, float bitmapHalfHeight) {
+        // Use the particle's alpha value
+        paint.setAlpha((int) (fade * 255.0f));
+
+        // Build an appropriate transformation matrix
+        drawMatrix.reset();
+
+        // Define the scaling to apply
+        drawMatrix.postScale(scaleX, scaleY);
+
+        // Rotate about the (scaled) bitmap centre
+        drawMatrix.postRotate(orientation,
+                scaleX * bitmapHalfWidth, scaleY * bitmapHalfHeight);
+
+        // Translate to the correct on screen location
+        drawMatrix.postTranslate(
+                x - scaleX * bitmapHalfWidth,
+                y - scaleY * bitmapHalfHeight);
+
+        // Draw the image
+        graphics2D.drawBitmap(bitmap, drawMatrix, paint);
+        mNumDrawnParticles++;
+    }
+
     // /////////////////////////////////////////////////////////////////////////
     // Particle Pool
     // /////////////////////////////////////////////////////////////////////////
@@ -392,10 +531,11 @@ public class ParticleSystemManager {
      *
      * Note: The particle may be 'dirty' containing data from its last
      * use. Any returned particle should be initialised once retrieved.
+     * The pool is synchronised as emitters may be updated in parallel.
      *
      * @return Particle instance
      */
-    public Particle getParticleFromPool() {
+    public synchronized Particle getParticleFromPool() {
         return mParticlePool.get();
     }
 
@@ -404,7 +544,7 @@ public class ParticleSystemManager {
      *
      * @param particle Particle to reuse
      */
-    public void returnParticleToPool(Particle particle) {
+    public synchronized void returnParticleToPool(Particle particle) {
         mParticlePool.add(particle);
     }
 
@@ -46,7 +46,7 @@ public final class GraphicsHelper {
                                                        LayerViewport layerViewport, ScreenViewport screenViewport,
                                                        Rect sourceRect, Rect screenRect) {
         return getSourceAndScreenRect(gameObject.getBound(), gameObject.getBitmap(),
-                layerViewport, screenViewport, sourceRect, screenRect);
+                gameObject.getBitmapRegion(), layerViewport, screenViewport, sourceRect, screenRect);
     }
 
     /**
@@ -66,6 +66,29 @@ public final class GraphicsHelper {
     public static boolean getSourceAndScreenRect(BoundingBox bound, Bitmap bitmap,
                                                        LayerViewport layerViewport, ScreenViewport screenViewport,
                                                        Rect sourceRect, Rect screenRect) {
+        return getSourceAndScreenRect(bound, bitmap, null,
+                layerViewport, screenViewport, sourceRect, screenRect);
+    }
+
+    /**
+     * Determine the source bitmap Rect and destination screen Rect if the
+     * specified region of a bitmap and rectangular bound falls within the
+     * layer's viewport
+     * <p>
+     * The return rects are not clipped against the screen viewport.
+     *
+     * @param bound          Game object bound to be considered
+     * @param bitmap         Game object bitmap to be drawn
+     * @param bitmapRegion   Region of the bitmap to be drawn (null for the whole bitmap)
+     * @param layerViewport  Layer viewport region to check the entity against
+     * @param screenViewport Screen viewport region that will be used to draw the
+     * @param sourceRect     Output Rect holding the region of the bitmap to draw
+     * @param screenRect     Output Rect holding the region of the screen to draw to
+     * @return True if the specified bound is visible, False otherwise
+     */
+    public static boolean getSourceAndScreenRect(BoundingBox bound, Bitmap bitmap, Rect bitmapRegion,
+                                                       LayerViewport layerViewport, ScreenViewport screenViewport,
+                                                       Rect sourceRect, Rect screenRect) {
 
         // Determine if the bound falls within the layer viewport
         if (bound.x - bound.halfWidth < layerViewport.x + layerViewport.halfWidth &&
@@ -74,7 +97,10 @@ public final class GraphicsHelper {
                 bound.y + bound.halfHeight > layerViewport.y - layerViewport.halfHeight) {
 
             // Define the source rectangle
-            sourceRect.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
+            if (bitmapRegion != null)
+                sourceRect.set(bitmapRegion);
+            else
+                sourceRect.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
 
             // Determine the x- and y-aspect rations between the layer and screen viewports
             float screenXScale = (float) screenViewport.width / (2 * layerViewport.halfWidth);
@@ -116,7 +142,7 @@ public final class GraphicsHelper {
                                                               LayerViewport layerViewport, ScreenViewport screenViewport,
                                                               Rect sourceRect, Rect screenRect) {
         return getClippedSourceAndScreenRect(gameObject.getBound(), gameObject.getBitmap(),
-                layerViewport, screenViewport, sourceRect, screenRect);
+                gameObject.getBitmapRegion(), layerViewport, screenViewport, sourceRect, screenRect);
     }
 
     /**
@@ -136,6 +162,28 @@ public final class GraphicsHelper {
     public static boolean getClippedSourceAndScreenRect(BoundingBox bound, Bitmap bitmap,
                                                               LayerViewport layerViewport, ScreenViewport screenViewport,
                                                               Rect sourceRect, Rect screenRect) {
+        return getClippedSourceAndScreenRect(bound, bitmap, null,
+                layerViewport, screenViewport, sourceRect, screenRect);
+    }
+
+    /**
+     * Determine a source bitmap Rect and destination screen Rect if the
+     * specified region of a bitmap and bound falls within the layer's viewport.
+     * <p>
+     * The returned Rects are clipped against the layer and screen viewport
+     *
+     * @param bound          Game object bound to be considered
+     * @param bitmap         Game object bitmap to be drawn
+     * @param bitmapRegion   Region of the bitmap to be drawn (null for the whole bitmap)
+     * @param layerViewport  Layer viewport region to check the entity against
+     * @param screenViewport Screen viewport region that will be used to draw the
+     * @param sourceRect     Output Rect holding the region of the bitmap to draw
+     * @param screenRect     Output Rect holding the region of the screen to draw to
+     * @return True if the specified object is visible, False otherwise
+     */
+    public static boolean getClippedSourceAndScreenRect(BoundingBox bound, Bitmap bitmap, Rect bitmapRegion,
+                                                              LayerViewport layerViewport, ScreenViewport screenViewport,
+                                                              Rect sourceRect, Rect screenRect) {
 
         // Determine if the bound falls within the layer viewport
         if (bound.x - bound.halfWidth < layerViewport.x + layerViewport.halfWidth &&
@@ -162,15 +210,24 @@ public final class GraphicsHelper {
             // Determining the scale factor for mapping the bitmap onto this
             // Rect and set the sourceRect value.
 
-            float sourceScaleWidth = (float) bitmap.getWidth()
+            int regionLeft = 0, regionTop = 0;
+            int regionWidth = bitmap.getWidth(), regionHeight = bitmap.getHeight();
+            if (bitmapRegion != null) {
+                regionLeft = bitmapRegion.left;
+                regionTop = bitmapRegion.top;
+                regionWidth = bitmapRegion.width();
+                regionHeight = bitmapRegion.height();
+            }
+
+            float sourceScaleWidth = (float) regionWidth
                     / (2 * bound.halfWidth);
-            float sourceScaleHeight = (float) bitmap.getHeight()
+            float sourceScaleHeight = (float) regionHeight
                     / (2 * bound.halfHeight);
 
-            sourceRect.set((int) (sourceX * sourceScaleWidth),
-                    (int) (sourceY * sourceScaleHeight),
-                    (int) ((sourceX + sourceWidth) * sourceScaleWidth),
-                    (int) ((sourceY + sourceHeight) * sourceScaleHeight));
+            sourceRect.set(regionLeft + (int) (sourceX * sourceScaleWidth),
+                    regionTop + (int) (sourceY * sourceScaleHeight),
+                    regionLeft + (int) ((sourceX + sourceWidth) * sourceScaleWidth),
+                    regionTop + (int) ((sourceY + sourceHeight) * sourceScaleHeight));
 
             // Determine =which region of the screen viewport (relative to the
             // canvas) we will be drawing to.
@@ -0,0 +1,362 @@
+package uk.ac.qub.eeecs.gage.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import uk.ac.qub.eeecs.gage.world.GameObject;
+
+/**
+ * Uniform grid spatial index for game objects.
+ * <p>
+ * The world is divided into square cells of a fixed size and each object is
+ * stored in the bucket of every cell its bounding box overlaps. Cells are
+ * hashed into a fixed number of buckets so the grid does not need to know
+ * the world size in advance. Region queries return every object whose cells
+ * overlap the region; callers are expected to perform their own exact
+ * overlap test on the returned candidates.
+ * <p>
+ * Note: Objects which move must be passed to update() after moving so that
+ * they are re-bucketed.
+ *
+ * @version 1.0
+ */
+public class SpatialHashGrid {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Default number of hash buckets (must be a power of two)
+     */
+    private static final int DEFAULT_BUCKET_COUNT = 1024;
+
+    /**
+     * Record of an object held within the grid, including the range of
+     * cells it currently occupies.
+     */
+    private static class Entry {
+        GameObject object;
+        int minCellX, minCellY, maxCellX, maxCellY;
+        int order;
+        int queryStamp;
+    }
+
+    /**
+     * Size of each cell in layer units
+     */
+    private final float mCellSize;
+
+    /**
+     * Hashed cell buckets and the mask used to index them
+     */
+    private final ArrayList<Entry>[] mBuckets;
+    private final int mBucketMask;
+
+    /**
+     * Lookup of the entry held for each object
+     */
+    private final HashMap<GameObject, Entry> mEntries = new HashMap<>();
+
+    /**
+     * Reusable query storage, used to remove duplicates and keep query
+     * results in insertion order
+     */
+    private final ArrayList<Entry> mQueryResults = new ArrayList<>();
+    private int mQueryStamp = 0;
+    private int mNextOrder = 0;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create a new spatial hash grid with the default number of buckets
+     *
+     * @param cellSize Size of each grid cell
+     */
+    public SpatialHashGrid(float cellSize) {
+        this(cellSize, DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * Create a new spatial hash grid
+     *
+     * @param cellSize    Size of each grid cell
+     * @param bucketCount Number of hash buckets, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public SpatialHashGrid(float cellSize, int bucketCount) {
+        if (cellSize <= 0.0f)
+            throw new IllegalArgumentException(
+                    "SpatialHashGrid.constructor: Cell size must be positive.");
+
+        mCellSize = cellSize;
+
+        int size = 1;
+        while (size < bucketCount)
+            size <<= 1;
+        mBuckets = new ArrayList[size];
+        for (int idx = 0; idx < size; idx++)
+            mBuckets[idx] = new ArrayList<>();
+        mBucketMask = size - 1;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Return the size of each grid cell
+     *
+     * @return Cell size
+     */
+    public float getCellSize() {
+        return mCellSize;
+    }
+
+    /**
+     * Return the number of objects held in the grid
+     *
+     * @return Number of objects
+     */
+    public int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * Determine if the specified object is held in the grid
+     *
+     * @param object Object to check
+     * @return boolean true if the object is held in the grid
+     */
+    public boolean contains(GameObject object) {
+        return mEntries.containsKey(object);
+    }
+
+    /**
+     * Add an object to the grid. Adding an object already held in the
+     * grid has the same effect as updating it.
+     *
+     * @param object Object to add
+     */
+    public void add(GameObject object) {
+        Entry entry = mEntries.get(object);
+        if (entry != null) {
+            update(object);
+            return;
+        }
+
+        entry = new Entry();
+        entry.object = object;
+        entry.order = mNextOrder++;
+        setCellRange(entry, object.getBound());
+        insert(entry);
+        mEntries.put(object, entry);
+    }
+
+    /**
+     * Add all of the specified objects to the grid
+     *
+     * @param objects Objects to add
+     */
+    public void addAll(List<? extends GameObject> objects) {
+        for (int idx = 0; idx < objects.size(); idx++)
+            add(objects.get(idx));
+    }
+
+    /**
+     * Remove an object from the grid
+     *
+     * @param object Object to remove
+     * @return boolean true if the object was held in the grid
+     */
+    public boolean remove(GameObject object) {
+        Entry entry = mEntries.remove(object);
+        if (entry == null)
+            return false;
+
+        extract(entry);
+        return true;
+    }
+
+    /**
+     * Re-bucket an object following a change in its position or size. The
+     * buckets are only touched if the object has moved into a different
+     * range of cells. Objects not held in the grid are ignored.
+     *
+     * @param object Object to update
+     */
+    public void update(GameObject object) {
+        Entry entry = mEntries.get(object);
+        if (entry == null)
+            return;
+
+        BoundingBox bound = object.getBound();
+        if (cellOf(bound.getLeft()) == entry.minCellX
+                && cellOf(bound.getBottom()) == entry.minCellY
+                && cellOf(bound.getRight()) == entry.maxCellX
+                && cellOf(bound.getTop()) == entry.maxCellY)
+            return;
+
+        extract(entry);
+        setCellRange(entry, bound);
+        insert(entry);
+    }
+
+    /**
+     * Remove all objects from the grid
+     */
+    public void clear() {
+        for (ArrayList<Entry> bucket : mBuckets)
+            bucket.clear();
+        mEntries.clear();
+        mNextOrder = 0;
+    }
+
+    /**
+     * Collect every object whose cells overlap the specified region.
+     * Objects are added to the output list in the order in which they
+     * were added to the grid, with each object appearing at most once.
+     * <p>
+     * Note: The output list is not cleared before results are added.
+     *
+     * @param region Region to query
+     * @param output List to which candidate objects are added
+     */
+    public void query(BoundingBox region, List<GameObject> output) {
+        query(region.getLeft(), region.getBottom(),
+                region.getRight(), region.getTop(), output);
+    }
+
+    /**
+     * Collect every object whose cells overlap the cells around the
+     * specified region, extended by the given number of cells on each side.
+     *
+     * @param region Region to query
+     * @param cellPadding Number of neighbouring cells to include on each side
+     * @param output List to which candidate objects are added
+     */
+    public void queryNeighbourhood(BoundingBox region, int cellPadding, List<GameObject> output) {
+        float padding = cellPadding * mCellSize;
+        query(region.getLeft() - padding, region.getBottom() - padding,
+                region.getRight() + padding, region.getTop() + padding, output);
+    }
+
+    /**
+     * Collect every object whose cells overlap the specified region.
+     *
+     * @param left   Left side of the region
+     * @param bottom Bottom side of the region
+     * @param right  Right side of the region
+     * @param top    Top side of the region
+     * @param output List to which candidate objects are added
+     */
+    public void query(float left, float bottom, float right, float top, List<GameObject> output) {
+        int minCellX = cellOf(left);
+        int minCellY = cellOf(bottom);
+        int maxCellX = cellOf(right);
+        int maxCellY = cellOf(top);
+
+        int stamp = ++mQueryStamp;
+        mQueryResults.clear();
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                ArrayList<Entry> bucket = mBuckets[bucketOf(cellX, cellY)];
+                for (int idx = 0; idx < bucket.size(); idx++) {
+                    Entry entry = bucket.get(idx);
+                    // Different cells can share a bucket, so check the
+                    // entry actually covers this cell
+                    if (entry.queryStamp != stamp
+                            && entry.minCellX <= cellX && entry.maxCellX >= cellX
+                            && entry.minCellY <= cellY && entry.maxCellY >= cellY) {
+                        entry.queryStamp = stamp;
+                        addInOrder(entry);
+                    }
+                }
+            }
+        }
+
+        for (int idx = 0; idx < mQueryResults.size(); idx++)
+            output.add(mQueryResults.get(idx).object);
+        mQueryResults.clear();
+    }
+
+    /**
+     * Insert the entry into the query results keeping results sorted by
+     * insertion order. Query results are small, so an insertion sort is used.
+     *
+     * @param entry Entry to add
+     */
+    private void addInOrder(Entry entry) {
+        int idx = mQueryResults.size();
+        mQueryResults.add(entry);
+        while (idx > 0 && mQueryResults.get(idx - 1).order > entry.order) {
+            mQueryResults.set(idx, mQueryResults.get(idx - 1));
+            idx--;
+        }
+        mQueryResults.set(idx, entry);
+    }
+
+    /**
+     * Store the range of cells covered by the specified bound in the entry
+     *
+     * @param entry Entry to update
+     * @param bound Bound of the entry's object
+     */
+    private void setCellRange(Entry entry, BoundingBox bound) {
+        entry.minCellX = cellOf(bound.getLeft());
+        entry.minCellY = cellOf(bound.getBottom());
+        entry.maxCellX = cellOf(bound.getRight());
+        entry.maxCellY = cellOf(bound.getTop());
+    }
+
+    /**
+     * Add the entry to the bucket of each cell it covers
+     *
+     * @param entry Entry to insert
+     */
+    private void insert(Entry entry) {
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++)
+            for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+                ArrayList<Entry> bucket = mBuckets[bucketOf(cellX, cellY)];
+                // Several cells covered by the entry may share a bucket
+                if (!bucket.contains(entry))
+                    bucket.add(entry);
+            }
+    }
+
+    /**
+     * Remove the entry from the bucket of each cell it covers
+     *
+     * @param entry Entry to extract
+     */
+    private void extract(Entry entry) {
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++)
+            for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++)
+                mBuckets[bucketOf(cellX, cellY)].remove(entry);
+    }
+
+    /**
+     * Return the cell index containing the specified coordinate
+     *
+     * @param value Coordinate value
+     * @return Cell index
+     */
+    private int cellOf(float value) {
+        return (int) Math.floor(value / mCellSize);
+    }
+
+    /**
+     * Return the bucket index of the specified cell
+     *
+     * @param cellX Cell x index
+     * @param cellY Cell y index
+     * @return Bucket index
+     */
+    private int bucketOf(int cellX, int cellY) {
+        return ((cellX * 73856093) ^ (cellY * 19349663)) & mBucketMask;
+    }
+}
@@ -1,14 +1,130 @@
 package uk.ac.qub.eeecs.gage.util;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import uk.ac.qub.eeecs.gage.world.Sprite;
+import uk.ac.qub.eeecs.gage.world.SpriteKinematics;
 
 /**
- * Collection of steering behaviours that can be used to help sprites move
+ * Collection of steering behaviours that can be used to help sprites move.
+ * <p>
+ * The behaviours keep no state of their own, so can be used from any
+ * number of threads at once, provided each thread has its own output
+ * vectors. Versions working on the arrays of a SpriteKinematics are also
+ * provided, which steerAll can run across worker threads.
  */
 public class SteeringBehaviours {
 
+    // /////////////////////////////////////////////////////////////////////////
+    // Steering Pass
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Steering applied to each sprite of a SpriteKinematics by steerAll
+     */
+    public interface Steering {
+        /**
+         * Set the acceleration and angular acceleration of the sprite at
+         * the specified index. May read the position, velocity, orientation
+         * and limits of any sprite, but must only write to the sprite at
+         * the index.
+         *
+         * @param kinematics Kinematics holding the sprite
+         * @param index      Index of the sprite to steer
+         */
+        void steer(SpriteKinematics kinematics, int index);
+    }
+
+    /**
+     * Fewest sprites steered by each thread of steerAll
+     */
+    public static final int MIN_STEERING_CHUNK = 64;
+
+    /**
+     * Number of worker threads used by steerAll (the calling thread also
+     * steers a share of the sprites)
+     */
+    public static final int STEERING_WORKER_COUNT =
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /**
+     * Steering worker pool, created when first needed
+     */
+    private static ExecutorService sSteeringWorkers;
+
+    /**
+     * Steer every sprite of the kinematics, splitting the sprites between
+     * the calling thread and the steering workers. Returns once every
+     * sprite has been steered.
+     *
+     * @param kinematics Kinematics holding the sprites
+     * @param steering   Steering to apply to each sprite
+     */
+    public static void steerAll(final SpriteKinematics kinematics, final Steering steering) {
+        int count = kinematics.count;
+        int numChunks = Math.min(STEERING_WORKER_COUNT + 1,
+                (count + MIN_STEERING_CHUNK - 1) / MIN_STEERING_CHUNK);
+        if (numChunks <= 1) {
+            for (int idx = 0; idx < count; idx++)
+                steering.steer(kinematics, idx);
+            return;
+        }
+
+        int chunkSize = (count + numChunks - 1) / numChunks;
+        final CountDownLatch finished = new CountDownLatch(numChunks - 1);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ExecutorService workers = getSteeringWorkers();
+        for (int chunk = 1; chunk < numChunks; chunk++) {
+            final int start = Math.min(count, chunk * chunkSize);
+            final int end = Math.min(count, start + chunkSize);
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int idx = start; idx < end; idx++)
+                            steering.steer(kinematics, idx);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+        }
+
+        // Steer the first chunk on this thread whilst the workers run
+        for (int idx = 0; idx < chunkSize; idx++)
+            steering.steer(kinematics, idx);
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("SteeringBehaviours.steerAll: Interrupted whilst steering");
+        }
+        if (failure.get() != null)
+            throw failure.get();
+    }
+
+    private static synchronized ExecutorService getSteeringWorkers() {
+        if (sSteeringWorkers == null) {
+            sSteeringWorkers = Executors.newFixedThreadPool(STEERING_WORKER_COUNT, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Steering");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sSteeringWorkers;
+    }
+
     // /////////////////////////////////////////////////////////////////////////
     // Seek and Flee
     // /////////////////////////////////////////////////////////////////////////
@@ -61,15 +177,57 @@ public class SteeringBehaviours {
         }
     }
 
-    // /////////////////////////////////////////////////////////////////////////
-    // Arrive
-    // /////////////////////////////////////////////////////////////////////////
+    /**
+     * Set the acceleration of the specified sprite to move towards the
+     * specified target position
+     *
+     * @param kinematics Kinematics holding the sprite
+     * @param index      Index of the seeking sprite
+     * @param targetX    Target x position
+     * @param targetY    Target y position
+     */
+    public static void seek(SpriteKinematics kinematics, int index,
+                            float targetX, float targetY) {
+        steerTowards(kinematics, index, targetX - kinematics.positionX[index],
+                targetY - kinematics.positionY[index]);
+    }
 
     /**
-     * Private variables use to facilitate the arrive functionality
+     * Set the acceleration of the specified sprite to move away from the
+     * specified target position
+     *
+     * @param kinematics Kinematics holding the sprite
+     * @param index      Index of the fleeing sprite
+     * @param targetX    Target x position
+     * @param targetY    Target y position
      */
-    private static Vector2 arriveDirection = new Vector2();
-    private static Vector2 arriveSpeed = new Vector2();
+    public static void flee(SpriteKinematics kinematics, int index,
+                            float targetX, float targetY) {
+        steerTowards(kinematics, index, kinematics.positionX[index] - targetX,
+                kinematics.positionY[index] - targetY);
+    }
+
+    /**
+     * Set the acceleration of the specified sprite to its maximum
+     * acceleration in the specified direction (zero if no direction)
+     */
+    private static void steerTowards(SpriteKinematics kinematics, int index,
+                                     float directionX, float directionY) {
+        if (directionX == 0.0f && directionY == 0.0f) {
+            kinematics.accelerationX[index] = 0.0f;
+            kinematics.accelerationY[index] = 0.0f;
+            return;
+        }
+
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+        float maxAcceleration = kinematics.maxAcceleration[index];
+        kinematics.accelerationX[index] = directionX / length * maxAcceleration;
+        kinematics.accelerationY[index] = directionY / length * maxAcceleration;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Arrive
+    // /////////////////////////////////////////////////////////////////////////
 
     /**
      * Output an acceleration vector for the specified sprite that will cause it
@@ -83,34 +241,75 @@ public class SteeringBehaviours {
                               Vector2 arriveAcceleration) {
 
         // Determine the current separation and target direction
-        arriveDirection.set(targetPosition.x - arrivingSprite.position.x,
-                targetPosition.y - arrivingSprite.position.y);
-        float distance = arriveDirection.length();
-        arriveDirection.divide(distance);
+        float separationX = targetPosition.x - arrivingSprite.position.x;
+        float separationY = targetPosition.y - arrivingSprite.position.y;
+        float distance = (float) Math.sqrt(separationX * separationX
+                + separationY * separationY);
+        float directionX = separationX / distance;
+        float directionY = separationY / distance;
 
         // Determining the slow down radius
-        float slowDownRadius = arrivingSprite.maxVelocity
-                * arrivingSprite.maxVelocity / arrivingSprite.maxAcceleration;
+        float maxVelocity = arrivingSprite.maxVelocity;
+        float maxAcceleration = arrivingSprite.maxAcceleration;
+        float slowDownRadius = maxVelocity * maxVelocity / maxAcceleration;
 
         // Determine the target speed
-        if (distance > slowDownRadius) {
-            arriveSpeed.set(arriveDirection);
-            arriveSpeed.multiply(arrivingSprite.maxVelocity);
-        } else {
-            arriveSpeed.set(arriveDirection);
-            arriveSpeed.multiply(arrivingSprite.maxVelocity * distance
-                    / slowDownRadius);
-        }
+        float targetSpeed = distance > slowDownRadius
+                ? maxVelocity : maxVelocity * distance / slowDownRadius;
 
         // Determine the arrival acceleration
-        arriveAcceleration.set(arriveSpeed);
-        arriveAcceleration.subtract(arrivingSprite.velocity);
+        float accelerationX = directionX * targetSpeed - arrivingSprite.velocity.x;
+        float accelerationY = directionY * targetSpeed - arrivingSprite.velocity.y;
+
+        float accelerationPow2 = accelerationX * accelerationX + accelerationY * accelerationY;
+        if (accelerationPow2 > maxAcceleration * maxAcceleration) {
+            float length = (float) Math.sqrt(accelerationPow2);
+            accelerationX = accelerationX / length * maxAcceleration;
+            accelerationY = accelerationY / length * maxAcceleration;
+        }
+        arriveAcceleration.set(accelerationX, accelerationY);
+    }
+
+    /**
+     * Set the acceleration of the specified sprite to arrive with a
+     * stopping velocity at the specified target.
+     *
+     * @param kinematics Kinematics holding the sprite
+     * @param index      Index of the arriving sprite
+     * @param targetX    Target x position at which to arrive
+     * @param targetY    Target y position at which to arrive
+     */
+    public static void arrive(SpriteKinematics kinematics, int index,
+                              float targetX, float targetY) {
+        // Determine the current separation and target direction
+        float separationX = targetX - kinematics.positionX[index];
+        float separationY = targetY - kinematics.positionY[index];
+        float distance = (float) Math.sqrt(separationX * separationX
+                + separationY * separationY);
+        float directionX = separationX / distance;
+        float directionY = separationY / distance;
+
+        // Determining the slow down radius
+        float maxVelocity = kinematics.maxVelocity[index];
+        float maxAcceleration = kinematics.maxAcceleration[index];
+        float slowDownRadius = maxVelocity * maxVelocity / maxAcceleration;
+
+        // Determine the target speed
+        float targetSpeed = distance > slowDownRadius
+                ? maxVelocity : maxVelocity * distance / slowDownRadius;
 
-        if (arriveAcceleration.lengthSquared() > arrivingSprite.maxAcceleration
-                * arrivingSprite.maxAcceleration) {
-            arriveAcceleration.normalise();
-            arriveAcceleration.multiply(arrivingSprite.maxAcceleration);
+        // Determine the arrival acceleration
+        float accelerationX = directionX * targetSpeed - kinematics.velocityX[index];
+        float accelerationY = directionY * targetSpeed - kinematics.velocityY[index];
+
+        float accelerationPow2 = accelerationX * accelerationX + accelerationY * accelerationY;
+        if (accelerationPow2 > maxAcceleration * maxAcceleration) {
+            float length = (float) Math.sqrt(accelerationPow2);
+            accelerationX = accelerationX / length * maxAcceleration;
+            accelerationY = accelerationY / length * maxAcceleration;
         }
+        kinematics.accelerationX[index] = accelerationX;
+        kinematics.accelerationY[index] = accelerationY;
     }
 
     // /////////////////////////////////////////////////////////////////////////
@@ -222,11 +421,6 @@ public class SteeringBehaviours {
     // Separate
     // /////////////////////////////////////////////////////////////////////////
 
-    /**
-     * Private variable used within the separate algorithms
-     */
-    private static Vector2 separateAcceleration = new Vector2();
-
     /**
      * Separate the specified sprite from the list of other sprites.
      *
@@ -263,15 +457,60 @@ public class SteeringBehaviours {
                 if (repulsiveStrength > separatingSprite.maxAcceleration)
                     repulsiveStrength = separatingSprite.maxAcceleration;
 
-                // Build the repulsive force
-                separateAcceleration.set(separationX, separationY);
-                separateAcceleration.normalise();
-                separateAcceleration.multiply(repulsiveStrength);
+                // Build the repulsive force and update the output acceleration
+                float separation = (float) Math.sqrt(separationPow2);
+                outputAcceleration.add(separationX / separation * repulsiveStrength,
+                        separationY / separation * repulsiveStrength);
+            }
+        }
+    }
+
+    /**
+     * Set the acceleration of the specified sprite to separate it from the
+     * other sprites of the kinematics.
+     *
+     * @param kinematics           Kinematics holding the sprites
+     * @param index                Index of the sprite that should be separated
+     * @param separateThreshold    Distance within which the sprite should separate.
+     * @param repulsionDecayFactor How strongly should the sprite separate based on distance.
+     */
+    public static void separate(SpriteKinematics kinematics, int index,
+                                float separateThreshold, float repulsionDecayFactor) {
+        final float[] positionX = kinematics.positionX, positionY = kinematics.positionY;
+        float x = positionX[index], y = positionY[index];
+        float maxAcceleration = kinematics.maxAcceleration[index];
+
+        // Start with zero net acceleration
+        float accelerationX = 0.0f, accelerationY = 0.0f;
 
-                // Update the output acceleration
-                outputAcceleration.add(separateAcceleration);
+        // Consider each target sprite
+        int numSprites = kinematics.count;
+        float separateThresholdPow2 = separateThreshold * separateThreshold;
+        for (int idx = 0; idx < numSprites; idx++) {
+            if (x == positionX[idx] && y == positionY[idx])
+                continue;
+
+            // Separate if within the trigger distance to the sprite
+            float separationX = x - positionX[idx];
+            float separationY = y - positionY[idx];
+            float separationPow2 = separationX * separationX + separationY
+                    * separationY;
+
+            if (separationPow2 < separateThresholdPow2) {
+                // Determine the repulsive strength
+                float repulsiveStrength = repulsionDecayFactor * separationPow2;
+                if (repulsiveStrength > maxAcceleration)
+                    repulsiveStrength = maxAcceleration;
+
+                // Build the repulsive force and update the acceleration
+                float separation = (float) Math.sqrt(separationPow2);
+                accelerationX += separationX / separation * repulsiveStrength;
+                accelerationY += separationY / separation * repulsiveStrength;
             }
         }
+
+        kinematics.accelerationX[index] = accelerationX;
+        kinematics.accelerationY[index] = accelerationY;
     }
 
     /**
@@ -308,13 +547,10 @@ public class SteeringBehaviours {
             if (repulsiveStrength > separatingSprite.maxAcceleration)
                 repulsiveStrength = separatingSprite.maxAcceleration;
 
-            // Build the repulsive force
-            separateAcceleration.set(separationX, separationY);
-            separateAcceleration.normalise();
-            separateAcceleration.multiply(repulsiveStrength);
-
-            // Update the output acceleration
-            outputAcceleration.add(separateAcceleration);
+            // Build the repulsive force and update the output acceleration
+            float separation = (float) Math.sqrt(separationPow2);
+            outputAcceleration.add(separationX / separation * repulsiveStrength,
+                    separationY / separation * repulsiveStrength);
         }
     }
 }
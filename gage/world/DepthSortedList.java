@@ -0,0 +1,221 @@
+package uk.ac.qub.eeecs.gage.world;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+/**
+ * List of game objects kept sorted into draw order by their y position,
+ * highest first, so that objects lower on the screen are drawn over those
+ * behind them.
+ *
+ * Objects are added as either static or moving. Once sorted, only moving
+ * objects are re-sorted on update: each is moved towards its correct
+ * position by an insertion step, which is cheap as objects only move a
+ * short distance between updates. The cost of an update is therefore
+ * proportional to the number of moving objects and how far they move
+ * through the order, rather than to the number of objects held.
+ *
+ * Each held object is tagged with its position in the draw order (see
+ * GameObject.getDrawIndex), so a small set of objects found by other means,
+ * e.g. a spatial query, can be put into draw order without searching the
+ * list. An object should only be held by one list at a time.
+ *
+ * @version 1.0
+ */
+public class DepthSortedList {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Held objects, in draw order once sorted
+     */
+    private GameObject[] mObjects = new GameObject[16];
+    private int mNumObjects;
+
+    /**
+     * Index into mMovers of the object held at each position, or -1 if
+     * the object is static
+     */
+    private int[] mMoverSlots = new int[16];
+
+    /**
+     * Moving objects and their current position within mObjects
+     */
+    private GameObject[] mMovers = new GameObject[4];
+    private int[] mMoverIndices = new int[4];
+    private int mNumMovers;
+
+    /**
+     * Number of position swaps made during the last update
+     */
+    private int mNumSwaps;
+
+    /**
+     * Comparator giving the draw order of two objects
+     */
+    private static final Comparator<GameObject> DRAW_ORDER = new Comparator<GameObject>() {
+        @Override
+        public int compare(GameObject first, GameObject second) {
+            return Float.compare(second.position.y, first.position.y);
+        }
+    };
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Remove all held objects
+     */
+    public void clear() {
+        for (int idx = 0; idx < mNumObjects; idx++)
+            mObjects[idx].mDrawIndex = -1;
+        Arrays.fill(mObjects, 0, mNumObjects, null);
+        Arrays.fill(mMovers, 0, mNumMovers, null);
+        mNumObjects = 0;
+        mNumMovers = 0;
+    }
+
+    /**
+     * Add an object to the end of the list. sort() must be called once all
+     * objects have been added.
+     *
+     * @param object Object to add
+     * @param moving True if the object can change its y position
+     */
+    public void add(GameObject object, boolean moving) {
+        if (mNumObjects == mObjects.length) {
+            mObjects = Arrays.copyOf(mObjects, mObjects.length * 2);
+            mMoverSlots = Arrays.copyOf(mMoverSlots, mMoverSlots.length * 2);
+        }
+
+        int moverSlot = -1;
+        if (moving) {
+            if (mNumMovers == mMovers.length) {
+                mMovers = Arrays.copyOf(mMovers, mMovers.length * 2);
+                mMoverIndices = Arrays.copyOf(mMoverIndices, mMoverIndices.length * 2);
+            }
+            moverSlot = mNumMovers++;
+            mMovers[moverSlot] = object;
+            mMoverIndices[moverSlot] = mNumObjects;
+        }
+
+        mObjects[mNumObjects] = object;
+        mMoverSlots[mNumObjects] = moverSlot;
+        object.mDrawIndex = mNumObjects;
+        mNumObjects++;
+    }
+
+    /**
+     * Fully sort all held objects into draw order. Should be called once
+     * objects have been added, after which update() keeps the order.
+     */
+    public void sort() {
+        Arrays.sort(mObjects, 0, mNumObjects, DRAW_ORDER);
+
+        // Objects have been reordered, so find where each mover now sits
+        IdentityHashMap<GameObject, Integer> moverSlots = new IdentityHashMap<>(mNumMovers * 2);
+        for (int moverSlot = 0; moverSlot < mNumMovers; moverSlot++)
+            moverSlots.put(mMovers[moverSlot], moverSlot);
+        for (int idx = 0; idx < mNumObjects; idx++) {
+            mObjects[idx].mDrawIndex = idx;
+            Integer moverSlot = moverSlots.get(mObjects[idx]);
+            mMoverSlots[idx] = moverSlot == null ? -1 : moverSlot;
+            if (moverSlot != null)
+                mMoverIndices[moverSlot] = idx;
+        }
+    }
+
+    /**
+     * Restore the draw order after moving objects have changed position
+     *
+     * @return Number of position swaps needed to restore the order
+     */
+    public int update() {
+        mNumSwaps = 0;
+
+        // A mover may stop against another mover that has yet to be moved,
+        // so repeat until no mover needs to move. Each swap removes one out
+        // of order pair, so only the first pass normally moves anything.
+        int passSwaps;
+        do {
+            passSwaps = mNumSwaps;
+            for (int moverSlot = 0; moverSlot < mNumMovers; moverSlot++) {
+                int idx = mMoverIndices[moverSlot];
+                float y = mMovers[moverSlot].position.y;
+
+                // Move towards the front whilst above the previous object
+                while (idx > 0 && mObjects[idx - 1].position.y < y) {
+                    swap(idx - 1, idx);
+                    idx--;
+                }
+
+                // Move towards the back whilst below the next object
+                while (idx < mNumObjects - 1 && mObjects[idx + 1].position.y > y) {
+                    swap(idx, idx + 1);
+                    idx++;
+                }
+            }
+        } while (mNumSwaps != passSwaps);
+        return mNumSwaps;
+    }
+
+    /**
+     * Get the number of held objects
+     *
+     * @return Number of objects
+     */
+    public int size() {
+        return mNumObjects;
+    }
+
+    /**
+     * Get the object at the specified position in the draw order
+     *
+     * @param idx Position in the draw order
+     * @return Object at the position
+     */
+    public GameObject get(int idx) {
+        return mObjects[idx];
+    }
+
+    /**
+     * Get the number of position swaps made during the last update
+     *
+     * @return Number of swaps
+     */
+    public int getNumSwaps() {
+        return mNumSwaps;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Utility Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Swap the objects at two positions, keeping track of moving objects
+     *
+     * @param first  First position
+     * @param second Second position
+     */
+    private void swap(int first, int second) {
+        GameObject object = mObjects[first];
+        mObjects[first] = mObjects[second];
+        mObjects[second] = object;
+        mObjects[first].mDrawIndex = first;
+        mObjects[second].mDrawIndex = second;
+
+        int moverSlot = mMoverSlots[first];
+        mMoverSlots[first] = mMoverSlots[second];
+        mMoverSlots[second] = moverSlot;
+
+        if (mMoverSlots[first] != -1)
+            mMoverIndices[mMoverSlots[first]] = first;
+        if (mMoverSlots[second] != -1)
+            mMoverIndices[mMoverSlots[second]] = second;
+        mNumSwaps++;
+    }
+}
@@ -4,6 +4,7 @@ import android.graphics.Bitmap;
 import android.graphics.Rect;
 
 import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+import uk.ac.qub.eeecs.gage.engine.graphics.AtlasRegion;
 import uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D;
 import uk.ac.qub.eeecs.gage.util.BoundingBox;
 import uk.ac.qub.eeecs.gage.util.GraphicsHelper;
@@ -30,6 +31,12 @@ public class GameObject {
      */
     protected Bitmap mBitmap;
 
+    /**
+     * Region of the bitmap holding this game object's image (e.g. when the
+     * bitmap is a texture atlas sheet), or null to use the whole bitmap
+     */
+    protected Rect mBitmapRegion;
+
     /**
      * Position of this game object
      */
@@ -46,6 +53,21 @@ public class GameObject {
     protected Rect drawSourceRect = new Rect();
     protected Rect drawScreenRect = new Rect();
 
+    /**
+     * Position at the start of the latest update, used to interpolate draws
+     * between fixed updates, alongside the updated position which is held
+     * whilst an interpolated draw is in progress
+     */
+    protected Vector2 mPreviousPosition = new Vector2();
+    private Vector2 mUpdatedPosition = new Vector2();
+    private boolean mHasPreviousPosition = false;
+
+    /**
+     * Position of this game object in the draw order of the DepthSortedList
+     * holding it (-1 if not held), maintained by the list
+     */
+    int mDrawIndex = -1;
+
     // /////////////////////////////////////////////////////////////////////////
     // Constructors
     // /////////////////////////////////////////////////////////////////////////
@@ -138,11 +160,34 @@ public class GameObject {
         return mBitmap;
     }
 
+    /**
+     * Return the region of the bitmap used for this game object.
+     * <p>
+     * Note: The values within the region should not be modified.
+     *
+     * @return Region of the bitmap, or null if the whole bitmap is used
+     */
+    public Rect getBitmapRegion() {
+        return mBitmapRegion;
+    }
+
     /**
      * Set the bitmap used by this game object.
      */
     public void setBitmap(Bitmap bitmap) {
         mBitmap = bitmap;
+        mBitmapRegion = null;
+    }
+
+    /**
+     * Set the bitmap region used by this game object, e.g. an image
+     * held in a texture atlas.
+     *
+     * @param region Region holding the image
+     */
+    public void setBitmap(AtlasRegion region) {
+        mBitmap = region.bitmap;
+        mBitmapRegion = region.source;
     }
 
     /**
@@ -202,6 +247,49 @@ public class GameObject {
         return mGameScreen;
     }
 
+    /**
+     * Store the current position as the position at the start of the update.
+     * Should be called before each update for objects drawn with
+     * interpolation.
+     */
+    public void storePreviousPosition() {
+        mPreviousPosition.set(position);
+        mHasPreviousPosition = true;
+    }
+
+    /**
+     * Move the object to its draw position between the previous and updated
+     * positions, as given by the elapsed time interpolation. Must be
+     * followed by endInterpolatedDraw once the object has been drawn.
+     *
+     * @param elapsedTime Elapsed time information
+     */
+    public void beginInterpolatedDraw(ElapsedTime elapsedTime) {
+        mUpdatedPosition.set(position);
+        if (mHasPreviousPosition) {
+            float t = (float) elapsedTime.interpolation;
+            position.x = mPreviousPosition.x + (position.x - mPreviousPosition.x) * t;
+            position.y = mPreviousPosition.y + (position.y - mPreviousPosition.y) * t;
+        }
+    }
+
+    /**
+     * Return the object to its updated position after an interpolated draw
+     */
+    public void endInterpolatedDraw() {
+        position.set(mUpdatedPosition);
+    }
+
+    /**
+     * Get the position of this game object in the draw order of the
+     * DepthSortedList holding it
+     *
+     * @return Position in the draw order, or -1 if not held by a list
+     */
+    public int getDrawIndex() {
+        return mDrawIndex;
+    }
+
     /**
      * Update the game object
      *
@@ -222,7 +310,7 @@ public class GameObject {
                 (int) (position.y - mBound.halfHeight),
                 (int) (position.x + mBound.halfWidth),
                 (int) (position.y + mBound.halfHeight));
-        graphics2D.drawBitmap(mBitmap, null, drawScreenRect, null);
+        graphics2D.drawBitmap(mBitmap, mBitmapRegion, drawScreenRect, null);
     }
 
     /**
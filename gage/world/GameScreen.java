@@ -131,6 +131,11 @@ public abstract class GameScreen {
 
     /**
      * Draw the game screen. Invoked automatically from the game.
+     * <p>
+     * NOTE: If the game uses pipelined rendering the screen is drawn on the
+     * game loop thread, into a recorded snapshot, rather than on the GUI
+     * thread. The draw must then only use the graphics instance and game
+     * state, not Android views or other state owned by the GUI thread.
      *
      * @param elapsedTime Elapsed time information for the frame
      * @param graphics2D  Graphics instance used to draw the screen
@@ -2,6 +2,7 @@ package uk.ac.qub.eeecs.gage.world;
 
 import android.graphics.Bitmap;
 import android.graphics.Matrix;
+import android.graphics.Rect;
 
 import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
 import uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D;
@@ -56,6 +57,13 @@ public class Sprite extends GameObject {
     public float maxAngularAcceleration = DEFAULT_MAX_ANGULAR_ACCELERATION;
     public float maxAngularVelocity = DEFAULT_MAX_ANGULAR_VELOCITY;
 
+    /**
+     * Image cut out of the bitmap region, for rotated draws (which cannot
+     * be limited to a region of the bitmap), and the region it was cut from
+     */
+    private Bitmap mRegionBitmap;
+    private Rect mRegionBitmapSource;
+
     /**
      * Internal matrix use to support draw requests
      */
@@ -176,6 +184,22 @@ public class Sprite extends GameObject {
         if (GraphicsHelper.getSourceAndScreenRect(this, layerViewport,
                 screenViewport, drawSourceRect, drawScreenRect)) {
 
+            // Unrotated regions can be drawn straight from the bitmap
+            if (mBitmapRegion != null && orientation == 0.0f) {
+                graphics2D.drawBitmap(mBitmap, drawSourceRect, drawScreenRect, null);
+                return;
+            }
+
+            Bitmap bitmap = mBitmap;
+            if (mBitmapRegion != null) {
+                if (mRegionBitmapSource != mBitmapRegion) {
+                    mRegionBitmap = Bitmap.createBitmap(mBitmap, mBitmapRegion.left,
+                            mBitmapRegion.top, mBitmapRegion.width(), mBitmapRegion.height());
+                    mRegionBitmapSource = mBitmapRegion;
+                }
+                bitmap = mRegionBitmap;
+            }
+
             float scaleX =
                     (float) drawScreenRect.width()
                             / (float) drawSourceRect.width();
@@ -186,12 +210,12 @@ public class Sprite extends GameObject {
             // Build an appropriate transformation matrix
             drawMatrix.reset();
             drawMatrix.postScale(scaleX, scaleY);
-            drawMatrix.postRotate(orientation, scaleX * mBitmap.getWidth()
-                    / 2.0f, scaleY * mBitmap.getHeight() / 2.0f);
+            drawMatrix.postRotate(orientation, scaleX * bitmap.getWidth()
+                    / 2.0f, scaleY * bitmap.getHeight() / 2.0f);
             drawMatrix.postTranslate(drawScreenRect.left, drawScreenRect.top);
 
             // Draw the image
-            graphics2D.drawBitmap(mBitmap, drawMatrix, null);
+            graphics2D.drawBitmap(bitmap, drawMatrix, null);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,302 @@
+package uk.ac.qub.eeecs.gage.world;
+
+import java.util.Arrays;
+
+import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+
+/**
+ * Batched sprite kinematics.
+ * <p>
+ * Holds the motion state of a number of sprites in parallel float arrays
+ * and integrates them together in one loop, rather than one Sprite.update
+ * call at a time. The integration (including the clamping of acceleration,
+ * velocity, angular acceleration and angular velocity) is the same as
+ * Sprite.update, so both give the same results.
+ * <p>
+ * The arrays hold the motion state of added sprites. Changes to the state
+ * should be made to the arrays (or read in from the sprite with load), as
+ * update only writes the position and orientation back to the sprites.
+ * store writes the rest of the state back. Sprites added should not also
+ * be moved by Sprite.update.
+ *
+ * @version 1.0
+ */
+public class SpriteKinematics {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties: Declared public for speed of access
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Number of sprites held. Only the first count entries of each array
+     * are in use.
+     */
+    public int count;
+
+    /**
+     * Sprites whose motion is integrated
+     */
+    public Sprite[] sprites;
+
+    /**
+     * Position, velocity and acceleration of each sprite
+     */
+    public float[] positionX, positionY;
+    public float[] velocityX, velocityY;
+    public float[] accelerationX, accelerationY;
+
+    /**
+     * Maximum acceleration and velocity of each sprite
+     */
+    public float[] maxAcceleration, maxVelocity;
+
+    /**
+     * Orientation, angular velocity and angular acceleration of each sprite
+     */
+    public float[] orientation, angularVelocity, angularAcceleration;
+
+    /**
+     * Maximum angular acceleration and velocity of each sprite
+     */
+    public float[] maxAngularAcceleration, maxAngularVelocity;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create a new, empty set of sprite kinematics
+     *
+     * @param capacity Number of sprites to make room for (more can be added)
+     */
+    public SpriteKinematics(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Add a sprite, taking its current motion state
+     *
+     * @param sprite Sprite to add
+     * @return Index of the sprite in the arrays
+     */
+    public int add(Sprite sprite) {
+        if (count == sprites.length)
+            allocate(count * 2);
+
+        sprites[count] = sprite;
+        load(count);
+        return count++;
+    }
+
+    /**
+     * Remove the sprite at the specified index. The last sprite is moved
+     * into its place, so the index of that sprite changes.
+     *
+     * @param index Index of the sprite to remove
+     */
+    public void remove(int index) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException(
+                    "SpriteKinematics.remove: Cannot remove [" + index + "]");
+
+        int last = --count;
+        sprites[index] = sprites[last];
+        positionX[index] = positionX[last];
+        positionY[index] = positionY[last];
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        accelerationX[index] = accelerationX[last];
+        accelerationY[index] = accelerationY[last];
+        maxAcceleration[index] = maxAcceleration[last];
+        maxVelocity[index] = maxVelocity[last];
+        orientation[index] = orientation[last];
+        angularVelocity[index] = angularVelocity[last];
+        angularAcceleration[index] = angularAcceleration[last];
+        maxAngularAcceleration[index] = maxAngularAcceleration[last];
+        maxAngularVelocity[index] = maxAngularVelocity[last];
+        sprites[last] = null;
+    }
+
+    /**
+     * Remove every sprite
+     */
+    public void clear() {
+        Arrays.fill(sprites, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Read the motion state of the sprite at the specified index into the
+     * arrays, e.g. after it has been changed on the sprite
+     *
+     * @param index Index of the sprite
+     */
+    public void load(int index) {
+        Sprite sprite = sprites[index];
+        positionX[index] = sprite.position.x;
+        positionY[index] = sprite.position.y;
+        velocityX[index] = sprite.velocity.x;
+        velocityY[index] = sprite.velocity.y;
+        accelerationX[index] = sprite.acceleration.x;
+        accelerationY[index] = sprite.acceleration.y;
+        maxAcceleration[index] = sprite.maxAcceleration;
+        maxVelocity[index] = sprite.maxVelocity;
+        orientation[index] = sprite.orientation;
+        angularVelocity[index] = sprite.angularVelocity;
+        angularAcceleration[index] = sprite.angularAcceleration;
+        maxAngularAcceleration[index] = sprite.maxAngularAcceleration;
+        maxAngularVelocity[index] = sprite.maxAngularVelocity;
+    }
+
+    /**
+     * Write the full motion state of the sprite at the specified index back
+     * to the sprite
+     *
+     * @param index Index of the sprite
+     */
+    public void store(int index) {
+        Sprite sprite = sprites[index];
+        sprite.position.x = positionX[index];
+        sprite.position.y = positionY[index];
+        sprite.velocity.x = velocityX[index];
+        sprite.velocity.y = velocityY[index];
+        sprite.acceleration.x = accelerationX[index];
+        sprite.acceleration.y = accelerationY[index];
+        sprite.maxAcceleration = maxAcceleration[index];
+        sprite.maxVelocity = maxVelocity[index];
+        sprite.orientation = orientation[index];
+        sprite.angularVelocity = angularVelocity[index];
+        sprite.angularAcceleration = angularAcceleration[index];
+        sprite.maxAngularAcceleration = maxAngularAcceleration[index];
+        sprite.maxAngularVelocity = maxAngularVelocity[index];
+    }
+
+    /**
+     * Integrate the motion of every sprite and write their position and
+     * orientation back to the sprites
+     *
+     * @param elapsedTime Elapsed time information
+     */
+    public void update(ElapsedTime elapsedTime) {
+        step((float) elapsedTime.stepTime, true);
+    }
+
+    /**
+     * Integrate the motion of every sprite over the specified time step,
+     * updating the arrays only
+     *
+     * @param dt Time step in seconds
+     */
+    public void integrate(float dt) {
+        step(dt, false);
+    }
+
+    /**
+     * Integrate the motion of every sprite, writing the new position and
+     * orientation to the sprites in the same pass if required
+     *
+     * @param dt        Time step in seconds
+     * @param writeBack True if the sprites are to be updated
+     */
+    private void step(float dt, boolean writeBack) {
+        final Sprite[] sprites = this.sprites;
+        final float[] positionX = this.positionX, positionY = this.positionY;
+        final float[] velocityX = this.velocityX, velocityY = this.velocityY;
+        final float[] accelerationX = this.accelerationX, accelerationY = this.accelerationY;
+        final float[] maxAcceleration = this.maxAcceleration, maxVelocity = this.maxVelocity;
+        final float[] orientation = this.orientation;
+        final float[] angularVelocity = this.angularVelocity;
+        final float[] angularAcceleration = this.angularAcceleration;
+        final float[] maxAngularAcceleration = this.maxAngularAcceleration;
+        final float[] maxAngularVelocity = this.maxAngularVelocity;
+
+        for (int idx = 0; idx < count; idx++) {
+            // Ensure the maximum acceleration isn't exceeded
+            float ax = accelerationX[idx], ay = accelerationY[idx];
+            float maxA = maxAcceleration[idx];
+            if (ax * ax + ay * ay > maxA * maxA) {
+                float length = (float) Math.sqrt(ax * ax + ay * ay);
+                ax /= length;
+                ay /= length;
+                ax *= maxA;
+                ay *= maxA;
+                accelerationX[idx] = ax;
+                accelerationY[idx] = ay;
+            }
+
+            // Update the velocity using the acceleration and ensure the
+            // maximum velocity has not been exceeded
+            float vx = velocityX[idx] + ax * dt, vy = velocityY[idx] + ay * dt;
+            float maxV = maxVelocity[idx];
+            if (vx * vx + vy * vy > maxV * maxV) {
+                float length = (float) Math.sqrt(vx * vx + vy * vy);
+                vx /= length;
+                vy /= length;
+                vx *= maxV;
+                vy *= maxV;
+            }
+            velocityX[idx] = vx;
+            velocityY[idx] = vy;
+
+            // Update the position using the velocity
+            float x = positionX[idx] + vx * dt, y = positionY[idx] + vy * dt;
+            positionX[idx] = x;
+            positionY[idx] = y;
+
+            // Ensure the maximum angular acceleration isn't exceeded
+            float angularA = angularAcceleration[idx];
+            float maxAngularA = maxAngularAcceleration[idx];
+            if (angularA < -maxAngularA || angularA > maxAngularA) {
+                angularA = Math.signum(angularA) * maxAngularA;
+                angularAcceleration[idx] = angularA;
+            }
+
+            // Update the angular velocity using the angular acceleration and
+            // ensure the maximum angular velocity has not been exceeded
+            float angularV = angularVelocity[idx] + angularA * dt;
+            float maxAngularV = maxAngularVelocity[idx];
+            if (angularV < -maxAngularV || angularV > maxAngularV)
+                angularV = Math.signum(angularV) * maxAngularV;
+            angularVelocity[idx] = angularV;
+
+            // Update the orientation using the angular velocity
+            float angle = orientation[idx] + angularV * dt;
+            orientation[idx] = angle;
+
+            if (writeBack) {
+                Sprite sprite = sprites[idx];
+                sprite.position.x = x;
+                sprite.position.y = y;
+                sprite.orientation = angle;
+            }
+        }
+    }
+
+    /**
+     * Resize the arrays to the specified capacity, keeping their contents
+     */
+    private void allocate(int capacity) {
+        sprites = sprites == null ? new Sprite[capacity] : Arrays.copyOf(sprites, capacity);
+        positionX = grow(positionX, capacity);
+        positionY = grow(positionY, capacity);
+        velocityX = grow(velocityX, capacity);
+        velocityY = grow(velocityY, capacity);
+        accelerationX = grow(accelerationX, capacity);
+        accelerationY = grow(accelerationY, capacity);
+        maxAcceleration = grow(maxAcceleration, capacity);
+        maxVelocity = grow(maxVelocity, capacity);
+        orientation = grow(orientation, capacity);
+        angularVelocity = grow(angularVelocity, capacity);
+        angularAcceleration = grow(angularAcceleration, capacity);
+        maxAngularAcceleration = grow(maxAngularAcceleration, capacity);
+        maxAngularVelocity = grow(maxAngularVelocity, capacity);
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
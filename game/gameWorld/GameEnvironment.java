@@ -4,15 +4,23 @@ import android.graphics.Color;
 import android.graphics.Typeface;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import uk.ac.qub.eeecs.gage.Game;
 import uk.ac.qub.eeecs.gage.engine.AssetManager;
+import uk.ac.qub.eeecs.gage.engine.BitmapCache;
 import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
 import uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D;
+import uk.ac.qub.eeecs.gage.engine.io.FileIO;
 import uk.ac.qub.eeecs.gage.ui.Bar;
 import uk.ac.qub.eeecs.gage.util.CollisionDetector;
+import uk.ac.qub.eeecs.gage.util.GraphicsHelper;
+import uk.ac.qub.eeecs.gage.util.SpatialHashGrid;
 import uk.ac.qub.eeecs.gage.util.Vector2;
+import uk.ac.qub.eeecs.gage.world.DepthSortedList;
 import uk.ac.qub.eeecs.gage.world.GameObject;
 import uk.ac.qub.eeecs.gage.world.GameScreen;
 import uk.ac.qub.eeecs.gage.world.LayerViewport;
@@ -22,18 +30,19 @@ import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameSave.OpenSavedGame;
 import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld.GameWorld;
 import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld.LoadItems;
 import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld.LoadQuests;
+import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld.WorldObjects;
 import uk.ac.qub.eeecs.game.gameWorld.inventory.PreviewItem;
 import uk.ac.qub.eeecs.game.gameWorld.inventory.WorldItem;
 import uk.ac.qub.eeecs.game.gameWorld.io.playerControl.DPadControl;
+import uk.ac.qub.eeecs.game.gameWorld.npcInteractions.DialogCounter;
 import uk.ac.qub.eeecs.game.gameWorld.quest.Quest;
-import uk.ac.qub.eeecs.game.gameWorld.worldObjects.AnimatedObject;
 import uk.ac.qub.eeecs.game.gameWorld.worldObjects.CollidableObject;
 import uk.ac.qub.eeecs.game.gameWorld.worldObjects.EnemyObject;
 import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.AStarNavigation;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.MovingNPC;
 import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.NPC;
 import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Player;
 import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Shop;
-import uk.ac.qub.eeecs.game.gameWorld.worldObjects.AnimatedEnemyObject;
 import uk.ac.qub.eeecs.game.menu.ScreenManager;
 
 /**
@@ -53,8 +62,40 @@ public class GameEnvironment extends GameScreen {
 
     //containers for all gameobjects, items & quests
     public ArrayList<GameObject> mObjects;
+    //world objects split by type so each update only visits the objects it acts on
+    private WorldObjects worldObjects;
+    //counts shown NPC dialogs of the current world, so NPCtalking needn't check every NPC
+    private DialogCounter npcDialogCounter = new DialogCounter();
+    //NPC dialog checks the counter has saved, one per NPC each time NPCtalking is called
+    private long npcChecksSaved = 0;
     public HashMap<String,PreviewItem> mItems;
     private ArrayList<Quest> quests;
+    //bitmaps of the current world, pinned so the bitmap cache keeps them while they are drawn
+    private ArrayList<String> pinnedBitmaps = new ArrayList<String>();
+
+    //spatial index of mObjects used to find nearby objects without scanning the whole world
+    private SpatialHashGrid objectGrid;
+    private ArrayList<GameObject> nearbyObjects = new ArrayList<GameObject>();
+    //all objects and the player in draw order, with only moving objects re-sorted each update
+    private DepthSortedList renderList = new DepthSortedList();
+    //objects within the game viewport, found through objectGrid each frame and put in renderList's order
+    private ArrayList<GameObject> visibleObjects = new ArrayList<GameObject>();
+    //distance outside the viewport checked when culling, as moving objects may be drawn
+    //between their last two positions while objectGrid holds their latest position
+    private static final float CULL_MARGIN = 100.0f;
+    //orders objects by their position in renderList
+    private static final Comparator<GameObject> DRAW_INDEX_ORDER = new Comparator<GameObject>() {
+        @Override
+        public int compare(GameObject first, GameObject second) {
+            return first.getDrawIndex() - second.getDrawIndex();
+        }
+    };
+    private static final float OBJECT_GRID_CELL_SIZE = 100.0f;
+
+    //worlds with a larger area than this (in pixels) use hierarchical NPC pathfinding
+    private static final int HIERARCHICAL_NAVIGATION_MIN_AREA = 4000 * 4000;
+    //width of the game layer in world units, stretched across the screen
+    public static final float LAYER_WIDTH = 480.0f;
 
     private DPadControl mMovementDPadControl;
     private OpenSavedGame openSavedGame;
@@ -146,22 +187,64 @@ public class GameEnvironment extends GameScreen {
         //get world at given index
         gameWorld = worldManager.getWorld(worldKey);
         //load objects for that world
-        mObjects = gameWorld.getGameObjects(mItems,quests);
+        worldObjects = gameWorld.getWorldObjects(mItems,quests);
+        mObjects = worldObjects.getAll();
+        //start loading the worlds this one leads to
+        worldManager.enterWorld(worldKey, worldObjects.getGateways());
+        //rebuild spatial index for the new world's objects
+        objectGrid = new SpatialHashGrid(OBJECT_GRID_CELL_SIZE);
+        objectGrid.addAll(mObjects);
         mGameBackground = gameWorld.getMap();
+        //keep the new world's bitmaps cached, letting the previous world's be dropped once over budget
+        BitmapCache bitmapCache = mGame.getAssetManager().getBitmapCache();
+        ArrayList<String> previousBitmaps = pinnedBitmaps;
+        pinnedBitmaps = new ArrayList<String>(gameWorld.getBitmapNames());
+        for(String bitmap : pinnedBitmaps){
+            bitmapCache.pin(bitmap);
+        }
+        //the previous world's objects are gone, so their bitmaps' memory can be decoded into once dropped,
+        //unless an item still shows the same bitmap
+        HashSet<String> itemImages = new HashSet<String>();
+        for(PreviewItem item : mItems.values()){
+            itemImages.add(item.getImageName());
+        }
+        for(String bitmap : previousBitmaps){
+            if(itemImages.contains(bitmap))
+                bitmapCache.unpin(bitmap);
+            else
+                bitmapCache.release(bitmap);
+        }
+        log.addLog("GameEnvironment", bitmapCache.toString());
+        FileIO fileIO = mGame.getFileIO();
+        log.addLog("GameEnvironment", "Bitmap decoding saved " + fileIO.getTotalBytesSaved() / 1024 + " KB over "
+                + fileIO.getBytesSaved().size() + " bitmaps, reused " + fileIO.getBytesReused() / 1024 + " KB");
         //set player properties
         mPlayer.setGameWorld(worldKey);
         mPlayer.position.x = playerX;
         mPlayer.position.y = playerY;
-        //get shop items in new world
+        //player has moved to a new world so should not be interpolated from the old position
+        mPlayer.storePreviousPosition();
+        //build draw order for the new world, only the player and moving NPCs change position
+        renderList.clear();
         for(GameObject g : mObjects){
-            if(g instanceof Shop){
-                ((Shop) g).getShopItems(mItems);
-            }
+            renderList.add(g, g instanceof MovingNPC);
+        }
+        renderList.add(mPlayer, true);
+        renderList.sort();
+        //new counter so dialogs of the previous world's NPCs are no longer counted
+        npcDialogCounter = new DialogCounter();
+        for(NPC npc : worldObjects.getNPCs()){
+            npc.dialogHandler.setDialogCounter(npcDialogCounter);
+        }
+        //get shop items in new world
+        for(Shop shop : worldObjects.getShops()){
+            shop.getShopItems(mItems);
         }
         //get world dimensions to recreate AStarNavigation with the new dimensions & objects
         int[] worldDimensions = gameWorld.getWorldDimensions();
         int[] worldBoundaries = gameWorld.getWorldBoundaries();
-        aStarNavigation = new AStarNavigation(worldDimensions, worldBoundaries, mObjects);
+        boolean hierarchical = worldDimensions[0] * worldDimensions[1] > HIERARCHICAL_NAVIGATION_MIN_AREA;
+        aStarNavigation = new AStarNavigation(worldDimensions, worldBoundaries, mObjects, hierarchical);
     }
 
     /**
@@ -174,7 +257,7 @@ public class GameEnvironment extends GameScreen {
 
         // Calculate the layer height that will preserved the screen aspect ratio
         // given an assume 480 layer width.
-        float layerHeight = mGame.getScreenHeight() * (480.0f / mGame.getScreenWidth());
+        float layerHeight = mGame.getScreenHeight() * (LAYER_WIDTH / mGame.getScreenWidth());
 
         mDefaultLayerViewport.set(240.0f, layerHeight / 2.0f, 240.0f, layerHeight / 2.0f);
         mGameLayerViewport = new LayerViewport(240.0f, layerHeight / 2.0f, 240.0f, layerHeight / 2.0f);
@@ -222,18 +305,14 @@ public class GameEnvironment extends GameScreen {
 
     /**
      * Checks whether any NPCs in the gameWorld are currently talking.
+     * NPC dialogs report being shown & hidden to npcDialogCounter so
+     * no NPCs need to be checked.
      * @author Ben Andrew
      * @return boolean to whether an NPC is talking
      */
     public boolean NPCtalking() {
-        for (GameObject g : mObjects) {
-            if (g instanceof NPC) {
-                if (((NPC) g).npcSpeechIsVisible()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        npcChecksSaved += worldObjects.getNPCs().size();
+        return npcDialogCounter.anyVisible();
     }
 
     /**
@@ -249,6 +328,9 @@ public class GameEnvironment extends GameScreen {
         fps = (int) (1.0f / (float) elapsedTime.stepTime);
 
         //Ben Andrew
+        //logs are drained every update, even when hidden, so none are lost or kept from Log.d
+        log.update();
+
         //ensure Player is still if in another screen or talking to an NPC
         if(NPCtalking() || screenManager.screenIsVisible())
             mPlayer.setStopMovement(true);
@@ -265,7 +347,7 @@ public class GameEnvironment extends GameScreen {
             updateGUIGameObjects(elapsedTime);
             // Update NPCs movement
             if(!NPCtalking())
-                aStarNavigation.update(elapsedTime,mObjects,mPlayer);
+                aStarNavigation.update(elapsedTime,worldObjects.getMovingNPCs(),mPlayer);
         }
         //update ScreenManager for active screen or overlay buttons in main game
         screenManager.update(elapsedTime, mPlayer, this, mDefaultLayerViewport, mDefaultScreenViewport);
@@ -273,7 +355,8 @@ public class GameEnvironment extends GameScreen {
 
     /**
      * Processes collisions on CollidableObjects setting player lastCollidedWith
-     * to the collided with object or null if no collisions
+     * to the collided with object or null if no collisions. Only objects in the
+     * cells neighbouring the player are checked.
      * @author Matthew Breen & Ben Andrew
      */
     private void processCollision(){
@@ -282,7 +365,12 @@ public class GameEnvironment extends GameScreen {
         //to check if it has collided with an enemy
         boolean enemyCollision = false;
 
-        for (GameObject obj : mObjects) {
+        //fetch objects near the player from the spatial index
+        nearbyObjects.clear();
+        objectGrid.queryNeighbourhood(mPlayer.getBound(), 1, nearbyObjects);
+
+        for (int i = 0; i < nearbyObjects.size(); i++) {
+            GameObject obj = nearbyObjects.get(i);
             if (obj instanceof CollidableObject)
                 //check if collision
                 if (CollisionDetector.isCollision(mPlayer.getBound(), obj.getBound())) {
@@ -311,27 +399,41 @@ public class GameEnvironment extends GameScreen {
      * @param elapsedTime Elapsed time information
      */
     private void updateGameObjects(ElapsedTime elapsedTime) {
+        ArrayList<MovingNPC> movingNPCs = worldObjects.getMovingNPCs();
+
+        //store positions of moving objects so draws can be interpolated between updates
+        mPlayer.storePreviousPosition();
+        for(int i = 0; i < movingNPCs.size(); i++){
+            movingNPCs.get(i).storePreviousPosition();
+        }
+
         // updates player
         mPlayer.update(elapsedTime, mMovementDPadControl);
 
-        //updates all gameObjects
-        for(GameObject c : mObjects){
-            //updates required for animated objects
-            if(c instanceof AnimatedObject || c instanceof AnimatedEnemyObject){
-                c.update(elapsedTime);
-            }
-            //WorldItems have custom update
-            if(c instanceof WorldItem){
-                ((WorldItem) c).update(elapsedTime, mPlayer.getInventory());
-            }
-            //NPCs also have custom update
-            if(c instanceof NPC){
-                ((NPC) c).update(elapsedTime, mPlayer, this);
-            }
+        //updates required for animated objects
+        ArrayList<GameObject> animated = worldObjects.getAnimated();
+        for(int i = 0; i < animated.size(); i++){
+            animated.get(i).update(elapsedTime);
+        }
+        //WorldItems have custom update
+        ArrayList<WorldItem> worldItems = worldObjects.getWorldItems();
+        for(int i = 0; i < worldItems.size(); i++){
+            worldItems.get(i).update(elapsedTime, mPlayer.getInventory());
+        }
+        //NPCs also have custom update
+        ArrayList<NPC> npcs = worldObjects.getNPCs();
+        for(int i = 0; i < npcs.size(); i++){
+            npcs.get(i).update(elapsedTime, mPlayer, this);
+        }
+        //moving NPCs need re-bucketing in the spatial index
+        for(int i = 0; i < movingNPCs.size(); i++){
+            objectGrid.update(movingNPCs.get(i));
         }
         //confines player & viewport to world
         mPlayer.confinePlayerToWorld(gameWorld.getWorldBoundaries());
         confineViewportToWorld();
+        //move the player and moving NPCs to their new place in the draw order
+        renderList.update();
     }
 
     /**
@@ -382,12 +484,19 @@ public class GameEnvironment extends GameScreen {
         graphics2D.clipRect(mDefaultScreenViewport.toRect());
 
         if(!screenManager.screenIsVisible()){
+            //draw moving objects and viewport between their last two positions if using fixed updates
+            boolean interpolate = elapsedTime.interpolation < 1.0;
+            if(interpolate)
+                beginInterpolatedDraw(elapsedTime);
             // Draw the background first of all
             mGameBackground.draw(elapsedTime, graphics2D, mGameLayerViewport, mDefaultScreenViewport);
             // Draw game objects
             drawGameObjects(elapsedTime,graphics2D);
+            if(interpolate)
+                endInterpolatedDraw();
             // Following should only be drawn if not in a dialog
             if(!NPCtalking()){
+                updateLogStatus();
                 log.draw(graphics2D, mDefaultLayerViewport, mDefaultScreenViewport, fps);
                 mMovementDPadControl.draw(elapsedTime, graphics2D, mDefaultLayerViewport, mDefaultScreenViewport);
                 healthBar.draw(elapsedTime, graphics2D, mDefaultLayerViewport, mDefaultScreenViewport);
@@ -398,36 +507,102 @@ public class GameEnvironment extends GameScreen {
     }
 
     /**
-     * Draws the gameObjects in order of their vertical height to make objects appear
-     * 3D i.e. the player walks in front of houses and also behind them. Also draws
-     * NPC dialogs if any are active
+     * Moves the player, moving NPCs and viewport to their interpolated
+     * draw positions between the last two fixed updates
+     * @author Ben Andrew
+     * @param elapsedTime Elapsed time information
+     */
+    private void beginInterpolatedDraw(ElapsedTime elapsedTime){
+        mPlayer.beginInterpolatedDraw(elapsedTime);
+        ArrayList<MovingNPC> movingNPCs = worldObjects.getMovingNPCs();
+        for(int i = 0; i < movingNPCs.size(); i++){
+            movingNPCs.get(i).beginInterpolatedDraw(elapsedTime);
+        }
+        confineViewportToWorld();
+    }
+
+    /**
+     * Returns the player, moving NPCs and viewport to their updated positions
+     * @author Ben Andrew
+     */
+    private void endInterpolatedDraw(){
+        mPlayer.endInterpolatedDraw();
+        ArrayList<MovingNPC> movingNPCs = worldObjects.getMovingNPCs();
+        for(int i = 0; i < movingNPCs.size(); i++){
+            movingNPCs.get(i).endInterpolatedDraw();
+        }
+        confineViewportToWorld();
+    }
+
+    /**
+     * Draws the gameObjects (including the player) in order of their vertical height
+     * to make objects appear 3D i.e. the player walks in front of houses and also
+     * behind them. Also draws NPC dialogs if any are active
      * @author Ben Andrew
      * @param elapsedTime Elapsed time information
      * @param graphics2D Graphics2D for draw methods
      */
     private void drawGameObjects(ElapsedTime elapsedTime, IGraphics2D graphics2D){
-        // Draw game mObjects above the player
-        for(GameObject obj : mObjects) {
-            if(obj.position.y > mPlayer.position.y){
-                drawObject(elapsedTime, graphics2D, obj);
-            }
+        cullGameObjects();
+
+        // Draw visible game mObjects from the top of the world down
+        for(int i = 0; i < visibleObjects.size(); i++) {
+            drawObject(elapsedTime, graphics2D, visibleObjects.get(i));
         }
 
-        // Draw the Player
-        mPlayer.draw(elapsedTime, graphics2D, mGameLayerViewport,mDefaultScreenViewport);
+        // Draw NPC dialogs if any
+        ArrayList<NPC> npcs = worldObjects.getNPCs();
+        for(int i = 0; i < npcs.size(); i++){
+            npcs.get(i).getCurrentDialog().draw(elapsedTime, graphics2D, mDefaultLayerViewport, mDefaultScreenViewport);
+        }
+    }
 
-        // Draw game mObjects below or inline with the player
-        for(GameObject obj : mObjects) {
-            if (obj.position.y <= mPlayer.position.y) {
-                drawObject(elapsedTime, graphics2D, obj);
+    /**
+     * Fills visibleObjects with the gameObjects (and player) overlapping the game viewport
+     * in draw order. The spatial index finds the objects near the viewport, so the cost
+     * depends on the objects in view rather than the size of the world, and only those
+     * objects are put into renderList's order.
+     * @author Ben Andrew
+     */
+    private void cullGameObjects(){
+        //query the grid over the viewport widened by a margin, as moving objects may be drawn
+        //between their last two positions while the grid holds their latest position
+        visibleObjects.clear();
+        objectGrid.query(mGameLayerViewport.getLeft() - CULL_MARGIN,
+                mGameLayerViewport.getBottom() - CULL_MARGIN,
+                mGameLayerViewport.getRight() + CULL_MARGIN,
+                mGameLayerViewport.getTop() + CULL_MARGIN, visibleObjects);
+
+        //remove candidates which do not actually overlap the viewport
+        int visibleCount = 0;
+        for(int i = 0; i < visibleObjects.size(); i++) {
+            GameObject obj = visibleObjects.get(i);
+            if(GraphicsHelper.isVisible(obj.getBound(), mGameLayerViewport)) {
+                visibleObjects.set(visibleCount++, obj);
             }
         }
+        while(visibleObjects.size() > visibleCount) {
+            visibleObjects.remove(visibleObjects.size() - 1);
+        }
+        //the player is drawn in order with the objects but isn't held by the grid
+        if(GraphicsHelper.isVisible(mPlayer.getBound(), mGameLayerViewport)) {
+            visibleObjects.add(mPlayer);
+        }
 
-        // Draw NPC dialogs if any
-        for(GameObject obj : mObjects){
-            if(obj instanceof NPC){
-                ((NPC) obj).getCurrentDialog().draw(elapsedTime, graphics2D, mDefaultLayerViewport, mDefaultScreenViewport);
-            }
+        //draw positions are interpolated so can't be compared, use the updated order instead
+        Collections.sort(visibleObjects, DRAW_INDEX_ORDER);
+    }
+
+    /**
+     * Sets the log status line to per frame statistics (drawn objects,
+     * render list sorting and NPC checks avoided) when the log is shown
+     * @author Ben Andrew
+     */
+    private void updateLogStatus(){
+        if(log.isVisible()) {
+            log.setStatus("Drawn:" + visibleObjects.size() + "/" + renderList.size()
+                    + " Sorted:" + renderList.getNumSwaps()
+                    + " NPC checks saved:" + npcChecksSaved);
         }
     }
 
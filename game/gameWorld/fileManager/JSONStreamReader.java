@@ -0,0 +1,224 @@
+package uk.ac.qub.eeecs.game.gameWorld.fileManager;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import uk.ac.qub.eeecs.gage.engine.io.FileIO;
+import uk.ac.qub.eeecs.game.gameWorld.GameEnvironment;
+
+/**
+ * <h1>JSON Stream Reader</h1>
+ * Pull based reader for JSON files in assets. Unlike JSONReader
+ * the file is not read into a String and turned into a JSONObject
+ * first, instead it is read one top level property at a time, with
+ * each property given to a PropertyHandler to read or skip. Arrays
+ * of entries (e.g. world objects) can be read an entry at a time so
+ * only one entry is held in memory at once.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class JSONStreamReader {
+    private FileIO fileIO;
+    private String fileName;
+    //contents of the file if already loaded (or null to read from assets)
+    private byte[] data;
+    private JsonReader reader;
+
+    /**
+     * Handler given each top level property of the file
+     */
+    public interface PropertyHandler {
+        /**
+         * Handles a top level property. Must read or skip
+         * the property's value using the reader.
+         * @param name String of property name
+         * @param reader JSONStreamReader positioned at the property's value
+         * @throws IOException if the file could not be read
+         * @throws JSONException if the value is not as expected
+         */
+        void handle(String name, JSONStreamReader reader) throws IOException, JSONException;
+    }
+
+    /**
+     * Handler given each entry of an array
+     */
+    public interface EntryHandler {
+        /**
+         * Handles an array entry
+         * @param entry JSONObject of the entry
+         * @throws JSONException if the entry is not as expected
+         */
+        void handle(JSONObject entry) throws JSONException;
+    }
+
+    /**
+     * This constructor declares JSONStreamReader for a file in
+     * assets, which is not opened until read is called
+     * @author Ben Andrew
+     * @param fileIO for accessing assets
+     * @param fileName String filename
+     */
+    public JSONStreamReader(FileIO fileIO, String fileName) {
+        this.fileIO = fileIO;
+        this.fileName = fileName;
+    }
+
+    /**
+     * This constructor declares JSONStreamReader for a file which
+     * has already been loaded into memory
+     * @author Ben Andrew
+     * @param data byte[] of file contents
+     * @param fileName String filename (used in logs)
+     */
+    public JSONStreamReader(byte[] data, String fileName) {
+        this.data = data;
+        this.fileName = fileName;
+    }
+
+    /**
+     * Reads the file, giving each top level property to handler
+     * @author Ben Andrew
+     * @param handler PropertyHandler to read each property
+     * @return boolean depending on whether the file could be read
+     */
+    public boolean read(PropertyHandler handler) {
+        try {
+            InputStream in = data != null ? new ByteArrayInputStream(data) : fileIO.readAsset(fileName);
+            reader = new JsonReader(new InputStreamReader(in, "UTF-8"));
+            try {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    handler.handle(reader.nextName(), this);
+                }
+                reader.endObject();
+            } finally {
+                reader.close();
+                reader = null;
+            }
+            return true;
+        } catch (IOException e) {
+            GameEnvironment.log.addLog("JSONStreamReader","Couldn't read "+fileName+" from assets");
+        } catch (JSONException | IllegalStateException | NumberFormatException e) {
+            GameEnvironment.log.addLog("JSONStreamReader","File "+fileName+" could not be read as JSON");
+        }
+        return false;
+    }
+
+    /**
+     * Reads an array of objects, giving each to handler in turn.
+     * If handler fails on an entry, the rest of the array is
+     * skipped and the exception is passed on.
+     * @author Ben Andrew
+     * @param handler EntryHandler to handle each entry
+     * @throws IOException if the file could not be read
+     * @throws JSONException if an entry could not be handled
+     */
+    public void readEntries(EntryHandler handler) throws IOException, JSONException {
+        JSONException failure = null;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (failure != null) {
+                reader.skipValue();
+                continue;
+            }
+            try {
+                handler.handle(readObject());
+            } catch (JSONException e) {
+                failure = e;
+            }
+        }
+        reader.endArray();
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Reads an object value in full
+     * @author Ben Andrew
+     * @return JSONObject of the value
+     * @throws IOException if the file could not be read
+     * @throws JSONException if the value is not an object
+     */
+    public JSONObject readObject() throws IOException, JSONException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT)
+            throw new JSONException("Expected object but found "+reader.peek());
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            object.put(reader.nextName(), readValue());
+        }
+        reader.endObject();
+        return object;
+    }
+
+    public String readString() throws IOException {
+        return reader.nextString();
+    }
+
+    public int readInt() throws IOException {
+        return reader.nextInt();
+    }
+
+    public void skip() throws IOException {
+        reader.skipValue();
+    }
+
+    /**
+     * Reads any value, as the same type that JSONObject
+     * would have stored it as
+     * @author Ben Andrew
+     * @return Object of the value
+     * @throws IOException if the file could not be read
+     * @throws JSONException if the value could not be stored
+     */
+    private Object readValue() throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject();
+            case BEGIN_ARRAY:
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.put(readValue());
+                }
+                reader.endArray();
+                return array;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            case NUMBER:
+                return readNumber(reader.nextString());
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Converts number text to an Integer, Long or Double
+     * matching JSONObject's own parsing
+     * @author Ben Andrew
+     * @param number String of number
+     * @return Number of the value
+     */
+    private Number readNumber(String number) {
+        if (number.indexOf('.') == -1 && number.indexOf('e') == -1 && number.indexOf('E') == -1) {
+            long value = Long.parseLong(number);
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+                return (int) value;
+            return value;
+        }
+        return Double.valueOf(number);
+    }
+}
@@ -3,25 +3,55 @@ package uk.ac.qub.eeecs.game.gameWorld.fileManager;
 import android.graphics.Typeface;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import uk.ac.qub.eeecs.gage.engine.AssetManager;
 import uk.ac.qub.eeecs.gage.engine.io.FileIO;
 import uk.ac.qub.eeecs.gage.world.GameScreen;
 import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameSave.OpenSavedGame;
+import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld.BinaryWorld;
 import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld.GameWorld;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Gateway;
 
 /**
  * <h1>World Manager</h1>
  * Class for initialising worlds and holding
  * them to be fetched by GameEnvironment.
+ * Each world is read from its compiled version
+ * (see WorldCompiler) if it exists, otherwise JSON.
+ * Worlds are only created when first fetched. When a world
+ * is entered the compiled worlds its gateways lead to are
+ * prefetched in the background, and the least recently used
+ * worlds are released once the loaded worlds pass the memory
+ * budget.
  *
  * @author  Ben Andrew
  * @version 1.0
  */
 public class WorldManager {
+    public static final long DEFAULT_MEMORY_BUDGET = 8 * 1024 * 1024;
+    //prefetch thread is shared between managers so that starting a new game does not start new threads
+    private static ExecutorService prefetcher;
+
     private final String[] worldJsons = {"GrassWorld", "PlayerHouse", "LavaWorld"};
-    private HashMap<String, GameWorld> worlds = new HashMap<String, GameWorld>();
+    //worlds in least to most recently used order
+    private LinkedHashMap<String, GameWorld> worlds = new LinkedHashMap<String, GameWorld>(16, 0.75f, true);
+    private String currentWorld;
+    private long memoryBudget;
+
+    private FileIO fileIO;
+    private AssetManager assetManager;
+    private GameScreen gameScreen;
+    private int fontSize, charactersPerLine;
+    private Typeface font;
 
     /**
      * This constructor declares WorldManager with all parameters needed
@@ -35,18 +65,108 @@ public class WorldManager {
      * @param font Typeface for font for GameWorlds
      */
     public WorldManager(FileIO fileIO, AssetManager assetManager, GameScreen gameScreen, int fontSize, int charactersPerLine, Typeface font){
-        for(String world : worldJsons)
-            worlds.put(world, new GameWorld(fileIO,"txt/assets/"+world+".JSON", assetManager, gameScreen, fontSize, charactersPerLine, font));
+        this(fileIO, assetManager, gameScreen, fontSize, charactersPerLine, font, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * This constructor declares WorldManager with a memory budget for loaded worlds.
+     * No world is loaded until it is fetched.
+     * @author Ben Andrew
+     * @param fileIO FileIO needed for GameWorld construction
+     * @param assetManager AssetManager needed for GameWorld construction
+     * @param gameScreen GameScreen needed for GameWorld construction
+     * @param fontSize int for font size in GameWorlds
+     * @param charactersPerLine int for max characters per line in GameWorlds
+     * @param font Typeface for font for GameWorlds
+     * @param memoryBudget long of bytes loaded worlds may hold before the least
+     * recently used are released (the current world is never released)
+     */
+    public WorldManager(FileIO fileIO, AssetManager assetManager, GameScreen gameScreen, int fontSize, int charactersPerLine, Typeface font, long memoryBudget){
+        this.fileIO = fileIO;
+        this.assetManager = assetManager;
+        this.gameScreen = gameScreen;
+        this.fontSize = fontSize;
+        this.charactersPerLine = charactersPerLine;
+        this.font = font;
+        this.memoryBudget = memoryBudget;
     }
 
     /**
-     * Returns GameWorld of given name/key
+     * Returns GameWorld of given name/key, creating it
+     * if this is the first time it has been fetched
      * @author Ben Andrew
      * @param gameWorld String for GameWorld name
-     * @return GameWorld of given key
+     * @return GameWorld of given key (or null if no world has that key)
      */
-    public GameWorld getWorld(String gameWorld) {
-        return worlds.get(gameWorld);
+    public synchronized GameWorld getWorld(String gameWorld) {
+        GameWorld world = worlds.get(gameWorld);
+        if (world == null && Arrays.asList(worldJsons).contains(gameWorld)) {
+            world = new GameWorld(fileIO,"txt/assets/"+gameWorld+".JSON", "txt/assets/"+gameWorld+BinaryWorld.EXTENSION, assetManager, gameScreen, fontSize, charactersPerLine, font);
+            worlds.put(gameWorld, world);
+        }
+        return world;
+    }
+
+    /**
+     * Records that the given world has been entered, then prefetches the
+     * worlds its gateways lead to and releases worlds over the memory budget
+     * @author Ben Andrew
+     * @param gameWorld String of entered world's name
+     * @param gateways ArrayList\<Gateway> of the entered world's gateways
+     */
+    public void enterWorld(String gameWorld, ArrayList<Gateway> gateways) {
+        synchronized (this) {
+            currentWorld = gameWorld;
+        }
+        HashSet<String> neighbours = new HashSet<String>();
+        for (Gateway gateway : gateways) {
+            if (!gateway.getWorldKey().equals(gameWorld) && neighbours.add(gateway.getWorldKey())) {
+                final GameWorld world = getWorld(gateway.getWorldKey());
+                if (world != null && world.getLoadedBytes() == 0) {
+                    getPrefetcher().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            world.prefetch();
+                            releaseOverBudget();
+                        }
+                    });
+                }
+            }
+        }
+        releaseOverBudget();
+    }
+
+    /**
+     * Releases the least recently used worlds (other than the current
+     * world) until the loaded worlds are within the memory budget
+     * @author Ben Andrew
+     */
+    public synchronized void releaseOverBudget() {
+        long loadedBytes = getLoadedBytes();
+        Iterator<Map.Entry<String, GameWorld>> iterator = worlds.entrySet().iterator();
+        while (loadedBytes > memoryBudget && iterator.hasNext()) {
+            Map.Entry<String, GameWorld> entry = iterator.next();
+            if (entry.getKey().equals(currentWorld))
+                continue;
+            loadedBytes -= entry.getValue().getLoadedBytes();
+            entry.getValue().release();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Gets the total size of all loaded worlds
+     * @return long of bytes held by loaded worlds
+     */
+    public synchronized long getLoadedBytes() {
+        long loadedBytes = 0;
+        for (GameWorld world : worlds.values())
+            loadedBytes += world.getLoadedBytes();
+        return loadedBytes;
+    }
+
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
     }
 
     //testing only
@@ -58,4 +178,19 @@ public class WorldManager {
     public String[] getWorldJsons() {
         return worldJsons;
     }
+
+    private static synchronized ExecutorService getPrefetcher(){
+        if(prefetcher == null){
+            prefetcher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "WorldPrefetcher");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return prefetcher;
+    }
 }
@@ -0,0 +1,204 @@
+package uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * <h1>Binary World</h1>
+ * Class for reading a world compiled by WorldCompiler. The file holds
+ * a header (with the map properties), a table of every string used,
+ * a table of string lists (e.g. enemy names) and one fixed size record
+ * per world object. Record values are read straight from the buffer
+ * when needed and strings are referred to by their index in the string
+ * table, so no text has to be parsed to load a world.
+ *
+ * File layout (big endian):
+ * header - MAGIC, VERSION, string count, list count, record count,
+ * background string, width, height, left, right, top, bottom (all ints)
+ * strings - byte length then UTF-8 bytes of each string, padded to 4 bytes
+ * lists - length then string indexes of each list
+ * records - RECORD_SIZE bytes each: type, x, y, width, height and
+ * FIELD_COUNT ints whose meaning depends on the type
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class BinaryWorld {
+    public static final int MAGIC = 0x504B5744;
+    //must be increased whenever the layout changes so old files are not misread
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".world";
+    //file written by WorldCompiler alongside the worlds, holding the largest size each bitmap is drawn at
+    public static final String BITMAP_SIZES_FILE = "BitmapSizes.JSON";
+    public static final int HEADER_SIZE = 48;
+    public static final int FIELD_COUNT = 6;
+    public static final int RECORD_SIZE = 4 + 4 * 4 + 4 * FIELD_COUNT;
+    //index used for a missing string or list
+    public static final int NONE = -1;
+
+    //record types, in the order objects are returned by GameWorld
+    public static final int COLLIDABLE = 0;
+    public static final int ANIMATED = 1;
+    public static final int ENEMY = 2;
+    public static final int ANIMATED_ENEMY = 3;
+    public static final int GATEWAY = 4;
+    public static final int NPC = 5;
+    public static final int SHOP = 6;
+    public static final int ITEM = 7;
+    //JSON array name of each record type
+    public static final String[] TYPE_NAMES = {"collidableObjects", "animatedObjects", "enemyObjects", "animatedEnemyObjects", "gateways", "npc", "shop", "items"};
+
+    //kinds of NPC record
+    public static final int NPC_PLAIN = 0;
+    public static final int NPC_WORLD_KEY = 1;
+    public static final int NPC_MOVING = 2;
+    //moving NPC without dialogs
+    public static final int NPC_MOVING_SILENT = 3;
+
+    private ByteBuffer buffer;
+    private String[] strings;
+    private int[] listOffsets;
+    private int recordsStart;
+    private int recordCount;
+    private int[] worldDimensions = new int[2];
+    private int[] worldBoundaries = new int[4];
+    private String background;
+
+    /**
+     * This constructor checks the header of the given buffer and
+     * reads the string table and list positions
+     * @author Ben Andrew
+     * @param buffer ByteBuffer holding a compiled world
+     * @throws IOException if the buffer is not a compiled world of VERSION
+     */
+    public BinaryWorld(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt(0) != MAGIC)
+                throw new IOException("Not a compiled world");
+            if (buffer.getInt(4) != VERSION)
+                throw new IOException("Compiled world version " + buffer.getInt(4) + " not supported");
+            strings = new String[buffer.getInt(8)];
+            listOffsets = new int[buffer.getInt(12)];
+            recordCount = buffer.getInt(16);
+            int position = 24;
+            for (int i = 0; i < worldDimensions.length; i++, position += 4)
+                worldDimensions[i] = buffer.getInt(position);
+            for (int i = 0; i < worldBoundaries.length; i++, position += 4)
+                worldBoundaries[i] = buffer.getInt(position);
+            //strings
+            byte[] bytes = new byte[0];
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt(position);
+                if (length > bytes.length)
+                    bytes = new byte[length];
+                buffer.position(position + 4);
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, "UTF-8");
+                position += 4 + length;
+            }
+            position = (position + 3) & ~3;
+            //lists
+            for (int i = 0; i < listOffsets.length; i++) {
+                listOffsets[i] = position;
+                position += 4 + 4 * buffer.getInt(position);
+            }
+            recordsStart = position;
+            if (recordsStart + (long) recordCount * RECORD_SIZE > buffer.limit())
+                throw new IOException("Compiled world is truncated");
+            background = getString(buffer.getInt(20));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Compiled world is truncated");
+        }
+    }
+
+    /**
+     * Gets string of the given index in the string table
+     * @param index int of string index
+     * @return String of index (or null if NONE)
+     */
+    public String getString(int index) {
+        return index == NONE ? null : strings[index];
+    }
+
+    /**
+     * Gets list of the given index in the list table
+     * @author Ben Andrew
+     * @param index int of list index
+     * @return String[] of list (or null if NONE)
+     */
+    public String[] getList(int index) {
+        if (index == NONE)
+            return null;
+        int position = listOffsets[index];
+        String[] list = new String[buffer.getInt(position)];
+        for (int i = 0; i < list.length; i++)
+            list[i] = strings[buffer.getInt(position + 4 + 4 * i)];
+        return list;
+    }
+
+    /**
+     * Gets the size of the compiled world
+     * @return int of bytes in the buffer
+     */
+    public int getSize() {
+        return buffer.capacity();
+    }
+
+    public String getBackground() {
+        return background;
+    }
+
+    public int[] getWorldDimensions() {
+        return worldDimensions;
+    }
+
+    public int[] getWorldBoundaries() {
+        return worldBoundaries;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public int getType(int record) {
+        return buffer.getInt(recordsStart + record * RECORD_SIZE);
+    }
+
+    public float getX(int record) {
+        return buffer.getFloat(recordsStart + record * RECORD_SIZE + 4);
+    }
+
+    public float getY(int record) {
+        return buffer.getFloat(recordsStart + record * RECORD_SIZE + 8);
+    }
+
+    public float getWidth(int record) {
+        return buffer.getFloat(recordsStart + record * RECORD_SIZE + 12);
+    }
+
+    public float getHeight(int record) {
+        return buffer.getFloat(recordsStart + record * RECORD_SIZE + 16);
+    }
+
+    /**
+     * Gets a type specific field of a record
+     * @param record int of record index
+     * @param field int of field index (0 to FIELD_COUNT - 1)
+     * @return int of field value
+     */
+    public int getField(int record, int field) {
+        return buffer.getInt(recordsStart + record * RECORD_SIZE + 20 + 4 * field);
+    }
+
+    /**
+     * Gets a field of a record holding a string index as its string
+     * @param record int of record index
+     * @param field int of field index
+     * @return String of field (or null if NONE)
+     */
+    public String getStringField(int record, int field) {
+        return getString(getField(record, field));
+    }
+}
@@ -6,15 +6,18 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import uk.ac.qub.eeecs.gage.engine.AssetManager;
 import uk.ac.qub.eeecs.gage.engine.io.FileIO;
 import uk.ac.qub.eeecs.gage.world.GameObject;
 import uk.ac.qub.eeecs.gage.world.GameScreen;
 import uk.ac.qub.eeecs.game.gameWorld.GameEnvironment;
-import uk.ac.qub.eeecs.game.gameWorld.fileManager.JSONReader;
+import uk.ac.qub.eeecs.game.gameWorld.fileManager.JSONStreamReader;
 import uk.ac.qub.eeecs.game.gameWorld.inventory.PreviewItem;
 import uk.ac.qub.eeecs.game.gameWorld.inventory.WorldItem;
 import uk.ac.qub.eeecs.game.gameWorld.npcInteractions.ChoiceDialog;
@@ -35,12 +38,25 @@ import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Shop;
  * <h1>Game World Loader</h1>
  * Class for loading and extracting world properties from JSON
  * and identifying all world object types including NPCs &
- * items
+ * items. The file is streamed with JSONStreamReader so objects
+ * are created as each entry is read, rather than the whole
+ * file being held as a JSONObject first. If the world has been
+ * compiled by WorldCompiler the binary version is read instead.
+ * The compiled world is kept once loaded (or prefetched) so the
+ * world can be entered again without reading assets, until released.
  *
  * @author  Ben Andrew, Matthew Breen & Shannon Turley
  * @version 1.0
  */
-public class GameWorld extends JSONReader {
+public class GameWorld {
+    private JSONStreamReader reader;
+    private FileIO fileIO;
+    private String file;
+    //compiled world file (or null if JSON should be read)
+    private String binaryFile;
+    //loaded compiled world, set under lock but read without
+    //so checking it never waits on a prefetch
+    private volatile BinaryWorld loadedBinary;
     private AssetManager assetManager;
     private GameScreen gameScreen;
     private static final String[] OBJECT_TYPES = {"collidableObjects", "animatedObjects", "enemyObjects", "animatedEnemyObjects", "gateways", "npc", "shop"};
@@ -48,19 +64,43 @@ public class GameWorld extends JSONReader {
     private ArrayList<Quest> quests;
     private int[] worldBoundaries = new int[4];
     private int[] worldDimensions = new int[2];
+    //map properties, read alongside world objects
+    private static final int MAP_PROPERTIES = 7;
+    private int mapPropertiesFound = 0;
+    private String backgroundImage = "";
+    //names of the bitmaps used by the world's objects and map
+    private HashSet<String> bitmapNames = new HashSet<String>();
     private int fontSize, charactersPerLine;
     private Typeface font;
 
     /**
-     * This constructor declares the parent JSONReader with the saveFile
-     * and copies assetmanager & gamescreen locally
+     * This constructor declares the JSONStreamReader for the world file
+     * and copies assetmanager & gamescreen locally. The file is not
+     * read until objects or the map are fetched
      * @author Ben Andrew
-     * @param fileIO Used to give JSONReader the ability to read assets
+     * @param fileIO Used to give JSONStreamReader the ability to read assets
      * @param assetManager Used to allow class to access assets
      * @param gameScreen Used to initialise objects with gameScreen
      */
     public GameWorld(FileIO fileIO, String file, AssetManager assetManager, GameScreen gameScreen, int fontsize, int charactersPerLine, Typeface font) {
-        super(fileIO, file);
+        this(fileIO, file, null, assetManager, gameScreen, fontsize, charactersPerLine, font);
+    }
+
+    /**
+     * This constructor declares GameWorld with a compiled (binary) version of
+     * the world file, which is read instead of the JSON when it exists
+     * @author Ben Andrew
+     * @param fileIO Used to read the world files from assets
+     * @param file String of world JSON file
+     * @param binaryFile String of compiled world file (or null if not compiled)
+     * @param assetManager Used to allow class to access assets
+     * @param gameScreen Used to initialise objects with gameScreen
+     */
+    public GameWorld(FileIO fileIO, String file, String binaryFile, AssetManager assetManager, GameScreen gameScreen, int fontsize, int charactersPerLine, Typeface font) {
+        this.reader = new JSONStreamReader(fileIO, file);
+        this.fileIO = fileIO;
+        this.file = file;
+        this.binaryFile = binaryFile;
         this.assetManager = assetManager;
         this.gameScreen = gameScreen;
         this.fontSize = fontsize;
@@ -72,25 +112,141 @@ public class GameWorld extends JSONReader {
      * This method fetches the map gameObject with image,width & height as well
      * as saving world boundaries to a int array to be fetched by game later
      * @author Ben Andrew
-     * @exception JSONException Handled exception results in null being returned
-     * @return GameObject returns map object
+     * @return GameObject returns map object (or null if a property is missing)
      */
     public GameObject getMap() {
-        GameObject map = null;
-        String backgroundImage = "";
-        try {
-            backgroundImage = super.getJson().getString("background");
-            worldDimensions[0] = super.getJson().getInt("width");
-            worldDimensions[1] = super.getJson().getInt("height");
-            worldBoundaries[0] = super.getJson().getInt("left");
-            worldBoundaries[1] = super.getJson().getInt("right");
-            worldBoundaries[2] = super.getJson().getInt("top");
-            worldBoundaries[3] = super.getJson().getInt("bottom");
-            map = new GameObject(worldDimensions[0] / 2.0f, worldDimensions[1] / 2.0f, worldDimensions[0], worldDimensions[1], assetManager.getBitmap(backgroundImage), gameScreen);
-        } catch (JSONException e) {
+        //map properties are read with the world objects, so only read them here if needed
+        if (mapPropertiesFound < MAP_PROPERTIES) {
+            BinaryWorld world = loadBinaryWorld();
+            if (world != null)
+                readMapProperties(world);
+        }
+        if (mapPropertiesFound < MAP_PROPERTIES) {
+            mapPropertiesFound = 0;
+            reader.read(new JSONStreamReader.PropertyHandler() {
+                @Override
+                public void handle(String name, JSONStreamReader reader) throws IOException, JSONException {
+                    if (!readMapProperty(name, reader))
+                        reader.skip();
+                }
+            });
+        }
+        if (mapPropertiesFound < MAP_PROPERTIES) {
             GameEnvironment.log.addLog("GameWorld","Map retrieval for "+backgroundImage+" failed");
+            return null;
+        }
+        bitmapNames.add(backgroundImage);
+        return new GameObject(worldDimensions[0] / 2.0f, worldDimensions[1] / 2.0f, worldDimensions[0], worldDimensions[1], assetManager.getBitmap(backgroundImage), gameScreen);
+    }
+
+    /**
+     * Loads the world's compiled file into memory so the world can later
+     * be entered without reading assets. JSON worlds are not prefetched,
+     * as most of their load time is spent creating objects rather than
+     * reading the file. Safe to call from any thread, a world being
+     * loaded at the same time waits for it to finish.
+     * @author Ben Andrew
+     */
+    public void prefetch() {
+        loadBinaryWorld();
+    }
+
+    /**
+     * Drops the loaded contents of the world's file, which is read
+     * from assets again the next time the world is entered
+     * @author Ben Andrew
+     */
+    public void release() {
+        loadedBinary = null;
+    }
+
+    /**
+     * Gets the names of the bitmaps used by the world's objects
+     * and map, once they have been fetched
+     * @return HashSet\<String> of bitmap names
+     */
+    public HashSet<String> getBitmapNames() {
+        return bitmapNames;
+    }
+
+    /**
+     * Gets the size of the world's loaded compiled file
+     * @return long of bytes held (0 if not loaded)
+     */
+    public long getLoadedBytes() {
+        BinaryWorld binary = loadedBinary;
+        return binary != null ? binary.getSize() : 0;
+    }
+
+    /**
+     * Loads the compiled version of the world if there is one. If it
+     * can't be loaded it is not tried again and JSON is read instead.
+     * @author Ben Andrew
+     * @return BinaryWorld of compiled world (or null if not available)
+     */
+    private synchronized BinaryWorld loadBinaryWorld() {
+        if (loadedBinary != null)
+            return loadedBinary;
+        if (binaryFile == null)
+            return null;
+        try {
+            loadedBinary = new BinaryWorld(fileIO.loadBuffer(binaryFile));
+            return loadedBinary;
+        } catch (IOException e) {
+            GameEnvironment.log.addLog("GameWorld","Compiled world "+binaryFile+" not loaded, reading JSON");
+            binaryFile = null;
+        }
+        return null;
+    }
+
+    /**
+     * Copies the map properties from a compiled world
+     * @param world BinaryWorld to copy from
+     */
+    private void readMapProperties(BinaryWorld world) {
+        backgroundImage = world.getBackground();
+        System.arraycopy(world.getWorldDimensions(), 0, worldDimensions, 0, worldDimensions.length);
+        System.arraycopy(world.getWorldBoundaries(), 0, worldBoundaries, 0, worldBoundaries.length);
+        mapPropertiesFound = MAP_PROPERTIES;
+    }
+
+    /**
+     * Reads the given top level property if it is a map property
+     * (background, dimensions or boundaries)
+     * @author Ben Andrew
+     * @param name String of property name
+     * @param reader JSONStreamReader positioned at the property's value
+     * @return boolean to whether the property was a map property
+     * @throws IOException if the file could not be read
+     */
+    private boolean readMapProperty(String name, JSONStreamReader reader) throws IOException {
+        switch (name) {
+            case "background":
+                backgroundImage = reader.readString();
+                break;
+            case "width":
+                worldDimensions[0] = reader.readInt();
+                break;
+            case "height":
+                worldDimensions[1] = reader.readInt();
+                break;
+            case "left":
+                worldBoundaries[0] = reader.readInt();
+                break;
+            case "right":
+                worldBoundaries[1] = reader.readInt();
+                break;
+            case "top":
+                worldBoundaries[2] = reader.readInt();
+                break;
+            case "bottom":
+                worldBoundaries[3] = reader.readInt();
+                break;
+            default:
+                return false;
         }
-        return map;
+        mapPropertiesFound++;
+        return true;
     }
 
     /**
@@ -195,7 +351,10 @@ public class GameWorld extends JSONReader {
 
     /**
      * This is the main method of GameWorld. Used to fetch all world objects from JSON.
-     * Handles all World Object types (except player).
+     * Handles all World Object types (except player). The file is read in one pass,
+     * with each object created as it is read and the map properties saved for getMap.
+     * Objects are returned in OBJECT_TYPES order followed by world items, whatever
+     * order they appear in the file.
      * @author Ben Andrew, Matthew Breen & Kristina Geddis
      * @exception JSONException Handled exception results in current object type retrieval
      * being halted and incrementing to next object type
@@ -207,111 +366,328 @@ public class GameWorld extends JSONReader {
         //Ben Andrew
         this.previewItems = allItems;
         this.quests = quests;
+        BinaryWorld world = loadBinaryWorld();
+        if (world != null)
+            return getGameObjects(world);
+        final HashMap<String,ArrayList<GameObject>> objectsByType = new HashMap<String,ArrayList<GameObject>>();
+        final ArrayList<WorldItem> worldItems = new ArrayList<WorldItem>();
+        final boolean[] itemsFound = {false};
+        mapPropertiesFound = 0;
+        reader.read(new JSONStreamReader.PropertyHandler() {
+            @Override
+            public void handle(String name, JSONStreamReader reader) throws IOException, JSONException {
+                if (readMapProperty(name, reader)) {
+                    return;
+                }
+                if (name.equals("items")) {
+                    itemsFound[0] = true;
+                    readWorldItems(reader, worldItems);
+                } else if (isObjectType(name)) {
+                    ArrayList<GameObject> objects = new ArrayList<GameObject>();
+                    objectsByType.put(name, objects);
+                    readGameObjects(reader, name, objects);
+                } else {
+                    reader.skip();
+                }
+            }
+        });
         ArrayList<GameObject> objects = new ArrayList<GameObject>();
         for (String elementType : OBJECT_TYPES) {
-            try {
-                JSONArray objectJsons = super.getJson().getJSONArray(elementType);
-                for (int i = 0; i < objectJsons.length(); i++) {
-                    JSONObject obj = objectJsons.getJSONObject(i);
-                    float x = Float.valueOf(obj.getString("x"));
-                    float y = Float.valueOf(obj.getString("y"));
-                    float width = Float.valueOf(obj.getString("width"));
-                    float height = Float.valueOf(obj.getString("height"));
-                    switch (elementType) {
-                        case "animatedObjects":
-                            objects.add(new AnimatedObject(x, y, width, height, gameScreen, obj.getString("animation"), obj.getString("animationName")));
-                            break;
-                        case "collidableObjects":
-                            try {
-                                float collisionHeightModifier = Float.valueOf(obj.getString("collisionHeightModifier"));
-                                objects.add(new CollidableObject(x, y, width, height, collisionHeightModifier, assetManager.getBitmap(obj.get("bitmap").toString()), gameScreen));
-                            } catch (Exception e) {
-                                objects.add(new CollidableObject(x, y, width, height, assetManager.getBitmap(obj.get("bitmap").toString()), gameScreen));
-                            }
-                            break;
-                        case "npc":
-                            NPC npc = null;
-                            if(obj.has("worldkey")){
-                                npc = new NPC(x, y, width, height, assetManager.getBitmap(obj.get("bitmap").toString()), gameScreen, font, fontSize, charactersPerLine, obj.getString("worldkey"), obj.getInt("playerX"), obj.getInt("playerY"));
-                            } else if(obj.has("animation")) {
-                                if(obj.has("dialogs")){
-                                    npc = new MovingNPC(x, y, width, height, gameScreen, font, fontSize, charactersPerLine, obj.getString("animation"), obj.getBoolean("seekPlayer"), obj.getInt("movementSpeed"));
-                                } else {
-                                    npc = new MovingNPC(x, y, width, height, gameScreen, obj.getString("animation"), obj.getBoolean("seekPlayer"), obj.getInt("movementSpeed"));
-                                }
-                            } else{
-                                npc = new NPC(x, y, width, height, assetManager.getBitmap(obj.get("bitmap").toString()), gameScreen, font, fontSize, charactersPerLine);
-                            }
-                            npc.dialogHandler = getNPCDialogs(npc.dialogHandler, obj);
-                            objects.add(npc);
-                            break;
-                        //Matthew Breen
-                        case "enemyObjects":
-                            ArrayList<String> list = new ArrayList<>();
-                            JSONArray jsonArray = obj.getJSONArray("enemies");
-                            if (jsonArray != null) {
-                                for (int j = 0; j < jsonArray.length(); j++) {
-                                    list.add(jsonArray.get(j).toString());
-                                }
-                            }
-                            objects.add(new EnemyObject(x, y, width, height, assetManager.getBitmap(obj.getString("bitmap")), gameScreen, Integer.valueOf(obj.get("chance").toString()), list, obj.getBoolean("solid")));
-                            break;
-                        case "animatedEnemyObjects":
-                            list = new ArrayList<>();
-                            jsonArray = obj.getJSONArray("enemies");
-                            if (jsonArray != null) {
-                                for (int j = 0; j < jsonArray.length(); j++) {
-                                    list.add(jsonArray.get(j).toString());
-                                }
-                            }
-                            objects.add(new AnimatedEnemyObject(x, y, width, height, gameScreen, Integer.valueOf(obj.get("chance").toString()), list, obj.getString("animation"), obj.getString("animationName"),obj.getBoolean("solid")));
-                            break;
-                        //Ben Andrew
-                        case "gateways":
-                            objects.add(new Gateway(x, y, width, height, assetManager.getBitmap(obj.getString("bitmap")), gameScreen, obj.getString("worldkey"), obj.getInt("playerX"), obj.getInt("playerY")));
-                            break;
-                        //Kristina Geddis
-                        case "shop":
-                            JSONArray itemsList = obj.getJSONArray("items");
-                            String[] items = new String[itemsList.length()];
-                            for (int l = 0; l < itemsList.length(); l++) {
-                                items[l] = itemsList.getString(l);
-                            }
-                            objects.add(new Shop(x, y, width, height, assetManager.getBitmap(obj.get("bitmap").toString()), items, gameScreen));
-                            break;
+            if (objectsByType.containsKey(elementType))
+                objects.addAll(objectsByType.get(elementType));
+            else
+                System.out.println("No " + elementType + " found");
+        }
+        if (!itemsFound[0])
+            GameEnvironment.log.addLog("GameWorld","Item fetching failed. Total items = 0");
+        objects.addAll(worldItems);
+        return objects;
+    }
+
+    /**
+     * Fetches all world objects (and map properties) from a compiled world.
+     * Records are stored in the same order getGameObjects returns objects.
+     * @author Ben Andrew
+     * @param world BinaryWorld to create objects from
+     * @return ArrayList\<GameObject> returns ArrayList containing all world objects except player
+     */
+    private ArrayList<GameObject> getGameObjects(BinaryWorld world) {
+        readMapProperties(world);
+        ArrayList<GameObject> objects = new ArrayList<GameObject>(world.getRecordCount());
+        for (int i = 0; i < world.getRecordCount(); i++) {
+            GameObject object = getGameObject(world, i);
+            if (object != null)
+                objects.add(object);
+        }
+        return objects;
+    }
+
+    /**
+     * Creates a single world object from a compiled world record
+     * (see WorldCompiler for the fields of each type)
+     * @author Ben Andrew
+     * @param world BinaryWorld holding the record
+     * @param record int of record index
+     * @return GameObject returns created object (or null if type is unknown)
+     */
+    private GameObject getGameObject(BinaryWorld world, int record) {
+        float x = world.getX(record);
+        float y = world.getY(record);
+        float width = world.getWidth(record);
+        float height = world.getHeight(record);
+        switch (world.getType(record)) {
+            case BinaryWorld.COLLIDABLE:
+                if (world.getField(record, 1) == 1)
+                    return withImage(new CollidableObject(x, y, width, height, Float.intBitsToFloat(world.getField(record, 2)), null, gameScreen), world.getStringField(record, 0));
+                return withImage(new CollidableObject(x, y, width, height, null, gameScreen), world.getStringField(record, 0));
+            case BinaryWorld.ANIMATED:
+                return new AnimatedObject(x, y, width, height, gameScreen, world.getStringField(record, 0), world.getStringField(record, 1));
+            case BinaryWorld.ENEMY:
+                return withImage(new EnemyObject(x, y, width, height, null, gameScreen, world.getField(record, 1), getEnemies(world, world.getField(record, 2)), world.getField(record, 3) == 1), world.getStringField(record, 0));
+            case BinaryWorld.ANIMATED_ENEMY:
+                return new AnimatedEnemyObject(x, y, width, height, gameScreen, world.getField(record, 2), getEnemies(world, world.getField(record, 3)), world.getStringField(record, 0), world.getStringField(record, 1), world.getField(record, 4) == 1);
+            case BinaryWorld.GATEWAY:
+                return withImage(new Gateway(x, y, width, height, null, gameScreen, world.getStringField(record, 1), world.getField(record, 2), world.getField(record, 3)), world.getStringField(record, 0));
+            case BinaryWorld.NPC:
+                NPC npc;
+                switch (world.getField(record, 0)) {
+                    case BinaryWorld.NPC_WORLD_KEY:
+                        npc = withImage(new NPC(x, y, width, height, null, gameScreen, font, fontSize, charactersPerLine, world.getStringField(record, 2), world.getField(record, 3), world.getField(record, 4)), world.getStringField(record, 1));
+                        break;
+                    case BinaryWorld.NPC_MOVING:
+                        npc = new MovingNPC(x, y, width, height, gameScreen, font, fontSize, charactersPerLine, world.getStringField(record, 1), world.getField(record, 2) == 1, world.getField(record, 3));
+                        break;
+                    case BinaryWorld.NPC_MOVING_SILENT:
+                        npc = new MovingNPC(x, y, width, height, gameScreen, world.getStringField(record, 1), world.getField(record, 2) == 1, world.getField(record, 3));
+                        break;
+                    default:
+                        npc = withImage(new NPC(x, y, width, height, null, gameScreen, font, fontSize, charactersPerLine), world.getStringField(record, 1));
+                        break;
+                }
+                String dialogs = world.getStringField(record, 5);
+                if (dialogs != null) {
+                    try {
+                        npc.dialogHandler = getNPCDialogs(npc.dialogHandler, new JSONObject().put("dialogs", new JSONArray(dialogs)));
+                    } catch (JSONException e) {
+                        GameEnvironment.log.addLog("GameWorld","NPC dialogs retrieval failed");
                     }
                 }
-            } catch (JSONException e) {
-                System.out.println("No " + elementType + " found");
+                return npc;
+            case BinaryWorld.SHOP:
+                return withImage(new Shop(x, y, width, height, null, world.getList(world.getField(record, 1)), gameScreen), world.getStringField(record, 0));
+            case BinaryWorld.ITEM:
+                return new WorldItem(x, y, width, height, gameScreen, previewItems.get(world.getStringField(record, 0)));
+        }
+        return null;
+    }
+
+    /**
+     * Sets the image of a world object, drawing it straight from its
+     * texture atlas sheet if the image has been packed into one
+     * @author Ben Andrew
+     * @param object GameObject to set the image of
+     * @param bitmap String of bitmap asset name
+     * @return T returns the object
+     */
+    private <T extends GameObject> T withImage(T object, String bitmap) {
+        bitmapNames.add(bitmap);
+        object.setBitmap(assetManager.getRegion(bitmap));
+        return object;
+    }
+
+    /**
+     * Fetches a list of enemy names from a compiled world
+     * @param world BinaryWorld holding the list
+     * @param list int of list index
+     * @return ArrayList\<String> returns enemy names
+     */
+    private ArrayList<String> getEnemies(BinaryWorld world, int list) {
+        ArrayList<String> enemies = new ArrayList<>();
+        Collections.addAll(enemies, world.getList(list));
+        return enemies;
+    }
+
+    /**
+     * Checks whether name is one of OBJECT_TYPES
+     * @param name String of property name
+     * @return boolean to whether name is an object type
+     */
+    private boolean isObjectType(String name) {
+        for (String elementType : OBJECT_TYPES) {
+            if (elementType.equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads an array of world objects of the given type, creating each
+     * as it is read. Stops at the first object which could not be created.
+     * @author Ben Andrew
+     * @param reader JSONStreamReader positioned at the array
+     * @param elementType String of object type (one of OBJECT_TYPES)
+     * @param objects ArrayList to add created objects to
+     * @throws IOException if the file could not be read
+     */
+    private void readGameObjects(JSONStreamReader reader, final String elementType, final ArrayList<GameObject> objects) throws IOException {
+        try {
+            reader.readEntries(new JSONStreamReader.EntryHandler() {
+                @Override
+                public void handle(JSONObject obj) throws JSONException {
+                    objects.add(getGameObject(elementType, obj));
+                }
+            });
+        } catch (JSONException e) {
+            System.out.println("No " + elementType + " found");
+        }
+    }
+
+    /**
+     * Creates a single world object of the given type from its JSON
+     * @author Ben Andrew, Matthew Breen & Kristina Geddis
+     * @param elementType String of object type (one of OBJECT_TYPES)
+     * @param obj JSONObject of object properties
+     * @return GameObject returns created object
+     * @throws JSONException if a property is missing
+     */
+    private GameObject getGameObject(String elementType, JSONObject obj) throws JSONException {
+        //Ben Andrew
+        float x = Float.valueOf(obj.getString("x"));
+        float y = Float.valueOf(obj.getString("y"));
+        float width = Float.valueOf(obj.getString("width"));
+        float height = Float.valueOf(obj.getString("height"));
+        switch (elementType) {
+            case "animatedObjects":
+                return new AnimatedObject(x, y, width, height, gameScreen, obj.getString("animation"), obj.getString("animationName"));
+            case "collidableObjects":
+                try {
+                    float collisionHeightModifier = Float.valueOf(obj.getString("collisionHeightModifier"));
+                    return withImage(new CollidableObject(x, y, width, height, collisionHeightModifier, null, gameScreen), obj.get("bitmap").toString());
+                } catch (Exception e) {
+                    return withImage(new CollidableObject(x, y, width, height, null, gameScreen), obj.get("bitmap").toString());
+                }
+            case "npc":
+                NPC npc = null;
+                if(obj.has("worldkey")){
+                    npc = withImage(new NPC(x, y, width, height, null, gameScreen, font, fontSize, charactersPerLine, obj.getString("worldkey"), obj.getInt("playerX"), obj.getInt("playerY")), obj.get("bitmap").toString());
+                } else if(obj.has("animation")) {
+                    if(obj.has("dialogs")){
+                        npc = new MovingNPC(x, y, width, height, gameScreen, font, fontSize, charactersPerLine, obj.getString("animation"), obj.getBoolean("seekPlayer"), obj.getInt("movementSpeed"));
+                    } else {
+                        npc = new MovingNPC(x, y, width, height, gameScreen, obj.getString("animation"), obj.getBoolean("seekPlayer"), obj.getInt("movementSpeed"));
+                    }
+                } else{
+                    npc = withImage(new NPC(x, y, width, height, null, gameScreen, font, fontSize, charactersPerLine), obj.get("bitmap").toString());
+                }
+                npc.dialogHandler = getNPCDialogs(npc.dialogHandler, obj);
+                return npc;
+            //Matthew Breen
+            case "enemyObjects":
+                return withImage(new EnemyObject(x, y, width, height, null, gameScreen, Integer.valueOf(obj.get("chance").toString()), getEnemies(obj), obj.getBoolean("solid")), obj.getString("bitmap"));
+            case "animatedEnemyObjects":
+                return new AnimatedEnemyObject(x, y, width, height, gameScreen, Integer.valueOf(obj.get("chance").toString()), getEnemies(obj), obj.getString("animation"), obj.getString("animationName"),obj.getBoolean("solid"));
+            //Ben Andrew
+            case "gateways":
+                return withImage(new Gateway(x, y, width, height, null, gameScreen, obj.getString("worldkey"), obj.getInt("playerX"), obj.getInt("playerY")), obj.getString("bitmap"));
+            //Kristina Geddis
+            case "shop":
+                JSONArray itemsList = obj.getJSONArray("items");
+                String[] items = new String[itemsList.length()];
+                for (int l = 0; l < itemsList.length(); l++) {
+                    items[l] = itemsList.getString(l);
+                }
+                return withImage(new Shop(x, y, width, height, null, items, gameScreen), obj.get("bitmap").toString());
+        }
+        throw new JSONException("Unknown object type " + elementType);
+    }
+
+    /**
+     * Fetches the names of enemies an enemy object can start a fight with
+     * @author Matthew Breen
+     * @param obj JSONObject of enemy object properties
+     * @return ArrayList\<String> returns enemy names
+     * @throws JSONException if enemies are missing
+     */
+    private ArrayList<String> getEnemies(JSONObject obj) throws JSONException {
+        ArrayList<String> list = new ArrayList<>();
+        JSONArray jsonArray = obj.getJSONArray("enemies");
+        if (jsonArray != null) {
+            for (int j = 0; j < jsonArray.length(); j++) {
+                list.add(jsonArray.get(j).toString());
             }
         }
-        objects.addAll(getWorldItems());
-        return objects;
+        return list;
+    }
+
+    /**
+     * Fetches all world objects using getGameObjects and sorts them by type
+     * so the game can update each type without checking every object.
+     * @author Ben Andrew
+     * @param allItems Hashmap of all PreviewItems with names (fetched previously)
+     * @param quests ArrayList of all quest objects
+     * @return WorldObjects returns all world objects except player, split by type
+     */
+    public WorldObjects getWorldObjects(HashMap<String,PreviewItem> allItems, ArrayList<Quest> quests) {
+        return new WorldObjects(getGameObjects(allItems, quests));
     }
 
     /**
      * Fetches all world items from JSON and matches to PreviewItems.
+     * Only the items array of the file is read.
      * @author Ben Andrew
-     * @exception JSONException Handled exception results in current
-     * fetching being halted and current ArrayList being returned
      * @return ArrayList\<WorldItem> returns ArrayList containing all WorldItems
      */
     public ArrayList<WorldItem> getWorldItems() {
-        ArrayList<WorldItem> worldItems = new ArrayList<WorldItem>();
-        try {
-            JSONArray objectJsons = super.getJson().getJSONArray("items");
-            for (int i = 0; i < objectJsons.length(); i++) {
-                JSONObject obj = objectJsons.getJSONObject(i);
-                float x = Float.valueOf(obj.getString("x"));
-                float y = Float.valueOf(obj.getString("y"));
-                float width = Float.valueOf(obj.getString("width"));
-                float height = Float.valueOf(obj.getString("height"));
-                String name = obj.getString("name");
-                worldItems.add(new WorldItem(x,y,width,height,gameScreen,previewItems.get(name)));
+        final ArrayList<WorldItem> worldItems = new ArrayList<WorldItem>();
+        BinaryWorld world = loadBinaryWorld();
+        if (world != null) {
+            for (int i = 0; i < world.getRecordCount(); i++) {
+                if (world.getType(i) == BinaryWorld.ITEM)
+                    worldItems.add((WorldItem) getGameObject(world, i));
             }
+            return worldItems;
+        }
+        final boolean[] found = {false};
+        reader.read(new JSONStreamReader.PropertyHandler() {
+            @Override
+            public void handle(String name, JSONStreamReader reader) throws IOException, JSONException {
+                if (name.equals("items")) {
+                    found[0] = true;
+                    readWorldItems(reader, worldItems);
+                } else {
+                    reader.skip();
+                }
+            }
+        });
+        if (!found[0])
+            GameEnvironment.log.addLog("GameWorld","Item fetching failed. Total items = 0");
+        return worldItems;
+    }
+
+    /**
+     * Reads the items array, creating a WorldItem for each entry as it is read
+     * @author Ben Andrew
+     * @exception JSONException Handled exception results in current
+     * fetching being halted with the items read so far kept
+     * @param reader JSONStreamReader positioned at the items array
+     * @param worldItems ArrayList to add WorldItems to
+     * @throws IOException if the file could not be read
+     */
+    private void readWorldItems(JSONStreamReader reader, final ArrayList<WorldItem> worldItems) throws IOException {
+        try {
+            reader.readEntries(new JSONStreamReader.EntryHandler() {
+                @Override
+                public void handle(JSONObject obj) throws JSONException {
+                    float x = Float.valueOf(obj.getString("x"));
+                    float y = Float.valueOf(obj.getString("y"));
+                    float width = Float.valueOf(obj.getString("width"));
+                    float height = Float.valueOf(obj.getString("height"));
+                    String name = obj.getString("name");
+                    worldItems.add(new WorldItem(x,y,width,height,gameScreen,previewItems.get(name)));
+                }
+            });
         } catch (JSONException e) {
             GameEnvironment.log.addLog("GameWorld","Item fetching failed. Total items = "+worldItems.size());
         }
-        return worldItems;
     }
-}
+}
\ No newline at end of file
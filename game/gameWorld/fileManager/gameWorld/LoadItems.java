@@ -1,9 +1,9 @@
 package uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.HashMap;
 
 import uk.ac.qub.eeecs.gage.engine.AssetManager;
@@ -11,7 +11,7 @@ import uk.ac.qub.eeecs.gage.engine.io.FileIO;
 import uk.ac.qub.eeecs.game.fight.AttackMove;
 import uk.ac.qub.eeecs.game.fight.Effect;
 import uk.ac.qub.eeecs.game.gameWorld.GameEnvironment;
-import uk.ac.qub.eeecs.game.gameWorld.fileManager.JSONReader;
+import uk.ac.qub.eeecs.game.gameWorld.fileManager.JSONStreamReader;
 import uk.ac.qub.eeecs.game.gameWorld.inventory.ConsumableItem;
 import uk.ac.qub.eeecs.game.gameWorld.inventory.EquippableItem;
 import uk.ac.qub.eeecs.game.gameWorld.inventory.Key;
@@ -25,23 +25,25 @@ import uk.ac.qub.eeecs.game.gameWorld.inventory.PreviewItem;
  * @author Ben Andrew, Shannon Turley & Matthew Breen
  * @version 1.0
  */
-public class LoadItems extends JSONReader {
+public class LoadItems {
+    private JSONStreamReader reader;
     private AssetManager assetManager;
 
     /**
-     * Constructor declares LoadItems with asset manager and fileIO for the super.
+     * Constructor declares LoadItems with asset manager and fileIO for the JSONStreamReader.
      *
      * @param fileIO       FileIO to read from
      * @param assetManager Asset Manager
      */
     public LoadItems(FileIO fileIO, AssetManager assetManager) {
-        super(fileIO, "txt/assets/Items.JSON");
+        this.reader = new JSONStreamReader(fileIO, "txt/assets/Items.JSON");
         this.assetManager = assetManager;
     }
 
     /**
      * Reads all items from the items.JSON file and parses them into PreviewItem objects,
-     * then returns a Hashmap of PreviewItems and their names.
+     * then returns a Hashmap of PreviewItems and their names. Each item is
+     * created as it is read from the file.
      * If there's an exception, adds an error message to the logs.
      *
      * @return HashMap<String   ,       PreviewItem> of items
@@ -49,66 +51,92 @@ public class LoadItems extends JSONReader {
      */
     public HashMap<String, PreviewItem> getItems() {
         //Ben Andrew
-        HashMap<String, PreviewItem> items = new HashMap<String, PreviewItem>();
-        try {
-            JSONArray itemJson = super.getJson().getJSONArray("items");
-            for (int i = 0; i < itemJson.length(); i++) {
-                JSONObject obj = itemJson.getJSONObject(i);
-                String name = obj.get("name").toString();
-                String type = obj.get("type").toString();
-                int price = obj.getInt("price");
-                String description = obj.get("description").toString();
-                String image = obj.get("image").toString();
-                switch (type) {
-                    case "key":
-                        items.put(name, new Key(description, price, assetManager.getBitmap(image), image, name, obj.getInt("id")));
-                        break;
-                    // Shannon Turley
-                    // Adds an equippable item to the item list, trying first animated and then not animated
-                    case "equippable":
-                        try {
-                            if (obj.has("armour")) {
-                                addAnimatedEquippableArmour(items, obj, name, price, description, image);
-                            } else {
-                                addAnimatedEquippableWeapon(items, obj, name, price, description, image);
-                            }
-                        } catch (Exception e) {
-                            if (obj.has("armour")) {
-                                addEquippableArmour(items, obj, name, price, description, image);
-                            } else {
-                                addEquippableWeapon(items, obj, name, price, description, image);
-                            }
-                        }
-                        break;
-                    // Adds a consumable item to the item list, trying first animated and then not animated
-                    case "consumable":
-                        ConsumableItem.Category consumeCategory = obj.getString("category").equals("health")
-                                ? ConsumableItem.Category.HEALTH : null;
-                        int consumeAmount = obj.getInt("amount");
-                        try {
-                            addAnimatedConsumable(items, obj, name, price, description, image, consumeCategory, consumeAmount);
-                        } catch (Exception e) {
-                            items.put(name, new ConsumableItem(description, price, assetManager.getBitmap(image),
-                                    image, name, consumeCategory, consumeAmount));
-                        }
-                        break;
-                        // Otherwise the item is just a normal preview item
-                    default:
-                        try {
-                            addAnimatedPreviewItem(items, obj, name, price, description, image);
-                        } catch (Exception e) {
-                            items.put(name, new PreviewItem(description, price, assetManager.getBitmap(image), image, name));
-                        } finally {
-                            break;
+        final HashMap<String, PreviewItem> items = new HashMap<String, PreviewItem>();
+        final boolean[] found = {false};
+        reader.read(new JSONStreamReader.PropertyHandler() {
+            @Override
+            public void handle(String name, JSONStreamReader reader) throws IOException, JSONException {
+                if (!name.equals("items")) {
+                    reader.skip();
+                    return;
+                }
+                found[0] = true;
+                try {
+                    reader.readEntries(new JSONStreamReader.EntryHandler() {
+                        @Override
+                        public void handle(JSONObject obj) throws JSONException {
+                            addItem(items, obj);
                         }
+                    });
+                } catch (JSONException e) {
+                    GameEnvironment.log.addLog("LOADITEMS", "Item loading stopped. Total items = " + items.size());
                 }
             }
-        } catch (JSONException e) {
+        });
+        if (!found[0])
             GameEnvironment.log.addLog("LOADITEMS", "No items found to load");
-        }
         return items;
     }
 
+    /**
+     * Parses a single item from its JSON and adds it to the item list
+     * @author Shannon Turley, Ben Andrew & Matthew Breen
+     * @param items HashMap item list
+     * @param obj JSON object for parsing
+     * @throws JSONException if JSON file could not be read
+     */
+    private void addItem(HashMap<String, PreviewItem> items, JSONObject obj) throws JSONException {
+        //Ben Andrew
+        String name = obj.get("name").toString();
+        String type = obj.get("type").toString();
+        int price = obj.getInt("price");
+        String description = obj.get("description").toString();
+        String image = obj.get("image").toString();
+        switch (type) {
+            case "key":
+                items.put(name, new Key(description, price, assetManager.getBitmap(image), image, name, obj.getInt("id")));
+                break;
+            // Shannon Turley
+            // Adds an equippable item to the item list, trying first animated and then not animated
+            case "equippable":
+                try {
+                    if (obj.has("armour")) {
+                        addAnimatedEquippableArmour(items, obj, name, price, description, image);
+                    } else {
+                        addAnimatedEquippableWeapon(items, obj, name, price, description, image);
+                    }
+                } catch (Exception e) {
+                    if (obj.has("armour")) {
+                        addEquippableArmour(items, obj, name, price, description, image);
+                    } else {
+                        addEquippableWeapon(items, obj, name, price, description, image);
+                    }
+                }
+                break;
+            // Adds a consumable item to the item list, trying first animated and then not animated
+            case "consumable":
+                ConsumableItem.Category consumeCategory = obj.getString("category").equals("health")
+                        ? ConsumableItem.Category.HEALTH : null;
+                int consumeAmount = obj.getInt("amount");
+                try {
+                    addAnimatedConsumable(items, obj, name, price, description, image, consumeCategory, consumeAmount);
+                } catch (Exception e) {
+                    items.put(name, new ConsumableItem(description, price, assetManager.getBitmap(image),
+                            image, name, consumeCategory, consumeAmount));
+                }
+                break;
+                // Otherwise the item is just a normal preview item
+            default:
+                try {
+                    addAnimatedPreviewItem(items, obj, name, price, description, image);
+                } catch (Exception e) {
+                    items.put(name, new PreviewItem(description, price, assetManager.getBitmap(image), image, name));
+                } finally {
+                    break;
+                }
+        }
+    }
+
     /**
      * Adds an animated preview item to the item list
      * @param items HashMap item list
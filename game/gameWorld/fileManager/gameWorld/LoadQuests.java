@@ -1,13 +1,13 @@
 package uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import uk.ac.qub.eeecs.gage.engine.io.FileIO;
-import uk.ac.qub.eeecs.game.gameWorld.fileManager.JSONReader;
+import uk.ac.qub.eeecs.game.gameWorld.fileManager.JSONStreamReader;
 import uk.ac.qub.eeecs.game.gameWorld.quest.Quest;
 
 /**
@@ -17,17 +17,18 @@ import uk.ac.qub.eeecs.game.gameWorld.quest.Quest;
  * @author  Ben Andrew
  * @version 1.0
  */
-public class LoadQuests extends JSONReader {
+public class LoadQuests {
     protected static final String QUESTS_JSON = "txt/assets/Quests.JSON";
+    private JSONStreamReader reader;
 
     /**
-     * This constructor declares the parent JSONReader with the Json
+     * This constructor declares the JSONStreamReader with the Json
      * name held in QUESTS_JSON
      * @author Ben Andrew
-     * @param fileIO Used to in parent JSONReader
+     * @param fileIO Used in JSONStreamReader
      */
     public LoadQuests(FileIO fileIO){
-        super(fileIO, QUESTS_JSON);
+        this.reader = new JSONStreamReader(fileIO, QUESTS_JSON);
     }
 
     /**
@@ -37,18 +38,28 @@ public class LoadQuests extends JSONReader {
      * @return ArrayList<Quest> all Quests
      */
     public ArrayList<Quest> getQuests(){
-        ArrayList<Quest> quests = new ArrayList<Quest>();
-        try {
-            JSONArray itemJson = super.getJson().getJSONArray("items");
-            for(int i = 0; i < itemJson.length(); i++) {
-                JSONObject obj = itemJson.getJSONObject(i);
-                String name = obj.getString("name");
-                String description = obj.getString("description");
-                quests.add(new Quest(name,description));
+        final ArrayList<Quest> quests = new ArrayList<Quest>();
+        reader.read(new JSONStreamReader.PropertyHandler() {
+            @Override
+            public void handle(String name, JSONStreamReader reader) throws IOException, JSONException {
+                if (!name.equals("items")) {
+                    reader.skip();
+                    return;
+                }
+                try {
+                    reader.readEntries(new JSONStreamReader.EntryHandler() {
+                        @Override
+                        public void handle(JSONObject obj) throws JSONException {
+                            String name = obj.getString("name");
+                            String description = obj.getString("description");
+                            quests.add(new Quest(name,description));
+                        }
+                    });
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
+        });
         return quests;
     }
 }
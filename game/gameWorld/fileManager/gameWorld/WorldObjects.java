@@ -0,0 +1,120 @@
+package uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld;
+
+import java.util.ArrayList;
+
+import uk.ac.qub.eeecs.gage.world.GameObject;
+import uk.ac.qub.eeecs.game.gameWorld.inventory.WorldItem;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.AnimatedEnemyObject;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.AnimatedObject;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Gateway;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.MovingNPC;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.NPC;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Shop;
+
+/**
+ * <h1>World Objects</h1>
+ * Class holding all objects of a loaded world, along with a list
+ * of each object type the game acts on. Object types are checked
+ * once when the world is loaded so each update only visits the
+ * objects it needs to, rather than checking the type of every
+ * object in the world every frame.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class WorldObjects {
+    //all world objects in load order
+    private ArrayList<GameObject> all;
+    //objects with a plain animation update (AnimatedObject & AnimatedEnemyObject)
+    private ArrayList<GameObject> animated = new ArrayList<GameObject>();
+    private ArrayList<WorldItem> worldItems = new ArrayList<WorldItem>();
+    private ArrayList<NPC> npcs = new ArrayList<NPC>();
+    private ArrayList<MovingNPC> movingNPCs = new ArrayList<MovingNPC>();
+    private ArrayList<Shop> shops = new ArrayList<Shop>();
+    private ArrayList<Gateway> gateways = new ArrayList<Gateway>();
+
+    /**
+     * This constructor sorts the given objects into a list for each type
+     * @author Ben Andrew
+     * @param objects ArrayList of all world objects
+     */
+    public WorldObjects(ArrayList<GameObject> objects) {
+        this.all = objects;
+        for (GameObject g : objects) {
+            if (g instanceof AnimatedObject || g instanceof AnimatedEnemyObject) {
+                animated.add(g);
+            }
+            if (g instanceof WorldItem) {
+                worldItems.add((WorldItem) g);
+            }
+            if (g instanceof NPC) {
+                npcs.add((NPC) g);
+            }
+            if (g instanceof MovingNPC) {
+                movingNPCs.add((MovingNPC) g);
+            }
+            if (g instanceof Shop) {
+                shops.add((Shop) g);
+            }
+            if (g instanceof Gateway) {
+                gateways.add((Gateway) g);
+            }
+        }
+    }
+
+    /**
+     * Getter for all world objects
+     * @return ArrayList\<GameObject> returns all world objects
+     */
+    public ArrayList<GameObject> getAll() {
+        return all;
+    }
+
+    /**
+     * Getter for objects which are animated but have no custom update
+     * @return ArrayList\<GameObject> returns AnimatedObjects & AnimatedEnemyObjects
+     */
+    public ArrayList<GameObject> getAnimated() {
+        return animated;
+    }
+
+    /**
+     * Getter for world items
+     * @return ArrayList\<WorldItem> returns all WorldItems
+     */
+    public ArrayList<WorldItem> getWorldItems() {
+        return worldItems;
+    }
+
+    /**
+     * Getter for NPCs (including moving NPCs)
+     * @return ArrayList\<NPC> returns all NPCs
+     */
+    public ArrayList<NPC> getNPCs() {
+        return npcs;
+    }
+
+    /**
+     * Getter for moving NPCs
+     * @return ArrayList\<MovingNPC> returns all MovingNPCs
+     */
+    public ArrayList<MovingNPC> getMovingNPCs() {
+        return movingNPCs;
+    }
+
+    /**
+     * Getter for shops
+     * @return ArrayList\<Shop> returns all Shops
+     */
+    public ArrayList<Shop> getShops() {
+        return shops;
+    }
+
+    /**
+     * Getter for gateways
+     * @return ArrayList\<Gateway> returns all Gateways
+     */
+    public ArrayList<Gateway> getGateways() {
+        return gateways;
+    }
+}
@@ -121,6 +121,19 @@ public class ChoiceDialog extends TextDialog {
         failureMessage.resetDialog();
     }
 
+    /**
+     * Overwrites TextDialog setDialogCounter to also set
+     * the counter of success and failure message
+     */
+    @Override
+    public void setDialogCounter(DialogCounter dialogCounter){
+        super.setDialogCounter(dialogCounter);
+        if(successMessage != null)
+            successMessage.setDialogCounter(dialogCounter);
+        if(failureMessage != null)
+            failureMessage.setDialogCounter(dialogCounter);
+    }
+
     @Override
     protected void updateTriggerActions(TouchEvent touchEvent, Vector2 touchLocation) { }
 
@@ -154,12 +167,12 @@ public class ChoiceDialog extends TextDialog {
                 if (b.isPressed()) {
                     if(b.getText().equalsIgnoreCase("yes")){
                         if(interactionHandler.checkInteraction(inventory)){
-                            super.state = DialogState.CHOICE_ACCEPTED;
+                            setState(DialogState.CHOICE_ACCEPTED);
                         } else {
-                            super.state = DialogState.CHOICE_REJECTED;
+                            setState(DialogState.CHOICE_REJECTED);
                         }
                     } else {
-                        super.state = DialogState.CHOICE_DECLNED;
+                        setState(DialogState.CHOICE_DECLNED);
                     }
                     super.pressed = true;
                 }
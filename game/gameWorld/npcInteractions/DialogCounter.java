@@ -0,0 +1,45 @@
+package uk.ac.qub.eeecs.game.gameWorld.npcInteractions;
+
+/**
+ * <h1>Dialog Counter</h1>
+ * Class for counting how many dialogs are currently shown.
+ * Dialogs given a counter report when they are shown or hidden,
+ * so whether any dialog is open can be checked without asking
+ * every dialog in the world.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class DialogCounter {
+    private int visibleDialogs = 0;
+
+    /**
+     * Records that a dialog has been shown
+     * @author Ben Andrew
+     */
+    public void dialogShown(){
+        visibleDialogs++;
+    }
+
+    /**
+     * Records that a dialog has been hidden
+     * @author Ben Andrew
+     */
+    public void dialogHidden(){
+        if(visibleDialogs > 0)
+            visibleDialogs--;
+    }
+
+    /**
+     * Checks whether any counted dialog is shown
+     * @author Ben Andrew
+     * @return boolean to whether a dialog is shown
+     */
+    public boolean anyVisible(){
+        return visibleDialogs > 0;
+    }
+
+    public int getVisibleDialogs(){
+        return visibleDialogs;
+    }
+}
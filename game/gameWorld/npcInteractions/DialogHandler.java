@@ -27,6 +27,8 @@ public class DialogHandler {
     protected boolean resetFlag = false;
     //interactionSuccessful corresponds to ChoiceDialogs check and is needed for NPC to check events
     protected boolean interactionSuccessful = false;
+    //counter given to all dialogs so they report being shown/ hidden (null if not counted)
+    private DialogCounter dialogCounter;
 
     /**
      * This constructor declares DialogHandler with font size,
@@ -50,7 +52,7 @@ public class DialogHandler {
      * @param choiceDialog ChoiceDialog to be added
      */
     public void add(ChoiceDialog choiceDialog) {
-        dialogs.add(choiceDialog);
+        addDialog(choiceDialog);
     }
 
     /**
@@ -62,7 +64,7 @@ public class DialogHandler {
      * @param item PreviewItem for ChoiceDialog interaction
      */
     public void add(GameScreen gameScreen, String message, PreviewItem item) {
-        dialogs.add(new ChoiceDialog(gameScreen, message, font, fontSize, charactersPerLine, item));
+        addDialog(new ChoiceDialog(gameScreen, message, font, fontSize, charactersPerLine, item));
     }
 
     /**
@@ -71,7 +73,7 @@ public class DialogHandler {
      * @param textDialog TextDialog to be added
      */
     public void add(TextDialog textDialog){
-        dialogs.add(textDialog);
+        addDialog(textDialog);
     }
 
     /**
@@ -82,7 +84,7 @@ public class DialogHandler {
      * @param message String for TextDialog message
      */
     public void add(GameScreen gameScreen, String message) {
-        dialogs.add(new TextDialog(gameScreen, message, font, fontSize, charactersPerLine));
+        addDialog(new TextDialog(gameScreen, message, font, fontSize, charactersPerLine));
     }
 
     /**
@@ -94,7 +96,7 @@ public class DialogHandler {
      * @param y int y position of text dialogue
      */
     public void add(GameScreen gameScreen, String message, int y) {
-        dialogs.add(new TextDialog(gameScreen, message, font, fontSize, charactersPerLine, y));
+        addDialog(new TextDialog(gameScreen, message, font, fontSize, charactersPerLine, y));
     }
 
     /**
@@ -107,7 +109,34 @@ public class DialogHandler {
      * @param shopDialog boolean for whether dialog is a shop dialog
      */
     public void add(GameScreen gameScreen, String message, boolean shopDialog) {
-        dialogs.add(new TextDialog(gameScreen, message, font, fontSize, charactersPerLine, shopDialog));
+        addDialog(new TextDialog(gameScreen, message, font, fontSize, charactersPerLine, shopDialog));
+    }
+
+    /**
+     * Adds dialog to the dialogs list, giving it the
+     * dialogCounter if one is set
+     * @author Ben Andrew
+     * @param dialog TextDialog to be added
+     */
+    private void addDialog(TextDialog dialog) {
+        if(dialogCounter != null)
+            dialog.setDialogCounter(dialogCounter);
+        dialogs.add(dialog);
+    }
+
+    /**
+     * Sets the DialogCounter which all dialogs (current and
+     * later added) report being shown or hidden to
+     * @author Ben Andrew
+     * @param dialogCounter DialogCounter to use (or null to stop counting)
+     */
+    public void setDialogCounter(DialogCounter dialogCounter) {
+        this.dialogCounter = dialogCounter;
+        for (TextDialog d : dialogs) {
+            d.setDialogCounter(dialogCounter);
+        }
+        if(currentDialog != null && !dialogs.contains(currentDialog))
+            currentDialog.setDialogCounter(dialogCounter);
     }
 
     public TextDialog getCurrentDialog() {
@@ -151,6 +180,14 @@ public class DialogHandler {
      * @author Ben Andrew
      */
     public void clear() {
+        //removed dialogs no longer count as shown
+        if(dialogCounter != null) {
+            for (TextDialog d : dialogs) {
+                d.setDialogCounter(null);
+            }
+            if(currentDialog != null)
+                currentDialog.setDialogCounter(null);
+        }
         dialogs = new ArrayList<TextDialog>();
         currentDialog = null;
         dialogIndex = 0;
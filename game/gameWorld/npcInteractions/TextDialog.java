@@ -12,6 +12,7 @@ import uk.ac.qub.eeecs.gage.util.ViewportHelper;
 import uk.ac.qub.eeecs.gage.world.GameScreen;
 import uk.ac.qub.eeecs.gage.world.LayerViewport;
 import uk.ac.qub.eeecs.gage.world.ScreenViewport;
+import uk.ac.qub.eeecs.game.tools.TextLayout;
 import uk.ac.qub.eeecs.game.tools.Tools;
 
 /**
@@ -35,10 +36,14 @@ public class TextDialog extends Button {
     private final int Y_TEXT_OFFSET = 5;
     //hidden by default
     protected DialogState state = DialogState.HIDDEN;
+    //told when the dialog is shown or hidden (null if not counted)
+    protected DialogCounter dialogCounter;
     protected int textCounter = 0;
     protected boolean completedMessage = false;
     protected String[] message;
     protected int messageLength;
+    //message lines laid out once so they can be drawn without creating Strings each frame
+    protected TextLayout textLayout;
     private Paint paint = new Paint();
     protected int charactersPerLine;
     protected boolean pressed = false;
@@ -60,9 +65,7 @@ public class TextDialog extends Button {
      */
     public TextDialog(GameScreen gameScreen, String message, int charactersPerLine){
         super(0,0,0,0,null,true,gameScreen);
-        this.message = Tools.convertStringToMultiLine(message, MAX_LINES, charactersPerLine);
-        for(String line : this.message)
-            messageLength += line.length();
+        setMessage(message, charactersPerLine);
         this.charactersPerLine = charactersPerLine;
     }
 
@@ -83,9 +86,7 @@ public class TextDialog extends Button {
         paint.setTextSize(fontSize);
         paint.setTypeface(font);
         this.charactersPerLine = charactersPerLine;
-        this.message = Tools.convertStringToMultiLine(message, MAX_LINES, charactersPerLine);
-        for(String line : this.message)
-            messageLength += line.length();
+        setMessage(message, charactersPerLine);
         this.shopDialog = shopDialog;
         if(shopDialog)
             linePosition.y = 205;
@@ -106,9 +107,7 @@ public class TextDialog extends Button {
         paint.setTextSize(fontSize);
         paint.setTypeface(font);
         this.charactersPerLine = charactersPerLine;
-        this.message = Tools.convertStringToMultiLine(message, MAX_LINES, charactersPerLine);
-        for(String line : this.message)
-            messageLength += line.length();
+        setMessage(message, charactersPerLine);
     }
 
     /**
@@ -127,10 +126,8 @@ public class TextDialog extends Button {
         paint.setTextSize(fontSize);
         paint.setTypeface(font);
         this.charactersPerLine = charactersPerLine;
-        this.message = Tools.convertStringToMultiLine(message, MAX_LINES, charactersPerLine);
-        for(String line : this.message)
-            messageLength += line.length();
-        state = DialogState.VISIBLE;
+        setMessage(message, charactersPerLine);
+        setState(DialogState.VISIBLE);
         linePosition.y =y+Y_TEXT_OFFSET;
     }
 
@@ -174,7 +171,7 @@ public class TextDialog extends Button {
      * @author Ben Andrew
      */
     public void resetDialog(){
-        this.state = DialogState.HIDDEN;
+        setState(DialogState.HIDDEN);
         textCounter = 0;
         completedMessage = false;
         pressed = false;
@@ -188,33 +185,53 @@ public class TextDialog extends Button {
      */
     public void setHidden(boolean hidden){
         if(!hidden)
-            this.state = DialogState.VISIBLE;
+            setState(DialogState.VISIBLE);
         else
-            this.state = DialogState.HIDDEN;
+            setState(DialogState.HIDDEN);
     }
 
     /**
-     * Returns message up to a set number of characters (textCounter).
-     * This is used to animate text by updating text counter each frame,
-     * which in turns add another character to the outputted lines.
+     * Sets dialog state, telling the dialogCounter (if set)
+     * when the dialog is shown or hidden
      * @author Ben Andrew
-     * @return String[] message up to the set number of characters
+     * @param state DialogState to change to
      */
-    protected String[] currentLines(){
-        String[] lines = new String[message.length];
-        int charactersUsed = 0;
-        for(int i = 0; i < message.length; i++){
-            if(textCounter-charactersUsed > 0) {
-                //uses Math.min to ensure substring doesn't exceed line length (resulting in error)
-                lines[i] = message[i].substring(0, Math.min(message[i].length(), textCounter - charactersUsed));
-                //uses counter to record how many characters have been used by each line so far
-                charactersUsed += message[i].length();
-            } else{
-                //empty if we've used all out characters on the previous lines
-                lines[i] = "";
-            }
+    protected void setState(DialogState state){
+        boolean wasHidden = getHidden();
+        this.state = state;
+        if(dialogCounter != null && wasHidden != getHidden()){
+            if(wasHidden)
+                dialogCounter.dialogShown();
+            else
+                dialogCounter.dialogHidden();
         }
-        return lines;
+    }
+
+    /**
+     * Sets the DialogCounter to tell when this dialog is shown
+     * or hidden, moving the dialog's count from any previous counter
+     * @author Ben Andrew
+     * @param dialogCounter DialogCounter to use (or null to stop counting)
+     */
+    public void setDialogCounter(DialogCounter dialogCounter){
+        if(this.dialogCounter != null && !getHidden())
+            this.dialogCounter.dialogHidden();
+        this.dialogCounter = dialogCounter;
+        if(dialogCounter != null && !getHidden())
+            dialogCounter.dialogShown();
+    }
+
+    /**
+     * Splits message into lines and lays them out
+     * for drawing
+     * @author Ben Andrew
+     * @param message String for dialog text
+     * @param charactersPerLine int for max characters per line
+     */
+    private void setMessage(String message, int charactersPerLine){
+        this.message = Tools.convertStringToMultiLine(message, MAX_LINES, charactersPerLine);
+        this.textLayout = new TextLayout(this.message);
+        this.messageLength = textLayout.getLength();
     }
 
     /**
@@ -235,7 +252,7 @@ public class TextDialog extends Button {
      * Draws the parent Button as well as all
      * currently visible lines. Text counter is updated here
      * and will also modify how much of the message is output
-     * each frame in currentLines()
+     * each frame
      * @author Ben Andrew
      * @param elapsedTime ElapsedTime used in draw methods
      * @param graphics2D IGraphics2D used in draw methods
@@ -247,11 +264,7 @@ public class TextDialog extends Button {
         if(state != DialogState.HIDDEN){
             super.draw(elapsedTime, graphics2D, layerViewport, screenViewport);
             updateTextCounter();
-            String[] lines = currentLines();
-            for(int i = 0; i < lines.length; i++){
-                if(lines[i] != "")
-                    graphics2D.drawText(lines[i], linePosition.x, linePosition.y-(20*i), paint, layerViewport, screenViewport);
-            }
+            textLayout.draw(graphics2D, textCounter, linePosition.x, linePosition.y, 20, paint, layerViewport, screenViewport);
         }
     }
 
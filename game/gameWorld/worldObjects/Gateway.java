@@ -43,6 +43,10 @@ public class Gateway extends CollidableObject{
         this.gameEnvironment = ((GameEnvironment) mGameScreen);
     }
 
+    public String getWorldKey() {
+        return worldKey;
+    }
+
     @Override
     public void handleCollision(GameObject obj){ }
 
@@ -1,12 +1,7 @@
 package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
 
-import android.annotation.TargetApi;
-import android.os.Build;
-
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.HashSet;
 import java.util.Random;
 
 import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
@@ -15,14 +10,19 @@ import uk.ac.qub.eeecs.gage.util.Vector2;
 import uk.ac.qub.eeecs.gage.world.GameObject;
 import uk.ac.qub.eeecs.game.gameWorld.GameEnvironment;
 import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Player;
-import uk.ac.qub.eeecs.game.tools.Tools;
 
 /**
  * <h1>A* Navigation</h1>
  * Navigation class for use in NPCs. Generates a grid structure
  * for passed maps/ objects to identify possible routes. Uses
  * A* to identify best route between two coordinates to
- * produce a step-by-step route to target.
+ * produce a step-by-step route to target. Searches are run off
+ * the update thread by AsyncPathfinder, whose workers use AStarSearch,
+ * or HierarchicalSearch in hierarchical mode for large maps, and
+ * their results are applied at the start of a later update. getPath
+ * still searches straight away on the calling thread, using an
+ * AStarSearch that is only built when first needed.
+ * Found paths are kept in a PathCache until the grid changes.
  * Resource used; https://en.wikipedia.org/wiki/A*_search_algorithm#Pseudocode
  * @author  Ben Andrew
  * @version 1.0
@@ -35,6 +35,19 @@ public class AStarNavigation {
     private static final int UPDATE_RATE = 5;
     private int lastUpdate = 0;
     private Random random = new Random();
+    //cluster width & height (in cells) used in hierarchical mode
+    protected static final int CLUSTER_SIZE = 10;
+    private boolean hierarchical;
+    private PathCache pathCache = new PathCache();
+    //incremented whenever the grid changes so cached paths are not reused
+    private int gridVersion = 0;
+    //max number of completed NPC paths applied in a single update
+    private static final int MAX_PATHS_APPLIED_PER_UPDATE = 2;
+    private AsyncPathfinder asyncPathfinder = new AsyncPathfinder();
+    private AsyncPathfinder.GridSnapshot gridSnapshot;
+    private HashSet<MovingNPC> pendingPaths = new HashSet<MovingNPC>();
+    //search used by getPath, built on its first call and dropped whenever the grid changes
+    private AStarSearch search;
 
     /**
      * This constructor declares AStarNavigation with map dimensions,
@@ -45,6 +58,21 @@ public class AStarNavigation {
      * @param objectBounds ArrayList for all object dimensions used to identify impassible areas
      */
     public AStarNavigation(int[] mapDimensions, int[] mapBoundaries, ArrayList<GameObject> objectBounds){
+        this(mapDimensions, mapBoundaries, objectBounds, false);
+    }
+
+    /**
+     * This constructor declares AStarNavigation with map dimensions,
+     * map boundaries, objects for initialising map grid and whether to
+     * use hierarchical searching (precomputing cluster entrances on creation).
+     * @author Ben Andrew
+     * @param mapDimensions int[] for map dimensions (width & height)
+     * @param mapBoundaries int[] for map boundaries (left, right, up & down)
+     * @param objectBounds ArrayList for all object dimensions used to identify impassible areas
+     * @param hierarchical boolean of whether to use HierarchicalSearch
+     */
+    public AStarNavigation(int[] mapDimensions, int[] mapBoundaries, ArrayList<GameObject> objectBounds, boolean hierarchical){
+        this.hierarchical = hierarchical;
         this.mapDimensions = mapDimensions;
         this.mapBoundaries = new int[4];
         for(int i = 0; i < 4; i++){
@@ -56,22 +84,6 @@ public class AStarNavigation {
         implementObjectBounds(objectBounds);
     }
 
-
-    /**
-     * Internal class required for Java PriorityQueue
-     * to compare AStarNodes during A* processing.
-     * Simply compares cost of both nodes to decide
-     * which to continue exploring first.
-     * @author Ben Andrew
-     */
-    private class NodeComparator implements Comparator<AStarNode>
-    {
-        public int compare(AStarNode n1, AStarNode n2)
-        {
-            return n1.getCost() - n2.getCost();
-        }
-    }
-
     /**
      * Fills grid with all empty (false) area.
      * @author Ben Andrew
@@ -110,6 +122,11 @@ public class AStarNavigation {
             }
         }
         declareOutOfMapBounds();
+        //searches run on a snapshot of the grid so must be given a new one
+        gridVersion++;
+        pathCache.invalidate();
+        search = null;
+        gridSnapshot = new AsyncPathfinder.GridSnapshot(grid, gridVersion, hierarchical);
     }
 
     /**
@@ -127,38 +144,6 @@ public class AStarNavigation {
         }
     }
 
-    /**
-     * Creates 2D int array the same size as the map
-     * grid with all values set at maximum integer value.
-     * This is used in A* to track best path through the map
-     * and update cells to their lowest cost.
-     * @author Ben Andrew
-     * @return int[][] grid of costs all set as maxint
-     */
-    protected int[][] initialiseCosts() {
-        int[][] costs = new int[grid.length][grid[0].length];
-        for (int i = 0; i < grid.length; i++) {
-            for (int j = 0; j < grid[0].length; j++) {
-                costs[i][j] = Integer.MAX_VALUE;
-            }
-        }
-        return costs;
-    }
-
-    /**
-     * Returns a priorityQueue designd for comparing
-     * AStarNodes and containing the starting node.
-     * @author Ben Andrew
-     * @param startingPosition Vector2 of starting cell position
-     * @return PriorityQueue containing starting node
-     */
-    @TargetApi(Build.VERSION_CODES.N)
-    private PriorityQueue<AStarNode> initialiseNodeQueue(Vector2 startingPosition){
-        PriorityQueue<AStarNode> nodesToVisit = new PriorityQueue<AStarNode>(new NodeComparator());
-        nodesToVisit.add(new AStarNode(null, startingPosition, 0));
-        return nodesToVisit;
-    }
-
     /**
      * Returns whether a cell can be passed through by checking it
      * is in the map and not obstructed.
@@ -185,50 +170,16 @@ public class AStarNavigation {
     }
 
     /**
-     * Converts passed vector array in cell format
+     * Converts the path found by the last search
      * into map pixel format
      * @author Ben Andrew
-     * @param coordinates Vector2[] of grid positions
-     * @return Vector2[] of positions in map format (pixels)
-     */
-    protected Vector2[] convertToPixels(Vector2[] coordinates){
-        for(int i = 0; i < coordinates.length; i++){
-            coordinates[i] = new Vector2((coordinates[i].x * CELL_SIZE) + CELL_SIZE /2, (coordinates[i].y * CELL_SIZE) + CELL_SIZE /2);
-        }
-        return coordinates;
-    }
-
-    /**
-     * Iterates through each previousNode to build an
-     * ArrayList of nodes for a path. Then converts this path
-     * into a Vector array for NPC to follow to target
-     * @author Ben Andrew
-     * @param destinationNode AStarNode of final node at destination
-     * @return Vector2[] of each step in order and in cell format
-     */
-    protected Vector2[] getSteps(AStarNode destinationNode){
-        ArrayList<AStarNode> pathNodes = new ArrayList<AStarNode>();
-        AStarNode currentNode = destinationNode.getPrevious();
-        while(currentNode != null){
-            pathNodes.add(currentNode);
-            currentNode = currentNode.getPrevious();
-        }
-        Collections.reverse(pathNodes);
-        pathNodes.add(destinationNode);
-        return getPositionsFromNodes(pathNodes);
-    }
-
-    /**
-     * Fetches coordinates for each node to produce a Vector[]
-     * of positions for all nodes in a path
-     * @author Ben Andrew
-     * @param nodes ArrayList of nodes in path
-     * @return Vector2[] of all coordinates found in nodes
+     * @param search PathSearch holding the path of its last search
+     * @return Vector2[] of each step in order in map format (pixels)
      */
-    protected Vector2[] getPositionsFromNodes(ArrayList<AStarNode> nodes){
-        Vector2[] steps = new Vector2[nodes.size()];
-        for(int i = 0; i < nodes.size(); i++){
-            steps[i] = nodes.get(i).getCoordinates();
+    protected static Vector2[] toPixels(PathSearch search){
+        Vector2[] steps = new Vector2[search.getPathLength()];
+        for(int i = 0; i < steps.length; i++){
+            steps[i] = new Vector2((search.getPathX(i) * CELL_SIZE) + CELL_SIZE /2, (search.getPathY(i) * CELL_SIZE) + CELL_SIZE /2);
         }
         return steps;
     }
@@ -243,98 +194,117 @@ public class AStarNavigation {
      * and target. May return null if route cannot be found
      */
     public Vector2[] getPath(Vector2 startingPos, Vector2 targetPos){
-        startingPos = convertToCell(startingPos);
-        targetPos = convertToCell(targetPos);
-        AStarNode destNode = calculatePath(startingPos,targetPos);
-        if(destNode != null){
-            Vector2[] steps = getSteps(destNode);
-            return convertToPixels(steps);
-        } else {
-            GameEnvironment.log.addLog("AStarNavigation","Path cannot be found to: "+targetPos.x+","+targetPos.y);
-            return null;
+        int startX = (int) (startingPos.x / CELL_SIZE);
+        int startY = (int) (startingPos.y / CELL_SIZE);
+        int targetX = (int) (targetPos.x / CELL_SIZE);
+        int targetY = (int) (targetPos.y / CELL_SIZE);
+        if(search == null){
+            search = new AStarSearch(gridSnapshot.getWidth(), gridSnapshot.getHeight(), gridSnapshot.getBlocked());
         }
+        if(search.search(startX, startY, targetX, targetY)){
+            return toPixels(search);
+        }
+        GameEnvironment.log.addLog("AStarNavigation","Path cannot be found to: {},{}", targetX, targetY);
+        return null;
     }
 
     /**
-     * Creates array of surrounding cells for AStar to
-     * check and explore if suitable
+     * Returns whether a cell lies on the grid (blocked or not)
      * @author Ben Andrew
-     * @param x int of current cells x position
-     * @param y int of current cells y position
-     * @return Vector2[] of four cells
-     * surrounding cell at the x,y position
+     * @param x int of cell x position
+     * @param y int of cell y position
+     * @return boolean to whether cell is on the grid
      */
-    protected Vector2[] getCellNeighbours(int x, int y){
-        Vector2[] neighbours = new Vector2[4];
-        //left
-        neighbours[0] = new Vector2(x-1, y);
-        //top
-        neighbours[1] = new Vector2(x, y+1);
-        //right
-        neighbours[2] = new Vector2(x+1, y);
-        //bottom
-        neighbours[3] = new Vector2(x, y-1);
-        return neighbours;
+    private boolean onGrid(int x, int y){
+        return x >= 0 && x < grid.length && y >= 0 && y < grid[0].length;
     }
 
-    /**
-     * Implements A* searching to find most efficient
-     * route between starting a target cell.
-     * @author Ben Andrew
-     * @param startingPos Vector2 of starting cell position
-     * @param targetPos Vector2 of target cell position
-     * @return AStarNode of destination node which also contains all
-     * previous nodes produced to reach the target. If route cannot be found
-     * null is returned
-     */
-    protected AStarNode calculatePath(Vector2 startingPos, Vector2 targetPos){
-        int[][] costs = initialiseCosts();
-        PriorityQueue<AStarNode> nodesToVisit = initialiseNodeQueue(startingPos);
-        while(!nodesToVisit.isEmpty()){
-            AStarNode current = nodesToVisit.remove();
-            if(current.positionEquals(targetPos)) {
-                return current;
-            }
-            Vector2[] neighbours = getCellNeighbours(current.getX(), current.getY());
-            for(int i = 0; i < 4; i++){
-                if(withinBounds(neighbours[i])){
-                    int newCost = costs[current.getX()][current.getY()]+1;
-                    if(newCost < costs[(int) neighbours[i].x][(int) neighbours[i].y]){
-                        costs[(int) neighbours[i].x][(int) neighbours[i].y] = newCost;
-                        AStarNode newNode = new AStarNode(current, neighbours[i], newCost + Tools.manhattanDistance(neighbours[i],targetPos));
-                        nodesToVisit.add(newNode);
-                    }
-                }
-            }
-        }
-        return null;
+    public boolean isHierarchical() {
+        return hierarchical;
+    }
+
+    public PathCache getPathCache() {
+        return pathCache;
     }
 
     /**
      * Assigns MovingNPCs paths depending on their goal (random position
      * or player). Will only update route if current journey is complete or
-     * seeking the player.
+     * seeking the player, and the NPC is not already waiting on a path.
      * @author Ben Andrew
-     * @param mObjects ArrayList of all objects to extract moving NPCs from
+     * @param movingNPCs ArrayList of moving NPCs to navigate
      * @param mPlayer Player for assigning players position as a target
      */
-    public void manageNPCNavigation(ArrayList<GameObject> mObjects, Player mPlayer){
-        for(GameObject g : mObjects){
-            if(g instanceof MovingNPC) {
-                if(((MovingNPC) g).isPlayerSeekMode()){
-                    ((MovingNPC) g).setPath(getPath(g.position, mPlayer.position), true);
-                } else if (((MovingNPC) g).isTargetReached()){
+    public void manageNPCNavigation(ArrayList<MovingNPC> movingNPCs, Player mPlayer){
+        for(MovingNPC g : movingNPCs){
+            if(!pendingPaths.contains(g)) {
+                if(g.isPlayerSeekMode()){
+                    requestPath(g, mPlayer.position, true);
+                } else if (g.isTargetReached()){
                     Vector2 randomTarget = randomCellTarget();
                     while(!withinBounds(convertToCell(randomTarget))){
                         randomTarget = randomCellTarget();
                     }
-                    Vector2[] steps = getPath(g.position, randomTarget);
-                    ((MovingNPC) g).setPath(steps, false);
+                    requestPath(g, randomTarget, false);
                 }
             }
         }
     }
 
+    /**
+     * Sets a MovingNPCs path straight away if it is cached, otherwise
+     * submits the search to asyncPathfinder
+     * @author Ben Andrew
+     * @param npc MovingNPC requiring a path
+     * @param targetPos Vector2 of destination coordinates
+     * @param playerSeek boolean of whether the NPC is seeking the player
+     */
+    private void requestPath(MovingNPC npc, Vector2 targetPos, boolean playerSeek){
+        int startX = (int) (npc.position.x / CELL_SIZE);
+        int startY = (int) (npc.position.y / CELL_SIZE);
+        int targetX = (int) (targetPos.x / CELL_SIZE);
+        int targetY = (int) (targetPos.y / CELL_SIZE);
+        if(onGrid(startX, startY) && onGrid(targetX, targetY)){
+            int startCell = startY * grid.length + startX;
+            int targetCell = targetY * grid.length + targetX;
+            if(pathCache.contains(startCell, targetCell, gridVersion)){
+                npc.setPath(pathCache.get(startCell, targetCell), playerSeek);
+                return;
+            }
+        }
+        pendingPaths.add(npc);
+        asyncPathfinder.submit(new AsyncPathfinder.PathRequest(npc, startX, startY, targetX, targetY, playerSeek, gridSnapshot));
+    }
+
+    /**
+     * Applies up to MAX_PATHS_APPLIED_PER_UPDATE completed searches
+     * to their NPCs, caching the paths. Searches made on an older
+     * grid are discarded.
+     * @author Ben Andrew
+     */
+    private void applyCompletedPaths(){
+        int applied = 0;
+        while(applied < MAX_PATHS_APPLIED_PER_UPDATE){
+            AsyncPathfinder.PathRequest request = asyncPathfinder.pollCompleted();
+            if(request == null){
+                break;
+            }
+            pendingPaths.remove(request.getNPC());
+            if(request.getGridVersion() != gridVersion){
+                continue;
+            }
+            if(onGrid(request.getStartX(), request.getStartY()) && onGrid(request.getTargetX(), request.getTargetY())){
+                pathCache.put(request.getStartY() * grid.length + request.getStartX(),
+                        request.getTargetY() * grid.length + request.getTargetX(), gridVersion, request.getPath());
+            }
+            if(request.getPath() == null){
+                GameEnvironment.log.addLog("AStarNavigation","Path cannot be found to: {},{}", request.getTargetX(), request.getTargetY());
+            }
+            request.getNPC().setPath(request.getPath(), request.isPlayerSeek());
+            applied++;
+        }
+    }
+
     /**
      * Produces a random vector position within confines
      * of the map
@@ -349,18 +319,19 @@ public class AStarNavigation {
     }
 
     /**
-     * Updates AStarNavigation every UPDATE_RATE seconds
-     * by checking and assigning paths to all moving NPC's
+     * Applies any completed NPC paths and then updates AStarNavigation
+     * every UPDATE_RATE seconds by requesting paths for all moving NPC's
      * @author Ben Andrew
      * @param elapsedTime ElapsedTime to decided whether another update is required
-     * @param gameObjects ArrayList of gameObjects to pass to manageNPCNavigation
+     * @param movingNPCs ArrayList of moving NPCs to pass to manageNPCNavigation
      * @param mPlayer Player to pass to manageNPCNavigation
      */
-    public void update(ElapsedTime elapsedTime, ArrayList<GameObject> gameObjects, Player mPlayer){
+    public void update(ElapsedTime elapsedTime, ArrayList<MovingNPC> movingNPCs, Player mPlayer){
+        applyCompletedPaths();
         if(elapsedTime.totalTime - UPDATE_RATE > lastUpdate){
-            manageNPCNavigation(gameObjects,mPlayer);
+            manageNPCNavigation(movingNPCs,mPlayer);
             lastUpdate = (int) elapsedTime.totalTime;
-            GameEnvironment.log.addLog("AStarNavigation","Path updated");
+            GameEnvironment.log.addLog("AStarNavigation","Path updated (cache hits: {}, misses: {})", pathCache.getHits(), pathCache.getMisses());
         }
     }
 }
@@ -0,0 +1,374 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+/**
+ * <h1>A* Search</h1>
+ * Allocation free A* search over a navigation grid. Cells are
+ * referred to by a single int id (y * width + x) and all search
+ * state is held in flat int arrays which are reused between searches.
+ * Rather than clearing the cost arrays before each search, every
+ * cell is stamped with the generation of the search that last touched
+ * it, so any cell with an old stamp is treated as unvisited.
+ * The open set is an indexed binary heap of cell ids, allowing a
+ * cell's cost to be lowered in place instead of pushing duplicates.
+ * Searches may be confined to a rectangle of the grid, which is used
+ * by HierarchicalSearch to search within a single cluster.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class AStarSearch implements PathSearch {
+    private int width, height;
+    private boolean[] blocked;
+
+    //rectangle of cells the current search is confined to (inclusive)
+    private int minX, minY, maxX, maxY;
+
+    //per cell search state, only valid where generation[cell] == currentGeneration
+    private int[] generation;
+    private int[] costs;
+    private int[] estimates;
+    private int[] previous;
+    private int[] heapIndex;
+    private int currentGeneration = 0;
+
+    //indexed binary heap of cell ids ordered by estimate
+    private int[] heap;
+    private int heapSize;
+
+    //path produced by last successful search, from start to target
+    private int[] path;
+    private int pathLength;
+
+    private static final int CLOSED = -1;
+
+    /**
+     * This constructor declares AStarSearch with the grid to search.
+     * @author Ben Andrew
+     * @param grid boolean[][] of blocked (true) and passable (false) cells
+     */
+    public AStarSearch(boolean[][] grid){
+        setGrid(grid);
+    }
+
+    /**
+     * This constructor declares AStarSearch with a grid held as cell
+     * ids, which is shared rather than copied.
+     * @author Ben Andrew
+     * @param width int of grid width in cells
+     * @param height int of grid height in cells
+     * @param blocked boolean[] of blocked (true) and passable (false) cells by cell id
+     */
+    public AStarSearch(int width, int height, boolean[] blocked){
+        setGrid(width, height, blocked);
+    }
+
+    /**
+     * Copies the grid into a flat blocked array, resizing the
+     * search arrays if the grid dimensions have changed.
+     * @author Ben Andrew
+     * @param grid boolean[][] of blocked (true) and passable (false) cells
+     */
+    @Override
+    public void setGrid(boolean[][] grid){
+        setGrid(grid.length, grid[0].length, flatten(grid));
+    }
+
+    /**
+     * Searches a grid held as cell ids, resizing the search arrays if
+     * the grid dimensions have changed. The grid is not copied, so one
+     * grid can be searched by many AStarSearch objects (e.g. one per
+     * worker thread) as long as it is not changed whilst in use.
+     * @author Ben Andrew
+     * @param width int of grid width in cells
+     * @param height int of grid height in cells
+     * @param blocked boolean[] of blocked (true) and passable (false) cells by cell id
+     */
+    public void setGrid(int width, int height, boolean[] blocked){
+        int cells = width * height;
+        if(generation == null || generation.length != cells){
+            generation = new int[cells];
+            costs = new int[cells];
+            estimates = new int[cells];
+            previous = new int[cells];
+            heapIndex = new int[cells];
+            heap = new int[cells];
+            path = new int[cells];
+            currentGeneration = 0;
+        }
+        this.width = width;
+        this.height = height;
+        this.blocked = blocked;
+        minX = 0;
+        minY = 0;
+        maxX = width - 1;
+        maxY = height - 1;
+    }
+
+    /**
+     * Copies a grid into a flat array indexed by cell id (y * width + x)
+     * @author Ben Andrew
+     * @param grid boolean[][] of blocked (true) and passable (false) cells
+     * @return boolean[] of blocked (true) and passable (false) cells by cell id
+     */
+    public static boolean[] flatten(boolean[][] grid){
+        int width = grid.length;
+        int height = grid[0].length;
+        boolean[] blocked = new boolean[width * height];
+        for(int x = 0; x < width; x++){
+            for(int y = 0; y < height; y++){
+                blocked[y * width + x] = grid[x][y];
+            }
+        }
+        return blocked;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns whether a cell is on the grid and not blocked
+     * @author Ben Andrew
+     * @param x int of cell x position
+     * @param y int of cell y position
+     * @return boolean to whether the cell can be passed through
+     */
+    public boolean isPassable(int x, int y){
+        return x >= 0 && x < width && y >= 0 && y < height && !blocked[y * width + x];
+    }
+
+    /**
+     * Returns whether a cell is within the current search area and not blocked
+     */
+    private boolean canEnter(int x, int y){
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && !blocked[y * width + x];
+    }
+
+    /**
+     * Runs A* between two cells. The resulting path can be read
+     * through getPathLength, getPathX and getPathY until the next search.
+     * @author Ben Andrew
+     * @param startX int of starting cell x position
+     * @param startY int of starting cell y position
+     * @param targetX int of target cell x position
+     * @param targetY int of target cell y position
+     * @return boolean to whether a path was found
+     */
+    @Override
+    public boolean search(int startX, int startY, int targetX, int targetY){
+        return search(startX, startY, targetX, targetY, 0, 0, width - 1, height - 1);
+    }
+
+    /**
+     * Runs A* between two cells without leaving the given rectangle of cells.
+     * @author Ben Andrew
+     * @param startX int of starting cell x position
+     * @param startY int of starting cell y position
+     * @param targetX int of target cell x position
+     * @param targetY int of target cell y position
+     * @param minX int of leftmost cell that may be searched
+     * @param minY int of bottom cell that may be searched
+     * @param maxX int of rightmost cell that may be searched
+     * @param maxY int of top cell that may be searched
+     * @return boolean to whether a path was found
+     */
+    public boolean search(int startX, int startY, int targetX, int targetY, int minX, int minY, int maxX, int maxY){
+        pathLength = 0;
+        this.minX = Math.max(minX, 0);
+        this.minY = Math.max(minY, 0);
+        this.maxX = Math.min(maxX, width - 1);
+        this.maxY = Math.min(maxY, height - 1);
+        if(startX < this.minX || startX > this.maxX || startY < this.minY || startY > this.maxY){
+            return false;
+        }
+        //a target outside the searched cells can't be reached, and off the grid its index would alias another cell
+        if(targetX < this.minX || targetX > this.maxX || targetY < this.minY || targetY > this.maxY){
+            return false;
+        }
+        nextGeneration();
+        heapSize = 0;
+
+        int start = startY * width + startX;
+        int target = targetY * width + targetX;
+        visit(start, 0, -1, targetX, targetY);
+        heapPush(start);
+
+        while(heapSize > 0){
+            int current = heapPop();
+            if(current == target){
+                buildPath(target);
+                return true;
+            }
+            int x = current % width;
+            int y = current / width;
+            int newCost = costs[current] + 1;
+            //left, top, right, bottom
+            relax(x - 1, y, current, newCost, targetX, targetY);
+            relax(x, y + 1, current, newCost, targetX, targetY);
+            relax(x + 1, y, current, newCost, targetX, targetY);
+            relax(x, y - 1, current, newCost, targetX, targetY);
+        }
+        return false;
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathX(int step) {
+        return path[step] % width;
+    }
+
+    @Override
+    public int getPathY(int step) {
+        return path[step] / width;
+    }
+
+    /**
+     * Moves to the next search generation, clearing the stamps
+     * only if the generation counter wraps around
+     * @author Ben Andrew
+     */
+    private void nextGeneration(){
+        currentGeneration++;
+        if(currentGeneration == Integer.MAX_VALUE){
+            for(int i = 0; i < generation.length; i++){
+                generation[i] = 0;
+            }
+            currentGeneration = 1;
+        }
+    }
+
+    /**
+     * Considers moving to a neighbouring cell, adding it to the
+     * open set or lowering its cost if the new route is cheaper
+     * @author Ben Andrew
+     * @param x int of neighbour x position
+     * @param y int of neighbour y position
+     * @param from int of cell id being expanded
+     * @param newCost int of cost to reach the neighbour
+     * @param targetX int of target cell x position
+     * @param targetY int of target cell y position
+     */
+    private void relax(int x, int y, int from, int newCost, int targetX, int targetY){
+        if(!canEnter(x, y)){
+            return;
+        }
+        int cell = y * width + x;
+        if(generation[cell] != currentGeneration){
+            visit(cell, newCost, from, targetX, targetY);
+            heapPush(cell);
+        } else if(newCost < costs[cell]){
+            estimates[cell] -= costs[cell] - newCost;
+            costs[cell] = newCost;
+            previous[cell] = from;
+            if(heapIndex[cell] == CLOSED){
+                heapPush(cell);
+            } else {
+                siftUp(heapIndex[cell]);
+            }
+        }
+    }
+
+    /**
+     * Stamps a cell as visited in this generation with its
+     * cost, estimate and previous cell
+     * @author Ben Andrew
+     */
+    private void visit(int cell, int cost, int from, int targetX, int targetY){
+        generation[cell] = currentGeneration;
+        costs[cell] = cost;
+        estimates[cell] = cost + Math.abs(cell % width - targetX) + Math.abs(cell / width - targetY);
+        previous[cell] = from;
+        heapIndex[cell] = CLOSED;
+    }
+
+    /**
+     * Follows previous cells back from the target to fill
+     * the path array in start to target order
+     * @author Ben Andrew
+     * @param target int of target cell id
+     */
+    private void buildPath(int target){
+        int length = 0;
+        for(int cell = target; cell != -1; cell = previous[cell]){
+            length++;
+        }
+        int step = length;
+        for(int cell = target; cell != -1; cell = previous[cell]){
+            path[--step] = cell;
+        }
+        pathLength = length;
+    }
+
+    private void heapPush(int cell){
+        heap[heapSize] = cell;
+        heapIndex[cell] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int heapPop(){
+        int top = heap[0];
+        heapIndex[top] = CLOSED;
+        heapSize--;
+        if(heapSize > 0){
+            heap[0] = heap[heapSize];
+            heapIndex[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int index){
+        int cell = heap[index];
+        while(index > 0){
+            int parent = (index - 1) >> 1;
+            if(!before(cell, heap[parent])){
+                break;
+            }
+            heap[index] = heap[parent];
+            heapIndex[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = cell;
+        heapIndex[cell] = index;
+    }
+
+    private void siftDown(int index){
+        int cell = heap[index];
+        int half = heapSize >> 1;
+        while(index < half){
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if(right < heapSize && before(heap[right], heap[child])){
+                child = right;
+            }
+            if(!before(heap[child], cell)){
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = cell;
+        heapIndex[cell] = index;
+    }
+
+    /**
+     * Heap ordering, lowest estimate first and on ties the cell
+     * furthest along its route (closest to the target)
+     * @author Ben Andrew
+     */
+    private boolean before(int a, int b){
+        if(estimates[a] != estimates[b]){
+            return estimates[a] < estimates[b];
+        }
+        return costs[a] > costs[b];
+    }
+}
@@ -0,0 +1,236 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import uk.ac.qub.eeecs.gage.util.Vector2;
+import uk.ac.qub.eeecs.game.gameWorld.GameEnvironment;
+
+/**
+ * <h1>Async Pathfinder</h1>
+ * Runs path searches for AStarNavigation on a small pool of worker
+ * threads so that a burst of NPC repaths does not stall the update
+ * thread. Requests carry an immutable GridSnapshot, so workers never
+ * read the navigation grid while it is being changed. A snapshot's grid
+ * and HPA* graph are built once and shared by every worker; each worker
+ * thread only keeps the search state of one PathSearch, shared by every
+ * AsyncPathfinder, which is pointed at the snapshot of each request. Every
+ * request is queued as completed, with a null path if its search
+ * failed, until the update thread collects it with pollCompleted.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class AsyncPathfinder {
+    private static final int WORKER_COUNT = 2;
+    //worker pool is shared between worlds so that loading a world does not start new threads
+    private static ExecutorService workers;
+
+    private final ConcurrentLinkedQueue<PathRequest> completed = new ConcurrentLinkedQueue<PathRequest>();
+    //static as the workers are shared, so a worker's search is replaced rather than kept per world
+    private static final ThreadLocal<WorkerSearch> workerSearch = new ThreadLocal<WorkerSearch>();
+
+    /**
+     * Immutable copy of the navigation grid that worker threads search,
+     * along with its HPA* graph when searched hierarchically
+     */
+    public static class GridSnapshot {
+        private final int width, height;
+        //cells by cell id (y * width + x), shared by every search of the snapshot
+        private final boolean[] blocked;
+        private final int version;
+        private final boolean hierarchical;
+        //built by the first worker to need it, guarded by the snapshot
+        private ClusterGraph graph;
+
+        /**
+         * This constructor copies the passed grid so later changes
+         * to it are not seen by worker threads
+         * @author Ben Andrew
+         * @param grid boolean[][] of blocked (true) and passable (false) cells
+         * @param version int of grid version
+         * @param hierarchical boolean of whether to use HierarchicalSearch
+         */
+        public GridSnapshot(boolean[][] grid, int version, boolean hierarchical){
+            this.width = grid.length;
+            this.height = grid[0].length;
+            this.blocked = AStarSearch.flatten(grid);
+            this.version = version;
+            this.hierarchical = hierarchical;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        int getWidth() {
+            return width;
+        }
+
+        int getHeight() {
+            return height;
+        }
+
+        boolean[] getBlocked() {
+            return blocked;
+        }
+
+        /**
+         * Returns the snapshot's HPA* graph, building it on first use
+         * so that the graph of a grid is only built once however many
+         * workers search it
+         * @author Ben Andrew
+         * @return ClusterGraph of the snapshot's grid
+         */
+        synchronized ClusterGraph getGraph(){
+            if(graph == null){
+                graph = new ClusterGraph(width, height, blocked, AStarNavigation.CLUSTER_SIZE);
+            }
+            return graph;
+        }
+    }
+
+    /**
+     * Path search request for a MovingNPC between two cells.
+     * Path is set by the worker once the search completes.
+     */
+    public static class PathRequest {
+        private final MovingNPC npc;
+        private final int startX, startY, targetX, targetY;
+        private final boolean playerSeek;
+        private final GridSnapshot grid;
+        private Vector2[] path;
+
+        public PathRequest(MovingNPC npc, int startX, int startY, int targetX, int targetY, boolean playerSeek, GridSnapshot grid){
+            this.npc = npc;
+            this.startX = startX;
+            this.startY = startY;
+            this.targetX = targetX;
+            this.targetY = targetY;
+            this.playerSeek = playerSeek;
+            this.grid = grid;
+        }
+
+        public MovingNPC getNPC() {
+            return npc;
+        }
+
+        public int getStartX() {
+            return startX;
+        }
+
+        public int getStartY() {
+            return startY;
+        }
+
+        public int getTargetX() {
+            return targetX;
+        }
+
+        public int getTargetY() {
+            return targetY;
+        }
+
+        public boolean isPlayerSeek() {
+            return playerSeek;
+        }
+
+        public int getGridVersion() {
+            return grid.version;
+        }
+
+        public Vector2[] getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * Worker thread's search and the snapshot it was last set to
+     */
+    private static class WorkerSearch {
+        private PathSearch search;
+        private GridSnapshot grid;
+    }
+
+    /**
+     * Queues a request to be searched on a worker thread
+     * @author Ben Andrew
+     * @param request PathRequest to be searched
+     */
+    public void submit(final PathRequest request){
+        getWorkers().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    PathSearch search = getSearch(request.grid);
+                    if(search.search(request.startX, request.startY, request.targetX, request.targetY)){
+                        request.path = AStarNavigation.toPixels(search);
+                    }
+                } catch (RuntimeException e) {
+                    //the search may be left part way through, so is rebuilt for the next request
+                    request.path = null;
+                    workerSearch.remove();
+                    GameEnvironment.log.addLog("AsyncPathfinder", "Path search failed", e);
+                } finally {
+                    //always completed, so the NPC is no longer pending and can request again
+                    completed.add(request);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the next completed request, or null if none have completed
+     * @author Ben Andrew
+     * @return PathRequest of completed search
+     */
+    public PathRequest pollCompleted(){
+        return completed.poll();
+    }
+
+    /**
+     * Returns this worker thread's search, pointing it at the
+     * snapshot if this has changed since its last request
+     * @author Ben Andrew
+     * @param grid GridSnapshot to be searched
+     * @return PathSearch set to the snapshot
+     */
+    private static PathSearch getSearch(GridSnapshot grid){
+        WorkerSearch worker = workerSearch.get();
+        if(worker == null){
+            worker = new WorkerSearch();
+            workerSearch.set(worker);
+        }
+        if(worker.grid != grid){
+            if(grid.hierarchical){
+                if(worker.search instanceof HierarchicalSearch)
+                    ((HierarchicalSearch) worker.search).setGraph(grid.getGraph());
+                else
+                    worker.search = new HierarchicalSearch(grid.getGraph());
+            } else {
+                if(worker.search instanceof AStarSearch)
+                    ((AStarSearch) worker.search).setGrid(grid.width, grid.height, grid.blocked);
+                else
+                    worker.search = new AStarSearch(grid.width, grid.height, grid.blocked);
+            }
+            worker.grid = grid;
+        }
+        return worker.search;
+    }
+
+    private static synchronized ExecutorService getWorkers(){
+        if(workers == null){
+            workers = Executors.newFixedThreadPool(WORKER_COUNT, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "PathfindingWorker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return workers;
+    }
+}
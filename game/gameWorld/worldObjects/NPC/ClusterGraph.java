@@ -0,0 +1,323 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Cluster Graph</h1>
+ * Abstract graph searched by HierarchicalSearch. The grid is split into
+ * square clusters and nodes are placed either side of the openings
+ * (entrances) between neighbouring clusters, joined across the border
+ * by a step of cost 1 and to every other node in the same cluster by the
+ * length of the shortest route that stays inside the cluster.
+ * A graph is built once for a grid and never changed afterwards, so a
+ * single graph can be shared by the searches of every worker thread,
+ * each of which only keeps its own search state.
+ * Resource used; Botea, Muller & Schaeffer (2004) Near Optimal Hierarchical Path-Finding
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class ClusterGraph {
+    //openings at least this wide get a node pair at each end rather than one in the middle
+    private static final int MAX_SINGLE_ENTRANCE_WIDTH = 6;
+    static final int UNREACHABLE = -1;
+
+    //grid, as cell ids (y * width + x), which must not be changed once the graph is built
+    final int width, height;
+    final boolean[] blocked;
+    final int clusterSize;
+    final int clustersX, clustersY;
+
+    //nodes, with edges stored per node in edgeStart[node] to edgeStart[node+1]
+    final int nodeCount;
+    final int[] nodeCell;
+    final int[] nodeCluster;
+    final int[] edgeStart;
+    final int[] edgeTarget;
+    final int[] edgeCost;
+    //nodes of each cluster stored in clusterNodes[clusterStart[c]] to clusterNodes[clusterStart[c+1]]
+    final int[] clusterStart;
+    final int[] clusterNodes;
+
+    /**
+     * This constructor copies the grid and builds its graph.
+     * @author Ben Andrew
+     * @param grid boolean[][] of blocked (true) and passable (false) cells
+     * @param clusterSize int of cluster width & height in cells
+     */
+    public ClusterGraph(boolean[][] grid, int clusterSize){
+        this(grid.length, grid[0].length, AStarSearch.flatten(grid), clusterSize);
+    }
+
+    /**
+     * This constructor builds the graph of a grid held as cell ids.
+     * The grid is not copied, so must not be changed afterwards.
+     * @author Ben Andrew
+     * @param width int of grid width in cells
+     * @param height int of grid height in cells
+     * @param blocked boolean[] of blocked (true) and passable (false) cells by cell id
+     * @param clusterSize int of cluster width & height in cells
+     */
+    public ClusterGraph(int width, int height, boolean[] blocked, int clusterSize){
+        if(clusterSize < 2)
+            throw new IllegalArgumentException("ClusterGraph: cluster size must be at least 2");
+        this.width = width;
+        this.height = height;
+        this.blocked = blocked;
+        this.clusterSize = clusterSize;
+        clustersX = (width + clusterSize - 1) / clusterSize;
+        clustersY = (height + clusterSize - 1) / clusterSize;
+
+        Builder builder = new Builder();
+        builder.build();
+        nodeCount = builder.nodeCount;
+        nodeCell = builder.nodeCell;
+        nodeCluster = builder.nodeCluster;
+        edgeStart = builder.edgeStart;
+        edgeTarget = builder.edgeTarget;
+        edgeCost = builder.edgeCost;
+        clusterStart = builder.clusterStart;
+        clusterNodes = builder.clusterNodes;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    int clusterOf(int cell){
+        return ((cell / width) / clusterSize) * clustersX + (cell % width) / clusterSize;
+    }
+
+    /**
+     * Breadth first search from a cell that does not leave its cluster,
+     * giving the distance to the other cells of the cluster. State is
+     * reused between searches through generation stamps, so each thread
+     * needs its own.
+     */
+    static class Distances {
+        private final ClusterGraph graph;
+        private final int[] generation;
+        private final int[] distance;
+        private final int[] queue;
+        private int currentGeneration = 0;
+
+        Distances(ClusterGraph graph){
+            this.graph = graph;
+            int cells = graph.width * graph.height;
+            generation = new int[cells];
+            distance = new int[cells];
+            queue = new int[cells];
+        }
+
+        /**
+         * Finds the distances from a cell to the cells of a cluster,
+         * which are read afterwards through distanceTo
+         * @author Ben Andrew
+         * @param from int of starting cell id
+         * @param cluster int of cluster id to search within
+         */
+        void search(int from, int cluster){
+            currentGeneration++;
+            int width = graph.width;
+            int minX = (cluster % graph.clustersX) * graph.clusterSize;
+            int minY = (cluster / graph.clustersX) * graph.clusterSize;
+            int maxX = Math.min(minX + graph.clusterSize, width) - 1;
+            int maxY = Math.min(minY + graph.clusterSize, graph.height) - 1;
+            int head = 0, tail = 0;
+            generation[from] = currentGeneration;
+            distance[from] = 0;
+            queue[tail++] = from;
+            while(head < tail){
+                int cell = queue[head++];
+                int x = cell % width;
+                int y = cell / width;
+                int next = distance[cell] + 1;
+                if(x > minX) tail = visit(cell - 1, next, tail);
+                if(y < maxY) tail = visit(cell + width, next, tail);
+                if(x < maxX) tail = visit(cell + 1, next, tail);
+                if(y > minY) tail = visit(cell - width, next, tail);
+            }
+        }
+
+        private int visit(int cell, int next, int tail){
+            if(!graph.blocked[cell] && generation[cell] != currentGeneration){
+                generation[cell] = currentGeneration;
+                distance[cell] = next;
+                queue[tail++] = cell;
+            }
+            return tail;
+        }
+
+        int distanceTo(int cell){
+            return generation[cell] == currentGeneration ? distance[cell] : UNREACHABLE;
+        }
+    }
+
+    /**
+     * Finds the entrances between all neighbouring clusters, then joins
+     * the nodes within each cluster by their in-cluster distances
+     */
+    private class Builder {
+        private int nodeCount;
+        private int[] nodeCell = new int[16];
+        private int[] nodeCluster;
+        private int[] edgeStart, edgeTarget, edgeCost;
+        private int[] clusterStart, clusterNodes;
+        private int[] cellNode;
+        //edges collected whilst building
+        private int[] from = new int[64], to = new int[64], cost = new int[64];
+        private int edgeCount = 0;
+
+        void build(){
+            cellNode = new int[width * height];
+            Arrays.fill(cellNode, -1);
+            for(int cy = 0; cy < clustersY; cy++){
+                for(int cx = 0; cx < clustersX; cx++){
+                    int minX = cx * clusterSize;
+                    int minY = cy * clusterSize;
+                    int maxX = Math.min(minX + clusterSize, width) - 1;
+                    int maxY = Math.min(minY + clusterSize, height) - 1;
+                    //border with the cluster to the right
+                    if(maxX + 1 < width){
+                        addEntrances(maxX, minY, maxX + 1, minY, 0, 1, maxY - minY + 1);
+                    }
+                    //border with the cluster above
+                    if(maxY + 1 < height){
+                        addEntrances(minX, maxY, minX, maxY + 1, 1, 0, maxX - minX + 1);
+                    }
+                }
+            }
+
+            //group nodes by cluster
+            int clusterCount = clustersX * clustersY;
+            nodeCluster = new int[nodeCount];
+            clusterStart = new int[clusterCount + 1];
+            for(int n = 0; n < nodeCount; n++){
+                nodeCluster[n] = clusterOf(nodeCell[n]);
+                clusterStart[nodeCluster[n] + 1]++;
+            }
+            for(int c = 0; c < clusterCount; c++){
+                clusterStart[c + 1] += clusterStart[c];
+            }
+            clusterNodes = new int[nodeCount];
+            int[] fill = Arrays.copyOf(clusterStart, clusterCount);
+            for(int n = 0; n < nodeCount; n++){
+                clusterNodes[fill[nodeCluster[n]]++] = n;
+            }
+
+            //intra cluster edges
+            Distances distances = new Distances(ClusterGraph.this);
+            for(int c = 0; c < clusterCount; c++){
+                for(int i = clusterStart[c]; i < clusterStart[c + 1]; i++){
+                    int fromNode = clusterNodes[i];
+                    distances.search(nodeCell[fromNode], c);
+                    for(int j = clusterStart[c]; j < clusterStart[c + 1]; j++){
+                        int toNode = clusterNodes[j];
+                        int distance = distances.distanceTo(nodeCell[toNode]);
+                        if(toNode != fromNode && distance != UNREACHABLE){
+                            addEdge(fromNode, toNode, distance);
+                        }
+                    }
+                }
+            }
+            packEdges();
+        }
+
+        /**
+         * Scans the border between two clusters for openings where both
+         * sides are passable, placing a node pair in the middle of narrow
+         * openings and at both ends of wide ones.
+         * @author Ben Andrew
+         * @param x0 int of first border cell x on this cluster's side
+         * @param y0 int of first border cell y on this cluster's side
+         * @param x1 int of first border cell x on the neighbour's side
+         * @param y1 int of first border cell y on the neighbour's side
+         * @param stepX int of x step along the border
+         * @param stepY int of y step along the border
+         * @param length int of border length in cells
+         */
+        private void addEntrances(int x0, int y0, int x1, int y1, int stepX, int stepY, int length){
+            int runStart = -1;
+            for(int i = 0; i <= length; i++){
+                boolean open = i < length
+                        && !blocked[(y0 + i * stepY) * width + x0 + i * stepX]
+                        && !blocked[(y1 + i * stepY) * width + x1 + i * stepX];
+                if(open && runStart == -1){
+                    runStart = i;
+                } else if(!open && runStart != -1){
+                    int runEnd = i - 1;
+                    if(runEnd - runStart + 1 < MAX_SINGLE_ENTRANCE_WIDTH){
+                        int middle = (runStart + runEnd) / 2;
+                        addTransition(x0, y0, x1, y1, stepX * middle, stepY * middle);
+                    } else {
+                        addTransition(x0, y0, x1, y1, stepX * runStart, stepY * runStart);
+                        addTransition(x0, y0, x1, y1, stepX * runEnd, stepY * runEnd);
+                    }
+                    runStart = -1;
+                }
+            }
+        }
+
+        private void addTransition(int x0, int y0, int x1, int y1, int offsetX, int offsetY){
+            int a = nodeAt((y0 + offsetY) * width + x0 + offsetX);
+            int b = nodeAt((y1 + offsetY) * width + x1 + offsetX);
+            addEdge(a, b, 1);
+            addEdge(b, a, 1);
+        }
+
+        private int nodeAt(int cell){
+            if(cellNode[cell] == -1){
+                if(nodeCount == nodeCell.length)
+                    nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+                nodeCell[nodeCount] = cell;
+                cellNode[cell] = nodeCount++;
+            }
+            return cellNode[cell];
+        }
+
+        private void addEdge(int a, int b, int c){
+            if(edgeCount == from.length){
+                from = Arrays.copyOf(from, edgeCount * 2);
+                to = Arrays.copyOf(to, edgeCount * 2);
+                cost = Arrays.copyOf(cost, edgeCount * 2);
+            }
+            from[edgeCount] = a;
+            to[edgeCount] = b;
+            cost[edgeCount] = c;
+            edgeCount++;
+        }
+
+        /**
+         * Packs the collected edges into the edgeStart/edgeTarget/edgeCost arrays
+         */
+        private void packEdges(){
+            edgeStart = new int[nodeCount + 1];
+            for(int i = 0; i < edgeCount; i++){
+                edgeStart[from[i] + 1]++;
+            }
+            for(int n = 0; n < nodeCount; n++){
+                edgeStart[n + 1] += edgeStart[n];
+            }
+            edgeTarget = new int[edgeCount];
+            edgeCost = new int[edgeCount];
+            int[] fill = Arrays.copyOf(edgeStart, nodeCount);
+            for(int i = 0; i < edgeCount; i++){
+                int index = fill[from[i]]++;
+                edgeTarget[index] = to[i];
+                edgeCost[index] = cost[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Hierarchical Search</h1>
+ * Hierarchical A* (HPA*) path search for large grids, over the abstract
+ * graph of a ClusterGraph. The graph is built once per grid and only read
+ * here, so many HierarchicalSearch objects (e.g. one per worker thread)
+ * can share one graph, each holding just its own search state.
+ * A search links the start and target to the nodes of their clusters,
+ * searches the abstract graph and then refines only the chosen abstract
+ * path into cells, one cluster at a time, using AStarSearch.
+ * Paths found are near optimal rather than always the shortest.
+ * Resource used; Botea, Muller & Schaeffer (2004) Near Optimal Hierarchical Path-Finding
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class HierarchicalSearch implements PathSearch {
+    private static final int UNREACHABLE = ClusterGraph.UNREACHABLE;
+
+    private final int clusterSize;
+    private ClusterGraph graph;
+    //graph values held directly as they are read for every node searched
+    private int width, height;
+    private int clustersX;
+    private boolean[] blocked;
+    private int nodeCount;
+    private int[] nodeCell;
+    private int[] nodeCluster;
+    private int[] edgeStart;
+    private int[] edgeTarget;
+    private int[] edgeCost;
+    private int[] clusterStart;
+    private int[] clusterNodes;
+
+    private AStarSearch cellSearch;
+    private ClusterGraph.Distances distances;
+
+    //abstract search state (nodeCount + start + target)
+    private int[] startCosts, targetCosts;
+    private int[] abstractGeneration;
+    private int[] abstractCosts;
+    private int[] abstractPrevious;
+    private boolean[] abstractClosed;
+    private int abstractCurrentGeneration = 0;
+    private long[] openHeap;
+    private int openSize;
+    private int[] abstractPath;
+
+    private int[] path;
+    private int pathLength;
+
+    //values used to count the work done by the last search
+    private int abstractNodesExpanded;
+
+    /**
+     * This constructor declares HierarchicalSearch with the grid to
+     * search and the size of each cluster, building its own graph.
+     * @author Ben Andrew
+     * @param grid boolean[][] of blocked (true) and passable (false) cells
+     * @param clusterSize int of cluster width & height in cells
+     */
+    public HierarchicalSearch(boolean[][] grid, int clusterSize){
+        this(new ClusterGraph(grid, clusterSize));
+    }
+
+    /**
+     * This constructor declares HierarchicalSearch over an already
+     * built graph, which may be shared with other searches.
+     * @author Ben Andrew
+     * @param graph ClusterGraph to be searched
+     */
+    public HierarchicalSearch(ClusterGraph graph){
+        this.clusterSize = graph.getClusterSize();
+        setGraph(graph);
+    }
+
+    /**
+     * Builds a new graph of the grid, with this search's cluster size
+     * @author Ben Andrew
+     * @param grid boolean[][] of blocked (true) and passable (false) cells
+     */
+    @Override
+    public void setGrid(boolean[][] grid){
+        setGraph(new ClusterGraph(grid, clusterSize));
+    }
+
+    /**
+     * Sets the graph to be searched, resizing the search state
+     * if it does not fit the graph.
+     * @author Ben Andrew
+     * @param graph ClusterGraph to be searched
+     */
+    public void setGraph(ClusterGraph graph){
+        this.graph = graph;
+        width = graph.width;
+        height = graph.height;
+        clustersX = graph.clustersX;
+        blocked = graph.blocked;
+        nodeCount = graph.nodeCount;
+        nodeCell = graph.nodeCell;
+        nodeCluster = graph.nodeCluster;
+        edgeStart = graph.edgeStart;
+        edgeTarget = graph.edgeTarget;
+        edgeCost = graph.edgeCost;
+        clusterStart = graph.clusterStart;
+        clusterNodes = graph.clusterNodes;
+
+        if(cellSearch == null)
+            cellSearch = new AStarSearch(width, height, blocked);
+        else
+            cellSearch.setGrid(width, height, blocked);
+        distances = new ClusterGraph.Distances(graph);
+        if(path == null || path.length != width * height)
+            path = new int[width * height];
+        if(startCosts == null || startCosts.length != nodeCount){
+            startCosts = new int[nodeCount];
+            targetCosts = new int[nodeCount];
+            abstractGeneration = new int[nodeCount + 2];
+            abstractCosts = new int[nodeCount + 2];
+            abstractPrevious = new int[nodeCount + 2];
+            abstractClosed = new boolean[nodeCount + 2];
+            abstractPath = new int[nodeCount + 2];
+        }
+        int heapSize = Math.max(edgeTarget.length + nodeCount * 2 + 4, 16);
+        if(openHeap == null || openHeap.length < heapSize)
+            openHeap = new long[heapSize];
+    }
+
+    public ClusterGraph getGraph() {
+        return graph;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getAbstractNodesExpanded() {
+        return abstractNodesExpanded;
+    }
+
+    /**
+     * Searches for a path between two cells, searching within the
+     * cluster first if both lie in the same one
+     * @author Ben Andrew
+     * @return boolean to whether a path was found
+     */
+    @Override
+    public boolean search(int startX, int startY, int targetX, int targetY){
+        pathLength = 0;
+        abstractNodesExpanded = 0;
+        if(!onGrid(startX, startY) || !onGrid(targetX, targetY) || blocked[targetY * width + targetX]){
+            return false;
+        }
+        int start = startY * width + startX;
+        int target = targetY * width + targetX;
+        if(start == target){
+            path[0] = start;
+            pathLength = 1;
+            return true;
+        }
+        int startCluster = clusterOf(start);
+        int targetCluster = clusterOf(target);
+        if(startCluster == targetCluster && searchCluster(start, target, startCluster)){
+            appendCellPath(true);
+            return true;
+        }
+        //a blocked start (e.g. an NPC pushed into an object) may only be left across
+        //its cluster border, which the abstract graph cannot represent
+        if(blocked[start]){
+            if(!cellSearch.search(startX, startY, targetX, targetY)){
+                return false;
+            }
+            appendCellPath(true);
+            return true;
+        }
+        if(!searchAbstractGraph(start, target, startCluster, targetCluster)){
+            return false;
+        }
+        refineAbstractPath(start, target);
+        return true;
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathX(int step) {
+        return path[step] % width;
+    }
+
+    @Override
+    public int getPathY(int step) {
+        return path[step] / width;
+    }
+
+    /**
+     * Runs A* over the abstract graph with the start and target
+     * linked to the nodes of their clusters.
+     * @author Ben Andrew
+     * @return boolean to whether an abstract path was found
+     */
+    private boolean searchAbstractGraph(int start, int target, int startCluster, int targetCluster){
+        int startNode = nodeCount;
+        int targetNode = nodeCount + 1;
+        distances.search(start, startCluster);
+        for(int i = clusterStart[startCluster]; i < clusterStart[startCluster + 1]; i++){
+            startCosts[clusterNodes[i]] = distances.distanceTo(nodeCell[clusterNodes[i]]);
+        }
+        distances.search(target, targetCluster);
+        for(int i = clusterStart[targetCluster]; i < clusterStart[targetCluster + 1]; i++){
+            targetCosts[clusterNodes[i]] = distances.distanceTo(nodeCell[clusterNodes[i]]);
+        }
+
+        abstractCurrentGeneration++;
+        openSize = 0;
+        touch(startNode, 0, -1);
+        push(startNode, estimate(start, target));
+        while(openSize > 0){
+            int current = pop();
+            if(abstractClosed[current]){
+                continue;
+            }
+            abstractClosed[current] = true;
+            abstractNodesExpanded++;
+            if(current == targetNode){
+                return true;
+            }
+            int cost = abstractCosts[current];
+            if(current == startNode){
+                for(int i = clusterStart[startCluster]; i < clusterStart[startCluster + 1]; i++){
+                    int node = clusterNodes[i];
+                    if(startCosts[node] != UNREACHABLE){
+                        relax(node, current, cost + startCosts[node], target);
+                    }
+                }
+                continue;
+            }
+            for(int e = edgeStart[current]; e < edgeStart[current + 1]; e++){
+                relax(edgeTarget[e], current, cost + edgeCost[e], target);
+            }
+            if(nodeCluster[current] == targetCluster && targetCosts[current] != UNREACHABLE){
+                relax(targetNode, current, cost + targetCosts[current], target);
+            }
+        }
+        return false;
+    }
+
+    private void relax(int node, int from, int cost, int target){
+        if(abstractGeneration[node] != abstractCurrentGeneration){
+            touch(node, cost, from);
+        } else if(cost < abstractCosts[node] && !abstractClosed[node]){
+            abstractCosts[node] = cost;
+            abstractPrevious[node] = from;
+        } else {
+            return;
+        }
+        int cell = node == nodeCount + 1 ? target : nodeCell[node];
+        push(node, cost + estimate(cell, target));
+    }
+
+    private void touch(int node, int cost, int from){
+        abstractGeneration[node] = abstractCurrentGeneration;
+        abstractCosts[node] = cost;
+        abstractPrevious[node] = from;
+        abstractClosed[node] = false;
+    }
+
+    private int estimate(int cell, int target){
+        return Math.abs(cell % width - target % width) + Math.abs(cell / width - target / width);
+    }
+
+    /**
+     * Refines the abstract path found by searchAbstractGraph into
+     * cells, searching only the clusters the abstract path passes through
+     * @author Ben Andrew
+     * @param start int of starting cell id
+     * @param target int of target cell id
+     */
+    private void refineAbstractPath(int start, int target){
+        int targetNode = nodeCount + 1;
+        int length = 0;
+        for(int node = targetNode; node != -1; node = abstractPrevious[node]){
+            abstractPath[length++] = node;
+        }
+        //last abstract path entry is the start node
+        addStep(start);
+        int previousCell = start;
+        for(int i = length - 2; i >= 0; i--){
+            int node = abstractPath[i];
+            int cell = node == targetNode ? target : nodeCell[node];
+            int cluster = clusterOf(previousCell);
+            if(cluster == clusterOf(cell)){
+                searchCluster(previousCell, cell, cluster);
+                appendCellPath(false);
+            } else {
+                //nodes either side of an entrance are neighbouring cells
+                addStep(cell);
+            }
+            previousCell = cell;
+        }
+    }
+
+    /**
+     * Runs a cell search between two cells without leaving the given cluster
+     * @author Ben Andrew
+     * @return boolean to whether a path was found
+     */
+    private boolean searchCluster(int from, int to, int cluster){
+        int minX = (cluster % clustersX) * clusterSize;
+        int minY = (cluster / clustersX) * clusterSize;
+        return cellSearch.search(from % width, from / width, to % width, to / width,
+                minX, minY, minX + clusterSize - 1, minY + clusterSize - 1);
+    }
+
+    /**
+     * Appends the last cell search result to the path
+     * @author Ben Andrew
+     * @param includeFirst boolean of whether to include the first
+     * (starting) cell, which is already on the path when joining segments
+     */
+    private void appendCellPath(boolean includeFirst){
+        for(int step = includeFirst ? 0 : 1; step < cellSearch.getPathLength(); step++){
+            addStep(cellSearch.getPathY(step) * width + cellSearch.getPathX(step));
+        }
+    }
+
+    private void addStep(int cell){
+        if(pathLength == path.length)
+            path = Arrays.copyOf(path, pathLength * 2);
+        path[pathLength++] = cell;
+    }
+
+    private boolean onGrid(int x, int y){
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private int clusterOf(int cell){
+        return graph.clusterOf(cell);
+    }
+
+    private void push(int node, int priority){
+        if(openSize == openHeap.length)
+            openHeap = Arrays.copyOf(openHeap, openSize * 2);
+        long value = ((long) priority << 32) | node;
+        int index = openSize++;
+        while(index > 0){
+            int parent = (index - 1) >> 1;
+            if(openHeap[parent] <= value){
+                break;
+            }
+            openHeap[index] = openHeap[parent];
+            index = parent;
+        }
+        openHeap[index] = value;
+    }
+
+    private int pop(){
+        int top = (int) openHeap[0];
+        long last = openHeap[--openSize];
+        int index = 0;
+        int half = openSize >> 1;
+        while(index < half){
+            int child = (index << 1) + 1;
+            if(child + 1 < openSize && openHeap[child + 1] < openHeap[child]){
+                child++;
+            }
+            if(last <= openHeap[child]){
+                break;
+            }
+            openHeap[index] = openHeap[child];
+            index = child;
+        }
+        if(openSize > 0)
+            openHeap[index] = last;
+        return top;
+    }
+}
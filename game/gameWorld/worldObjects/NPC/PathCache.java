@@ -0,0 +1,134 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import uk.ac.qub.eeecs.gage.util.Vector2;
+
+/**
+ * <h1>Path Cache</h1>
+ * Least recently used cache of paths produced by AStarNavigation.
+ * Paths are keyed on their start cell, goal cell and the version
+ * of the grid they were found on, so a path found before the grid
+ * changed is never returned. Unreachable goals are cached too
+ * (as a null path) so they are not searched for repeatedly.
+ * Keeps hit and miss counts for debugging.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class PathCache {
+    private static final int DEFAULT_CAPACITY = 64;
+    private final LinkedHashMap<Long, Entry> paths;
+    private int hits = 0;
+    private int misses = 0;
+
+    /**
+     * Cached path and the grid version it was found on
+     */
+    private static class Entry {
+        private final Vector2[] path;
+        private final int gridVersion;
+
+        private Entry(Vector2[] path, int gridVersion){
+            this.path = path;
+            this.gridVersion = gridVersion;
+        }
+    }
+
+    /**
+     * This constructor declares PathCache with the default capacity
+     * @author Ben Andrew
+     */
+    public PathCache(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * This constructor declares PathCache with a given capacity,
+     * evicting the least recently used path once full
+     * @author Ben Andrew
+     * @param capacity int of max number of paths held
+     */
+    public PathCache(final int capacity){
+        paths = new LinkedHashMap<Long, Entry>(capacity, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Checks whether a path between two cells is cached for
+     * the given grid version, counting a hit or miss.
+     * @author Ben Andrew
+     * @param startCell int of start cell id
+     * @param goalCell int of goal cell id
+     * @param gridVersion int of current grid version
+     * @return boolean to whether a path is cached
+     */
+    public boolean contains(int startCell, int goalCell, int gridVersion){
+        Long key = key(startCell, goalCell);
+        Entry entry = paths.get(key);
+        if(entry != null && entry.gridVersion == gridVersion){
+            hits++;
+            return true;
+        }
+        if(entry != null){
+            paths.remove(key);
+        }
+        misses++;
+        return false;
+    }
+
+    /**
+     * Returns cached path between two cells (which may be
+     * null if the goal is unreachable). Should only be called
+     * after contains has returned true.
+     * @author Ben Andrew
+     * @param startCell int of start cell id
+     * @param goalCell int of goal cell id
+     * @return Vector2[] of cached path
+     */
+    public Vector2[] get(int startCell, int goalCell){
+        Entry entry = paths.get(key(startCell, goalCell));
+        return entry == null ? null : entry.path;
+    }
+
+    /**
+     * Adds a path between two cells to the cache
+     * @author Ben Andrew
+     * @param startCell int of start cell id
+     * @param goalCell int of goal cell id
+     * @param gridVersion int of grid version the path was found on
+     * @param path Vector2[] of path (null if unreachable)
+     */
+    public void put(int startCell, int goalCell, int gridVersion, Vector2[] path){
+        paths.put(key(startCell, goalCell), new Entry(path, gridVersion));
+    }
+
+    /**
+     * Removes all cached paths
+     * @author Ben Andrew
+     */
+    public void invalidate(){
+        paths.clear();
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    private static Long key(int startCell, int goalCell){
+        return ((long) startCell << 32) | (goalCell & 0xffffffffL);
+    }
+}
@@ -0,0 +1,31 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+/**
+ * <h1>Path Search</h1>
+ * Interface for grid path searches used by AStarNavigation.
+ * A search is run between two cells and the resulting path
+ * (from start to target, inclusive) is read step by step until
+ * the next search is run.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public interface PathSearch {
+    /**
+     * Sets the grid to search, where true marks a blocked cell
+     * @param grid boolean[][] of the navigation grid
+     */
+    void setGrid(boolean[][] grid);
+
+    /**
+     * Searches for a path between two cells
+     * @return boolean to whether a path was found
+     */
+    boolean search(int startX, int startY, int targetX, int targetY);
+
+    int getPathLength();
+
+    int getPathX(int step);
+
+    int getPathY(int step);
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import uk.ac.qub.eeecs.gage.Game;
+import uk.ac.qub.eeecs.gage.engine.AssetGroup;
 import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
 import uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D;
 import uk.ac.qub.eeecs.gage.engine.input.Input;
@@ -18,6 +19,7 @@ import uk.ac.qub.eeecs.gage.engine.AssetManager;
 
 import android.util.Log;
 import uk.ac.qub.eeecs.game.gameWorld.GameEnvironment;
+import uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld.BinaryWorld;
 
 /*
  * <h1>SplashScreen</h1>
@@ -53,6 +55,8 @@ public class SplashScreen extends GameScreen {
     private ProgressBar splashProgressBar;
     // progress - Utilised to Draw the current progress to screen
     private Progress progress;
+    // loading - assets from Assets.JSON, loaded in the background whilst SplashScreen is shown
+    private AssetGroup loading;
     // ********************************************************************************************
 
     // visible - Flag;
@@ -99,9 +103,13 @@ public class SplashScreen extends GameScreen {
         fileIO = new FileIO(mGame.getActivity().getApplicationContext());
         // itemList.size to be used for maxProgress in ProgressBar Constructor
         itemList = new ArrayList<>();
-        // Loads-in required Bitmaps for placing onto SplashScreen
+        // Starts loading the game's assets in the background, so the SplashScreen keeps drawing
         AssetManager assetManager = mGame.getAssetManager();
-        mGame.getAssetManager().loadAssets("txt/assets/Assets.JSON");
+        // Declares the size world bitmaps are drawn at (world units stretched across the screen),
+        // so they are decoded no larger than needed
+        assetManager.loadBitmapSizes("txt/assets/" + BinaryWorld.BITMAP_SIZES_FILE,
+                mGame.getScreenWidth() / GameEnvironment.LAYER_WIDTH);
+        loading = assetManager.loadAssetsAsync("txt/assets/Assets.JSON");
         // ProgressBar Constructor (maxProgress) = itemList.size();
         // ****************************************************************************************
 
@@ -115,6 +123,8 @@ public class SplashScreen extends GameScreen {
         // Constructs the instance splashProgressBar of user-defined type ProgressBar for Draw()
         // (splashWidth / 2) - can also be used as definition of Mid-Point co-ordinate
         splashProgressBar = new ProgressBar((splashWidth / 2), splashHeight, progressBarWidth, progressBarHeight, "ProgressBarRed", "ProgressBarGreen", MAXIMUM_TIME, this);
+        // ProgressBar shows how many of the assets have loaded
+        splashProgressBar.trackLoading(loading);
     }
 
     // ********************************************************************************************
@@ -154,7 +164,7 @@ public class SplashScreen extends GameScreen {
         //  Future Expansion
         ///////////////////////
         // Only enable User to skip SplashScreen once all Assets have been loaded in
-        if (currentProgress >= (int)timeSinceStart) {
+        if (loading.isDone()) {
             // When User touches screen, boolean flag "touched" = true
             // Transitions to Main Menu
             if (touchEvents.size() > 0) { // Touch on-screen is considered in size of the contact press
@@ -173,7 +183,7 @@ public class SplashScreen extends GameScreen {
             hasStarted = true;
         } else {
             timeSinceStart += elapsedTime.stepTime;
-            if ((elapsedTime.totalTime - timeSinceStart) >= MAXIMUM_TIME || touched == true) { // Equiv. splashProgressBar.isDone(); as currentProgress = (int)timeSinceStart
+            if (((elapsedTime.totalTime - timeSinceStart) >= MAXIMUM_TIME && loading.isDone()) || touched == true) { // Equiv. splashProgressBar.isDone(); as currentProgress = (int)timeSinceStart
                 // Change Screen
                 MenuScreen menuScreen = new MenuScreen(mGame);
                 mGame.getScreenManager().addScreen(menuScreen);
@@ -4,9 +4,8 @@ import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 
-import org.json.JSONException;
-
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.Writer;
 
 import uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D;
 import uk.ac.qub.eeecs.gage.world.LayerViewport;
@@ -16,8 +15,10 @@ import uk.ac.qub.eeecs.gage.world.ScreenViewport;
  * <h1>Log</h1>
  * Class for logging throughout the game to diagnose
  * errors and behaviours whilst the game is running.
- * Uses default Log.d as well as an internal array
- * to output to game screen
+ * Logs from any thread are stored in a LogBuffer without
+ * locking or formatting, and are only formatted once per
+ * update (also going to the default Log.d), whether or not
+ * the log is shown, or when written to a file.
  *
  * @author  Ben Andrew
  * @version 1.0
@@ -29,33 +30,179 @@ public class Log {
     private final int MAX_LINES_PER_LOG = 5;
     private final int TOP_PADDING = 60;
     protected final int FONT_SIZE = 40;
-    protected String[][] log = new String[MAX_LINES][MAX_LINES_PER_LOG];
-    private int index = 0;
+    private final int BUFFER_CAPACITY = 256;
+    private final int MAX_LOGS_PER_TAG_PER_SECOND = 10;
+    //logs waiting to be updated or written
+    private LogBuffer buffer = new LogBuffer(BUFFER_CAPACITY, MAX_LOGS_PER_TAG_PER_SECOND);
+    //last MAX_LINES lines shown on screen, oldest line at firstLine
+    protected String[] lines = new String[MAX_LINES];
+    private int firstLine = 0;
     private int lineCount = 0;
+    private long shownSuppressed = 0, shownDropped = 0;
+    //handlers used when draining the buffer, reused for each drain
+    private LogBuffer.RecordHandler screenHandler = new LogBuffer.RecordHandler() {
+        @Override
+        public void handle(long time, String tag, String message, Throwable error) {
+            if(error == null){
+                android.util.Log.d(tag, message);
+                addLines(tag + ": " + message);
+            } else {
+                android.util.Log.d(tag, message, error);
+                addLines(tag + ": " + message + ": " + error);
+            }
+        }
+    };
+    private Writer fileWriter;
+    private IOException fileException;
+    private LogBuffer.RecordHandler fileHandler = new LogBuffer.RecordHandler() {
+        @Override
+        public void handle(long time, String tag, String message, Throwable error) {
+            try {
+                fileWriter.write(time + " " + tag + ": " + message + (error == null ? "" : ": " + error) + "\n");
+            } catch (IOException e) {
+                fileException = e;
+            }
+        }
+    };
     private Rect logScreen;
     protected boolean visible = false;
     protected Paint whitePaint, blackPaint;
     private float width, height;
+    private String status = "";
 
     /**
-     * Takes a tag and message to save log to log array
-     * and send to android log
+     * Takes a tag and message to save to the log buffer.
+     * Safe to call from any thread, and no formatting is
+     * done until the log is updated or written
      * @param tag String of log tag
      * @param message String of log message
      */
     public void addLog(String tag, String message){
-        if(visible) {
-            android.util.Log.d(tag, message);
-            String[] lines = Tools.convertStringToMultiLine(tag + ": " + message, MAX_LINES_PER_LOG, CHARACTERS_PER_LINE);
-            lineCount += lines.length;
-            if(lineCount > MAX_LINES){
-                index = 0;
-                lineCount = 0;
+        buffer.add(tag, message, 0, 0, 0);
+    }
+
+    /**
+     * Takes a tag, message and value to save to the log buffer.
+     * "{}" in the message is replaced by value when the log is
+     * updated or written, so callers needn't build a String
+     * @author Ben Andrew
+     * @param tag String of log tag
+     * @param message String of log message containing "{}"
+     * @param value long to replace "{}" with
+     */
+    public void addLog(String tag, String message, long value){
+        buffer.add(tag, message, value, 0, 1);
+    }
+
+    /**
+     * Takes a tag, message and two values to save to the log buffer.
+     * Each "{}" in the message is replaced by the next value when
+     * the log is updated or written
+     * @author Ben Andrew
+     * @param tag String of log tag
+     * @param message String of log message containing two "{}"
+     * @param firstValue long to replace first "{}" with
+     * @param secondValue long to replace second "{}" with
+     */
+    public void addLog(String tag, String message, long firstValue, long secondValue){
+        buffer.add(tag, message, firstValue, secondValue, 2);
+    }
+
+    /**
+     * Takes a tag, message and error to save to the log buffer.
+     * The error is kept apart from the message, so the message
+     * stays constant and the error is only turned into text (or
+     * given to Log.d with its stack trace) when the log is updated
+     * or written
+     * @author Ben Andrew
+     * @param tag String of log tag
+     * @param message String of log message
+     * @param error Throwable of error to be logged
+     */
+    public void addLog(String tag, String message, Throwable error){
+        buffer.add(tag, message, 0, 0, 0, error);
+    }
+
+    /**
+     * Writes all logs not yet updated or written to writer, one
+     * per line. Must be called from the thread which updates the log.
+     * @author Ben Andrew
+     * @param writer Writer to write logs to
+     * @throws IOException if a log could not be written
+     */
+    public void writeTo(Writer writer) throws IOException {
+        fileWriter = writer;
+        fileException = null;
+        buffer.drain(fileHandler);
+        fileWriter = null;
+        if(fileException != null)
+            throw fileException;
+    }
+
+    /**
+     * Formats all logs not yet updated or written into screen lines
+     * (and Log.d), so the buffer is emptied even whilst the log is
+     * hidden. Must be called from one thread (the game loop) once
+     * per update.
+     * @author Ben Andrew
+     */
+    public void update(){
+        drainToScreen();
+    }
+
+    /**
+     * Formats all logs not yet updated or written into screen lines,
+     * along with a line for any logs lost since the last drain
+     * @author Ben Andrew
+     */
+    private void drainToScreen(){
+        buffer.drain(screenHandler);
+        long suppressed = buffer.getSuppressedRecords();
+        long dropped = buffer.getDroppedRecords();
+        if(suppressed != shownSuppressed || dropped != shownDropped){
+            addLines("Log: " + (suppressed - shownSuppressed) + " rate limited, " + (dropped - shownDropped) + " lost");
+            shownSuppressed = suppressed;
+            shownDropped = dropped;
+        }
+    }
+
+    /**
+     * Wraps a log into lines and adds them to the screen lines,
+     * replacing the oldest lines once MAX_LINES are shown
+     * @author Ben Andrew
+     * @param log String of log to add
+     */
+    private void addLines(String log){
+        for(String line : Tools.convertStringToMultiLine(log, MAX_LINES_PER_LOG, CHARACTERS_PER_LINE)){
+            if(lineCount < MAX_LINES){
+                lines[(firstLine + lineCount++) % MAX_LINES] = line;
+            } else {
+                lines[firstLine] = line;
+                firstLine = (firstLine + 1) % MAX_LINES;
             }
-            log[index++] = lines;
         }
     }
 
+    /**
+     * Sets a line of per frame statistics (e.g. object counts)
+     * to be drawn under the fps counter
+     * @author Ben Andrew
+     * @param status String of statistics to show
+     */
+    public void setStatus(String status){
+        this.status = status;
+    }
+
+    /**
+     * Returns whether the log is currently shown, so callers
+     * can avoid building log messages which would not be seen
+     * @author Ben Andrew
+     * @return boolean of log visibility
+     */
+    public boolean isVisible(){
+        return visible;
+    }
+
     /**
      * Reverses visibility (if visible sets not visible
      * and visa-versa)
@@ -67,8 +214,7 @@ public class Log {
     /**
      * Initialises key Log properties as log has
      * no constructor and so is set up on first use.
-     * Sets logScreen position, initialises log array
-     * and initialises paints.
+     * Sets logScreen position and initialises paints.
      * @author Ben Andrew
      * @param layerViewport LayerViewport for screen dimensions
      */
@@ -76,13 +222,6 @@ public class Log {
         width = layerViewport.getWidth();
         height = layerViewport.getHeight();
         logScreen = new Rect((int) (width*0.8f), 0, (int) width, (int) height);
-        for(int i = 0; i < MAX_LINES; i++){
-            String[] emptyLines = new String[MAX_LINES_PER_LOG];
-            for(int j = 0; j < MAX_LINES_PER_LOG; j++){
-                emptyLines[j] = "";
-            }
-            log[i] = emptyLines;
-        }
         whitePaint = new Paint();
         whitePaint.setColor(Color.WHITE);
         blackPaint = new Paint();
@@ -91,9 +230,8 @@ public class Log {
     }
 
     /**
-     * Draws log screen and each line for
-     * all visible logs (capped at MAX_LINES).
-     * Also draw fps counter.
+     * Draws log screen and the latest MAX_LINES lines, oldest first.
+     * Also draw fps counter and status line.
      * @author Ben Andrew
      * @param graphics2D IGraphics2D for draw methods
      * @param layerViewport LayerViewport for draw methods
@@ -106,20 +244,12 @@ public class Log {
                 initialiseScreen(layerViewport);
             }
             graphics2D.drawRect(logScreen, whitePaint, layerViewport, screenViewport);
-            int i = 0;
-            int logIndex = 0;
-            while(i < MAX_LINES){
-                if(log.length > logIndex){
-                    for(String line : log[logIndex]){
-                        graphics2D.drawText(line, logScreen.left, logScreen.bottom - TOP_PADDING - (LINE_SPACE * i), blackPaint, layerViewport, screenViewport);
-                        i++;
-                    }
-                    logIndex++;
-                } else {
-                    break;
-                }
+            for(int i = 0; i < lineCount; i++){
+                String line = lines[(firstLine + i) % MAX_LINES];
+                graphics2D.drawText(line, logScreen.left, logScreen.bottom - TOP_PADDING - (LINE_SPACE * i), blackPaint, layerViewport, screenViewport);
             }
             graphics2D.drawText("FPS:"+String.valueOf(fps), width/2, height*0.9f, blackPaint, layerViewport, screenViewport);
+            graphics2D.drawText(status, width/2, height*0.9f - FONT_SIZE, blackPaint, layerViewport, screenViewport);
         }
     }
 }
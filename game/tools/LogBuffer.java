@@ -0,0 +1,287 @@
+package uk.ac.qub.eeecs.game.tools;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <h1>Log Buffer</h1>
+ * Fixed size ring buffer of log records which any thread can
+ * add to without locking, and which one thread (the consumer)
+ * drains. Adding a record only stores the tag, message and any
+ * values or error given, all formatting is left to the consumer.
+ *
+ * If the consumer falls more than a buffer behind, the oldest
+ * records are overwritten and counted as dropped. A writer which
+ * finds its slot being written by a writer a lap behind or ahead,
+ * or already holding a newer record, gives its record up, which
+ * is also counted as dropped. Each tag may
+ * also only add a set number of records per second, any more
+ * are counted as suppressed.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class LogBuffer {
+    //marks a slot whose record is being written
+    private static final long WRITING = -1;
+    //marks a slot which hasn't held a record yet
+    private static final long EMPTY = -2;
+    private static final long RATE_WINDOW_NANOS = 1000000000L;
+    //placeholder in messages replaced by the record's values
+    private static final String VALUE_PLACEHOLDER = "{}";
+
+    /**
+     * Handler given each drained record
+     */
+    public interface RecordHandler {
+        /**
+         * Handles a drained record
+         * @param time long of system time (ms) the record was added
+         * @param tag String of record tag
+         * @param message String of formatted record message
+         * @param error Throwable added with the record, or null if none
+         */
+        void handle(long time, String tag, String message, Throwable error);
+    }
+
+    //record slots, preallocated and reused
+    private final int capacity;
+    private final String[] tags;
+    private final String[] messages;
+    private final long[] times;
+    private final long[] firstValues;
+    private final long[] secondValues;
+    private final int[] valueCounts;
+    private final Throwable[] errors;
+    //sequence number of the record held in each slot (or WRITING/EMPTY)
+    private final AtomicLongArray slotSequences;
+    //highest sequence number each slot's writers have given up
+    private final AtomicLongArray lostSequences;
+
+    //next sequence number to give a record
+    private final AtomicLong nextSequence = new AtomicLong();
+    //next sequence number to drain (only used by the consumer)
+    private long readSequence = 0;
+    private final StringBuilder formatBuilder = new StringBuilder();
+
+    //per tag rate limits, only created the first time a tag is used
+    private final int maxRecordsPerTagPerSecond;
+    private final ConcurrentHashMap<String, TagLimit> tagLimits = new ConcurrentHashMap<String, TagLimit>();
+    private final AtomicLong suppressedRecords = new AtomicLong();
+    private long droppedRecords = 0;
+
+    /**
+     * Number of records a tag has added in the current second
+     */
+    private static class TagLimit {
+        final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        final AtomicInteger count = new AtomicInteger();
+    }
+
+    /**
+     * This constructor allocates all record slots
+     * @author Ben Andrew
+     * @param capacity int of number of records held
+     * @param maxRecordsPerTagPerSecond int of records each tag may add per second
+     */
+    public LogBuffer(int capacity, int maxRecordsPerTagPerSecond) {
+        this.capacity = capacity;
+        this.maxRecordsPerTagPerSecond = maxRecordsPerTagPerSecond;
+        tags = new String[capacity];
+        messages = new String[capacity];
+        times = new long[capacity];
+        firstValues = new long[capacity];
+        secondValues = new long[capacity];
+        valueCounts = new int[capacity];
+        errors = new Throwable[capacity];
+        slotSequences = new AtomicLongArray(capacity);
+        lostSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slotSequences.set(i, EMPTY);
+            lostSequences.set(i, EMPTY);
+        }
+    }
+
+    /**
+     * Adds a record, unless the tag has reached its rate limit.
+     * Safe to call from any thread. Each "{}" in the message is
+     * replaced with the next value when the record is drained.
+     * @author Ben Andrew
+     * @param tag String of record tag
+     * @param message String of record message
+     * @param firstValue long of first value
+     * @param secondValue long of second value
+     * @param valueCount int of number of values used (0 to 2)
+     * @return boolean to whether the record was added (false if rate
+     * limited or given up to another writer)
+     */
+    public boolean add(String tag, String message, long firstValue, long secondValue, int valueCount) {
+        return add(tag, message, firstValue, secondValue, valueCount, null);
+    }
+
+    /**
+     * Adds a record with an error, which is passed to the consumer
+     * alongside the message rather than formatted into it.
+     * @author Ben Andrew
+     * @param tag String of record tag
+     * @param message String of record message
+     * @param firstValue long of first value
+     * @param secondValue long of second value
+     * @param valueCount int of number of values used (0 to 2)
+     * @param error Throwable of error to be logged, or null if none
+     * @return boolean to whether the record was added (false if rate
+     * limited or given up to another writer)
+     */
+    public boolean add(String tag, String message, long firstValue, long secondValue, int valueCount, Throwable error) {
+        if (!withinRateLimit(tag)) {
+            suppressedRecords.incrementAndGet();
+            return false;
+        }
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int) (sequence % capacity);
+        //claim the slot, marking it so the consumer doesn't read a part written record,
+        //unless another writer has it or it already holds a newer record
+        long slotSequence = slotSequences.get(slot);
+        if (slotSequence == WRITING || slotSequence > sequence
+                || !slotSequences.compareAndSet(slot, slotSequence, WRITING)) {
+            giveUp(slot, sequence);
+            return false;
+        }
+        tags[slot] = tag;
+        messages[slot] = message;
+        times[slot] = System.currentTimeMillis();
+        firstValues[slot] = firstValue;
+        secondValues[slot] = secondValue;
+        valueCounts[slot] = valueCount;
+        errors[slot] = error;
+        slotSequences.set(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Passes all records added since the last drain to handler, oldest
+     * first. Must only be called by one thread.
+     * @author Ben Andrew
+     * @param handler RecordHandler given each record
+     * @return int of records drained
+     */
+    public int drain(RecordHandler handler) {
+        int drained = 0;
+        long written = nextSequence.get();
+        //skip records which have already been overwritten
+        if (written - readSequence > capacity) {
+            droppedRecords += written - capacity - readSequence;
+            readSequence = written - capacity;
+        }
+        while (readSequence < written) {
+            int slot = (int) (readSequence % capacity);
+            long slotSequence = slotSequences.get(slot);
+            if (slotSequence == WRITING || slotSequence < readSequence) {
+                if (lostSequences.get(slot) < readSequence) {
+                    //record not finished yet, try again on the next drain
+                    break;
+                }
+                //a writer has given up the slot at or after this record, so it will never arrive
+                droppedRecords++;
+            } else if (slotSequence == readSequence) {
+                String tag = tags[slot];
+                String message = messages[slot];
+                long time = times[slot];
+                long firstValue = firstValues[slot];
+                long secondValue = secondValues[slot];
+                int valueCount = valueCounts[slot];
+                Throwable error = errors[slot];
+                //only use the record if it wasn't overwritten whilst being read
+                if (slotSequences.get(slot) == readSequence) {
+                    handler.handle(time, tag, format(message, firstValue, secondValue, valueCount), error);
+                    drained++;
+                } else {
+                    droppedRecords++;
+                }
+            } else {
+                droppedRecords++;
+            }
+            readSequence++;
+        }
+        return drained;
+    }
+
+    public long getSuppressedRecords() {
+        return suppressedRecords.get();
+    }
+
+    /**
+     * Gets the number of records overwritten or given up before
+     * they were drained. Must only be called by the consumer.
+     * @return long of dropped records
+     */
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    /**
+     * Records that the writer of sequence gave up its slot, so the
+     * consumer counts the record as dropped rather than waiting for it
+     * @author Ben Andrew
+     * @param slot int of slot given up
+     * @param sequence long of sequence number of the record given up
+     */
+    private void giveUp(int slot, long sequence) {
+        long lost = lostSequences.get(slot);
+        while (lost < sequence && !lostSequences.compareAndSet(slot, lost, sequence)) {
+            lost = lostSequences.get(slot);
+        }
+    }
+
+    /**
+     * Checks whether tag can add another record this second,
+     * counting the record if so
+     * @author Ben Andrew
+     * @param tag String of record tag
+     * @return boolean to whether the record is allowed
+     */
+    private boolean withinRateLimit(String tag) {
+        TagLimit limit = tagLimits.get(tag);
+        if (limit == null) {
+            TagLimit newLimit = new TagLimit();
+            limit = tagLimits.putIfAbsent(tag, newLimit);
+            if (limit == null)
+                limit = newLimit;
+        }
+        long now = System.nanoTime();
+        long windowStart = limit.windowStart.get();
+        if (now - windowStart >= RATE_WINDOW_NANOS && limit.windowStart.compareAndSet(windowStart, now)) {
+            limit.count.set(0);
+        }
+        return limit.count.incrementAndGet() <= maxRecordsPerTagPerSecond;
+    }
+
+    /**
+     * Replaces each placeholder in message with the next value
+     * @author Ben Andrew
+     * @param message String of record message
+     * @param firstValue long of first value
+     * @param secondValue long of second value
+     * @param valueCount int of number of values used
+     * @return String of formatted message
+     */
+    private String format(String message, long firstValue, long secondValue, int valueCount) {
+        if (valueCount == 0) {
+            return message;
+        }
+        formatBuilder.setLength(0);
+        int start = 0;
+        for (int i = 0; i < valueCount; i++) {
+            int placeholder = message.indexOf(VALUE_PLACEHOLDER, start);
+            if (placeholder == -1)
+                break;
+            formatBuilder.append(message, start, placeholder);
+            formatBuilder.append(i == 0 ? firstValue : secondValue);
+            start = placeholder + VALUE_PLACEHOLDER.length();
+        }
+        formatBuilder.append(message, start, message.length());
+        return formatBuilder.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package uk.ac.qub.eeecs.game.tools;
 
+import uk.ac.qub.eeecs.gage.engine.AssetGroup;
 import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
 import uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D;
 import uk.ac.qub.eeecs.gage.world.GameObject;
@@ -24,6 +25,8 @@ public class ProgressBar extends GameObject {
     private float currentProgress;
     // duration - maximum Progress that is possible for the ProgressBar (2sec)
     private float duration;
+    // loading - group of assets whose loading is shown instead of time passed (null when not tracking)
+    private AssetGroup loading;
 
 // ************************************************************************************************
 
@@ -73,6 +76,10 @@ public class ProgressBar extends GameObject {
         this.duration = duration;
     }
 
+    // loading - Accessor & Mutator (in-line functions)
+    public AssetGroup getLoading() { return loading; }
+    public void trackLoading(AssetGroup loading) { this.loading = loading; }
+
     // ********************************************************************************************
 
     /**
@@ -115,13 +122,17 @@ public class ProgressBar extends GameObject {
 
     /**
      * Updates Time passing and Progress on top of ProgressBar
+     * When tracking an AssetGroup, Progress shows the fraction of assets loaded instead
      * @param elapsedTime       ElapsedTime used for update methods
      * @author                  Daniel Bell :)
      */
     @Override
     public void update(ElapsedTime elapsedTime) {
         super.update(elapsedTime);
-        updateProgress((float)elapsedTime.totalTime);
+        if (loading != null)
+            updateProgress(loading.getProgress() * duration);
+        else
+            updateProgress((float)elapsedTime.totalTime);
         this.progress.update(elapsedTime);
     }
 
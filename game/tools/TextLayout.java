@@ -0,0 +1,93 @@
+package uk.ac.qub.eeecs.game.tools;
+
+import android.graphics.Paint;
+
+import uk.ac.qub.eeecs.gage.engine.graphics.IGraphics2D;
+import uk.ac.qub.eeecs.gage.world.LayerViewport;
+import uk.ac.qub.eeecs.gage.world.ScreenViewport;
+
+/**
+ * <h1>Text Layout</h1>
+ * Class holding a message which has been split into lines,
+ * stored once as a single character array with the position
+ * of each line. Allows any number of characters from the start
+ * of the message to be drawn (as in the typewriter effect of
+ * dialogs) without creating new Strings each frame.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class TextLayout {
+    private char[] characters;
+    //index in characters of the first character of each line
+    //(also the number of characters in all lines before it)
+    private int[] lineStarts;
+    private int[] lineLengths;
+
+    /**
+     * This constructor lays out the given lines one after
+     * another in a single character array
+     * @author Ben Andrew
+     * @param lines String[] of lines to lay out
+     */
+    public TextLayout(String[] lines) {
+        lineStarts = new int[lines.length];
+        lineLengths = new int[lines.length];
+        int length = 0;
+        for(int i = 0; i < lines.length; i++){
+            lineStarts[i] = length;
+            lineLengths[i] = lines[i].length();
+            length += lines[i].length();
+        }
+        characters = new char[length];
+        for(int i = 0; i < lines.length; i++){
+            lines[i].getChars(0, lineLengths[i], characters, lineStarts[i]);
+        }
+    }
+
+    /**
+     * Gets the number of characters in all lines
+     * @return int total characters
+     */
+    public int getLength() {
+        return characters.length;
+    }
+
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Gets how many characters of a line are shown when the
+     * given number of characters of the whole message are shown
+     * @author Ben Andrew
+     * @param line int index of line
+     * @param shownCharacters int characters of the message shown
+     * @return int characters of the line shown
+     */
+    public int getShownLength(int line, int shownCharacters) {
+        return Math.max(0, Math.min(lineLengths[line], shownCharacters - lineStarts[line]));
+    }
+
+    /**
+     * Draws the first shownCharacters characters of the message,
+     * each line below the last. Empty lines are skipped.
+     * @author Ben Andrew
+     * @param graphics2D IGraphics2D used in draw methods
+     * @param shownCharacters int characters of the message to draw
+     * @param x float x position of lines
+     * @param y float y position of first line
+     * @param lineSpacing float distance between lines
+     * @param paint Paint used to draw text
+     * @param layerViewport LayerViewport used in draw methods
+     * @param screenViewport ScreenViewport used in draw methods
+     */
+    public void draw(IGraphics2D graphics2D, int shownCharacters, float x, float y, float lineSpacing,
+                     Paint paint, LayerViewport layerViewport, ScreenViewport screenViewport) {
+        for(int i = 0; i < lineStarts.length; i++){
+            int count = getShownLength(i, shownCharacters);
+            if(count > 0)
+                graphics2D.drawText(characters, lineStarts[i], count, x, y - (lineSpacing * i), paint, layerViewport, screenViewport);
+        }
+    }
+}
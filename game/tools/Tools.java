@@ -33,29 +33,25 @@ public class Tools {
     public static String[] convertStringToMultiLine(String message, int lines, int charactersPerLine){
         ArrayList<String> linesArrayList = new ArrayList<String>();
         String[] words = message.split(" ");
-        String currentLine = "";
+        //line is built up in place rather than creating a new String for each word
+        StringBuilder currentLine = new StringBuilder(charactersPerLine);
         for(String word : words){
             if(currentLine.length()+word.length()+1 < charactersPerLine){
-                if(currentLine.isEmpty()) {
-                    currentLine = word;
-                }
-                else {
-                    currentLine += " " + word;
+                if(currentLine.length() != 0) {
+                    currentLine.append(' ');
                 }
+                currentLine.append(word);
             } else if(word.length() < charactersPerLine){
                 if(lines != -1 && linesArrayList.size() == lines-1){
                     break;
                 }
-                linesArrayList.add(currentLine);
-                currentLine = word;
+                linesArrayList.add(currentLine.toString());
+                currentLine.setLength(0);
+                currentLine.append(word);
             }
         }
-        linesArrayList.add(currentLine);
-        String[] linesArray = new String[linesArrayList.size()];
-        for(int i = 0; i < linesArray.length; i++){
-            linesArray[i] = linesArrayList.get(i);
-        }
-        return linesArray;
+        linesArrayList.add(currentLine.toString());
+        return linesArrayList.toArray(new String[linesArrayList.size()]);
     }
 
 
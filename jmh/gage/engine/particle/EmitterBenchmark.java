@@ -0,0 +1,133 @@
+package uk.ac.qub.eeecs.gage.engine.particle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+import uk.ac.qub.eeecs.gage.util.Vector2;
+
+/**
+ * Times one particle system update, including spawning and removing
+ * particles, of continuous emitters holding their particles as Particle
+ * objects or in ParticleArrays, on one or more update threads. The
+ * emitters are run to a steady state of roughly the given number of live
+ * particles before timing.
+ *
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmitterBenchmark {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final int NUM_EMITTERS = 4;
+    private static final float MEAN_LIFESPAN = 2.0f;
+
+    /**
+     * Approximate number of live particles across all emitters
+     */
+    @Param({"4000", "40000", "400000"})
+    public int numParticles;
+
+    /**
+     * Particle storage used by every emitter
+     */
+    @Param({"Objects", "Arrays"})
+    public Emitter.StorageMode storageMode;
+
+    /**
+     * Number of threads the emitters are updated on
+     */
+    @Param({"1", "2", "4"})
+    public int updateThreads;
+
+    private ParticleSystemManager mParticleSystemManager;
+    private ElapsedTime mElapsedTime;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Setup
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Setup
+    public void setUp() {
+        ParticleSettings particleSettings = new ParticleSettings();
+        particleSettings.width = 4.0f;
+        particleSettings.height = 4.0f;
+        particleSettings.maxVelocityDirection = 360.0f;
+        particleSettings.minVelocityMagnitude = 10.0f;
+        particleSettings.maxVelocityMagnitude = 50.0f;
+        particleSettings.maxAccelerationDirection = 360.0f;
+        particleSettings.minAccelerationMagnitude = 1.0f;
+        particleSettings.maxAccelerationMagnitude = 5.0f;
+        particleSettings.maxOrientation = 360.0f;
+        particleSettings.minAngularVelocity = -10.0f;
+        particleSettings.maxAngularVelocity = 10.0f;
+        particleSettings.minScale = 1.0f;
+        particleSettings.maxScale = 2.0f;
+        particleSettings.maxScaleGrowth = 0.1f;
+        particleSettings.minLifespan = MEAN_LIFESPAN - 0.5f;
+        particleSettings.maxLifespan = MEAN_LIFESPAN + 0.5f;
+        particleSettings.minFadeInBy = 0.1f;
+        particleSettings.maxFadeInBy = 0.2f;
+        particleSettings.minFadeOutFrom = 0.7f;
+        particleSettings.maxFadeOutFrom = 0.8f;
+
+        EmitterSettings settings = new EmitterSettings();
+        settings.emitterMode = EmitterSettings.EmitterMode.Continuous;
+        settings.particleSettings = particleSettings;
+        settings.minParticleDensity = settings.maxParticleDensity =
+                (int) (numParticles / (NUM_EMITTERS * MEAN_LIFESPAN));
+        settings.blendMode = EmitterSettings.BlendMode.Alpha;
+        settings.accelerationMode = EmitterSettings.AccelerationMode.NonAligned;
+        settings.applyGravity = true;
+
+        mParticleSystemManager = new ParticleSystemManager(null, numParticles);
+        mParticleSystemManager.setGravity(0.0f, -0.01f);
+        mParticleSystemManager.setRandomSeed(1);
+        mParticleSystemManager.setUpdateThreads(updateThreads);
+        for (int idx = 0; idx < NUM_EMITTERS; idx++)
+            mParticleSystemManager.addEmitter(new Emitter(
+                    mParticleSystemManager, settings, new Vector2(idx * 10.0f, 0.0f), storageMode));
+
+        mElapsedTime = new ElapsedTime();
+        mElapsedTime.stepTime = 1.0 / 60.0;
+
+        // Run past the longest lifespan so particles expire as fast as they spawn
+        for (int step = 0; step < 300; step++)
+            mParticleSystemManager.update(mElapsedTime);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mParticleSystemManager.setUpdateThreads(1);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Benchmarks
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Benchmark
+    public int update() {
+        mParticleSystemManager.update(mElapsedTime);
+        return mParticleSystemManager.getNumUpdatedParticles();
+    }
+}
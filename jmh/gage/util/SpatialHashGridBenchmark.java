@@ -0,0 +1,110 @@
+package uk.ac.qub.eeecs.gage.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import uk.ac.qub.eeecs.gage.world.GameObject;
+
+/**
+ * Times the collision broadphase of one player sized query, as a linear
+ * scan of every object and as a SpatialHashGrid neighbourhood query
+ * followed by the same exact overlap test. Objects are spread over a
+ * world whose area grows with the object count, so the number near the
+ * player stays roughly constant.
+ *
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialHashGridBenchmark {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final float CELL_SIZE = 100.0f;
+    private static final int NUM_QUERIES = 256;
+
+    /**
+     * Number of objects in the world
+     */
+    @Param({"100", "1000", "10000"})
+    public int numObjects;
+
+    private List<GameObject> mObjects;
+    private SpatialHashGrid mGrid;
+    private BoundingBox[] mQueries;
+    private List<GameObject> mCandidates = new ArrayList<>();
+    private int mNextQuery;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Setup
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        float worldSize = (float) Math.sqrt(numObjects) * 150.0f;
+        mObjects = new ArrayList<>(numObjects);
+        for (int idx = 0; idx < numObjects; idx++)
+            mObjects.add(new GameObject(random.nextFloat() * worldSize, random.nextFloat() * worldSize,
+                    20.0f + random.nextFloat() * 180.0f, 20.0f + random.nextFloat() * 180.0f, null, null));
+        mGrid = new SpatialHashGrid(CELL_SIZE);
+        mGrid.addAll(mObjects);
+
+        mQueries = new BoundingBox[NUM_QUERIES];
+        for (int idx = 0; idx < NUM_QUERIES; idx++)
+            mQueries[idx] = new BoundingBox(random.nextFloat() * worldSize,
+                    random.nextFloat() * worldSize, 32.0f, 32.0f);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Benchmarks
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Benchmark
+    public int linearScan() {
+        BoundingBox query = nextQuery();
+        int numHits = 0;
+        for (int idx = 0; idx < mObjects.size(); idx++)
+            if (mObjects.get(idx).getBound().intersects(query))
+                numHits++;
+        return numHits;
+    }
+
+    @Benchmark
+    public int gridQuery() {
+        BoundingBox query = nextQuery();
+        mCandidates.clear();
+        mGrid.queryNeighbourhood(query, 1, mCandidates);
+        int numHits = 0;
+        for (int idx = 0; idx < mCandidates.size(); idx++)
+            if (mCandidates.get(idx).getBound().intersects(query))
+                numHits++;
+        return numHits;
+    }
+
+    private BoundingBox nextQuery() {
+        BoundingBox query = mQueries[mNextQuery];
+        mNextQuery = (mNextQuery + 1) % NUM_QUERIES;
+        return query;
+    }
+}
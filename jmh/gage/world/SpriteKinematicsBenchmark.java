@@ -0,0 +1,118 @@
+package uk.ac.qub.eeecs.gage.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+
+/**
+ * Times one motion step of every sprite, as a Sprite.update call per
+ * sprite and as one SpriteKinematics update (with and without writing
+ * positions back to the sprites). Sprites are allocated amongst other
+ * objects and updated in shuffled order, as objects loaded over time
+ * would be, rather than packed together in memory.
+ *
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteKinematicsBenchmark {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final float STEP_TIME = 1.0f / 60.0f;
+
+    /**
+     * Number of sprites moved
+     */
+    @Param({"1000", "10000"})
+    public int numSprites;
+
+    private Sprite[] mSprites;
+    private SpriteKinematics mKinematics;
+    private ElapsedTime mElapsedTime;
+
+    // Other objects allocated alongside the sprites
+    private List<Object> mClutter;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Setup
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        List<Sprite> sprites = new ArrayList<>(numSprites);
+        List<Sprite> kinematicSprites = new ArrayList<>(numSprites);
+        mClutter = new ArrayList<>(numSprites);
+        for (int idx = 0; idx < numSprites; idx++) {
+            sprites.add(createSprite(random, idx));
+            kinematicSprites.add(createSprite(random, idx));
+            mClutter.add(new float[random.nextInt(32)]);
+        }
+        Collections.shuffle(sprites, random);
+        Collections.shuffle(kinematicSprites, random);
+
+        mSprites = sprites.toArray(new Sprite[numSprites]);
+        mKinematics = new SpriteKinematics(numSprites);
+        for (Sprite sprite : kinematicSprites)
+            mKinematics.add(sprite);
+
+        mElapsedTime = new ElapsedTime();
+        mElapsedTime.stepTime = STEP_TIME;
+    }
+
+    private static Sprite createSprite(Random random, int idx) {
+        Sprite sprite = new Sprite(null);
+        sprite.position.set(random.nextFloat() * 1000.0f, random.nextFloat() * 1000.0f);
+        sprite.velocity.set(random.nextFloat() * 50.0f - 25.0f, random.nextFloat() * 50.0f - 25.0f);
+        sprite.acceleration.set(random.nextFloat() * 2.0f - 1.0f, random.nextFloat() * 2.0f - 1.0f);
+        sprite.maxAcceleration = 80.0f;
+        sprite.maxVelocity = idx % 4 == 0 ? 20.0f : Float.MAX_VALUE;
+        sprite.angularVelocity = random.nextFloat() * 4.0f - 2.0f;
+        sprite.maxAngularAcceleration = 8.0f;
+        sprite.maxAngularVelocity = 3.0f;
+        return sprite;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Benchmarks
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Benchmark
+    public void spriteUpdate() {
+        for (int idx = 0; idx < mSprites.length; idx++)
+            mSprites[idx].update(mElapsedTime);
+    }
+
+    @Benchmark
+    public void kinematicsUpdate() {
+        mKinematics.update(mElapsedTime);
+    }
+
+    @Benchmark
+    public void kinematicsIntegrate() {
+        mKinematics.integrate(STEP_TIME);
+    }
+}
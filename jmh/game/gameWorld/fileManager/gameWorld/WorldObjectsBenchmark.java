@@ -0,0 +1,116 @@
+package uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import uk.ac.qub.eeecs.gage.world.GameObject;
+import uk.ac.qub.eeecs.game.gameWorld.inventory.WorldItem;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.AnimatedEnemyObject;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.AnimatedObject;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.CollidableObject;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.MovingNPC;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.NPC;
+
+/**
+ * <h1>World Objects Benchmark</h1>
+ * Times the object visits of one game tick, found by checking the
+ * type of every world object as each loop used to, and by iterating
+ * the WorldObjects type lists. Each tick stores moving NPC positions,
+ * updates animated objects, world items and NPCs, checks NPCs for
+ * open dialogs, navigates moving NPCs, begins and ends their draw
+ * interpolation, and draws NPC dialogs. The world holds a fixed 20
+ * NPCs and 20 moving NPCs, with the rest static scenery.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldObjectsBenchmark {
+    private static final int NUM_NPCS = 20;
+
+    //number of objects in the world
+    @Param({"1000", "5000", "20000"})
+    public int numObjects;
+
+    private ArrayList<GameObject> objects;
+    private WorldObjects worldObjects;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        objects = new ArrayList<GameObject>(numObjects);
+        for (int i = 0; i < numObjects - 2 * NUM_NPCS; i++) {
+            objects.add(new CollidableObject(random.nextFloat() * 4000, random.nextFloat() * 4000, 32, 32, null, null));
+        }
+        //NPCs spread through the load order, as they are in world files
+        for (int i = 0; i < NUM_NPCS; i++) {
+            objects.add(random.nextInt(objects.size()),
+                    new NPC(random.nextFloat() * 4000, random.nextFloat() * 4000, 32, 32, null, null, null, 12, 30));
+            objects.add(random.nextInt(objects.size()),
+                    new MovingNPC(random.nextFloat() * 4000, random.nextFloat() * 4000, 32, 32, null, false, 2));
+        }
+        worldObjects = new WorldObjects(objects);
+    }
+
+    @Benchmark
+    public float typeChecks() {
+        float visited = 0;
+        for (GameObject g : objects) {
+            if (g instanceof MovingNPC) visited += g.position.x;
+        }
+        for (GameObject g : objects) {
+            if (g instanceof AnimatedObject || g instanceof AnimatedEnemyObject) visited += g.position.x;
+            if (g instanceof WorldItem) visited += g.position.x;
+            if (g instanceof NPC) visited += g.position.x;
+        }
+        for (GameObject g : objects) {
+            if (g instanceof NPC) visited += g.position.y;
+        }
+        for (int pass = 0; pass < 3; pass++) {
+            for (GameObject g : objects) {
+                if (g instanceof MovingNPC) visited += g.position.y;
+            }
+        }
+        for (GameObject g : objects) {
+            if (g instanceof NPC) visited += g.position.x;
+        }
+        return visited;
+    }
+
+    @Benchmark
+    public float typedLists() {
+        float visited = 0;
+        ArrayList<MovingNPC> movingNPCs = worldObjects.getMovingNPCs();
+        ArrayList<GameObject> animated = worldObjects.getAnimated();
+        ArrayList<WorldItem> worldItems = worldObjects.getWorldItems();
+        ArrayList<NPC> npcs = worldObjects.getNPCs();
+        for (int i = 0; i < movingNPCs.size(); i++) visited += movingNPCs.get(i).position.x;
+        for (int i = 0; i < animated.size(); i++) visited += animated.get(i).position.x;
+        for (int i = 0; i < worldItems.size(); i++) visited += worldItems.get(i).position.x;
+        for (int i = 0; i < npcs.size(); i++) visited += npcs.get(i).position.x;
+        for (int i = 0; i < npcs.size(); i++) visited += npcs.get(i).position.y;
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < movingNPCs.size(); i++) visited += movingNPCs.get(i).position.y;
+        }
+        for (int i = 0; i < npcs.size(); i++) visited += npcs.get(i).position.x;
+        return visited;
+    }
+}
@@ -0,0 +1,77 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>A* Search Benchmark</h1>
+ * Times single AStarSearch queries between random passable cells of
+ * world sized grids (one cell per AStarNavigation.CELL_SIZE pixels).
+ * Run with the gc profiler (-prof gc): gc.alloc.rate.norm gives the
+ * bytes allocated per search, which should be close to zero.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AStarSearchBenchmark {
+    private static final int QUERY_COUNT = 256;
+
+    /**
+     * World width & height in pixels
+     */
+    @Param({"1500", "3000", "6000"})
+    public int worldSize;
+
+    private AStarSearch search;
+    private int[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        int cells = worldSize / AStarNavigation.CELL_SIZE + 1;
+        boolean[][] grid = new boolean[cells][cells];
+        for (int x = 0; x < cells; x++) {
+            for (int y = 0; y < cells; y++) {
+                grid[x][y] = random.nextFloat() < 0.2f;
+            }
+        }
+        search = new AStarSearch(grid);
+        queries = new int[QUERY_COUNT * 4];
+        for (int i = 0; i < queries.length; i += 2) {
+            int x, y;
+            do {
+                x = random.nextInt(cells);
+                y = random.nextInt(cells);
+            } while (grid[x][y]);
+            queries[i] = x;
+            queries[i + 1] = y;
+        }
+    }
+
+    @Benchmark
+    public int search() {
+        int i = next;
+        next = (next + 4) % queries.length;
+        search.search(queries[i], queries[i + 1], queries[i + 2], queries[i + 3]);
+        return search.getPathLength();
+    }
+}
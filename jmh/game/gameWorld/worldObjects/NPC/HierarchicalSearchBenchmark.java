@@ -0,0 +1,95 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Hierarchical Search Benchmark</h1>
+ * Times queries between random passable cells with the flat AStarSearch
+ * and with HierarchicalSearch, along with building the ClusterGraph that
+ * HierarchicalSearch needs each time the grid changes.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchicalSearchBenchmark {
+    private static final int QUERY_COUNT = 256;
+
+    /**
+     * Grid width & height in cells
+     */
+    @Param({"100", "200", "400", "800"})
+    public int cells;
+
+    private boolean[][] grid;
+    private AStarSearch flat;
+    private HierarchicalSearch hierarchical;
+    private int[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        grid = new boolean[cells][cells];
+        for (int x = 0; x < cells; x++) {
+            for (int y = 0; y < cells; y++) {
+                grid[x][y] = random.nextFloat() < 0.2f;
+            }
+        }
+        flat = new AStarSearch(grid);
+        hierarchical = new HierarchicalSearch(grid, AStarNavigation.CLUSTER_SIZE);
+        queries = new int[QUERY_COUNT * 4];
+        for (int i = 0; i < queries.length; i += 2) {
+            int x, y;
+            do {
+                x = random.nextInt(cells);
+                y = random.nextInt(cells);
+            } while (grid[x][y]);
+            queries[i] = x;
+            queries[i + 1] = y;
+        }
+    }
+
+    @Benchmark
+    public int flatSearch() {
+        int i = nextQuery();
+        flat.search(queries[i], queries[i + 1], queries[i + 2], queries[i + 3]);
+        return flat.getPathLength();
+    }
+
+    @Benchmark
+    public int hierarchicalSearch() {
+        int i = nextQuery();
+        hierarchical.search(queries[i], queries[i + 1], queries[i + 2], queries[i + 3]);
+        return hierarchical.getPathLength();
+    }
+
+    @Benchmark
+    public int buildGraph() {
+        return new ClusterGraph(grid, AStarNavigation.CLUSTER_SIZE).getNodeCount();
+    }
+
+    private int nextQuery() {
+        int i = next;
+        next = (next + 4) % queries.length;
+        return i;
+    }
+}
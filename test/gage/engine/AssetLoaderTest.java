@@ -0,0 +1,52 @@
+package uk.ac.qub.eeecs.gage.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks AssetLoader holds at most QUEUE_CAPACITY + BACKLOG_CAPACITY loads,
+ * running any more on the calling thread, and that every load is run once.
+ *
+ * @version 1.0
+ */
+public class AssetLoaderTest {
+
+    @Test
+    public void submit_workersBusy_runsOverflowOnCaller() throws InterruptedException {
+        final int numLoads = 500;
+        final Thread caller = Thread.currentThread();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(numLoads);
+        final AtomicInteger numRunOnCaller = new AtomicInteger();
+
+        for (int idx = 0; idx < numLoads; idx++) {
+            AssetLoader.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (Thread.currentThread() == caller)
+                            numRunOnCaller.incrementAndGet();
+                        else
+                            // Hold the workers until every load has been added
+                            release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+        }
+
+        assertEquals(numLoads - AssetLoader.QUEUE_CAPACITY - AssetLoader.BACKLOG_CAPACITY,
+                numRunOnCaller.get());
+        release.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+}
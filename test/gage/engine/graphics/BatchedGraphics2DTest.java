@@ -0,0 +1,183 @@
+package uk.ac.qub.eeecs.gage.engine.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.graphics.Xfermode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that BatchedGraphics2D batches bitmap draws by paint state, so a
+ * frame replayed from a DisplayList (which copies every paint) is batched
+ * as well as one drawn directly, and that paints with different state are
+ * not batched together.
+ *
+ * @version 1.0
+ */
+public class BatchedGraphics2DTest {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final int NUM_BITMAPS = 4;
+    private static final int NUM_TILES = 200;
+    private static final int TILE_SIZE = 32;
+
+    private Bitmap[] mBitmaps = new Bitmap[NUM_BITMAPS];
+
+    public BatchedGraphics2DTest() {
+        for (int idx = 0; idx < NUM_BITMAPS; idx++)
+            mBitmaps[idx] = new Bitmap();
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Tests
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void replay_displayListFrame_batchesAsDirectDraw() {
+        // Frame drawn directly, with every draw sharing one paint object
+        CountingGraphics2D directCounting = new CountingGraphics2D();
+        BatchedGraphics2D direct = new BatchedGraphics2D(directCounting);
+        recordTiles(direct, new Paint());
+        direct.endFrame();
+
+        DisplayList displayList = new DisplayList();
+        displayList.reset(1280, 720);
+        recordTiles(displayList, new Paint());
+
+        // Without batching every draw changes bitmap
+        CountingGraphics2D unbatched = new CountingGraphics2D();
+        displayList.replay(unbatched);
+        assertEquals(NUM_TILES, unbatched.mNumDraws);
+        assertEquals(NUM_TILES, unbatched.mNumBitmapChanges);
+
+        CountingGraphics2D replayCounting = new CountingGraphics2D();
+        BatchedGraphics2D replayed = new BatchedGraphics2D(replayCounting);
+        displayList.replay(replayed);
+        replayed.endFrame();
+
+        assertEquals(NUM_TILES, replayed.getNumRequestedDraws());
+        assertEquals(NUM_TILES, replayCounting.mNumDraws);
+        assertEquals(direct.getNumSubmittedBatches(), replayed.getNumSubmittedBatches());
+        assertEquals(directCounting.mNumBitmapChanges, replayCounting.mNumBitmapChanges);
+        assertTrue("submitted " + replayed.getNumSubmittedBatches() + " batches",
+                replayed.getNumSubmittedBatches() <= NUM_TILES / 10);
+    }
+
+    @Test
+    public void drawBitmap_differentTransferModes_notBatched() {
+        CountingGraphics2D counting = new CountingGraphics2D();
+        BatchedGraphics2D batched = new BatchedGraphics2D(counting);
+        Paint normal = new TestPaint(null);
+        Paint additive = new TestPaint(new PorterDuffXfermode(null));
+
+        // Alternate paints on one bitmap without overlapping draws
+        for (int tile = 0; tile < 10; tile++)
+            batched.drawBitmap(mBitmaps[0], null, tileRect(tile), tile % 2 == 0 ? normal : additive);
+        batched.endFrame();
+
+        assertEquals(10, batched.getNumRequestedDraws());
+        assertEquals(2, batched.getNumSubmittedBatches());
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Utility
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Record rows of tiles which cycle through the bitmaps, in the way a
+     * tile map drawn from several atlas pages would be
+     */
+    private void recordTiles(IGraphics2D graphics2D, Paint paint) {
+        for (int tile = 0; tile < NUM_TILES; tile++)
+            graphics2D.drawBitmap(mBitmaps[tile % NUM_BITMAPS], null, tileRect(tile), paint);
+    }
+
+    private static Rect tileRect(int tile) {
+        int x = (tile % 40) * TILE_SIZE;
+        int y = (tile / 40) * TILE_SIZE;
+        return new Rect(x, y, x + TILE_SIZE, y + TILE_SIZE);
+    }
+
+    /**
+     * Paint with a transfer mode that can be read back without the Android
+     * framework
+     */
+    private static class TestPaint extends Paint {
+        private Xfermode mXfermode;
+
+        TestPaint(Xfermode xfermode) {
+            mXfermode = xfermode;
+        }
+
+        @Override
+        public Xfermode getXfermode() {
+            return mXfermode;
+        }
+    }
+
+    /**
+     * Graphics instance that counts bitmap draws and the number of times
+     * consecutive draws use a different bitmap
+     */
+    private static class CountingGraphics2D extends AbstractGraphics2D {
+        int mNumDraws;
+        int mNumBitmapChanges;
+        private Bitmap mLastBitmap;
+
+        private void count(Bitmap bitmap) {
+            mNumDraws++;
+            if (bitmap != mLastBitmap)
+                mNumBitmapChanges++;
+            mLastBitmap = bitmap;
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Rect srcRect, Rect desRect, Paint paint) {
+            count(bitmap);
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+            count(bitmap);
+        }
+
+        @Override
+        public int getSurfaceWidth() {
+            return 1280;
+        }
+
+        @Override
+        public int getSurfaceHeight() {
+            return 720;
+        }
+
+        @Override
+        public void clipRect(Rect clipRegion) {
+        }
+
+        @Override
+        public void clear(int colour) {
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+        }
+
+        @Override
+        public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package uk.ac.qub.eeecs.gage.engine.particle;
+
+import android.graphics.RectF;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+import uk.ac.qub.eeecs.gage.util.Vector2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that an emitter holding its particles in ParticleArrays creates,
+ * updates and expires the same particles, bit for bit, as one holding
+ * Particle objects. The two differ only in the order particles are stored.
+ *
+ * @version 1.0
+ */
+public class EmitterTest {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Tests
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void update_continuousEmitter_arraysMatchObjects() {
+        ParticleSystemManager particleSystemManager = new ParticleSystemManager(null, 1000);
+        particleSystemManager.setGravity(0.0f, -0.5f);
+        EmitterSettings settings = createSettings(EmitterSettings.EmitterMode.Continuous, 600);
+
+        Emitter objects = new Emitter(particleSystemManager, settings, new Vector2(),
+                Emitter.StorageMode.Objects);
+        Emitter arrays = new Emitter(particleSystemManager, settings, new Vector2(),
+                Emitter.StorageMode.Arrays);
+        objects.setRandomSeed(1);
+        arrays.setRandomSeed(1);
+
+        // Long enough, with a moving emitter, for particles to be spawned
+        // along a path and the first ones to have expired
+        ElapsedTime elapsedTime = createElapsedTime();
+        for (int step = 0; step < 300; step++) {
+            objects.setPosition(step * 0.5f, step * 0.25f);
+            arrays.setPosition(step * 0.5f, step * 0.25f);
+            assertEquals(objects.update(elapsedTime), arrays.update(elapsedTime));
+            assertParticlesEqual(objects, arrays);
+            assertRangeEqual(objects.getEmitterVisibleRange(), arrays.getEmitterVisibleRange());
+        }
+        assertTrue(arrays.getParticleArrays().getNumParticles() > 500);
+    }
+
+    @Test
+    public void update_burstEmitter_arraysExpireWithObjects() {
+        ParticleSystemManager particleSystemManager = new ParticleSystemManager(null, 1000);
+        EmitterSettings settings = createSettings(EmitterSettings.EmitterMode.Burst, 200);
+
+        Emitter objects = new Emitter(particleSystemManager, settings, new Vector2(),
+                Emitter.StorageMode.Objects);
+        Emitter arrays = new Emitter(particleSystemManager, settings, new Vector2(),
+                Emitter.StorageMode.Arrays);
+        objects.setRandomSeed(2);
+        arrays.setRandomSeed(2);
+
+        ElapsedTime elapsedTime = createElapsedTime();
+        int step = 0;
+        while (!objects.isExpired()) {
+            assertFalse(arrays.isExpired());
+            assertEquals(objects.update(elapsedTime), arrays.update(elapsedTime));
+            assertParticlesEqual(objects, arrays);
+            assertTrue(++step < 1000);
+        }
+        assertTrue(arrays.isExpired());
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Utility
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Settings with every random range open, so that any difference in how
+     * the two storage modes draw or integrate values changes the particles
+     */
+    static EmitterSettings createSettings(EmitterSettings.EmitterMode mode, int density) {
+        ParticleSettings particleSettings = new ParticleSettings();
+        particleSettings.width = 4.0f;
+        particleSettings.height = 6.0f;
+        particleSettings.minVelocityDirection = 0.0f;
+        particleSettings.maxVelocityDirection = 360.0f;
+        particleSettings.minVelocityMagnitude = 10.0f;
+        particleSettings.maxVelocityMagnitude = 50.0f;
+        particleSettings.minAccelerationDirection = 0.0f;
+        particleSettings.maxAccelerationDirection = 360.0f;
+        particleSettings.minAccelerationMagnitude = 1.0f;
+        particleSettings.maxAccelerationMagnitude = 5.0f;
+        particleSettings.minOrientation = 0.0f;
+        particleSettings.maxOrientation = 360.0f;
+        particleSettings.minAngularVelocity = -10.0f;
+        particleSettings.maxAngularVelocity = 10.0f;
+        particleSettings.minScale = 1.0f;
+        particleSettings.maxScale = 2.0f;
+        particleSettings.minScaleGrowth = 0.0f;
+        particleSettings.maxScaleGrowth = 0.1f;
+        particleSettings.minLifespan = 1.0f;
+        particleSettings.maxLifespan = 2.0f;
+        particleSettings.minFadeInBy = 0.1f;
+        particleSettings.maxFadeInBy = 0.2f;
+        particleSettings.minFadeOutFrom = 0.7f;
+        particleSettings.maxFadeOutFrom = 0.8f;
+
+        EmitterSettings settings = new EmitterSettings();
+        settings.emitterMode = mode;
+        settings.particleSettings = particleSettings;
+        settings.minParticleDensity = density / 2;
+        settings.maxParticleDensity = density;
+        settings.blendMode = EmitterSettings.BlendMode.Alpha;
+        settings.accelerationMode = EmitterSettings.AccelerationMode.NonAligned;
+        settings.velocityBias = 0.5f;
+        settings.applyGravity = true;
+        return settings;
+    }
+
+    static ElapsedTime createElapsedTime() {
+        ElapsedTime elapsedTime = new ElapsedTime();
+        elapsedTime.stepTime = 1.0 / 60.0;
+        return elapsedTime;
+    }
+
+    /**
+     * Check both emitters hold the same live particles, in any order
+     */
+    private static void assertParticlesEqual(Emitter objects, Emitter arrays) {
+        List<int[]> expected = new ArrayList<>();
+        Particle[] storage = objects.getParticleStorage();
+        for (int idx = 0; idx < objects.getNumParticles(); idx++) {
+            Particle particle = storage[idx];
+            // Expired particles are only released once enough have built up
+            if (particle.isAlive())
+                expected.add(toBits(particle.size.x, particle.size.y,
+                        particle.position.x, particle.position.y,
+                        particle.velocity.x, particle.velocity.y,
+                        particle.acceleration.x, particle.acceleration.y,
+                        particle.orientation, particle.scale,
+                        particle.timeSinceBirth, particle.lifeSpan, particle.fade));
+        }
+
+        List<int[]> actual = new ArrayList<>();
+        ParticleArrays particleArrays = arrays.getParticleArrays();
+        for (int idx = 0; idx < particleArrays.getNumParticles(); idx++)
+            actual.add(toBits(particleArrays.sizeX[idx], particleArrays.sizeY[idx],
+                    particleArrays.positionX[idx], particleArrays.positionY[idx],
+                    particleArrays.velocityX[idx], particleArrays.velocityY[idx],
+                    particleArrays.accelerationX[idx], particleArrays.accelerationY[idx],
+                    particleArrays.orientation[idx], particleArrays.scale[idx],
+                    particleArrays.age[idx], particleArrays.lifeSpan[idx],
+                    particleArrays.fade[idx]));
+
+        assertEquals(expected.size(), actual.size());
+        Collections.sort(expected, BITS_ORDER);
+        Collections.sort(actual, BITS_ORDER);
+        for (int idx = 0; idx < expected.size(); idx++)
+            assertArrayEquals(expected.get(idx), actual.get(idx));
+    }
+
+    private static void assertRangeEqual(RectF expected, RectF actual) {
+        assertEquals(expected.left, actual.left, 0.0f);
+        assertEquals(expected.top, actual.top, 0.0f);
+        assertEquals(expected.right, actual.right, 0.0f);
+        assertEquals(expected.bottom, actual.bottom, 0.0f);
+    }
+
+    private static int[] toBits(float... values) {
+        int[] bits = new int[values.length];
+        for (int idx = 0; idx < values.length; idx++)
+            bits[idx] = Float.floatToIntBits(values[idx]);
+        return bits;
+    }
+
+    private static final Comparator<int[]> BITS_ORDER = new Comparator<int[]>() {
+        @Override
+        public int compare(int[] first, int[] second) {
+            for (int idx = 0; idx < first.length; idx++)
+                if (first[idx] != second[idx])
+                    return first[idx] < second[idx] ? -1 : 1;
+            return 0;
+        }
+    };
+}
@@ -0,0 +1,150 @@
+package uk.ac.qub.eeecs.gage.engine.particle;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+import uk.ac.qub.eeecs.gage.util.Vector2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a ParticleSystemManager given a random seed creates and
+ * updates the same particles, bit for bit, whatever the number of update
+ * threads, and that burst emitters expiring during a parallel update are
+ * removed once it completes.
+ *
+ * @version 1.0
+ */
+public class ParticleSystemManagerTest {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final int NUM_EMITTERS = 12;
+    private static final int NUM_UPDATES = 240;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Tests
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void update_objectsAnyThreadCount_matchesOneThread() {
+        assertSameForAnyThreadCount(Emitter.StorageMode.Objects);
+    }
+
+    @Test
+    public void update_arraysAnyThreadCount_matchesOneThread() {
+        assertSameForAnyThreadCount(Emitter.StorageMode.Arrays);
+    }
+
+    @Test
+    public void update_burstEmittersOnManyThreads_removedWhenExpired() {
+        ParticleSystemManager particleSystemManager = new ParticleSystemManager(null, 1000);
+        particleSystemManager.setUpdateThreads(4);
+        List<Emitter> emitters = new ArrayList<>();
+        for (int idx = 0; idx < NUM_EMITTERS; idx++) {
+            Emitter emitter = new Emitter(particleSystemManager,
+                    EmitterTest.createSettings(EmitterSettings.EmitterMode.Burst, 100),
+                    new Vector2(), Emitter.StorageMode.values()[idx % 2]);
+            particleSystemManager.addEmitter(emitter);
+            emitters.add(emitter);
+        }
+
+        // Particles live for at most two seconds
+        ElapsedTime elapsedTime = EmitterTest.createElapsedTime();
+        for (int step = 0; step < NUM_UPDATES; step++)
+            particleSystemManager.update(elapsedTime);
+
+        for (Emitter emitter : emitters) {
+            assertTrue(emitter.isExpired());
+            // Removing an emitter already removed by the update does nothing
+            particleSystemManager.removeEmitter(emitter);
+        }
+        particleSystemManager.update(elapsedTime);
+        assertEquals(0, particleSystemManager.getNumUpdatedParticles());
+        particleSystemManager.setUpdateThreads(1);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Utility
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Run the same seeded emitters on one to four threads, checking the
+     * particle count of every update and the final particles of every
+     * emitter against the one thread run
+     */
+    private static void assertSameForAnyThreadCount(Emitter.StorageMode storageMode) {
+        int[] expectedCounts = null;
+        List<float[]> expectedParticles = null;
+        for (int numThreads = 1; numThreads <= 4; numThreads++) {
+            ParticleSystemManager particleSystemManager = new ParticleSystemManager(null, 1000);
+            particleSystemManager.setGravity(0.0f, -0.5f);
+            particleSystemManager.setRandomSeed(7);
+            particleSystemManager.setUpdateThreads(numThreads);
+
+            // A mix of emitters, so the emitters' updates take different times
+            List<Emitter> emitters = new ArrayList<>();
+            for (int idx = 0; idx < NUM_EMITTERS; idx++) {
+                EmitterSettings.EmitterMode mode = idx % 3 == 0
+                        ? EmitterSettings.EmitterMode.Burst : EmitterSettings.EmitterMode.Continuous;
+                Emitter emitter = new Emitter(particleSystemManager,
+                        EmitterTest.createSettings(mode, 100 + idx * 50),
+                        new Vector2(idx * 10.0f, 0.0f), storageMode);
+                particleSystemManager.addEmitter(emitter);
+                emitters.add(emitter);
+            }
+
+            ElapsedTime elapsedTime = EmitterTest.createElapsedTime();
+            int[] counts = new int[NUM_UPDATES];
+            for (int step = 0; step < NUM_UPDATES; step++) {
+                particleSystemManager.update(elapsedTime);
+                counts[step] = particleSystemManager.getNumUpdatedParticles();
+            }
+            List<float[]> particles = new ArrayList<>();
+            for (Emitter emitter : emitters)
+                particles.add(positions(emitter));
+            particleSystemManager.setUpdateThreads(1);
+
+            if (expectedCounts == null) {
+                expectedCounts = counts;
+                expectedParticles = particles;
+                assertTrue(counts[NUM_UPDATES - 1] > 0);
+            } else {
+                assertArrayEquals(numThreads + " threads", expectedCounts, counts);
+                for (int idx = 0; idx < NUM_EMITTERS; idx++)
+                    assertArrayEquals(numThreads + " threads, emitter " + idx,
+                            expectedParticles.get(idx), particles.get(idx), 0.0f);
+            }
+        }
+    }
+
+    /**
+     * Return the positions of an emitter's stored particles, in storage order
+     */
+    private static float[] positions(Emitter emitter) {
+        if (emitter.getStorageMode() == Emitter.StorageMode.Arrays) {
+            ParticleArrays particleArrays = emitter.getParticleArrays();
+            float[] positions = new float[particleArrays.getNumParticles() * 2];
+            for (int idx = 0; idx < particleArrays.getNumParticles(); idx++) {
+                positions[idx * 2] = particleArrays.positionX[idx];
+                positions[idx * 2 + 1] = particleArrays.positionY[idx];
+            }
+            return positions;
+        }
+
+        Particle[] particles = emitter.getParticleStorage();
+        float[] positions = new float[emitter.getNumParticles() * 2];
+        for (int idx = 0; idx < emitter.getNumParticles(); idx++) {
+            positions[idx * 2] = particles[idx].position.x;
+            positions[idx * 2 + 1] = particles[idx].position.y;
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,124 @@
+package uk.ac.qub.eeecs.gage.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import uk.ac.qub.eeecs.gage.world.GameObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks SpatialHashGrid queries, once filtered by an exact overlap test,
+ * give the same objects in the same order as a linear scan, including
+ * after objects are moved and removed.
+ *
+ * @version 1.0
+ */
+public class SpatialHashGridTest {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final float CELL_SIZE = 100.0f;
+    private static final float WORLD_SIZE = 5000.0f;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Tests
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void query_randomWorld_matchesLinearScan() {
+        Random random = new Random(1);
+        List<GameObject> objects = randomObjects(random, 2000);
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE);
+        grid.addAll(objects);
+        assertEquals(objects.size(), grid.size());
+
+        for (int query = 0; query < 500; query++)
+            assertQueryMatches(grid, objects, randomRegion(random));
+    }
+
+    @Test
+    public void update_movedObjects_matchesLinearScan() {
+        Random random = new Random(2);
+        List<GameObject> objects = randomObjects(random, 1000);
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE, 64);
+        grid.addAll(objects);
+
+        for (int step = 0; step < 20; step++) {
+            for (int idx = 0; idx < objects.size(); idx += 3) {
+                GameObject object = objects.get(idx);
+                object.getBound().x += random.nextFloat() * 300.0f - 150.0f;
+                object.getBound().y += random.nextFloat() * 300.0f - 150.0f;
+                grid.update(object);
+            }
+            for (int query = 0; query < 50; query++)
+                assertQueryMatches(grid, objects, randomRegion(random));
+        }
+    }
+
+    @Test
+    public void remove_objects_notReturned() {
+        Random random = new Random(3);
+        List<GameObject> objects = randomObjects(random, 500);
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE);
+        grid.addAll(objects);
+
+        List<GameObject> remaining = new ArrayList<>();
+        for (int idx = 0; idx < objects.size(); idx++) {
+            if (idx % 2 == 0)
+                assertTrue(grid.remove(objects.get(idx)));
+            else
+                remaining.add(objects.get(idx));
+        }
+        assertFalse(grid.remove(objects.get(0)));
+        assertFalse(grid.contains(objects.get(0)));
+        assertEquals(remaining.size(), grid.size());
+
+        for (int query = 0; query < 100; query++)
+            assertQueryMatches(grid, remaining, randomRegion(random));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Utility
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Check the grid candidates overlapping the region are those found by
+     * testing every object, in the same order
+     */
+    private static void assertQueryMatches(SpatialHashGrid grid, List<GameObject> objects, BoundingBox region) {
+        List<GameObject> expected = new ArrayList<>();
+        for (GameObject object : objects)
+            if (object.getBound().intersects(region))
+                expected.add(object);
+
+        List<GameObject> candidates = new ArrayList<>();
+        grid.query(region, candidates);
+        List<GameObject> actual = new ArrayList<>();
+        for (GameObject candidate : candidates)
+            if (candidate.getBound().intersects(region))
+                actual.add(candidate);
+
+        assertEquals(expected, actual);
+    }
+
+    private static List<GameObject> randomObjects(Random random, int count) {
+        List<GameObject> objects = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx++)
+            objects.add(new GameObject(random.nextFloat() * WORLD_SIZE, random.nextFloat() * WORLD_SIZE,
+                    10.0f + random.nextFloat() * 290.0f, 10.0f + random.nextFloat() * 290.0f, null, null));
+        return objects;
+    }
+
+    private static BoundingBox randomRegion(Random random) {
+        return new BoundingBox(random.nextFloat() * WORLD_SIZE, random.nextFloat() * WORLD_SIZE,
+                10.0f + random.nextFloat() * 400.0f, 10.0f + random.nextFloat() * 400.0f);
+    }
+}
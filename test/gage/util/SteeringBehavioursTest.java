@@ -0,0 +1,201 @@
+package uk.ac.qub.eeecs.gage.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import uk.ac.qub.eeecs.gage.world.Sprite;
+import uk.ac.qub.eeecs.gage.world.SpriteKinematics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that arrive and separate give the same results, bit for bit,
+ * when called from many threads at once as when called from one, that
+ * the SpriteKinematics versions match the Sprite versions, and that
+ * steerAll steers every sprite exactly as a serial loop does.
+ *
+ * @version 1.0
+ */
+public class SteeringBehavioursTest {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final int NUM_SPRITES = 400;
+    private static final int NUM_THREADS = 8;
+    private static final float SEPARATE_THRESHOLD = 60.0f;
+    private static final float REPULSION_DECAY = 0.5f;
+
+    private final Vector2 mTarget = new Vector2(500.0f, 400.0f);
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Tests
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void arriveAndSeparate_manyThreads_matchSerial() throws InterruptedException {
+        final List<Sprite> sprites = createSprites(NUM_SPRITES, 1);
+        final float[] expected = steerSerially(sprites);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(NUM_THREADS);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int thread = 0; thread < NUM_THREADS; thread++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Vector2 acceleration = new Vector2();
+                        start.await();
+                        for (int repeat = 0; repeat < 20; repeat++) {
+                            for (int idx = 0; idx < sprites.size(); idx++) {
+                                Sprite sprite = sprites.get(idx);
+                                SteeringBehaviours.arrive(sprite, mTarget, acceleration);
+                                assertBitsEqual(expected[idx * 4], acceleration.x);
+                                assertBitsEqual(expected[idx * 4 + 1], acceleration.y);
+                                SteeringBehaviours.separate(sprite, sprites,
+                                        SEPARATE_THRESHOLD, REPULSION_DECAY, acceleration);
+                                assertBitsEqual(expected[idx * 4 + 2], acceleration.x);
+                                assertBitsEqual(expected[idx * 4 + 3], acceleration.y);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        // Release every thread at once so their calls overlap
+        start.countDown();
+        done.await();
+        assertNull(String.valueOf(failure.get()), failure.get());
+    }
+
+    @Test
+    public void arriveAndSeparate_kinematics_matchSprites() {
+        List<Sprite> sprites = createSprites(NUM_SPRITES, 2);
+        float[] expected = steerSerially(sprites);
+        SpriteKinematics kinematics = createKinematics(sprites);
+
+        for (int idx = 0; idx < kinematics.count; idx++) {
+            SteeringBehaviours.arrive(kinematics, idx, mTarget.x, mTarget.y);
+            assertBitsEqual(expected[idx * 4], kinematics.accelerationX[idx]);
+            assertBitsEqual(expected[idx * 4 + 1], kinematics.accelerationY[idx]);
+            SteeringBehaviours.separate(kinematics, idx, SEPARATE_THRESHOLD, REPULSION_DECAY);
+            assertBitsEqual(expected[idx * 4 + 2], kinematics.accelerationX[idx]);
+            assertBitsEqual(expected[idx * 4 + 3], kinematics.accelerationY[idx]);
+        }
+    }
+
+    @Test
+    public void steerAll_manySprites_matchesSerialLoop() {
+        SpriteKinematics serial = createKinematics(createSprites(2000, 3));
+        SpriteKinematics parallel = createKinematics(createSprites(2000, 3));
+        SteeringBehaviours.Steering steering = new SteeringBehaviours.Steering() {
+            @Override
+            public void steer(SpriteKinematics kinematics, int index) {
+                // Reads every sprite's position, writes only its own acceleration
+                SteeringBehaviours.separate(kinematics, index, SEPARATE_THRESHOLD, REPULSION_DECAY);
+                if (kinematics.accelerationX[index] == 0.0f && kinematics.accelerationY[index] == 0.0f)
+                    SteeringBehaviours.arrive(kinematics, index, mTarget.x, mTarget.y);
+            }
+        };
+
+        for (int step = 0; step < 30; step++) {
+            for (int idx = 0; idx < serial.count; idx++)
+                steering.steer(serial, idx);
+            SteeringBehaviours.steerAll(parallel, steering);
+
+            for (int idx = 0; idx < serial.count; idx++) {
+                assertBitsEqual(serial.accelerationX[idx], parallel.accelerationX[idx]);
+                assertBitsEqual(serial.accelerationY[idx], parallel.accelerationY[idx]);
+            }
+            serial.integrate(1.0f / 60.0f);
+            parallel.integrate(1.0f / 60.0f);
+        }
+    }
+
+    @Test
+    public void steerAll_steeringFails_rethrowsFailure() {
+        SpriteKinematics kinematics = createKinematics(createSprites(2000, 4));
+        final IllegalStateException thrown = new IllegalStateException("Cannot steer");
+        try {
+            // Fail on the last sprite, which a worker steers
+            SteeringBehaviours.steerAll(kinematics, new SteeringBehaviours.Steering() {
+                @Override
+                public void steer(SpriteKinematics kinematics, int index) {
+                    if (index == kinematics.count - 1)
+                        throw thrown;
+                }
+            });
+            fail("Failure was not rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(thrown, e);
+        }
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Utility
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Return the arrive and separate accelerations of each sprite, worked
+     * out on this thread alone
+     */
+    private float[] steerSerially(List<Sprite> sprites) {
+        float[] accelerations = new float[sprites.size() * 4];
+        Vector2 acceleration = new Vector2();
+        for (int idx = 0; idx < sprites.size(); idx++) {
+            Sprite sprite = sprites.get(idx);
+            SteeringBehaviours.arrive(sprite, mTarget, acceleration);
+            accelerations[idx * 4] = acceleration.x;
+            accelerations[idx * 4 + 1] = acceleration.y;
+            SteeringBehaviours.separate(sprite, sprites,
+                    SEPARATE_THRESHOLD, REPULSION_DECAY, acceleration);
+            accelerations[idx * 4 + 2] = acceleration.x;
+            accelerations[idx * 4 + 3] = acceleration.y;
+        }
+        return accelerations;
+    }
+
+    /**
+     * Create sprites crowded together, so most are within the separate
+     * threshold of others
+     */
+    private static List<Sprite> createSprites(int numSprites, long seed) {
+        Random random = new Random(seed);
+        List<Sprite> sprites = new ArrayList<>(numSprites);
+        float size = (float) Math.sqrt(numSprites) * 20.0f;
+        for (int idx = 0; idx < numSprites; idx++) {
+            Sprite sprite = new Sprite(null);
+            sprite.position.set(random.nextFloat() * size, random.nextFloat() * size);
+            sprite.velocity.set(random.nextFloat() * 20.0f - 10.0f, random.nextFloat() * 20.0f - 10.0f);
+            sprite.maxAcceleration = 20.0f + random.nextFloat() * 40.0f;
+            sprite.maxVelocity = 10.0f + random.nextFloat() * 30.0f;
+            sprites.add(sprite);
+        }
+        return sprites;
+    }
+
+    private static SpriteKinematics createKinematics(List<Sprite> sprites) {
+        SpriteKinematics kinematics = new SpriteKinematics(sprites.size());
+        for (Sprite sprite : sprites)
+            kinematics.add(sprite);
+        return kinematics;
+    }
+
+    private static void assertBitsEqual(float expected, float actual) {
+        assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(actual));
+    }
+}
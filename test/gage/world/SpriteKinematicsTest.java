@@ -0,0 +1,135 @@
+package uk.ac.qub.eeecs.gage.world;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that SpriteKinematics moves sprites exactly as Sprite.update
+ * does, bit for bit, including when acceleration and velocity are
+ * clamped, and that adding beyond the capacity and removing sprites
+ * keep each sprite's state.
+ *
+ * @version 1.0
+ */
+public class SpriteKinematicsTest {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final int NUM_SPRITES = 1000;
+    private static final int NUM_STEPS = 200;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Tests
+    // /////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void update_randomSprites_matchesSpriteUpdate() {
+        Sprite[] expected = createSprites(NUM_SPRITES, 1);
+        Sprite[] actual = createSprites(NUM_SPRITES, 1);
+
+        // Start small so the arrays are grown as sprites are added
+        SpriteKinematics kinematics = new SpriteKinematics(16);
+        for (Sprite sprite : actual)
+            kinematics.add(sprite);
+
+        ElapsedTime elapsedTime = new ElapsedTime();
+        elapsedTime.stepTime = 1.0 / 60.0;
+        for (int step = 0; step < NUM_STEPS; step++) {
+            for (Sprite sprite : expected)
+                sprite.update(elapsedTime);
+            kinematics.update(elapsedTime);
+
+            // Position and orientation are written back every update
+            for (int idx = 0; idx < NUM_SPRITES; idx++) {
+                assertBitsEqual(expected[idx].position.x, actual[idx].position.x);
+                assertBitsEqual(expected[idx].position.y, actual[idx].position.y);
+                assertBitsEqual(expected[idx].orientation, actual[idx].orientation);
+            }
+        }
+
+        for (int idx = 0; idx < kinematics.count; idx++)
+            kinematics.store(idx);
+        for (int idx = 0; idx < NUM_SPRITES; idx++)
+            assertStateEqual(expected[idx], actual[idx]);
+    }
+
+    @Test
+    public void remove_middleSprite_movesLastSpriteIntoPlace() {
+        Sprite[] sprites = createSprites(3, 2);
+        SpriteKinematics kinematics = new SpriteKinematics(1);
+        for (Sprite sprite : sprites)
+            kinematics.add(sprite);
+
+        kinematics.remove(0);
+
+        assertEquals(2, kinematics.count);
+        assertSame(sprites[2], kinematics.sprites[0]);
+        assertSame(sprites[1], kinematics.sprites[1]);
+
+        // The moved sprite's state moves with it
+        Sprite[] copies = createSprites(3, 2);
+        kinematics.store(0);
+        kinematics.store(1);
+        assertStateEqual(copies[2], sprites[2]);
+        assertStateEqual(copies[1], sprites[1]);
+
+        try {
+            kinematics.remove(2);
+            fail("Removed a sprite past the last one");
+        } catch (IndexOutOfBoundsException e) {
+            // Expected
+        }
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods: Utility
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create sprites with random motion. Some are left unclamped and the
+     * rest are given limits that their motion exceeds.
+     */
+    private static Sprite[] createSprites(int numSprites, long seed) {
+        Random random = new Random(seed);
+        Sprite[] sprites = new Sprite[numSprites];
+        for (int idx = 0; idx < numSprites; idx++) {
+            Sprite sprite = new Sprite(null);
+            sprite.position.set(random.nextFloat() * 1000.0f, random.nextFloat() * 1000.0f);
+            sprite.velocity.set(random.nextFloat() * 50.0f - 25.0f, random.nextFloat() * 50.0f - 25.0f);
+            sprite.acceleration.set(random.nextFloat() * 200.0f - 100.0f, random.nextFloat() * 200.0f - 100.0f);
+            sprite.maxAcceleration = idx % 3 == 0 ? Float.MAX_VALUE : random.nextFloat() * 80.0f;
+            sprite.maxVelocity = idx % 4 == 0 ? Float.MAX_VALUE : random.nextFloat() * 60.0f;
+            sprite.angularAcceleration = random.nextFloat() * 20.0f - 10.0f;
+            sprite.angularVelocity = random.nextFloat() * 4.0f - 2.0f;
+            sprite.maxAngularAcceleration = random.nextFloat() * 8.0f;
+            sprite.maxAngularVelocity = idx % 2 == 0 ? Float.MAX_VALUE : random.nextFloat() * 3.0f;
+            sprites[idx] = sprite;
+        }
+        return sprites;
+    }
+
+    private static void assertStateEqual(Sprite expected, Sprite actual) {
+        assertBitsEqual(expected.position.x, actual.position.x);
+        assertBitsEqual(expected.position.y, actual.position.y);
+        assertBitsEqual(expected.velocity.x, actual.velocity.x);
+        assertBitsEqual(expected.velocity.y, actual.velocity.y);
+        assertBitsEqual(expected.acceleration.x, actual.acceleration.x);
+        assertBitsEqual(expected.acceleration.y, actual.acceleration.y);
+        assertBitsEqual(expected.orientation, actual.orientation);
+        assertBitsEqual(expected.angularVelocity, actual.angularVelocity);
+        assertBitsEqual(expected.angularAcceleration, actual.angularAcceleration);
+    }
+
+    private static void assertBitsEqual(float expected, float actual) {
+        assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(actual));
+    }
+}
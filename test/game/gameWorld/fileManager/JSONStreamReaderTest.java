@@ -0,0 +1,136 @@
+package uk.ac.qub.eeecs.game.gameWorld.fileManager;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <h1>JSON Stream Reader Test</h1>
+ * Checks entries streamed from a file hold the same values as the
+ * same file parsed into a JSONObject, that a bad entry stops only
+ * the rest of its own array, and that a file which isn't valid
+ * JSON is reported as unread.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class JSONStreamReaderTest {
+    private static final String WORLD =
+            "{\n" +
+            "  \"name\": \"Test \\\"World\\\"\",\n" +
+            "  \"map\": {\"width\": 40, \"height\": 30, \"tiles\": [[1, 2], [3, 4]]},\n" +
+            "  \"objects\": [\n" +
+            "    {\"type\": \"Wall\", \"x\": 10, \"y\": -5.5, \"solid\": true},\n" +
+            "    {\"type\": \"NPC\", \"x\": 3000000000, \"y\": 1.5e2, \"dialog\": [\"Hi\", \"Bye\"], \"item\": null},\n" +
+            "    {\"type\": \"Shop\", \"x\": 0, \"y\": 0, \"items\": {\"sword\": 20, \"shield\": 15}}\n" +
+            "  ],\n" +
+            "  \"version\": 2\n" +
+            "}";
+
+    @Test
+    public void readEntries_matchesTreeParse() throws JSONException {
+        JSONObject tree = new JSONObject(WORLD);
+        final List<JSONObject> entries = new ArrayList<JSONObject>();
+        final JSONObject[] map = new JSONObject[1];
+        final String[] name = new String[1];
+        final int[] version = new int[1];
+
+        boolean read = new JSONStreamReader(bytes(WORLD), "world").read(new JSONStreamReader.PropertyHandler() {
+            @Override
+            public void handle(String property, JSONStreamReader reader) throws IOException, JSONException {
+                if (property.equals("objects")) {
+                    reader.readEntries(new JSONStreamReader.EntryHandler() {
+                        @Override
+                        public void handle(JSONObject entry) {
+                            entries.add(entry);
+                        }
+                    });
+                } else if (property.equals("map")) {
+                    map[0] = reader.readObject();
+                } else if (property.equals("name")) {
+                    name[0] = reader.readString();
+                } else if (property.equals("version")) {
+                    version[0] = reader.readInt();
+                } else {
+                    reader.skip();
+                }
+            }
+        });
+
+        assertTrue(read);
+        assertEquals(tree.getString("name"), name[0]);
+        assertEquals(tree.getInt("version"), version[0]);
+        assertEquals(tree.getJSONObject("map").toString(), map[0].toString());
+        assertEquals(tree.getJSONArray("objects").length(), entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            //same values stored as the same types
+            assertEquals(tree.getJSONArray("objects").getJSONObject(i).toString(), entries.get(i).toString());
+        }
+        assertEquals(3000000000L, entries.get(1).getLong("x"));
+        assertEquals(150.0, entries.get(1).getDouble("y"), 0.0);
+    }
+
+    @Test
+    public void readEntries_badEntry_skipsOnlyRestOfArray() {
+        final List<String> handled = new ArrayList<String>();
+        final JSONException[] failure = new JSONException[1];
+        final int[] version = new int[1];
+
+        boolean read = new JSONStreamReader(bytes(WORLD), "world").read(new JSONStreamReader.PropertyHandler() {
+            @Override
+            public void handle(String property, JSONStreamReader reader) throws IOException, JSONException {
+                if (property.equals("objects")) {
+                    try {
+                        reader.readEntries(new JSONStreamReader.EntryHandler() {
+                            @Override
+                            public void handle(JSONObject entry) throws JSONException {
+                                //NPC entry has no solid property
+                                entry.getBoolean("solid");
+                                handled.add(entry.getString("type"));
+                            }
+                        });
+                    } catch (JSONException e) {
+                        failure[0] = e;
+                    }
+                } else if (property.equals("version")) {
+                    version[0] = reader.readInt();
+                } else {
+                    reader.skip();
+                }
+            }
+        });
+
+        assertTrue(read);
+        assertEquals(1, handled.size());
+        assertEquals("Wall", handled.get(0));
+        assertNotNull(failure[0]);
+        //properties after the bad array are still read
+        assertEquals(2, version[0]);
+    }
+
+    @Test
+    public void read_invalidJSON_returnsFalse() {
+        boolean read = new JSONStreamReader(bytes("[1, 2, 3]"), "array").read(new JSONStreamReader.PropertyHandler() {
+            @Override
+            public void handle(String property, JSONStreamReader reader) throws IOException {
+                reader.skip();
+            }
+        });
+        assertFalse(read);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import uk.ac.qub.eeecs.gage.world.GameObject;
+import uk.ac.qub.eeecs.game.gameWorld.inventory.PreviewItem;
+import uk.ac.qub.eeecs.game.gameWorld.inventory.WorldItem;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.CollidableObject;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Gateway;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.MovingNPC;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC.NPC;
+import uk.ac.qub.eeecs.game.gameWorld.worldObjects.Shop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <h1>World Objects Test</h1>
+ * Checks each world object is put in the list of every type it
+ * is, in load order, and objects of no listed type are only kept
+ * in the list of all objects. Animated objects are left out as
+ * they need a game to load their animations.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class WorldObjectsTest {
+
+    @Test
+    public void constructor_mixedObjects_listsEachTypeInLoadOrder() {
+        CollidableObject wall = new CollidableObject(0, 0, 32, 32, null, null);
+        NPC shopkeeper = new NPC(10, 0, 32, 32, null, null, null, 12, 30);
+        MovingNPC villager = new MovingNPC(20, 0, 32, 32, null, false, 2);
+        Shop shop = new Shop(30, 0, 64, 64, null, new String[0], null);
+        WorldItem coin = new WorldItem(40, 0, 16, 16, null,
+                new PreviewItem("A coin", 1, null, "coin", "coin"));
+        MovingNPC guard = new MovingNPC(50, 0, 32, 32, null, true, 3);
+        Gateway door = new Gateway(60, 0, 32, 32, null, null, "house", 5, 5);
+        NPC elder = new NPC(70, 0, 32, 32, null, null, null, 12, 30);
+
+        ArrayList<GameObject> objects = new ArrayList<GameObject>(Arrays.asList(
+                wall, shopkeeper, villager, shop, coin, guard, door, elder));
+        WorldObjects worldObjects = new WorldObjects(objects);
+
+        assertSame(objects, worldObjects.getAll());
+        //moving NPCs are NPCs too
+        assertEquals(Arrays.asList(shopkeeper, villager, guard, elder), worldObjects.getNPCs());
+        assertEquals(Arrays.asList(villager, guard), worldObjects.getMovingNPCs());
+        assertEquals(Arrays.asList(shop), worldObjects.getShops());
+        assertEquals(Arrays.asList(coin), worldObjects.getWorldItems());
+        assertEquals(Arrays.asList(door), worldObjects.getGateways());
+        assertTrue(worldObjects.getAnimated().isEmpty());
+    }
+
+    @Test
+    public void constructor_staticObjectsOnly_listsNothing() {
+        ArrayList<GameObject> objects = new ArrayList<GameObject>();
+        for (int i = 0; i < 100; i++) {
+            objects.add(new CollidableObject(i * 32, 0, 32, 32, null, null));
+        }
+        WorldObjects worldObjects = new WorldObjects(objects);
+
+        assertEquals(100, worldObjects.getAll().size());
+        assertTrue(worldObjects.getNPCs().isEmpty());
+        assertTrue(worldObjects.getMovingNPCs().isEmpty());
+        assertTrue(worldObjects.getShops().isEmpty());
+        assertTrue(worldObjects.getWorldItems().isEmpty());
+        assertTrue(worldObjects.getGateways().isEmpty());
+        assertTrue(worldObjects.getAnimated().isEmpty());
+    }
+}
@@ -0,0 +1,165 @@
+package uk.ac.qub.eeecs.game.gameWorld.npcInteractions;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import uk.ac.qub.eeecs.gage.engine.ElapsedTime;
+import uk.ac.qub.eeecs.gage.engine.graphics.AbstractGraphics2D;
+import uk.ac.qub.eeecs.gage.world.LayerViewport;
+import uk.ac.qub.eeecs.gage.world.ScreenViewport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * <h1>Text Dialog Test</h1>
+ * Checks a dialog shows one more character of its message each
+ * frame until the whole message is shown, and that once warmed up
+ * drawing it from empty to fully shown allocates nothing.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class TextDialogTest {
+    //two lines of about 250 characters, the most a dialog shows
+    private static final int CHARACTERS_PER_LINE = 260;
+
+    private LayerViewport layerViewport = new LayerViewport(240, 160, 240, 160);
+    private ScreenViewport screenViewport = new ScreenViewport(0, 0, 1080, 720);
+    private ElapsedTime elapsedTime = new ElapsedTime();
+
+    @Test
+    public void draw_eachFrame_showsOneMoreCharacter() {
+        String message = createMessage(500);
+        TextDialog dialog = new TextDialog(null, message, CHARACTERS_PER_LINE);
+        dialog.setHidden(false);
+        TextGraphics2D graphics2D = new TextGraphics2D();
+
+        //message lines joined, as spaces at line breaks aren't drawn
+        String shownMessage = String.join("", dialog.message);
+        assertTrue(shownMessage.length() > 490);
+        for (int shown = 1; shown <= shownMessage.length(); shown++) {
+            graphics2D.text.setLength(0);
+            dialog.draw(elapsedTime, graphics2D, layerViewport, screenViewport);
+            assertEquals(shownMessage.substring(0, shown), graphics2D.text.toString());
+            assertFalse(dialog.completedMessage);
+        }
+        dialog.draw(elapsedTime, graphics2D, layerViewport, screenViewport);
+        assertTrue(dialog.completedMessage);
+    }
+
+    @Test
+    public void draw_afterWarmUp_allocatesNothing() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        TextDialog dialog = new TextDialog(null, createMessage(500), CHARACTERS_PER_LINE);
+        CountingGraphics2D graphics2D = new CountingGraphics2D();
+        long threadId = Thread.currentThread().getId();
+        long allocated = 0;
+        //warm up runs so only the steady state is measured
+        for (int run = 0; run < 5; run++) {
+            dialog.resetDialog();
+            dialog.setHidden(false);
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            while (!dialog.completedMessage) {
+                dialog.draw(elapsedTime, graphics2D, layerViewport, screenViewport);
+            }
+            allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+        }
+        assertTrue(graphics2D.characters > 490);
+        assertEquals(0, allocated);
+    }
+
+    /**
+     * Creates a message of the given length from short words
+     */
+    private static String createMessage(int length) {
+        StringBuilder message = new StringBuilder();
+        while (message.length() < length) {
+            message.append("word").append(message.length() % 7).append(' ');
+        }
+        return message.substring(0, length);
+    }
+
+    /**
+     * Graphics which counts drawn characters without keeping them
+     */
+    private static class CountingGraphics2D extends NullGraphics2D {
+        long characters;
+
+        @Override
+        public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+            characters += count;
+        }
+    }
+
+    /**
+     * Graphics which keeps the text drawn
+     */
+    private static class TextGraphics2D extends NullGraphics2D {
+        StringBuilder text = new StringBuilder();
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+            this.text.append(text);
+        }
+
+        @Override
+        public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+            this.text.append(text, index, count);
+        }
+    }
+
+    private static class NullGraphics2D extends AbstractGraphics2D {
+        @Override
+        public int getSurfaceWidth() {
+            return 1080;
+        }
+
+        @Override
+        public int getSurfaceHeight() {
+            return 720;
+        }
+
+        @Override
+        public void clipRect(Rect clipRegion) {
+        }
+
+        @Override
+        public void clear(int colour) {
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+        }
+
+        @Override
+        public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Rect srcRect, Rect desRect, Paint paint) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import uk.ac.qub.eeecs.gage.util.Vector2;
+import uk.ac.qub.eeecs.gage.world.GameObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * <h1>A* Search Test</h1>
+ * Checks AStarSearch finds shortest routes (against a breadth first
+ * search), that AStarNavigation.getPath returns them as pixel routes,
+ * and that searches stop allocating once warmed up.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class AStarSearchTest {
+    private static final int CELL_SIZE = AStarNavigation.CELL_SIZE;
+
+    @Test
+    public void search_randomGrids_findsShortestRoutes() {
+        Random random = new Random(2);
+        for (int run = 0; run < 50; run++) {
+            boolean[][] grid = randomGrid(random, 10 + random.nextInt(60), 10 + random.nextInt(60), 0.3f);
+            AStarSearch search = new AStarSearch(grid);
+            for (int query = 0; query < 20; query++) {
+                int startX = random.nextInt(grid.length), startY = random.nextInt(grid[0].length);
+                int targetX = random.nextInt(grid.length), targetY = random.nextInt(grid[0].length);
+                if (grid[startX][startY])
+                    continue;
+                int distance = breadthFirstDistance(grid, startX, startY, targetX, targetY);
+                boolean found = search.search(startX, startY, targetX, targetY);
+                assertEquals(distance != -1, found);
+                if (found) {
+                    assertEquals(distance + 1, search.getPathLength());
+                    assertRoute(grid, search, startX, startY, targetX, targetY);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void search_targetOffGrid_returnsFalse() {
+        AStarSearch search = new AStarSearch(new boolean[10][10]);
+        assertFalse(search.search(2, 2, 10, 2));
+        assertFalse(search.search(2, 2, -1, 2));
+        assertFalse(search.search(2, 2, 2, 10));
+        assertEquals(0, search.getPathLength());
+    }
+
+    @Test
+    public void getPath_returnsRouteInPixels() {
+        int size = 20 * CELL_SIZE;
+        AStarNavigation navigation = new AStarNavigation(new int[]{size, size},
+                new int[]{0, size, size, 0}, new ArrayList<GameObject>());
+        Vector2 start = new Vector2(2 * CELL_SIZE + 5, 3 * CELL_SIZE + 5);
+        Vector2 target = new Vector2(15 * CELL_SIZE + 20, 11 * CELL_SIZE + 1);
+
+        Vector2[] path = navigation.getPath(start, target);
+
+        assertNotNull(path);
+        //open grid, so the route is the manhattan distance between the cells
+        assertEquals(13 + 8 + 1, path.length);
+        assertEquals(2 * CELL_SIZE + CELL_SIZE / 2, path[0].x, 0.0f);
+        assertEquals(3 * CELL_SIZE + CELL_SIZE / 2, path[0].y, 0.0f);
+        assertEquals(15 * CELL_SIZE + CELL_SIZE / 2, path[path.length - 1].x, 0.0f);
+        assertEquals(11 * CELL_SIZE + CELL_SIZE / 2, path[path.length - 1].y, 0.0f);
+        for (int i = 1; i < path.length; i++) {
+            float step = Math.abs(path[i].x - path[i - 1].x) + Math.abs(path[i].y - path[i - 1].y);
+            assertEquals(CELL_SIZE, step, 0.0f);
+        }
+    }
+
+    @Test
+    public void search_afterWarmUp_allocatesNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        Random random = new Random(3);
+        boolean[][] grid = randomGrid(random, 100, 100, 0.2f);
+        AStarSearch search = new AStarSearch(grid);
+        int[] queries = new int[400];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextInt(100);
+        }
+        for (int warmUp = 0; warmUp < 20; warmUp++) {
+            runQueries(search, queries);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        int found = runQueries(search, queries);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(found > 0);
+        //allow for a few stray bytes from the measurement itself
+        assertTrue("allocated " + allocated + " bytes over " + queries.length / 4 + " searches",
+                allocated < 1024);
+    }
+
+    private static int runQueries(AStarSearch search, int[] queries) {
+        int found = 0;
+        for (int i = 0; i < queries.length; i += 4) {
+            if (search.search(queries[i], queries[i + 1], queries[i + 2], queries[i + 3]))
+                found++;
+        }
+        return found;
+    }
+
+    private static boolean[][] randomGrid(Random random, int width, int height, float blockedFraction) {
+        boolean[][] grid = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                grid[x][y] = random.nextFloat() < blockedFraction;
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the number of steps between two cells, or -1 if the
+     * target cannot be reached
+     */
+    private static int breadthFirstDistance(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+        int width = grid.length, height = grid[0].length;
+        if (grid[targetX][targetY])
+            return -1;
+        int[] distance = new int[width * height];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[width * height];
+        int head = 0, tail = 0;
+        distance[startY * width + startX] = 0;
+        queue[tail++] = startY * width + startX;
+        int[] dx = {-1, 0, 1, 0}, dy = {0, 1, 0, -1};
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width, y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + dx[d], ny = y + dy[d];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height || grid[nx][ny])
+                    continue;
+                int next = ny * width + nx;
+                if (distance[next] == -1) {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return distance[targetY * width + targetX];
+    }
+
+    /**
+     * Checks a found path runs from start to target through
+     * neighbouring, passable cells
+     */
+    private static void assertRoute(boolean[][] grid, PathSearch search, int startX, int startY, int targetX, int targetY) {
+        int last = search.getPathLength() - 1;
+        assertEquals(startX, search.getPathX(0));
+        assertEquals(startY, search.getPathY(0));
+        assertEquals(targetX, search.getPathX(last));
+        assertEquals(targetY, search.getPathY(last));
+        for (int step = 1; step <= last; step++) {
+            assertFalse(grid[search.getPathX(step)][search.getPathY(step)]);
+            int moved = Math.abs(search.getPathX(step) - search.getPathX(step - 1))
+                    + Math.abs(search.getPathY(step) - search.getPathY(step - 1));
+            assertEquals(1, moved);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package uk.ac.qub.eeecs.game.gameWorld.worldObjects.NPC;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <h1>Hierarchical Search Test</h1>
+ * Checks HierarchicalSearch finds a route whenever the flat AStarSearch
+ * does, with routes close to the shortest, and that searches sharing one
+ * ClusterGraph, including from several threads at once, find the same
+ * paths as a search which built its own graph.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class HierarchicalSearchTest {
+    private static final int CLUSTER_SIZE = AStarNavigation.CLUSTER_SIZE;
+    private static final int QUERIES = 200;
+
+    @Test
+    public void search_randomGrids_agreesWithFlatSearch() {
+        Random random = new Random(3);
+        long hierarchicalSteps = 0, shortestSteps = 0;
+        for (int run = 0; run < 12; run++) {
+            int size = 50 + random.nextInt(150);
+            boolean[][] grid = randomGrid(random, size, size, 0.1f + random.nextFloat() * 0.2f);
+            AStarSearch flat = new AStarSearch(grid);
+            HierarchicalSearch hierarchical = new HierarchicalSearch(grid, CLUSTER_SIZE);
+            int[] queries = randomQueries(random, size, size);
+            for (int i = 0; i < queries.length; i += 4) {
+                int startX = queries[i], startY = queries[i + 1];
+                int targetX = queries[i + 2], targetY = queries[i + 3];
+                boolean found = flat.search(startX, startY, targetX, targetY);
+                assertEquals(found, hierarchical.search(startX, startY, targetX, targetY));
+                if (found) {
+                    assertRoute(grid, hierarchical, startX, startY, targetX, targetY);
+                    assertTrue(hierarchical.getPathLength() >= flat.getPathLength());
+                    hierarchicalSteps += hierarchical.getPathLength() - 1;
+                    shortestSteps += flat.getPathLength() - 1;
+                }
+            }
+        }
+        //near optimal, rather than optimal, routes
+        assertTrue(hierarchicalSteps + " steps against " + shortestSteps + " shortest",
+                hierarchicalSteps <= shortestSteps * 1.1);
+    }
+
+    @Test
+    public void search_sharedGraph_matchesOwnGraph() {
+        Random random = new Random(4);
+        for (int run = 0; run < 20; run++) {
+            boolean[][] grid = randomGrid(random, 30 + random.nextInt(90), 30 + random.nextInt(90), 0.25f);
+            int[] queries = randomQueries(random, grid.length, grid[0].length);
+            int[][] expected = runQueries(new HierarchicalSearch(grid, CLUSTER_SIZE), queries);
+
+            ClusterGraph graph = new ClusterGraph(grid, CLUSTER_SIZE);
+            HierarchicalSearch first = new HierarchicalSearch(graph);
+            HierarchicalSearch second = new HierarchicalSearch(graph);
+            assertSame(graph, first.getGraph());
+            //interleaved, so any state kept in the graph would show up as a different path
+            for (int i = 0; i < queries.length / 4; i++) {
+                assertArrayEquals(expected[i], runQuery(first, queries, i));
+                assertArrayEquals(expected[i], runQuery(second, queries, i));
+            }
+        }
+    }
+
+    @Test
+    public void search_sharedGraphOnManyThreads_matchesSerial() throws InterruptedException {
+        Random random = new Random(5);
+        final boolean[][] grid = randomGrid(random, 150, 150, 0.25f);
+        final int[] queries = randomQueries(random, grid.length, grid[0].length);
+        final int[][] expected = runQueries(new HierarchicalSearch(grid, CLUSTER_SIZE), queries);
+        final ClusterGraph graph = new ClusterGraph(grid, CLUSTER_SIZE);
+
+        int threadCount = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int t = 0; t < threadCount; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        HierarchicalSearch search = new HierarchicalSearch(graph);
+                        start.await();
+                        for (int repeat = 0; repeat < 5; repeat++) {
+                            for (int i = 0; i < queries.length / 4; i++) {
+                                assertArrayEquals(expected[i], runQuery(search, queries, i));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        assertNull(String.valueOf(failure.get()), failure.get());
+    }
+
+    @Test
+    public void setGraph_differentSizes_resizesSearchState() {
+        Random random = new Random(6);
+        boolean[][] small = randomGrid(random, 20, 20, 0.2f);
+        boolean[][] large = randomGrid(random, 90, 70, 0.2f);
+        int[] queries = randomQueries(random, 20, 20);
+        int[][] expected = runQueries(new HierarchicalSearch(small, CLUSTER_SIZE), queries);
+
+        HierarchicalSearch search = new HierarchicalSearch(new ClusterGraph(small, CLUSTER_SIZE));
+        search.setGraph(new ClusterGraph(large, CLUSTER_SIZE));
+        runQueries(search, randomQueries(random, 90, 70));
+        search.setGraph(new ClusterGraph(small, CLUSTER_SIZE));
+
+        int[][] actual = runQueries(search, queries);
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual[i]);
+        }
+    }
+
+    private static int[][] runQueries(HierarchicalSearch search, int[] queries) {
+        int[][] paths = new int[queries.length / 4][];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = runQuery(search, queries, i);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the path of a query as x,y pairs, or an empty
+     * array if no path was found
+     */
+    private static int[] runQuery(HierarchicalSearch search, int[] queries, int query) {
+        int i = query * 4;
+        if (!search.search(queries[i], queries[i + 1], queries[i + 2], queries[i + 3]))
+            return new int[0];
+        int[] path = new int[search.getPathLength() * 2];
+        for (int step = 0; step < search.getPathLength(); step++) {
+            path[step * 2] = search.getPathX(step);
+            path[step * 2 + 1] = search.getPathY(step);
+        }
+        return path;
+    }
+
+    /**
+     * Checks a found path runs from start to target through
+     * neighbouring cells, all passable other than the start
+     */
+    private static void assertRoute(boolean[][] grid, PathSearch search, int startX, int startY, int targetX, int targetY) {
+        int last = search.getPathLength() - 1;
+        assertEquals(startX, search.getPathX(0));
+        assertEquals(startY, search.getPathY(0));
+        assertEquals(targetX, search.getPathX(last));
+        assertEquals(targetY, search.getPathY(last));
+        for (int step = 1; step <= last; step++) {
+            assertFalse(grid[search.getPathX(step)][search.getPathY(step)]);
+            int moved = Math.abs(search.getPathX(step) - search.getPathX(step - 1))
+                    + Math.abs(search.getPathY(step) - search.getPathY(step - 1));
+            assertEquals(1, moved);
+        }
+    }
+
+    private static int[] randomQueries(Random random, int width, int height) {
+        int[] queries = new int[QUERIES * 4];
+        for (int i = 0; i < queries.length; i += 4) {
+            queries[i] = random.nextInt(width);
+            queries[i + 1] = random.nextInt(height);
+            queries[i + 2] = random.nextInt(width);
+            queries[i + 3] = random.nextInt(height);
+        }
+        return queries;
+    }
+
+    private static boolean[][] randomGrid(Random random, int width, int height, float blockedFraction) {
+        boolean[][] grid = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                grid[x][y] = random.nextFloat() < blockedFraction;
+            }
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,56 @@
+package uk.ac.qub.eeecs.game.tools;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <h1>Log Test</h1>
+ * Checks the log is drained by update whether or not it is shown,
+ * so records aren't lost whilst hidden, and that errors are kept
+ * apart from their message until written.
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class LogTest {
+
+    @Test
+    public void update_whileHidden_losesNoLogs() throws IOException {
+        Log log = new Log();
+        assertFalse(log.isVisible());
+        //more logs than the buffer holds, drained by an update every 100
+        for (int frame = 0; frame < 10; frame++) {
+            for (int i = 0; i < 100; i++) {
+                //a tag per log so none are rate limited
+                log.addLog("Tag" + (frame * 100 + i), "message");
+            }
+            log.update();
+        }
+
+        StringWriter writer = new StringWriter();
+        log.writeTo(writer);
+        assertEquals("", writer.toString());
+        for (String line : log.lines) {
+            assertFalse(line, line != null && line.contains("lost"));
+        }
+        assertNotNull(log.lines[0]);
+    }
+
+    @Test
+    public void addLog_withError_writesErrorAfterMessage() throws IOException {
+        Log log = new Log();
+        log.addLog("AsyncPathfinder", "Path search failed", new IllegalStateException("grid changed"));
+
+        StringWriter writer = new StringWriter();
+        log.writeTo(writer);
+        assertTrue(writer.toString(), writer.toString().endsWith(
+                " AsyncPathfinder: Path search failed: java.lang.IllegalStateException: grid changed\n"));
+    }
+}
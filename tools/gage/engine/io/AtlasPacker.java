@@ -0,0 +1,248 @@
+package uk.ac.qub.eeecs.gage.engine.io;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Build tool which packs the small bitmaps listed in an asset JSON file
+ * (see AssetManager.loadAssets) into power-of-two atlas sheets, and writes
+ * a JSON index of the sheets for TextureAtlas.
+ * <p>
+ * Run with the assets directory and the asset file to pack, e.g.
+ * AtlasPacker app/src/main/assets txt/assets/ItemImages.JSON
+ * For ItemImages.JSON the sheets are written to img/atlas/ItemImages0.png,
+ * ItemImages1.png, ... and the index to txt/assets/ItemImagesAtlas.JSON.
+ * <p>
+ * Adding an Atlas entry for the index before the bitmaps in the asset file
+ * then makes AssetManager use the packed images. The Bitmap entries can be
+ * left in place as they are skipped once the atlas holds them.
+ *
+ * @version 1.0
+ */
+public class AtlasPacker {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Largest sheet size
+     */
+    public static final int MAX_SHEET_SIZE = 2048;
+
+    /**
+     * Smallest sheet size
+     */
+    public static final int MIN_SHEET_SIZE = 64;
+
+    /**
+     * Bitmaps wider or taller than this are left unpacked
+     */
+    public static final int MAX_PACKED_SIZE = 256;
+
+    /**
+     * Transparent gap left around each image, so filtering does not blend
+     * in neighbouring images when a region is scaled
+     */
+    public static final int PADDING = 2;
+
+    /**
+     * Image waiting to be packed
+     */
+    private static class Entry {
+        String name;
+        PngImage image;
+        int x, y;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Pack the bitmaps of an asset file
+     *
+     * @param args Assets directory and asset file (relative to the assets directory)
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: AtlasPacker <assets directory> <asset file>");
+            return;
+        }
+        File assetDirectory = new File(args[0]);
+        String assetFile = args[1];
+        String atlasName = new File(assetFile).getName();
+        atlasName = atlasName.substring(0, atlasName.lastIndexOf('.'));
+
+        try {
+            List<Entry> entries = readEntries(assetDirectory, assetFile);
+            String indexFile = new File(new File(assetFile).getParent(), atlasName + "Atlas.JSON").getPath();
+            JSONObject index = pack(assetDirectory, atlasName, entries);
+
+            Writer out = new OutputStreamWriter(
+                    new FileOutputStream(new File(assetDirectory, indexFile)), "UTF-8");
+            try {
+                out.write(index.toString(2));
+            } finally {
+                out.close();
+            }
+
+            System.out.println("Packed " + entries.size() + " bitmaps into "
+                    + index.getJSONArray("sheets").length() + " sheets");
+            System.out.println("Add to the start of " + assetFile + ":");
+            System.out.println("{ \"type\": \"Atlas\", \"name\": \"" + atlasName
+                    + "Atlas\", \"file\": \"" + indexFile.replace(File.separatorChar, '/') + "\" }");
+        } catch (JSONException e) {
+            throw new IOException("AtlasPacker: JSON parsing error [" + e.getMessage() + "]");
+        }
+    }
+
+    /**
+     * Read the bitmaps of the asset file which are small enough to pack
+     */
+    private static List<Entry> readEntries(File assetDirectory, String assetFile)
+            throws IOException, JSONException {
+        String loadedJSON = new String(
+                Files.readAllBytes(new File(assetDirectory, assetFile).toPath()), "UTF-8");
+        JSONArray assets = new JSONObject(loadedJSON).getJSONArray("assets");
+
+        List<Entry> entries = new ArrayList<>();
+        for (int idx = 0; idx < assets.length(); idx++) {
+            JSONObject asset = assets.getJSONObject(idx);
+            if (!asset.getString("type").equals("Bitmap"))
+                continue;
+
+            String fileName = asset.getString("file");
+            PngImage image;
+            try {
+                image = PngImage.read(new File(assetDirectory, fileName));
+            } catch (IOException e) {
+                System.out.println("Skipped " + fileName + ": " + e.getMessage());
+                continue;
+            }
+            if (image.width > MAX_PACKED_SIZE || image.height > MAX_PACKED_SIZE) {
+                System.out.println("Skipped " + fileName + ": larger than " + MAX_PACKED_SIZE);
+                continue;
+            }
+
+            Entry entry = new Entry();
+            entry.name = asset.getString("name");
+            entry.image = image;
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Pack the entries into as few sheets as possible, write the sheets
+     * and return the atlas index
+     */
+    private static JSONObject pack(File assetDirectory, String atlasName, List<Entry> entries)
+            throws IOException, JSONException {
+        // Tallest first, so each shelf is filled with images of similar height
+        List<Entry> remaining = new ArrayList<>(entries);
+        Collections.sort(remaining, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                if (a.image.height != b.image.height)
+                    return b.image.height - a.image.height;
+                return b.image.width - a.image.width;
+            }
+        });
+
+        File sheetDirectory = new File(assetDirectory, "img/atlas");
+        if (!sheetDirectory.isDirectory() && !sheetDirectory.mkdirs())
+            throw new IOException("Cannot create " + sheetDirectory);
+
+        JSONArray sheets = new JSONArray();
+        while (!remaining.isEmpty()) {
+            // Start from the smallest square which could hold every image, and
+            // grow a side at a time until they fit or the sheet is full size
+            long area = 0;
+            for (Entry entry : remaining)
+                area += (long) (entry.image.width + PADDING) * (entry.image.height + PADDING);
+            int width = MIN_SHEET_SIZE;
+            while ((long) width * width < area && width < MAX_SHEET_SIZE)
+                width *= 2;
+            int height = width;
+
+            List<Entry> placed = place(remaining, width, height);
+            while (placed.size() < remaining.size()
+                    && (width < MAX_SHEET_SIZE || height < MAX_SHEET_SIZE)) {
+                if (height < width)
+                    height *= 2;
+                else
+                    width *= 2;
+                placed = place(remaining, width, height);
+            }
+
+            // Write the sheet and its regions
+            PngImage sheet = new PngImage(width, height);
+            JSONArray regions = new JSONArray();
+            for (Entry entry : placed) {
+                sheet.draw(entry.image, entry.x, entry.y);
+                JSONObject region = new JSONObject();
+                region.put("name", entry.name);
+                region.put("x", entry.x);
+                region.put("y", entry.y);
+                region.put("width", entry.image.width);
+                region.put("height", entry.image.height);
+                regions.put(region);
+            }
+            String sheetFile = "img/atlas/" + atlasName + sheets.length() + ".png";
+            sheet.write(new File(assetDirectory, sheetFile));
+
+            JSONObject sheetDetails = new JSONObject();
+            sheetDetails.put("file", sheetFile);
+            sheetDetails.put("regions", regions);
+            sheets.put(sheetDetails);
+
+            remaining.removeAll(placed);
+        }
+
+        JSONObject index = new JSONObject();
+        index.put("sheets", sheets);
+        return index;
+    }
+
+    /**
+     * Place entries on shelves across a sheet of the given size
+     *
+     * @return Entries which fit, with their positions set
+     */
+    private static List<Entry> place(List<Entry> entries, int width, int height) {
+        List<Entry> placed = new ArrayList<>();
+        int x = PADDING, y = PADDING, shelfHeight = 0;
+        for (Entry entry : entries) {
+            if (entry.image.width + 2 * PADDING > width)
+                continue;
+            if (x + entry.image.width + PADDING > width) {
+                x = PADDING;
+                y += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            if (y + entry.image.height + PADDING > height)
+                continue;
+
+            entry.x = x;
+            entry.y = y;
+            placed.add(entry);
+            x += entry.image.width + PADDING;
+            shelfHeight = Math.max(shelfHeight, entry.image.height);
+        }
+        return placed;
+    }
+}
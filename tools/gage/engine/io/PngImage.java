@@ -0,0 +1,336 @@
+package uk.ac.qub.eeecs.gage.engine.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Minimal PNG reader and writer used by AtlasPacker, which runs at build
+ * time where android.graphics is not available. Reads non-interlaced
+ * images of any colour type and bit depth, and writes 8-bit RGBA.
+ *
+ * @version 1.0
+ */
+final class PngImage {
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Properties
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+    private static final int GREYSCALE = 0;
+    private static final int TRUECOLOUR = 2;
+    private static final int INDEXED = 3;
+    private static final int GREYSCALE_ALPHA = 4;
+    private static final int TRUECOLOUR_ALPHA = 6;
+
+    /**
+     * Size of the image
+     */
+    final int width;
+    final int height;
+
+    /**
+     * Pixels in row order, as ARGB
+     */
+    final int[] pixels;
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Constructors
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Create a new, fully transparent image
+     *
+     * @param width  Width of the image
+     * @param height Height of the image
+     */
+    PngImage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        pixels = new int[width * height];
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Methods
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Copy the specified image into this image
+     *
+     * @param image Image to copy
+     * @param x     Left of the copy in this image
+     * @param y     Top of the copy in this image
+     */
+    void draw(PngImage image, int x, int y) {
+        for (int row = 0; row < image.height; row++)
+            System.arraycopy(image.pixels, row * image.width,
+                    pixels, (y + row) * width + x, image.width);
+    }
+
+    /**
+     * Read the specified PNG file
+     *
+     * @param file File to read
+     * @return Decoded image
+     * @throws IOException if the file cannot be read or is not a supported PNG
+     */
+    static PngImage read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            byte[] signature = new byte[SIGNATURE.length];
+            in.readFully(signature);
+            for (int idx = 0; idx < SIGNATURE.length; idx++)
+                if (signature[idx] != SIGNATURE[idx])
+                    throw new IOException("Not a PNG [" + file + "]");
+
+            int width = 0, height = 0, bitDepth = 0, colourType = 0;
+            int[] palette = null;
+            byte[] transparency = null;
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+            while (true) {
+                int length = in.readInt();
+                byte[] typeBytes = new byte[4];
+                in.readFully(typeBytes);
+                String type = new String(typeBytes, "US-ASCII");
+                byte[] chunk = new byte[length];
+                in.readFully(chunk);
+                in.readInt(); // CRC
+
+                if (type.equals("IHDR")) {
+                    DataInputStream header = new DataInputStream(new ByteArrayInputStream(chunk));
+                    width = header.readInt();
+                    height = header.readInt();
+                    bitDepth = header.readUnsignedByte();
+                    colourType = header.readUnsignedByte();
+                    header.readUnsignedByte(); // compression
+                    header.readUnsignedByte(); // filter
+                    if (header.readUnsignedByte() != 0)
+                        throw new IOException("Interlaced PNGs are not supported [" + file + "]");
+                } else if (type.equals("PLTE")) {
+                    palette = new int[length / 3];
+                    for (int idx = 0; idx < palette.length; idx++)
+                        palette[idx] = 0xFF000000 | (chunk[idx * 3] & 0xFF) << 16
+                                | (chunk[idx * 3 + 1] & 0xFF) << 8 | (chunk[idx * 3 + 2] & 0xFF);
+                } else if (type.equals("tRNS")) {
+                    transparency = chunk;
+                } else if (type.equals("IDAT")) {
+                    data.write(chunk);
+                } else if (type.equals("IEND")) {
+                    break;
+                }
+            }
+
+            if (colourType == INDEXED) {
+                if (palette == null)
+                    throw new IOException("Missing palette [" + file + "]");
+                if (transparency != null)
+                    for (int idx = 0; idx < transparency.length && idx < palette.length; idx++)
+                        palette[idx] = (palette[idx] & 0xFFFFFF) | (transparency[idx] & 0xFF) << 24;
+            }
+
+            return decode(data.toByteArray(), width, height, bitDepth, colourType,
+                    palette, transparency);
+        } catch (EOFException e) {
+            throw new IOException("Truncated PNG [" + file + "]");
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Inflate and unfilter the image data, and convert it to ARGB
+     */
+    private static PngImage decode(byte[] data, int width, int height, int bitDepth, int colourType,
+                                   int[] palette, byte[] transparency) throws IOException {
+        int channels;
+        switch (colourType) {
+            case GREYSCALE: case INDEXED: channels = 1; break;
+            case GREYSCALE_ALPHA: channels = 2; break;
+            case TRUECOLOUR: channels = 3; break;
+            case TRUECOLOUR_ALPHA: channels = 4; break;
+            default: throw new IOException("Unknown colour type " + colourType);
+        }
+        int bitsPerPixel = channels * bitDepth;
+        int stride = (width * bitsPerPixel + 7) / 8;
+        int bytesPerPixel = Math.max(1, bitsPerPixel / 8);
+
+        byte[] raw = new byte[height * (stride + 1)];
+        InputStream in = new InflaterInputStream(new ByteArrayInputStream(data));
+        int read = 0;
+        while (read < raw.length) {
+            int count = in.read(raw, read, raw.length - read);
+            if (count < 0)
+                throw new IOException("Truncated image data");
+            read += count;
+        }
+
+        // Reverse the filter applied to each row
+        for (int row = 0; row < height; row++) {
+            int start = row * (stride + 1) + 1;
+            int previous = start - (stride + 1);
+            int filter = raw[start - 1];
+            for (int idx = 0; idx < stride; idx++) {
+                int left = idx >= bytesPerPixel ? raw[start + idx - bytesPerPixel] & 0xFF : 0;
+                int up = row > 0 ? raw[previous + idx] & 0xFF : 0;
+                int upLeft = row > 0 && idx >= bytesPerPixel ? raw[previous + idx - bytesPerPixel] & 0xFF : 0;
+                int value = raw[start + idx] & 0xFF;
+                switch (filter) {
+                    case 0: break;
+                    case 1: value += left; break;
+                    case 2: value += up; break;
+                    case 3: value += (left + up) >> 1; break;
+                    case 4: value += paeth(left, up, upLeft); break;
+                    default: throw new IOException("Unknown filter " + filter);
+                }
+                raw[start + idx] = (byte) value;
+            }
+        }
+
+        // Colour key for greyscale and truecolour images
+        int key = -1;
+        if (transparency != null && colourType == GREYSCALE)
+            key = (transparency[0] & 0xFF) << 8 | (transparency[1] & 0xFF);
+        int[] rgbKey = null;
+        if (transparency != null && colourType == TRUECOLOUR) {
+            rgbKey = new int[3];
+            for (int idx = 0; idx < 3; idx++)
+                rgbKey[idx] = (transparency[idx * 2] & 0xFF) << 8 | (transparency[idx * 2 + 1] & 0xFF);
+        }
+
+        PngImage image = new PngImage(width, height);
+        int maxSample = (1 << bitDepth) - 1;
+        int[] samples = new int[channels];
+        for (int row = 0; row < height; row++) {
+            int start = row * (stride + 1) + 1;
+            for (int x = 0; x < width; x++) {
+                for (int channel = 0; channel < channels; channel++)
+                    samples[channel] = sample(raw, start, x * channels + channel, bitDepth);
+
+                int argb;
+                switch (colourType) {
+                    case INDEXED:
+                        argb = samples[0] < palette.length ? palette[samples[0]] : 0;
+                        break;
+                    case GREYSCALE: {
+                        int grey = samples[0] * 255 / maxSample;
+                        int alpha = samples[0] == key ? 0 : 255;
+                        argb = alpha << 24 | grey << 16 | grey << 8 | grey;
+                        break;
+                    }
+                    case GREYSCALE_ALPHA: {
+                        int grey = samples[0] * 255 / maxSample;
+                        argb = (samples[1] * 255 / maxSample) << 24 | grey << 16 | grey << 8 | grey;
+                        break;
+                    }
+                    case TRUECOLOUR: {
+                        boolean keyed = rgbKey != null && samples[0] == rgbKey[0]
+                                && samples[1] == rgbKey[1] && samples[2] == rgbKey[2];
+                        argb = (keyed ? 0 : 255) << 24 | (samples[0] * 255 / maxSample) << 16
+                                | (samples[1] * 255 / maxSample) << 8 | (samples[2] * 255 / maxSample);
+                        break;
+                    }
+                    default:
+                        argb = (samples[3] * 255 / maxSample) << 24 | (samples[0] * 255 / maxSample) << 16
+                                | (samples[1] * 255 / maxSample) << 8 | (samples[2] * 255 / maxSample);
+                        break;
+                }
+                image.pixels[row * width + x] = argb;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Read a sample of the specified bit depth from an unfiltered row
+     */
+    private static int sample(byte[] raw, int start, int index, int bitDepth) {
+        switch (bitDepth) {
+            case 8:
+                return raw[start + index] & 0xFF;
+            case 16:
+                return (raw[start + index * 2] & 0xFF) << 8 | (raw[start + index * 2 + 1] & 0xFF);
+            default:
+                int bit = index * bitDepth;
+                int shift = 8 - bitDepth - (bit & 7);
+                return ((raw[start + (bit >> 3)] & 0xFF) >> shift) & ((1 << bitDepth) - 1);
+        }
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int distanceLeft = Math.abs(estimate - left);
+        int distanceUp = Math.abs(estimate - up);
+        int distanceUpLeft = Math.abs(estimate - upLeft);
+        if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft)
+            return left;
+        return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+
+    /**
+     * Write the image as an 8-bit RGBA PNG
+     *
+     * @param file File to write
+     * @throws IOException if the file cannot be written
+     */
+    void write(File file) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(data);
+        byte[] row = new byte[width * 4 + 1];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = pixels[y * width + x];
+                row[x * 4 + 1] = (byte) (argb >> 16);
+                row[x * 4 + 2] = (byte) (argb >> 8);
+                row[x * 4 + 3] = (byte) argb;
+                row[x * 4 + 4] = (byte) (argb >>> 24);
+            }
+            deflater.write(row);
+        }
+        deflater.close();
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(width);
+        headerOut.writeInt(height);
+        headerOut.writeByte(8);
+        headerOut.writeByte(TRUECOLOUR_ALPHA);
+        headerOut.writeByte(0);
+        headerOut.writeByte(0);
+        headerOut.writeByte(0);
+
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            out.write(SIGNATURE);
+            writeChunk(out, "IHDR", header.toByteArray());
+            writeChunk(out, "IDAT", data.toByteArray());
+            writeChunk(out, "IEND", new byte[0]);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] chunk) throws IOException {
+        byte[] typeBytes = type.getBytes("US-ASCII");
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(chunk);
+        out.writeInt(chunk.length);
+        out.write(typeBytes);
+        out.write(chunk);
+        out.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,318 @@
+package uk.ac.qub.eeecs.game.gameWorld.fileManager.gameWorld;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * <h1>World Compiler</h1>
+ * Build tool which compiles world JSON files into the binary format
+ * read by BinaryWorld. Values are converted exactly as GameWorld
+ * converts them from JSON, so both give the same objects.
+ * Run with the assets directory holding the world files, e.g.
+ * WorldCompiler app/src/main/assets/txt/assets
+ * Every JSON file with a background is treated as a world and
+ * written alongside it with BinaryWorld.EXTENSION.
+ * The largest size each bitmap is declared at across the worlds is
+ * written to BinaryWorld.BITMAP_SIZES_FILE, so AssetManager can decode bitmaps
+ * no larger than they are drawn.
+ *
+ * Record fields by type:
+ * COLLIDABLE - bitmap, has collisionHeightModifier (0/1), collisionHeightModifier (float bits)
+ * ANIMATED - animation, animationName
+ * ENEMY - bitmap, chance, enemies list, solid (0/1)
+ * ANIMATED_ENEMY - animation, animationName, chance, enemies list, solid (0/1)
+ * GATEWAY - bitmap, worldkey, playerX, playerY
+ * NPC - NPC kind, bitmap or animation, worldkey or seekPlayer (0/1),
+ * playerX or movementSpeed, playerY, dialogs (JSON text)
+ * SHOP - bitmap, items list
+ * ITEM - name
+ *
+ * @author  Ben Andrew
+ * @version 1.0
+ */
+public class WorldCompiler {
+    private ArrayList<String> strings = new ArrayList<String>();
+    private HashMap<String, Integer> stringIndexes = new HashMap<String, Integer>();
+    private ArrayList<int[]> lists = new ArrayList<int[]>();
+    private ArrayList<float[]> recordBounds = new ArrayList<float[]>();
+    private ArrayList<int[]> recordFields = new ArrayList<int[]>();
+    private ArrayList<Integer> recordTypes = new ArrayList<Integer>();
+    //largest width & height each bitmap is declared at
+    private HashMap<String, float[]> bitmapSizes;
+
+    /**
+     * Compiles every world in the given directory
+     * @author Ben Andrew
+     * @param args String[] of directory holding world JSON files
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : ".");
+        File[] files = directory.listFiles();
+        if (files == null)
+            throw new IOException(directory + " is not a directory");
+        HashMap<String, float[]> bitmapSizes = new HashMap<String, float[]>();
+        for (File file : files) {
+            if (!file.getName().toUpperCase().endsWith(".JSON"))
+                continue;
+            try {
+                JSONObject json = new JSONObject(new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+                if (!json.has("background"))
+                    continue;
+                String name = file.getName().substring(0, file.getName().lastIndexOf('.'));
+                File output = new File(directory, name + BinaryWorld.EXTENSION);
+                int records = new WorldCompiler(bitmapSizes).compile(json, output);
+                System.out.println("Compiled " + file.getName() + " to " + output.getName() + " (" + records + " objects)");
+            } catch (JSONException e) {
+                System.out.println("Skipped " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        writeBitmapSizes(bitmapSizes, new File(directory, BinaryWorld.BITMAP_SIZES_FILE));
+        System.out.println("Wrote sizes of " + bitmapSizes.size() + " bitmaps to " + BinaryWorld.BITMAP_SIZES_FILE);
+    }
+
+    /**
+     * Creates a compiler which records the size of each bitmap the
+     * compiled worlds declare
+     * @author Ben Andrew
+     * @param bitmapSizes HashMap\<String, float[]> of largest width & height by bitmap, added to by compile
+     */
+    public WorldCompiler(HashMap<String, float[]> bitmapSizes) {
+        this.bitmapSizes = bitmapSizes;
+    }
+
+    /**
+     * Writes the bitmap sizes in the format read by AssetManager.loadBitmapSizes
+     * @author Ben Andrew
+     * @param bitmapSizes HashMap\<String, float[]> of largest width & height by bitmap
+     * @param output File to write the sizes to
+     * @throws IOException if output could not be written
+     */
+    private static void writeBitmapSizes(HashMap<String, float[]> bitmapSizes, File output) throws IOException {
+        try {
+            JSONArray bitmaps = new JSONArray();
+            for (String name : bitmapSizes.keySet()) {
+                JSONObject bitmap = new JSONObject();
+                bitmap.put("name", name);
+                bitmap.put("width", (int) Math.ceil(bitmapSizes.get(name)[0]));
+                bitmap.put("height", (int) Math.ceil(bitmapSizes.get(name)[1]));
+                bitmaps.put(bitmap);
+            }
+            JSONObject json = new JSONObject();
+            json.put("bitmaps", bitmaps);
+            Files.write(output.toPath(), json.toString(2).getBytes("UTF-8"));
+        } catch (JSONException e) {
+            throw new IOException("WorldCompiler: JSON error [" + e.getMessage() + "]");
+        }
+    }
+
+    /**
+     * Compiles a world and writes it to output
+     * @author Ben Andrew
+     * @param json JSONObject of the whole world file
+     * @param output File to write the compiled world to
+     * @return int of number of objects compiled
+     * @throws JSONException if a map property is missing
+     * @throws IOException if output could not be written
+     */
+    public int compile(JSONObject json, File output) throws JSONException, IOException {
+        int background = addString(json.getString("background"));
+        int[] map = {json.getInt("width"), json.getInt("height"), json.getInt("left"), json.getInt("right"), json.getInt("top"), json.getInt("bottom")};
+        //background is drawn over the whole world
+        addBitmapSize(json.getString("background"), map[0], map[1]);
+        for (int type = 0; type < BinaryWorld.TYPE_NAMES.length; type++) {
+            if (!json.has(BinaryWorld.TYPE_NAMES[type]))
+                continue;
+            JSONArray objects = json.getJSONArray(BinaryWorld.TYPE_NAMES[type]);
+            //like GameWorld, an object which can't be read stops the rest of its type
+            try {
+                for (int i = 0; i < objects.length(); i++)
+                    addRecord(type, objects.getJSONObject(i));
+            } catch (JSONException | NumberFormatException e) {
+                System.out.println("Stopped reading " + BinaryWorld.TYPE_NAMES[type] + ": " + e.getMessage());
+            }
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+        try {
+            out.writeInt(BinaryWorld.MAGIC);
+            out.writeInt(BinaryWorld.VERSION);
+            out.writeInt(strings.size());
+            out.writeInt(lists.size());
+            out.writeInt(recordTypes.size());
+            out.writeInt(background);
+            for (int value : map)
+                out.writeInt(value);
+            for (String string : strings) {
+                byte[] bytes = string.getBytes("UTF-8");
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            while (out.size() % 4 != 0)
+                out.writeByte(0);
+            for (int[] list : lists) {
+                out.writeInt(list.length);
+                for (int index : list)
+                    out.writeInt(index);
+            }
+            for (int i = 0; i < recordTypes.size(); i++) {
+                out.writeInt(recordTypes.get(i));
+                for (float value : recordBounds.get(i))
+                    out.writeFloat(value);
+                for (int value : recordFields.get(i))
+                    out.writeInt(value);
+            }
+        } finally {
+            out.close();
+        }
+        return recordTypes.size();
+    }
+
+    /**
+     * Converts a world object to a record of the given type
+     * @author Ben Andrew
+     * @param type int of record type (index of BinaryWorld.TYPE_NAMES)
+     * @param obj JSONObject of object properties
+     * @throws JSONException if a property is missing
+     */
+    private void addRecord(int type, JSONObject obj) throws JSONException {
+        float[] bounds = {Float.valueOf(obj.getString("x")), Float.valueOf(obj.getString("y")),
+                Float.valueOf(obj.getString("width")), Float.valueOf(obj.getString("height"))};
+        int[] fields = new int[BinaryWorld.FIELD_COUNT];
+        for (int i = 0; i < fields.length; i++)
+            fields[i] = BinaryWorld.NONE;
+        switch (type) {
+            case BinaryWorld.COLLIDABLE:
+                fields[0] = addString(obj.get("bitmap").toString());
+                try {
+                    fields[2] = Float.floatToIntBits(Float.valueOf(obj.getString("collisionHeightModifier")));
+                    fields[1] = 1;
+                } catch (Exception e) {
+                    fields[1] = 0;
+                }
+                break;
+            case BinaryWorld.ANIMATED:
+                fields[0] = addString(obj.getString("animation"));
+                fields[1] = addString(obj.getString("animationName"));
+                break;
+            case BinaryWorld.ENEMY:
+                fields[0] = addString(obj.getString("bitmap"));
+                fields[1] = Integer.valueOf(obj.get("chance").toString());
+                fields[2] = addList(obj.getJSONArray("enemies"));
+                fields[3] = obj.getBoolean("solid") ? 1 : 0;
+                break;
+            case BinaryWorld.ANIMATED_ENEMY:
+                fields[0] = addString(obj.getString("animation"));
+                fields[1] = addString(obj.getString("animationName"));
+                fields[2] = Integer.valueOf(obj.get("chance").toString());
+                fields[3] = addList(obj.getJSONArray("enemies"));
+                fields[4] = obj.getBoolean("solid") ? 1 : 0;
+                break;
+            case BinaryWorld.GATEWAY:
+                fields[0] = addString(obj.getString("bitmap"));
+                fields[1] = addString(obj.getString("worldkey"));
+                fields[2] = obj.getInt("playerX");
+                fields[3] = obj.getInt("playerY");
+                break;
+            case BinaryWorld.NPC:
+                if (obj.has("worldkey")) {
+                    fields[0] = BinaryWorld.NPC_WORLD_KEY;
+                    fields[1] = addString(obj.get("bitmap").toString());
+                    fields[2] = addString(obj.getString("worldkey"));
+                    fields[3] = obj.getInt("playerX");
+                    fields[4] = obj.getInt("playerY");
+                } else if (obj.has("animation")) {
+                    fields[0] = obj.has("dialogs") ? BinaryWorld.NPC_MOVING : BinaryWorld.NPC_MOVING_SILENT;
+                    fields[1] = addString(obj.getString("animation"));
+                    fields[2] = obj.getBoolean("seekPlayer") ? 1 : 0;
+                    fields[3] = obj.getInt("movementSpeed");
+                } else {
+                    fields[0] = BinaryWorld.NPC_PLAIN;
+                    fields[1] = addString(obj.get("bitmap").toString());
+                }
+                //dialogs are nested and only read for the few NPCs, so are kept as JSON
+                if (obj.has("dialogs"))
+                    fields[5] = addString(obj.getJSONArray("dialogs").toString());
+                break;
+            case BinaryWorld.SHOP:
+                fields[0] = addString(obj.get("bitmap").toString());
+                fields[1] = addList(obj.getJSONArray("items"));
+                break;
+            case BinaryWorld.ITEM:
+                fields[0] = addString(obj.getString("name"));
+                break;
+        }
+        //record the size the object's bitmap is drawn at
+        switch (type) {
+            case BinaryWorld.COLLIDABLE:
+            case BinaryWorld.ENEMY:
+            case BinaryWorld.GATEWAY:
+            case BinaryWorld.SHOP:
+                addBitmapSize(strings.get(fields[0]), bounds[2], bounds[3]);
+                break;
+            case BinaryWorld.NPC:
+                if (fields[0] == BinaryWorld.NPC_WORLD_KEY || fields[0] == BinaryWorld.NPC_PLAIN)
+                    addBitmapSize(strings.get(fields[1]), bounds[2], bounds[3]);
+                break;
+        }
+        recordTypes.add(type);
+        recordBounds.add(bounds);
+        recordFields.add(fields);
+    }
+
+    /**
+     * Keeps the largest width & height the bitmap is declared at
+     * @author Ben Andrew
+     * @param bitmap String of bitmap asset name
+     * @param width float of declared width
+     * @param height float of declared height
+     */
+    private void addBitmapSize(String bitmap, float width, float height) {
+        float[] size = bitmapSizes.get(bitmap);
+        if (size == null) {
+            bitmapSizes.put(bitmap, new float[]{width, height});
+        } else {
+            size[0] = Math.max(size[0], width);
+            size[1] = Math.max(size[1], height);
+        }
+    }
+
+    /**
+     * Adds a string to the string table if not already in it
+     * @param string String to add
+     * @return int of index of string
+     */
+    private int addString(String string) {
+        Integer index = stringIndexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            stringIndexes.put(string, index);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a list of strings to the list table
+     * @author Ben Andrew
+     * @param array JSONArray of strings
+     * @return int of index of list
+     * @throws JSONException if an entry could not be read
+     */
+    private int addList(JSONArray array) throws JSONException {
+        int[] list = new int[array.length()];
+        for (int i = 0; i < list.length; i++)
+            list[i] = addString(array.get(i).toString());
+        lists.add(list);
+        return lists.size() - 1;
+    }
+}